@@ -0,0 +1,66 @@
+package cs43.group4.benchmarks;
+
+import cs43.group4.core.DataLoader.Data;
+import cs43.group4.core.extended.DomainConstraintEvaluator;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * DomainConstraintEvaluator.isFeasible over a population. "random" candidates are usually
+ * rejected early; "feasible" candidates (current deployment, zero in no-flood zones) force the
+ * full Z x C scan.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConstraintBenchmark {
+
+    @Param({"142", "1000"})
+    public int Z;
+
+    @Param({"50", "150"})
+    public int populationSize;
+
+    @Param({"random", "feasible"})
+    public String candidate;
+
+    private Data data;
+    private double[][] candidates;
+
+    @Setup
+    public void setup() throws Exception {
+        Fixtures.Problem problem = new Fixtures.Problem(Fixtures.data(Z));
+        data = problem.data;
+        if ("feasible".equals(candidate)) {
+            candidates = new double[populationSize][problem.D];
+            for (double[] x : candidates) {
+                for (int i = 0; i < problem.Z; i++) {
+                    boolean noFlood = data.f[i] < 0.13;
+                    x[i * problem.C] = noFlood ? 0.0 : data.sarCurrent[i];
+                    x[i * problem.C + 1] = noFlood ? 0.0 : data.emsCurrent[i];
+                }
+            }
+        } else {
+            candidates = problem.randomCandidates(populationSize, Fixtures.SEED);
+        }
+    }
+
+    @Benchmark
+    public void isFeasible(Blackhole bh) {
+        for (double[] x : candidates) bh.consume(DomainConstraintEvaluator.isFeasible(x, data, data.Z, data.C));
+    }
+}
@@ -0,0 +1,44 @@
+package cs43.group4.benchmarks;
+
+import cs43.group4.core.DataLoader;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** DataLoader.load of a Z-row barangays file, CSV or binary (parsing plus derived arrays). */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DataLoaderBenchmark {
+
+    @Param({"142", "1000", "10000"})
+    public int Z;
+
+    @Param({"csv", "bin"})
+    public String format;
+
+    private Path file;
+
+    @Setup
+    public void setup() throws Exception {
+        file = Fixtures.fileWithRows(Z, format);
+    }
+
+    @Benchmark
+    public DataLoader.Data load() throws Exception {
+        return DataLoader.load(file);
+    }
+}
@@ -0,0 +1,100 @@
+package cs43.group4.benchmarks;
+
+import cs43.group4.core.AllocationProblem;
+import cs43.group4.core.ExtendedFireflyAlgorithm;
+import cs43.group4.core.Optimizer;
+import cs43.group4.parameters.EFAParams;
+import cs43.group4.parameters.FAParams;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Raw against simplex decision encoding: one FA / EFA generation with default parameters, and
+ * AllocationProblem.evaluate over a population of encoded candidates (decoding included under
+ * simplex).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EncodingBenchmark {
+
+    @Param({"142", "1000"})
+    public int Z;
+
+    @Param({"raw", "simplex"})
+    public String encoding;
+
+    private AllocationProblem problem;
+    private double[][] candidates;
+
+    @State(Scope.Thread)
+    public static class FaRun extends OptimizerRun {
+        @Setup(Level.Trial)
+        public void bind(EncodingBenchmark benchmark) {
+            useFa(benchmark::newFa);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class EfaRun extends OptimizerRun {
+        @Setup(Level.Trial)
+        public void bind(EncodingBenchmark benchmark) {
+            useEfa(benchmark::newEfa);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void loadProblem() throws Exception {
+        problem = Fixtures.allocationProblem(Z, encoding);
+        Random rnd = new Random(Fixtures.SEED);
+        candidates = new double[50][problem.D];
+        for (double[] x : candidates) {
+            for (int d = 0; d < problem.D; d++) {
+                x[d] = problem.lower[d] + rnd.nextDouble() * (problem.upper[d] - problem.lower[d]);
+            }
+        }
+    }
+
+    private Optimizer newFa() {
+        FAParams params = new FAParams();
+        params.encoding = encoding;
+        return problem.newFA(params, new Random(Fixtures.SEED));
+    }
+
+    private ExtendedFireflyAlgorithm newEfa() {
+        EFAParams params = new EFAParams();
+        params.encoding = encoding;
+        return problem.newEFA(params, new Random(Fixtures.SEED));
+    }
+
+    @Benchmark
+    public double faGeneration(FaRun run) {
+        return run.nextGeneration();
+    }
+
+    @Benchmark
+    public double efaGeneration(EfaRun run) {
+        return run.nextGeneration();
+    }
+
+    @Benchmark
+    public void evaluatePopulation(Blackhole bh) {
+        for (double[] x : candidates) bh.consume(problem.evaluate(x));
+    }
+}
@@ -0,0 +1,44 @@
+package cs43.group4.benchmarks;
+
+import cs43.group4.core.FastExp;
+
+/**
+ * Checks FastExp.expNeg against Math.exp: a dense sweep of [0, 50], where γr² of the
+ * attractiveness lands, and a coarser one of the whole range up to 1022·ln 2 beyond which expNeg
+ * returns 0. Prints the largest relative error of each and exits with status 1 if either exceeds
+ * FastExp.MAX_RELATIVE_ERROR, so the documented bound cannot drift from the table unnoticed.
+ *
+ * <pre>java -cp benchmarks/target/benchmarks.jar cs43.group4.benchmarks.FastExpAccuracy</pre>
+ */
+public final class FastExpAccuracy {
+
+    private static final int DENSE_POINTS = 30_000_000;
+    private static final int FULL_POINTS = 10_000_000;
+
+    private FastExpAccuracy() {}
+
+    public static void main(String[] args) {
+        double dense = maxRelativeError(50.0, DENSE_POINTS);
+        // Stop just short of 1022·ln 2 so rounding of the limit cannot pick the zero branch
+        double full = maxRelativeError(1022 * Math.log(2.0) - 1e-9, FULL_POINTS);
+        System.out.printf("[0, 50]: max relative error %.4g over %d points%n", dense, DENSE_POINTS);
+        System.out.printf("[0, 708.4]: max relative error %.4g over %d points%n", full, FULL_POINTS);
+        if (!(dense <= FastExp.MAX_RELATIVE_ERROR && full <= FastExp.MAX_RELATIVE_ERROR)) {
+            System.out.printf("FAILED: above FastExp.MAX_RELATIVE_ERROR = %.1g%n", FastExp.MAX_RELATIVE_ERROR);
+            System.exit(1);
+        }
+        System.out.println("OK");
+    }
+
+    /** Largest |expNeg(t) / e^-t - 1| over points evenly spaced in [0, upper]; NaN if any is NaN. */
+    static double maxRelativeError(double upper, int points) {
+        double max = 0.0;
+        for (int i = 0; i <= points; i++) {
+            double t = upper * i / points;
+            double err = Math.abs(FastExp.expNeg(t) / Math.exp(-t) - 1.0);
+            if (Double.isNaN(err)) return err;
+            if (err > max) max = err;
+        }
+        return max;
+    }
+}
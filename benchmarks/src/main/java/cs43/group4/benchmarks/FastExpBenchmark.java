@@ -0,0 +1,79 @@
+package cs43.group4.benchmarks;
+
+import cs43.group4.core.AllocationProblem;
+import cs43.group4.core.FastExp;
+import cs43.group4.parameters.FAParams;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Math.exp(-t) against FastExp.expNeg(t) over 4096 arguments spread over [0, 50] (γr² of the
+ * attractiveness; e^-50 is below 2e-22), and one FA generation at Z=142 with the fastExp param off
+ * and on, where the objective dominates. Only faGeneration takes the FA run, so exponentials() is
+ * measured without its per-invocation setup.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FastExpBenchmark {
+
+    private static final int ARGUMENTS = 4096;
+
+    @Param({"false", "true"})
+    public boolean fastExp;
+
+    private final double[] t = new double[ARGUMENTS];
+
+    @State(Scope.Thread)
+    public static class FaRun extends OptimizerRun {
+        private AllocationProblem problem;
+
+        @Setup(Level.Trial)
+        public void bind(FastExpBenchmark benchmark) throws Exception {
+            problem = Fixtures.allocationProblem(Fixtures.REAL_Z, "raw");
+            useFa(() -> {
+                FAParams params = new FAParams();
+                params.fastExp = benchmark.fastExp;
+                return problem.newFA(params, new Random(Fixtures.SEED));
+            });
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random rnd = new Random(Fixtures.SEED);
+        for (int i = 0; i < ARGUMENTS; i++) t[i] = 50.0 * rnd.nextDouble();
+    }
+
+    /** Sum of e^-t over the arguments with the exponential the fastExp param selects. */
+    @Benchmark
+    public double exponentials() {
+        double sum = 0.0;
+        if (fastExp) {
+            for (double v : t) sum += FastExp.expNeg(v);
+        } else {
+            for (double v : t) sum += Math.exp(-v);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double faGeneration(FaRun run) {
+        return run.nextGeneration();
+    }
+}
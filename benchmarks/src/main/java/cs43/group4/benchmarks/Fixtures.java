@@ -0,0 +1,133 @@
+package cs43.group4.benchmarks;
+
+import cs43.group4.core.AllocationProblem;
+import cs43.group4.core.DataLoader;
+import cs43.group4.core.DataLoader.Data;
+import cs43.group4.core.DatasetGenerator;
+import cs43.group4.core.ObjectiveFunction;
+import cs43.group4.core.ThesisObjective;
+import cs43.group4.utils.BarangayData;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Shared benchmark inputs. Z=142 uses data/barangays.csv; any other size is produced by
+ * DatasetGenerator with a fixed seed. The optimizer problem is set up exactly the way
+ * FARunner/EFARunner set it up (bounds, current per class, objective weights).
+ */
+final class Fixtures {
+
+    static final long SEED = 42L;
+    static final int REAL_Z = 142;
+
+    private Fixtures() {}
+
+    /** Locates data/barangays.csv from the repository root or from benchmarks/. */
+    static Path baseCsv() {
+        String override = System.getProperty("thesis.data");
+        if (override != null) return Path.of(override);
+        Path fromRoot = Path.of("data", "barangays.csv");
+        if (Files.exists(fromRoot)) return fromRoot;
+        return Path.of("..", "data", "barangays.csv");
+    }
+
+    /** A seeded synthetic Metro Manila dataset of Z rows. */
+    static List<BarangayData> rows(int Z) {
+        return new DatasetGenerator(SEED, DatasetGenerator.Region.METRO).generate(Z);
+    }
+
+    /** Writes a Z-row, schema-compatible file (CSV or binary) to a temporary path and returns it. */
+    static Path fileWithRows(int Z, String format) throws IOException {
+        boolean binary = format.equals("bin");
+        Path out = Files.createTempFile("barangays-" + Z + "-", binary ? ".bin" : ".csv");
+        out.toFile().deleteOnExit();
+        if (!binary && Z == REAL_Z) {
+            Files.copy(baseCsv(), out, StandardCopyOption.REPLACE_EXISTING);
+        } else if (binary) {
+            DatasetGenerator.writeBinary(rows(Z), out);
+        } else {
+            DatasetGenerator.writeCsv(rows(Z), out);
+        }
+        return out;
+    }
+
+    /** The real dataset for Z=142, otherwise {@link #rows(int)}. */
+    static Data data(int Z) throws IOException {
+        if (Z == REAL_Z) return DataLoader.load(baseCsv());
+        return DataLoader.fromRows(rows(Z));
+    }
+
+    /** The runners' problem over {@link #data(int)}, in the given encoding ("raw" or "simplex"). */
+    static AllocationProblem allocationProblem(int Z, String encoding) throws IOException {
+        return new AllocationProblem(data(Z)).withEncoding(encoding);
+    }
+
+    /** Optimizer inputs for one dataset, mirroring the runners' setup. */
+    static final class Problem {
+        final Data data;
+        final int Z, C, D;
+        final double[] lower, upper;
+        final double[][] currentPerClass;
+
+        Problem(Data data) {
+            this.data = data;
+            this.Z = data.Z;
+            this.C = data.C;
+            this.D = Z * C;
+            this.lower = new double[D];
+            this.upper = new double[D];
+            for (int i = 0; i < Z; i++) {
+                for (int c = 0; c < C; c++) {
+                    int k = i * C + c;
+                    upper[k] = Math.max(1.0, Math.min(data.supply[c], data.AC[i] + 200));
+                }
+            }
+            this.currentPerClass = new double[C][Z];
+            for (int i = 0; i < Z; i++) {
+                currentPerClass[0][i] = data.sarCurrent[i];
+                currentPerClass[1][i] = data.emsCurrent[i];
+            }
+        }
+
+        ObjectiveFunction objective(boolean distancePenalty) {
+            return new ThesisObjective(
+                    Z,
+                    C,
+                    data.r,
+                    data.f,
+                    data.E,
+                    data.AC,
+                    data.lambda,
+                    data.supply,
+                    1e-6,
+                    10.0,
+                    null,
+                    1.0,
+                    currentPerClass,
+                    distancePenalty ? data.lat : null,
+                    distancePenalty ? data.lon : null,
+                    0.01);
+        }
+
+        /** Uniform random candidates within bounds, like initializePopulation. */
+        double[][] randomCandidates(int n, long seed) {
+            Random rnd = new Random(seed);
+            double[][] xs = new double[n][D];
+            for (int p = 0; p < n; p++) {
+                for (int d = 0; d < D; d++) xs[p][d] = lower[d] + rnd.nextDouble() * (upper[d] - lower[d]);
+            }
+            return xs;
+        }
+
+        /** Allocation matrix [Z][C] from a flat candidate. */
+        double[][] toMatrix(double[] x) {
+            double[][] A = new double[Z][C];
+            for (int i = 0, k = 0; i < Z; i++) for (int c = 0; c < C; c++, k++) A[i][c] = Math.max(0.0, x[k]);
+            return A;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package cs43.group4.benchmarks;
+
+import cs43.group4.core.FlowAllocator;
+import cs43.group4.utils.AllocationNormalizer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Both FlowAllocator.allocate overloads on a normalized (integer, supply-respecting) allocation. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FlowAllocatorBenchmark {
+
+    @Param({"142", "1000", "5000"})
+    public int Z;
+
+    private Fixtures.Problem problem;
+    private double[][] allocation;
+
+    @Setup
+    public void setup() throws Exception {
+        problem = new Fixtures.Problem(Fixtures.data(Z));
+        double[] x = problem.randomCandidates(1, Fixtures.SEED)[0];
+        allocation = AllocationNormalizer.enforceSupplyAndRound(problem.toMatrix(x), problem.data.supply);
+    }
+
+    @Benchmark
+    public FlowAllocator.Result allocateGreedy() {
+        return FlowAllocator.allocate(allocation, problem.currentPerClass);
+    }
+
+    @Benchmark
+    public FlowAllocator.Result allocateDistanceAware() {
+        return FlowAllocator.allocate(allocation, problem.currentPerClass, problem.data.lat, problem.data.lon);
+    }
+}
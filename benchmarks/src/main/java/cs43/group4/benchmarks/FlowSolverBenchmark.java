@@ -0,0 +1,68 @@
+package cs43.group4.benchmarks;
+
+import cs43.group4.core.AllocationProblem;
+import cs43.group4.core.FlowAllocator;
+import cs43.group4.core.GeoDistances;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * FlowAllocator's greedy against its optimal (min-cost transportation) solver over the problem's
+ * shared distances, on the current deployment perturbed by up to +-3 personnel per class and
+ * barangay (seeded). Each trial also prints the flows' total personnel-kilometres, so the distance
+ * the optimal solver saves can be read off next to its cost. Z=10000 is available with
+ * {@code -p Z=10000}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FlowSolverBenchmark {
+
+    @Param({"142", "1000", "5000"})
+    public int Z;
+
+    @Param({FlowAllocator.GREEDY, FlowAllocator.OPTIMAL})
+    public String solver;
+
+    private AllocationProblem problem;
+    private GeoDistances geo;
+    private double[][] allocation;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        problem = Fixtures.allocationProblem(Z, "raw");
+        geo = problem.geo();
+        Random rnd = new Random(Fixtures.SEED);
+        allocation = problem.currentAllocation();
+        for (double[] row : allocation) {
+            for (int c = 0; c < row.length; c++) row[c] = Math.max(0.0, row[c] + rnd.nextInt(7) - 3);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void reportKm() {
+        double km = FlowAllocator.totalKm(allocate(), geo);
+        System.out.printf("%nZ=%d, %s: %.1f personnel-km%n", Z, solver, km);
+    }
+
+    @Benchmark
+    public FlowAllocator.Result allocate() {
+        return FlowAllocator.allocate(allocation, problem.currentPerClass, geo, solver);
+    }
+}
@@ -0,0 +1,101 @@
+package cs43.group4.benchmarks;
+
+import cs43.group4.core.ExtendedFireflyAlgorithm;
+import cs43.group4.core.FireflyAlgorithm;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * One generation of FireflyAlgorithm / ExtendedFireflyAlgorithm with the runners' default
+ * parameters, over runs of GENERATIONS generations (alpha and inertia never past their end).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GenerationBenchmark {
+
+    private static final int GENERATIONS = 300;
+
+    @Param({"142", "1000"})
+    public int Z;
+
+    @Param({"25", "50", "150"})
+    public int populationSize;
+
+    private Fixtures.Problem problem;
+
+    @State(Scope.Thread)
+    public static class FaRun extends OptimizerRun {
+        @Setup(Level.Trial)
+        public void bind(GenerationBenchmark benchmark) {
+            useFa(benchmark::newFa);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class EfaRun extends OptimizerRun {
+        @Setup(Level.Trial)
+        public void bind(GenerationBenchmark benchmark) {
+            useEfa(benchmark::newEfa);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void loadProblem() throws Exception {
+        problem = new Fixtures.Problem(Fixtures.data(Z));
+    }
+
+    private FireflyAlgorithm newFa() {
+        return new FireflyAlgorithm(
+                problem.objective(false),
+                populationSize,
+                problem.lower,
+                problem.upper,
+                1.0,
+                1.0,
+                0.6,
+                0.05,
+                GENERATIONS);
+    }
+
+    private ExtendedFireflyAlgorithm newEfa() {
+        ExtendedFireflyAlgorithm efa = new ExtendedFireflyAlgorithm(
+                problem.objective(false),
+                problem.data,
+                populationSize,
+                problem.lower,
+                problem.upper,
+                1.0,
+                1.0,
+                0.2,
+                0.6,
+                0.05,
+                GENERATIONS);
+        efa.tuneGammaByInfluenceRadius(1.0, 0.6);
+        return efa;
+    }
+
+    @Benchmark
+    public double faGeneration(FaRun run) {
+        return run.nextGeneration();
+    }
+
+    @Benchmark
+    public double efaGeneration(EfaRun run) {
+        return run.nextGeneration();
+    }
+}
@@ -0,0 +1,43 @@
+package cs43.group4.benchmarks;
+
+import cs43.group4.utils.AllocationNormalizer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** AllocationNormalizer.enforceSupplyAndRound on an over-supply continuous allocation. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NormalizerBenchmark {
+
+    @Param({"142", "1000", "5000"})
+    public int Z;
+
+    private double[][] allocation;
+    private double[] supply;
+
+    @Setup
+    public void setup() throws Exception {
+        Fixtures.Problem problem = new Fixtures.Problem(Fixtures.data(Z));
+        allocation = problem.toMatrix(problem.randomCandidates(1, Fixtures.SEED)[0]);
+        supply = problem.data.supply;
+    }
+
+    @Benchmark
+    public double[][] enforceSupplyAndRound() {
+        return AllocationNormalizer.enforceSupplyAndRound(allocation, supply);
+    }
+}
@@ -0,0 +1,53 @@
+package cs43.group4.benchmarks;
+
+import cs43.group4.core.ObjectiveFunction;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * ThesisObjective.evaluate with and without the distance penalty. One operation evaluates a whole
+ * population of candidates (what one generation costs in objective calls).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ObjectiveBenchmark {
+
+    @Param({"142", "1000"})
+    public int Z;
+
+    @Param({"50", "150"})
+    public int populationSize;
+
+    @Param({"false", "true"})
+    public boolean distancePenalty;
+
+    private ObjectiveFunction objective;
+    private double[][] candidates;
+
+    @Setup
+    public void setup() throws Exception {
+        Fixtures.Problem problem = new Fixtures.Problem(Fixtures.data(Z));
+        objective = problem.objective(distancePenalty);
+        candidates = problem.randomCandidates(populationSize, Fixtures.SEED);
+    }
+
+    @Benchmark
+    public void evaluatePopulation(Blackhole bh) {
+        for (double[] x : candidates) bh.consume(objective.evaluate(x));
+    }
+}
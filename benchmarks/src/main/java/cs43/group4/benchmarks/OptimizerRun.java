@@ -0,0 +1,57 @@
+package cs43.group4.benchmarks;
+
+import cs43.group4.core.ExtendedFireflyAlgorithm;
+import cs43.group4.core.Optimizer;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * One optimizer run per thread, for benchmarks that time a single generation. The run is rebuilt
+ * (initial population included) for every measurement iteration, so the population does not
+ * collapse over a trial, and again whenever it has run all its generations, so every measured
+ * generation is one of a real run's schedule. A subclass is a {@code @State} that binds the
+ * factory in a trial-level setup taking its benchmark's state; only benchmark methods that take it
+ * as a parameter pay for the per-invocation check.
+ */
+public abstract class OptimizerRun {
+
+    /** The calls made on a run; FA and EFA share no interface. */
+    private record Steps(Runnable next, DoubleSupplier best, BooleanSupplier finished) {}
+
+    private Supplier<Steps> factory;
+    private Steps run;
+
+    protected final void useFa(Supplier<? extends Optimizer> fa) {
+        factory = () -> {
+            Optimizer o = fa.get();
+            return new Steps(o::nextGeneration, o::getBestValue, () -> o.getGeneration() >= o.getGenerations());
+        };
+    }
+
+    protected final void useEfa(Supplier<ExtendedFireflyAlgorithm> efa) {
+        factory = () -> {
+            ExtendedFireflyAlgorithm o = efa.get();
+            return new Steps(o::nextGeneration, o::getBestValue, () -> o.getGeneration() >= o.getGenerations());
+        };
+    }
+
+    @Setup(Level.Iteration)
+    public void buildRun() {
+        run = factory.get();
+    }
+
+    // Per-invocation setup costs well under a microsecond against generations of a millisecond or more
+    @Setup(Level.Invocation)
+    public void restartFinishedRun() {
+        if (run.finished().getAsBoolean()) run = factory.get();
+    }
+
+    /** Runs one generation and returns the best objective value so far. */
+    public double nextGeneration() {
+        run.next().run();
+        return run.best().getAsDouble();
+    }
+}
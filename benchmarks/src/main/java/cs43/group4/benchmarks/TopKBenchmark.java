@@ -0,0 +1,92 @@
+package cs43.group4.benchmarks;
+
+import cs43.group4.core.AllocationProblem;
+import cs43.group4.core.ExtendedFireflyAlgorithm;
+import cs43.group4.core.Optimizer;
+import cs43.group4.parameters.EFAParams;
+import cs43.group4.parameters.FAParams;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * One generation of FA / EFA with full pairwise attraction (topK=0) against top-k rank attraction,
+ * built through AllocationProblem.newFA/newEFA as the runners do. Pairwise costs O(N²·D) per
+ * generation and top-k O(N·k·D), so the gap grows with numFireflies; 500 is above the pairwise
+ * limit the params accept and shows why.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TopKBenchmark {
+
+    @Param({"142"})
+    public int Z;
+
+    @Param({"150", "500"})
+    public int numFireflies;
+
+    @Param({"0", "5"})
+    public int topK;
+
+    private AllocationProblem problem;
+
+    @State(Scope.Thread)
+    public static class FaRun extends OptimizerRun {
+        @Setup(Level.Trial)
+        public void bind(TopKBenchmark benchmark) {
+            useFa(benchmark::newFa);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class EfaRun extends OptimizerRun {
+        @Setup(Level.Trial)
+        public void bind(TopKBenchmark benchmark) {
+            useEfa(benchmark::newEfa);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void loadProblem() throws Exception {
+        problem = Fixtures.allocationProblem(Z, "raw");
+    }
+
+    private Optimizer newFa() {
+        FAParams params = new FAParams();
+        params.numFireflies = numFireflies;
+        params.topK = topK;
+        return problem.newFA(params, new Random(Fixtures.SEED));
+    }
+
+    private ExtendedFireflyAlgorithm newEfa() {
+        EFAParams params = new EFAParams();
+        params.numFireflies = numFireflies;
+        params.topK = topK;
+        return problem.newEFA(params, new Random(Fixtures.SEED));
+    }
+
+    @Benchmark
+    public double faGeneration(FaRun run) {
+        return run.nextGeneration();
+    }
+
+    @Benchmark
+    public double efaGeneration(EfaRun run) {
+        return run.nextGeneration();
+    }
+}
@@ -0,0 +1,267 @@
+package cs43.group4.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cs43.group4.Main;
+import cs43.group4.utils.Log;
+import io.javalin.Javalin;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Open-model HTTP load generator for the Javalin API.
+ * <p>
+ * Requests are scheduled at a fixed rate regardless of how fast the server answers, and latency is
+ * measured from each request's scheduled start time, so a stalled server shows up in the tail
+ * percentiles instead of silently lowering the offered load. Results are printed as a summary
+ * table and written as HdrHistogram percentile distributions (.hgrm, milliseconds) per operation.
+ * </p>
+ */
+public class LoadTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(60);
+
+    private final Options options;
+    private final String baseUrl;
+    private final HttpClient client;
+    private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+
+    LoadTest(Options options, String baseUrl) {
+        this.options = options;
+        this.baseUrl = baseUrl;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        for (Operation op : Operation.values()) stats.put(op, new OperationStats());
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && (args[0].equals("--help") || args[0].equals("-h"))) {
+            Options.printUsage();
+            return;
+        }
+        Options options = Options.parse(args);
+
+        Javalin server = null;
+        String baseUrl = options.target;
+        if (baseUrl == null) {
+            Log.setLevel(Log.Level.valueOf(options.serverLogLevel));
+            server = Main.createApp().start(0);
+            baseUrl = "http://localhost:" + server.port();
+            System.out.println("Started in-process server on " + baseUrl);
+        }
+
+        try {
+            LoadTest test = new LoadTest(options, baseUrl);
+            if (options.prime) test.prime();
+            test.run();
+            test.report(System.out);
+            test.writeHistograms();
+        } finally {
+            if (server != null) server.stop();
+        }
+        System.exit(0); // controller executors are non-daemon
+    }
+
+    // ========== PRIMING ==========
+
+    /** Completes one single run per algorithm so allocations/flows return full payloads. */
+    void prime() throws Exception {
+        for (String alg : options.algorithms) {
+            System.out.printf("Priming %s with one single run...%n", alg);
+            send(Operation.RUN, alg);
+            long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(10);
+            while (System.nanoTime() < deadline) {
+                HttpResponse<byte[]> status = send(Operation.STATUS, alg);
+                JsonNode body = MAPPER.readTree(status.body());
+                if (!body.path("running").asBoolean(false)) break;
+                Thread.sleep(200);
+            }
+        }
+    }
+
+    // ========== LOAD ==========
+
+    void run() throws InterruptedException {
+        List<Operation> ops = new ArrayList<>();
+        List<Integer> cumulativeWeights = new ArrayList<>();
+        int totalWeight = 0;
+        for (Map.Entry<Operation, Integer> e : options.mix.entrySet()) {
+            if (e.getValue() <= 0) continue;
+            totalWeight += e.getValue();
+            ops.add(e.getKey());
+            cumulativeWeights.add(totalWeight);
+        }
+
+        Random rnd = new Random(options.seed);
+        ExecutorService workers = Executors.newFixedThreadPool(options.connections);
+        long intervalNanos = (long) (1e9 / options.rate);
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(options.warmupSeconds);
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(options.durationSeconds);
+
+        System.out.printf(
+                Locale.ROOT,
+                "Offering %.1f req/s for %ds (+%ds warm-up) with %d connections against %s%n",
+                options.rate,
+                options.durationSeconds,
+                options.warmupSeconds,
+                options.connections,
+                baseUrl);
+
+        for (long n = 0; ; n++) {
+            long intended = start + n * intervalNanos;
+            if (intended >= end) break;
+            long wait = intended - System.nanoTime();
+            if (wait > 0) LockSupport.parkNanos(wait);
+
+            int pick = rnd.nextInt(totalWeight);
+            int idx = 0;
+            while (pick >= cumulativeWeights.get(idx)) idx++;
+            Operation op = ops.get(idx);
+            String alg = options.algorithms.get(rnd.nextInt(options.algorithms.size()));
+            boolean measured = intended >= measureFrom;
+
+            workers.execute(() -> execute(op, alg, intended, measured));
+        }
+
+        workers.shutdown();
+        if (!workers.awaitTermination(REQUEST_TIMEOUT.toSeconds() + 10, TimeUnit.SECONDS)) {
+            workers.shutdownNow();
+        }
+    }
+
+    private void execute(Operation op, String alg, long intendedStart, boolean measured) {
+        long actualStart = System.nanoTime();
+        try {
+            HttpResponse<byte[]> response = send(op, alg);
+            long now = System.nanoTime();
+            if (measured) {
+                stats.get(op).record(intendedStart, actualStart, now, response.statusCode(), response.body().length);
+            }
+        } catch (IOException | InterruptedException e) {
+            if (measured) stats.get(op).recordFailure(intendedStart, System.nanoTime());
+        }
+    }
+
+    private HttpResponse<byte[]> send(Operation op, String alg) throws IOException, InterruptedException {
+        HttpRequest.Builder req =
+                HttpRequest.newBuilder(URI.create(baseUrl + op.path(alg))).timeout(REQUEST_TIMEOUT);
+        if (op.method.equals("POST")) {
+            req.header("Content-Type", "application/json").POST(HttpRequest.BodyPublishers.ofString(options.runBody));
+        } else {
+            req.GET();
+        }
+        return client.send(req.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    // ========== REPORTING ==========
+
+    void report(PrintStream out) {
+        double seconds = options.durationSeconds;
+        out.println();
+        out.printf(
+                "%-12s %8s %9s %7s %10s %10s %10s %10s %10s %10s %12s  %s%n",
+                "operation",
+                "count",
+                "req/s",
+                "errors",
+                "p50 ms",
+                "p90 ms",
+                "p99 ms",
+                "p99.9 ms",
+                "max ms",
+                "svc p99",
+                "avg bytes",
+                "status codes");
+
+        Histogram all = new Histogram(3);
+        long total = 0;
+        for (Operation op : Operation.values()) {
+            OperationStats s = stats.get(op);
+            if (s.count() == 0) continue;
+            total += s.count();
+            all.add(s.corrected);
+            Map<Integer, Long> codes = new TreeMap<>();
+            s.statusCodes.forEach((k, v) -> codes.put(k, v.sum()));
+            long responses = codes.values().stream().mapToLong(Long::longValue).sum();
+            out.printf(
+                    Locale.ROOT,
+                    "%-12s %8d %9.1f %7d %10.2f %10.2f %10.2f %10.2f %10.2f %10.2f %12d  %s%n",
+                    op.label(),
+                    s.count(),
+                    s.count() / seconds,
+                    s.errors(),
+                    ms(s.corrected.getValueAtPercentile(50)),
+                    ms(s.corrected.getValueAtPercentile(90)),
+                    ms(s.corrected.getValueAtPercentile(99)),
+                    ms(s.corrected.getValueAtPercentile(99.9)),
+                    ms(s.corrected.getMaxValue()),
+                    ms(s.service.getValueAtPercentile(99)),
+                    responses == 0 ? 0 : s.responseBytes.sum() / responses,
+                    codes);
+        }
+        if (total > 0) {
+            out.printf(
+                    Locale.ROOT,
+                    "%-12s %8d %9.1f %7s %10.2f %10.2f %10.2f %10.2f %10.2f%n",
+                    "all",
+                    total,
+                    total / seconds,
+                    "",
+                    ms(all.getValueAtPercentile(50)),
+                    ms(all.getValueAtPercentile(90)),
+                    ms(all.getValueAtPercentile(99)),
+                    ms(all.getValueAtPercentile(99.9)),
+                    ms(all.getMaxValue()));
+        }
+        out.println();
+        out.println("Latencies are coordinated-omission corrected (measured from the scheduled send time);");
+        out.println("'svc p99' is measured from the actual send time for comparison.");
+    }
+
+    /** Writes one .hgrm percentile distribution (in milliseconds) per operation, plus all.hgrm. */
+    void writeHistograms() throws IOException {
+        Files.createDirectories(options.out);
+        Histogram all = new Histogram(3);
+        for (Operation op : Operation.values()) {
+            OperationStats s = stats.get(op);
+            if (s.count() == 0) continue;
+            all.add(s.corrected);
+            writeHgrm(s.corrected, options.out.resolve(op.label() + ".hgrm"));
+        }
+        if (all.getTotalCount() > 0) writeHgrm(all, options.out.resolve("all.hgrm"));
+        System.out.println("HdrHistogram percentile distributions written to " + options.out.toAbsolutePath());
+    }
+
+    private static void writeHgrm(Histogram histogram, Path path) throws IOException {
+        try (PrintStream ps = new PrintStream(Files.newOutputStream(path), false, "UTF-8")) {
+            histogram.outputPercentileDistribution(ps, 1_000_000.0);
+        }
+    }
+
+    private static double ms(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,27 @@
+package cs43.group4.loadtest;
+
+/** One kind of request the dashboard sends. Paths are templates over the algorithm ("fa"/"efa"). */
+enum Operation {
+    STATUS("GET", "/%s/status"),
+    ITERATIONS("GET", "/%s/iterations"),
+    RESULTS("GET", "/%s/results"),
+    ALLOCATIONS("GET", "/%s/allocations"),
+    FLOWS("GET", "/%s/flows"),
+    RUN("POST", "/%s/single/run");
+
+    final String method;
+    final String pathTemplate;
+
+    Operation(String method, String pathTemplate) {
+        this.method = method;
+        this.pathTemplate = pathTemplate;
+    }
+
+    String path(String algorithm) {
+        return String.format(pathTemplate, algorithm);
+    }
+
+    String label() {
+        return name().toLowerCase();
+    }
+}
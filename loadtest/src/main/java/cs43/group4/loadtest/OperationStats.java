@@ -0,0 +1,55 @@
+package cs43.group4.loadtest;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Latency and response accounting of one operation.
+ * <p>
+ * {@code corrected} measures from the time the request was <em>scheduled</em> to be sent, so time
+ * spent waiting behind a slow response counts against the server (coordinated omission
+ * correction). {@code service} measures from the time it was actually sent.
+ * </p>
+ */
+final class OperationStats {
+    // 1 µs .. 1 h in nanoseconds, 3 significant digits
+    private static final long HIGHEST_TRACKABLE_NANOS = 3_600_000_000_000L;
+
+    final Histogram corrected = new ConcurrentHistogram(1_000L, HIGHEST_TRACKABLE_NANOS, 3);
+    final Histogram service = new ConcurrentHistogram(1_000L, HIGHEST_TRACKABLE_NANOS, 3);
+    final Map<Integer, LongAdder> statusCodes = new ConcurrentSkipListMap<>();
+    final LongAdder failures = new LongAdder(); // I/O errors and timeouts, no status code
+    final LongAdder responseBytes = new LongAdder();
+
+    void record(long intendedStartNanos, long actualStartNanos, long endNanos, int status, long bytes) {
+        corrected.recordValue(clamp(endNanos - intendedStartNanos));
+        service.recordValue(clamp(endNanos - actualStartNanos));
+        statusCodes.computeIfAbsent(status, s -> new LongAdder()).increment();
+        responseBytes.add(bytes);
+    }
+
+    void recordFailure(long intendedStartNanos, long endNanos) {
+        corrected.recordValue(clamp(endNanos - intendedStartNanos));
+        failures.increment();
+    }
+
+    long count() {
+        return corrected.getTotalCount();
+    }
+
+    /** Responses with a 5xx status plus transport failures. */
+    long errors() {
+        long n = failures.sum();
+        for (Map.Entry<Integer, LongAdder> e : statusCodes.entrySet()) {
+            if (e.getKey() >= 500) n += e.getValue().sum();
+        }
+        return n;
+    }
+
+    private static long clamp(long nanos) {
+        return Math.max(1_000L, Math.min(HIGHEST_TRACKABLE_NANOS, nanos));
+    }
+}
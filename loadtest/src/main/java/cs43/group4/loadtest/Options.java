@@ -0,0 +1,113 @@
+package cs43.group4.loadtest;
+
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/** Command-line options of the load generator. */
+final class Options {
+    /** Base URL of a running server, or null to start the server in-process on an ephemeral port. */
+    String target = null;
+
+    double rate = 200.0; // requests per second, all operations combined
+    int durationSeconds = 30;
+    int warmupSeconds = 5;
+    int connections = 32;
+    long seed = 42L;
+    List<String> algorithms = List.of("fa", "efa");
+    String runBody = "{\"generations\":50,\"numFireflies\":25}";
+    boolean prime = true;
+    Path out = Path.of("loadtest", "target", "results");
+    String serverLogLevel = "WARN";
+
+    final Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+
+    Options() {
+        mix.put(Operation.STATUS, 50);
+        mix.put(Operation.ITERATIONS, 15);
+        mix.put(Operation.RESULTS, 10);
+        mix.put(Operation.ALLOCATIONS, 10);
+        mix.put(Operation.FLOWS, 10);
+        mix.put(Operation.RUN, 5);
+    }
+
+    static Options parse(String[] args) {
+        Options o = new Options();
+        for (int a = 0; a < args.length; a++) {
+            String arg = args[a];
+            if (arg.equals("--no-prime")) {
+                o.prime = false;
+                continue;
+            }
+            if (a + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + arg);
+            }
+            String value = args[++a];
+            switch (arg) {
+                case "--target" -> o.target = value.endsWith("/") ? value.substring(0, value.length() - 1) : value;
+                case "--rate" -> o.rate = Double.parseDouble(value);
+                case "--duration" -> o.durationSeconds = Integer.parseInt(value);
+                case "--warmup" -> o.warmupSeconds = Integer.parseInt(value);
+                case "--connections" -> o.connections = Integer.parseInt(value);
+                case "--seed" -> o.seed = Long.parseLong(value);
+                case "--algorithms" -> o.algorithms =
+                        List.of(value.toLowerCase(Locale.ROOT).split(","));
+                case "--run-body" -> o.runBody = value;
+                case "--out" -> o.out = Path.of(value);
+                case "--server-log" -> o.serverLogLevel = value.toUpperCase(Locale.ROOT);
+                case "--mix" -> o.parseMix(value);
+                default -> throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        o.validate();
+        return o;
+    }
+
+    // e.g. "status=70,flows=20,run=10"; operations not listed get weight 0
+    private void parseMix(String spec) {
+        mix.clear();
+        for (String part : spec.split(",")) {
+            String[] kv = part.split("=");
+            if (kv.length != 2) {
+                throw new IllegalArgumentException("Invalid mix entry: " + part);
+            }
+            mix.put(Operation.valueOf(kv[0].trim().toUpperCase(Locale.ROOT)), Integer.parseInt(kv[1].trim()));
+        }
+    }
+
+    private void validate() {
+        if (rate <= 0) throw new IllegalArgumentException("Invalid rate: " + rate);
+        if (durationSeconds <= 0) throw new IllegalArgumentException("Invalid duration: " + durationSeconds);
+        if (warmupSeconds < 0) throw new IllegalArgumentException("Invalid warmup: " + warmupSeconds);
+        if (connections <= 0) throw new IllegalArgumentException("Invalid connections: " + connections);
+        for (String alg : algorithms) {
+            if (!alg.equals("fa") && !alg.equals("efa")) {
+                throw new IllegalArgumentException("Unknown algorithm: " + alg);
+            }
+        }
+        int total = 0;
+        for (int w : mix.values()) {
+            if (w < 0) throw new IllegalArgumentException("Negative mix weight");
+            total += w;
+        }
+        if (total == 0) throw new IllegalArgumentException("Mix has no operations");
+    }
+
+    static void printUsage() {
+        System.out.println("Usage: java -jar loadtest/target/loadtest.jar [options]\n"
+                + "  --target URL          Base URL of a running server (default: start in-process)\n"
+                + "  --rate N              Requests per second across all operations (default 200)\n"
+                + "  --duration S          Measured seconds (default 30)\n"
+                + "  --warmup S            Unrecorded warm-up seconds (default 5)\n"
+                + "  --connections N       Concurrent client workers (default 32)\n"
+                + "  --mix SPEC            Weights, e.g. status=50,iterations=15,results=10,allocations=10,flows=10,run=5\n"
+                + "  --algorithms LIST     fa,efa (default both)\n"
+                + "  --run-body JSON       Body of run submissions (default small FAParams/EFAParams)\n"
+                + "  --no-prime            Do not complete one run per algorithm before measuring\n"
+                + "  --seed N              Seed of the request mix (default 42)\n"
+                + "  --server-log LEVEL    Log level of the in-process server (default WARN)\n"
+                + "  --out DIR             Directory for .hgrm files (default loadtest/target/results)");
+    }
+}
@@ -1,14 +1,24 @@
 package cs43.group4;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sun.management.ThreadMXBean;
+import cs43.group4.cache.ResultCache;
+import cs43.group4.checkpoint.Checkpoint;
+import cs43.group4.checkpoint.CheckpointWriter;
+import cs43.group4.core.AllocationProblem;
 import cs43.group4.core.DataLoader;
 import cs43.group4.core.DataLoader.Data;
 import cs43.group4.core.ExtendedFireflyAlgorithm;
 import cs43.group4.core.FlowAllocator;
-import cs43.group4.core.ObjectiveFunction;
-import cs43.group4.core.ThesisObjective;
+import cs43.group4.core.MemoizedObjective;
+import cs43.group4.core.OptimizerState;
+import cs43.group4.parameters.DataDelta;
 import cs43.group4.parameters.EFAParams;
-import cs43.group4.utils.AllocationNormalizer;
+import cs43.group4.parameters.WarmStart;
+import cs43.group4.store.RunRecord;
+import cs43.group4.store.RunStore;
+import cs43.group4.utils.AllocationDiff;
 import cs43.group4.utils.AllocationResult;
 import cs43.group4.utils.FlowResult;
 import cs43.group4.utils.IterationResult;
@@ -18,19 +28,26 @@ import cs43.group4.utils.OverallStats;
 import cs43.group4.utils.ValidationMultipleResult;
 import cs43.group4.utils.ValidationMultipleResult.PerBarangayMultiStats;
 import cs43.group4.utils.ValidationSingleResult;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.lang.management.ManagementFactory;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.DoubleSummaryStatistics;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 public class EFARunner {
     private final EFAParams params;
     private volatile boolean running = false;
     private volatile boolean stopped = false;
+    private volatile boolean paused = false;
     private volatile String error = null;
 
     // Single run state
@@ -62,10 +79,45 @@ public class EFARunner {
 
     private final int precision = 12;
 
+    // Checkpointing (single runs only)
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Path DEFAULT_DATASET = Path.of("data", "barangays.csv");
+    private Checkpoint resumeFrom = null;
+
+    // Persistence of finished jobs (optional)
+    private final String jobId = UUID.randomUUID().toString();
+    private RunStore store = null;
+
+    // Result cache (seeded runs only); cached is set when this job was answered from it
+    private ResultCache cache = null;
+    private RunRecord cached = null;
+
+    // Baseline for re-optimization: the last completed single run, advanced by each reoptimize()
+    private OptimizerState finalState = null;
+    private AllocationProblem finalProblem = null;
+    private double[][] finalAllocation = null;
+
     public EFARunner(EFAParams params) {
         this.params = params;
     }
 
+    /**
+     * Runner that continues the single run saved in a checkpoint when {@link #run()} is called.
+     * @throws IllegalArgumentException if the checkpoint belongs to another algorithm
+     */
+    public static EFARunner fromCheckpoint(Checkpoint checkpoint) {
+        if (!"efa".equals(checkpoint.algorithm)) {
+            throw new IllegalArgumentException("Checkpoint is for " + checkpoint.algorithm + ", not efa");
+        }
+        try {
+            EFARunner runner = new EFARunner(MAPPER.readValue(checkpoint.paramsJson, EFAParams.class));
+            runner.resumeFrom = checkpoint;
+            return runner;
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid parameters in checkpoint: " + e.getOriginalMessage());
+        }
+    }
+
     // ========== SINGLE RUN ==========
 
     public void run() throws Exception {
@@ -76,10 +128,16 @@ public class EFARunner {
 
         objectiveLogger = new ObjectiveLogger(false);
         try {
+            if (serveFromCache(1)) return;
             executeSingleRun();
+            persist("single");
         } catch (InterruptedException e) {
-            this.error = "Stopped by user.";
-            System.err.println("Stopped by user.");
+            if (paused) {
+                Log.info("[EFA] Run paused at generation %d", currentIteration);
+            } else {
+                this.error = "Stopped by user.";
+                System.err.println("Stopped by user.");
+            }
         } catch (Exception e) {
             this.error = "ThesisRunner error: " + e.getMessage();
             System.err.println("ThesisRunner error: " + e.getMessage());
@@ -108,6 +166,7 @@ public class EFARunner {
 
         objectiveLogger = new ObjectiveLogger(false);
         try {
+            if (serveFromCache(numRuns)) return;
             Log.info("Starting " + numRuns + " runs");
 
             for (int run = 1; run <= numRuns; run++) {
@@ -145,6 +204,7 @@ public class EFARunner {
             }
 
             multiRunEndTime = System.currentTimeMillis();
+            if (!multipleRunResults.isEmpty()) persist("multiple");
             Log.info("Completed " + multipleRunResults.size() + " out of " + numRuns + " runs");
 
         } catch (Exception e) {
@@ -160,9 +220,12 @@ public class EFARunner {
     // ========== SHARED EXECUTION LOGIC ==========
 
     private void executeSingleRun() throws Exception {
-        var data = DataLoader.load(Path.of("data", "barangays.csv"));
-        int Z = data.Z, C = data.C;
-        int D = Z * C;
+        Path dataset = datasetPath();
+        AllocationProblem problem =
+                AllocationProblem.load(dataset).withEncoding(params.encoding).withDistance(params.distance);
+        var data = problem.data;
+        int Z = problem.Z, C = problem.C;
+        double[][] currentPerClass = problem.currentPerClass;
 
         // Diagnostic: EFA optimizer with flows distance-aware if geo present
         boolean haveGeo = (data.lat != null && data.lon != null);
@@ -171,66 +234,22 @@ public class EFARunner {
                 "[EFA] Running ExtendedFireflyAlgorithm. Flow distance-aware: %s; Objective filtering: %s",
                 haveGeo, objectiveFiltering);
 
-        double[] lower = new double[D];
-        double[] upper = new double[D];
-        for (int i = 0; i < Z; i++) {
-            for (int c = 0; c < C; c++) {
-                int k = i * C + c;
-                lower[k] = 0.0;
-                double cap = Math.max(1.0, Math.min(data.supply[c], data.AC[i] + 200));
-                upper[k] = cap;
-            }
-        }
-
-        double[][] currentPerClass = new double[C][Z];
-        for (int i = 0; i < Z; i++) {
-            if (C >= 1) currentPerClass[0][i] = data.sarCurrent[i];
-            if (C >= 2) currentPerClass[1][i] = data.emsCurrent[i];
+        // EFA with gamma tuned on the normalized scale
+        // Memoized runs report the share of evaluations served from the cache per generation
+        MemoizedObjective memo = params.memoize ? new MemoizedObjective(problem.objective()) : null;
+        ExtendedFireflyAlgorithm efa = problem.newEFA(params, newRandom(), memo != null ? memo : problem.objective());
+        if (params.warmStart != null && resumeFrom == null) {
+            efa.seedPopulation(warmStarts(problem), params.warmStart.fraction, params.warmStart.perturbation);
         }
 
-        ObjectiveFunction thesisObj = new ThesisObjective(
-                Z,
-                C,
-                data.r,
-                data.f,
-                data.E,
-                data.AC,
-                data.lambda,
-                data.supply,
-                1e-6,
-                10.0,
-                null,
-                1.0,
-                currentPerClass,
-                null,
-                null,
-                0.01);
-
-        ExtendedFireflyAlgorithm efa = new ExtendedFireflyAlgorithm(
-                thesisObj,
-                data,
-                params.numFireflies,
-                lower,
-                upper,
-                params.gamma,
-                params.beta0,
-                params.betaMin,
-                params.alpha0,
-                params.alphaFinal,
-                params.generations);
-
-        // Tune gamma on the normalized scale
-        efa.tuneGammaByInfluenceRadius(1.0, 0.6);
-
         efa.setProgressListener((generation, bestX, reinitializedCount) -> {
-            if (stopped) return;
-
             currentIteration = generation;
             // Use optimizer's best value to ensure monotonic best-so-far
             double bestMin = efa.getBestValue();
             double bestFit = -bestMin; // convert to maximization-style fitness
             bestFit = roundToPrecision(bestFit);
-            iterationHistory.add(new IterationResult(generation, bestFit));
+            Double hitRate = memo != null ? roundToPrecision(memo.windowHitRate()) : null;
+            iterationHistory.add(new IterationResult(generation, bestFit, hitRate));
 
             if (generation % 50 == 0) {
                 String runPrefix = (totalRuns > 1) ? "[Run " + currentRun + "/" + totalRuns + "] " : "";
@@ -246,35 +265,51 @@ public class EFARunner {
         long allocatedBefore = threadBean.getThreadAllocatedBytes(threadId);
         long startTime = System.nanoTime();
 
-        efa.optimize();
+        // Single runs checkpoint every params.checkpointEvery generations and on pause/stop
+        CheckpointWriter checkpoints = null;
+        long resumedNanos = 0L;
+        if (totalRuns == 1) {
+            checkpoints = new CheckpointWriter(Checkpoint.pathFor("efa"));
+            if (resumeFrom != null) {
+                efa.restore(resumeFrom.state);
+                iterationHistory.addAll(resumeFrom.history);
+                currentIteration = resumeFrom.state.generation;
+                resumedNanos = resumeFrom.elapsedNanos;
+                Log.info("[EFA] Resuming from generation %d", currentIteration);
+            }
+        }
+
+        while (efa.getGeneration() < params.generations && !stopped && !paused) {
+            efa.nextGeneration();
+            int gen = efa.getGeneration();
+            if (checkpoints != null
+                    && params.checkpointEvery > 0
+                    && gen % params.checkpointEvery == 0
+                    && gen < params.generations) {
+                checkpoints.submit(checkpoint(efa, dataset, resumedNanos + System.nanoTime() - startTime));
+            }
+        }
+        if (checkpoints != null) {
+            if (stopped || paused) {
+                checkpoints.writeNow(checkpoint(efa, dataset, resumedNanos + System.nanoTime() - startTime));
+            } else {
+                checkpoints.delete();
+            }
+        }
         checkStopped();
 
         long endTime = System.nanoTime();
         long allocatedAfter = threadBean.getThreadAllocatedBytes(threadId);
 
         double[] x = efa.getBestSolution();
-        double[][] A = new double[Z][C];
-        int k = 0;
-        for (int i = 0; i < Z; i++) for (int c = 0; c < C; c++, k++) A[i][c] = Math.max(0.0, x[k]);
-
-        for (int c = 0; c < C; c++) {
-            double used = 0.0;
-            for (int i = 0; i < Z; i++) used += A[i][c];
-            double cap = data.supply[c];
-            if (used > cap + 1e-6) {
-                double scale = cap / (used + 1e-6);
-                for (int i = 0; i < Z; i++) A[i][c] *= scale;
-            }
-        }
-
-        // Final normalization: integer allocations that do not exceed per-class supplies
-        A = AllocationNormalizer.enforceSupplyAndRound(A, data.supply);
+        // Clamp, scale back over-supplied classes, then round to integers within supply
+        double[][] A = problem.toAllocation(x);
 
         // Use optimizer's best value for final metrics
         double minimizedObjective = efa.getBestValue();
         minimizedObjective = roundToPrecision(minimizedObjective);
         bestFitness = roundToPrecision(-minimizedObjective);
-        executionTime = roundToPrecision((endTime - startTime) / 1_000_000.0);
+        executionTime = roundToPrecision((resumedNanos + endTime - startTime) / 1_000_000.0);
         memoryUsage = allocatedAfter - allocatedBefore;
 
         // ---------------------------------------------
@@ -353,6 +388,9 @@ public class EFARunner {
 
         // Only write outputs and log for single runs (not in multiple runs mode)
         if (totalRuns == 1) {
+            finalState = efa.snapshot();
+            finalProblem = problem;
+            finalAllocation = A;
             Log.info("Execution Time: " + executionTime + " ms");
             Log.info("Memory Allocated: " + memoryUsage + " bytes ("
                     + String.format("%.2f", memoryUsage / (1024.0 * 1024.0)) + " MB)");
@@ -360,12 +398,10 @@ public class EFARunner {
             Log.info("Best Fitness Score (Minimization) = " + minimizedObjective);
             Log.info("Array 1 Values");
 
-            var flow = (data.lat != null && data.lon != null)
-                    ? FlowAllocator.allocate(A, currentPerClass, data.lat, data.lon)
-                    : FlowAllocator.allocate(A, currentPerClass);
+            var flow = FlowAllocator.allocate(A, currentPerClass, problem.geo(), params.flowSolver);
 
             allocations.addAll(createAllocations(A, data));
-            flows.addAll(createFlows(flow.flows, data));
+            flows.addAll(createFlows(flow, data));
 
             results = Map.of(
                     "fitnessMaximization", bestFitness,
@@ -396,9 +432,69 @@ public class EFARunner {
         }
     }
 
+    // ========== RE-OPTIMIZATION ==========
+
+    /** True once a single run has completed, so {@link #reoptimize} has a population to start from. */
+    public boolean canReoptimize() {
+        return finalState != null;
+    }
+
+    /**
+     * Applies a data delta to the last completed single run and refines its final population for
+     * delta.generations generations instead of starting over. The previous population is re-scored
+     * against the updated objective (clamped to the new bounds) and the refined result becomes the
+     * baseline for the next delta. Runs on the calling thread.
+     * @throws IllegalStateException if no single run has completed yet
+     * @throws IllegalArgumentException if the delta names an unknown barangay
+     */
+    public synchronized Map<String, Object> reoptimize(DataDelta delta) {
+        if (finalState == null) {
+            throw new IllegalStateException("No completed single run to re-optimize");
+        }
+        long startTime = System.nanoTime();
+        AllocationProblem problem = finalProblem.withDelta(delta);
+
+        EFAParams refine = MAPPER.convertValue(params, EFAParams.class);
+        refine.generations = delta.generations;
+        refine.warmStart = null;
+        ExtendedFireflyAlgorithm efa = problem.newEFA(refine, newRandom());
+        // Previous best first, then the rest of the previous population
+        List<double[]> starts = new ArrayList<>();
+        starts.add(finalState.bestSolution);
+        starts.addAll(Arrays.asList(finalState.positions));
+        efa.seedPopulation(starts, 1.0, 0.0);
+        double before = -problem.evaluate(problem.fromAllocation(finalAllocation));
+        efa.optimize();
+
+        double[][] A = problem.toAllocation(efa.getBestSolution());
+        List<AllocationDiff> diff = AllocationDiff.between(finalAllocation, A, problem.data);
+        double elapsedMs = roundToPrecision((System.nanoTime() - startTime) / 1_000_000.0);
+        Log.info(
+                "[EFA] Re-optimized %d changed barangays in %.1f ms: %d allocations changed",
+                delta.changes.size(), elapsedMs, diff.size());
+
+        finalState = efa.snapshot();
+        finalProblem = problem;
+        finalAllocation = A;
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("jobId", jobId);
+        result.put("changedBarangays", delta.changes.size());
+        result.put("generations", delta.generations);
+        result.put("previousFitness", roundToPrecision(before));
+        result.put("fitnessMaximization", roundToPrecision(-efa.getBestValue()));
+        result.put("executionTimeMs", elapsedMs);
+        result.put("personnelMoved", AllocationDiff.moved(diff));
+        result.put("diff", diff);
+        result.put("allocations", createAllocations(A, problem.data));
+        return result;
+    }
+
     // ========== STATUS & RESULTS ==========
 
+    @SuppressWarnings("unchecked")
     public Map<String, Object> getObjectiveData() {
+        if (cached != null && cached.objectives != null) return (Map<String, Object>) cached.objectives;
         if (objective1Data == null) {
             return Map.of("error", "No objective data available");
         }
@@ -414,13 +510,15 @@ public class EFARunner {
     public Map<String, Object> getStatus() {
         Map<String, Object> status = new HashMap<>();
         status.put("running", running);
+        status.put("jobId", jobId);
+        if (cached != null) status.put("cachedFrom", cached.jobId);
 
         if (totalRuns > 1) {
             // Multiple runs status
             status.put("mode", "multiple");
             status.put("currentRun", currentRun);
             status.put("totalRuns", totalRuns);
-            status.put("completedRuns", multipleRunResults.size());
+            status.put("completedRuns", cached != null ? totalRuns : multipleRunResults.size());
             status.put("failedRuns", multipleRunErrors.size());
             double runProgress = currentIteration / (double) params.generations;
             double overallProgress = (currentRun - 1 + runProgress) / totalRuns;
@@ -436,9 +534,10 @@ public class EFARunner {
         } else {
             // Single run status
             status.put("mode", "single");
+            if (paused) status.put("paused", true);
             status.put("currentIteration", currentIteration);
             status.put("totalIterations", params.generations);
-            status.put("progress", running ? (double) currentIteration / params.generations : 1.0);
+            status.put("progress", running || paused ? (double) currentIteration / params.generations : 1.0);
         }
 
         if (error != null) {
@@ -452,7 +551,9 @@ public class EFARunner {
     }
 
     public Map<String, Object> getResults() {
-        if (totalRuns > 1) {
+        if (cached != null) {
+            return results;
+        } else if (totalRuns > 1) {
             return getMultipleRunResults();
         } else {
             return results != null ? results : Map.of("error", "No results available");
@@ -537,16 +638,16 @@ public class EFARunner {
         return aggregated;
     }
 
-    public List<AllocationResult> getAllocations() {
-        return new ArrayList<>(allocations);
+    public List<?> getAllocations() {
+        return cached != null ? (List<?>) cached.allocations : new ArrayList<>(allocations);
     }
 
-    public List<FlowResult> getFlows() {
-        return new ArrayList<>(flows);
+    public List<?> getFlows() {
+        return cached != null ? (List<?>) cached.flows : new ArrayList<>(flows);
     }
 
-    public List<IterationResult> getIterationHistory() {
-        return new ArrayList<>(iterationHistory);
+    public List<?> getIterationHistory() {
+        return cached != null ? (List<?>) cached.iterations : new ArrayList<>(iterationHistory);
     }
 
     // ========== VALIDATION METHODS ==========
@@ -651,9 +752,13 @@ public class EFARunner {
      * Uses getAllocations() to get the allocation data
      * @return ValidationSingleResult object with all validation metrics
      */
-    public ValidationSingleResult getValidationSingleReport() {
+    public Object getValidationSingleReport() {
+        return cached != null ? cached.validation : buildValidationSingleReport();
+    }
+
+    private ValidationSingleResult buildValidationSingleReport() {
         try {
-            List<AllocationResult> currentAllocations = getAllocations();
+            List<AllocationResult> currentAllocations = new ArrayList<>(allocations);
             if (currentAllocations.isEmpty()) {
                 ValidationSingleResult result = new ValidationSingleResult();
                 result.error = "No allocations available for validation";
@@ -677,7 +782,11 @@ public class EFARunner {
         }
     }
 
-    public ValidationMultipleResult getValidationMultipleReport() {
+    public Object getValidationMultipleReport() {
+        return cached != null ? cached.validation : buildValidationMultipleReport();
+    }
+
+    private ValidationMultipleResult buildValidationMultipleReport() {
         ValidationMultipleResult result = new ValidationMultipleResult();
 
         if (multipleValidationResults.isEmpty()) {
@@ -914,12 +1023,143 @@ public class EFARunner {
         return values.stream().mapToDouble(Double::doubleValue).average().orElse(0.0);
     }
 
+    private Checkpoint checkpoint(ExtendedFireflyAlgorithm optimizer, Path dataset, long elapsedNanos) {
+        try {
+            return new Checkpoint(
+                    "efa",
+                    MAPPER.writeValueAsString(params),
+                    dataset.toString(),
+                    elapsedNanos,
+                    optimizer.snapshot(),
+                    new ArrayList<>(iterationHistory));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Starting points for params.warmStart, as decision vectors of this problem. */
+    private List<double[]> warmStarts(AllocationProblem problem) throws IOException {
+        WarmStart warmStart = params.warmStart;
+        List<double[]> starts = new ArrayList<>();
+        switch (warmStart.source) {
+            case "current" -> starts.add(problem.fromAllocation(problem.currentAllocation()));
+            case "run" -> {
+                if (store == null) {
+                    throw new IllegalArgumentException("Run store unavailable for warm start from a run");
+                }
+                double[][] A = store.getAllocationMatrix(warmStart.jobId, problem.data);
+                if (A == null) throw new IllegalArgumentException("No stored run with jobId " + warmStart.jobId);
+                starts.add(problem.fromAllocation(A));
+            }
+            default -> {
+                for (double[][] A : warmStart.allocations) starts.add(problem.fromAllocation(A));
+            }
+        }
+        Log.info(
+                "[EFA] Warm start from %s: seeding %.0f%% of the population",
+                warmStart.source, warmStart.fraction * 100);
+        return starts;
+    }
+
+    private Path datasetPath() {
+        return resumeFrom != null ? Path.of(resumeFrom.dataset) : DEFAULT_DATASET;
+    }
+
+    // ========== PERSISTENCE ==========
+
+    /**
+     * Hands the finished job to the result cache and the run store. Only the record is assembled
+     * here; serialization, compression and disk I/O happen on the store's writer thread. Store
+     * failures never fail a run.
+     */
+    private void persist(String mode) {
+        if (store == null && cache == null) return;
+        try {
+            RunRecord record = new RunRecord();
+            record.jobId = jobId;
+            record.algorithm = "efa";
+            record.mode = mode;
+            record.datasetHash = RunStore.hashFile(datasetPath());
+            record.createdAt = System.currentTimeMillis();
+            record.paramsHash = ResultCache.paramsHash(params);
+            record.params = params;
+            record.summary = getResults();
+            if ("single".equals(mode)) {
+                record.iterations = new ArrayList<>(iterationHistory);
+                record.allocations = new ArrayList<>(allocations);
+                record.flows = new ArrayList<>(flows);
+                record.validation = buildValidationSingleReport();
+                record.objectives = getObjectiveData();
+            } else {
+                record.validation = buildValidationMultipleReport();
+            }
+            // Stopped or partially failed jobs are stored but never served as a cached answer
+            boolean complete =
+                    "single".equals(mode) || (multipleRunErrors.isEmpty() && multipleRunResults.size() == totalRuns);
+            if (cache != null && params.seed != null && complete) cache.put(record, totalRuns);
+            if (store == null) return;
+            store.append(record).whenComplete((entry, e) -> {
+                if (e != null) Log.warn("Failed to store run %s: %s", jobId, e.getMessage());
+            });
+        } catch (Exception e) {
+            Log.warn("Failed to store run %s: %s", jobId, e.getMessage());
+        }
+    }
+
+    /**
+     * Answers this job from the result cache if an identical seeded job finished before; the
+     * getters then serve the cached payloads. Resumed runs always execute.
+     */
+    @SuppressWarnings("unchecked")
+    private boolean serveFromCache(int runs) {
+        if (cache == null || params.seed == null || resumeFrom != null) return false;
+        try {
+            RunRecord hit = cache.get("efa", runs, RunStore.hashFile(datasetPath()), ResultCache.paramsHash(params));
+            if (hit == null) return false;
+            cached = hit;
+            results = (Map<String, Object>) hit.summary;
+            currentIteration = params.generations;
+            Log.info("[EFA] Served from result cache (job %s)", hit.jobId);
+            return true;
+        } catch (Exception e) {
+            Log.warn("Result cache lookup failed: %s", e.getMessage());
+            return false;
+        }
+    }
+
+    /** Fresh random source for the current run; seeded runs use seed + run - 1. */
+    private Random newRandom() {
+        return params.seed != null ? new Random(params.seed + Math.max(0, currentRun - 1)) : new Random();
+    }
+
+    public void setCache(ResultCache cache) {
+        this.cache = cache;
+    }
+
+    /** Persist finished jobs to this store (null disables persistence). */
+    public void setStore(RunStore store) {
+        this.store = store;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
     // ========== CONTROL ==========
 
     public void stop() {
         stopped = true;
     }
 
+    /** Ends a single run after the current generation, keeping a checkpoint to resume from. */
+    public void pause() {
+        paused = true;
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
     public boolean isRunning() {
         return running;
     }
@@ -937,7 +1177,7 @@ public class EFARunner {
     }
 
     private void checkStopped() throws InterruptedException {
-        if (stopped) {
+        if (stopped || paused) {
             throw new InterruptedException("Optimization stopped by user.");
         }
     }
@@ -973,25 +1213,22 @@ public class EFARunner {
         return allocations;
     }
 
-    private static List<FlowResult> createFlows(double[][][] flows, Data data) {
-        List<FlowResult> flowResults = new ArrayList<>();
+    private static List<FlowResult> createFlows(FlowAllocator.Result flows, Data data) {
+        List<FlowResult> flowResults = new ArrayList<>(flows.size());
 
         for (int c = 0; c < data.C; c++) {
             for (int from = 0; from < data.Z; from++) {
-                for (int to = 0; to < data.Z; to++) {
-                    double amt = flows[c][from][to];
-                    long units = Math.max(0L, Math.round(amt));
-
-                    if (units > 0L) {
-                        flowResults.add(new FlowResult(
-                                data.classIds[c],
-                                data.classNames[c],
-                                data.barangayIds[from],
-                                data.barangayNames[from],
-                                data.barangayIds[to],
-                                data.barangayNames[to],
-                                units));
-                    }
+                int row = c * data.Z + from;
+                for (int k = flows.rowStart[row]; k < flows.rowStart[row + 1]; k++) {
+                    int to = flows.to[k];
+                    flowResults.add(new FlowResult(
+                            data.classIds[c],
+                            data.classNames[c],
+                            data.barangayIds[from],
+                            data.barangayNames[from],
+                            data.barangayIds[to],
+                            data.barangayNames[to],
+                            flows.amount[k]));
                 }
             }
         }
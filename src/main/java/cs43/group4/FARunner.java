@@ -1,14 +1,24 @@
 package cs43.group4;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sun.management.ThreadMXBean;
+import cs43.group4.cache.ResultCache;
+import cs43.group4.checkpoint.Checkpoint;
+import cs43.group4.checkpoint.CheckpointWriter;
+import cs43.group4.core.AllocationProblem;
 import cs43.group4.core.DataLoader;
 import cs43.group4.core.DataLoader.Data;
-import cs43.group4.core.FireflyAlgorithm;
 import cs43.group4.core.FlowAllocator;
-import cs43.group4.core.ObjectiveFunction;
-import cs43.group4.core.ThesisObjective;
+import cs43.group4.core.MemoizedObjective;
+import cs43.group4.core.Optimizer;
+import cs43.group4.core.OptimizerState;
+import cs43.group4.parameters.DataDelta;
 import cs43.group4.parameters.FAParams;
-import cs43.group4.utils.AllocationNormalizer;
+import cs43.group4.parameters.WarmStart;
+import cs43.group4.store.RunRecord;
+import cs43.group4.store.RunStore;
+import cs43.group4.utils.AllocationDiff;
 import cs43.group4.utils.AllocationResult;
 import cs43.group4.utils.FlowResult;
 import cs43.group4.utils.IterationResult;
@@ -18,20 +28,27 @@ import cs43.group4.utils.OverallStats;
 import cs43.group4.utils.ValidationMultipleResult;
 import cs43.group4.utils.ValidationMultipleResult.PerBarangayMultiStats;
 import cs43.group4.utils.ValidationSingleResult;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.lang.management.ManagementFactory;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.DoubleSummaryStatistics;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 public class FARunner {
     private final FAParams params;
     private volatile boolean running = false;
     private volatile boolean stopped = false;
+    private volatile boolean paused = false;
     private volatile String error = null;
 
     // Single run state
@@ -63,10 +80,45 @@ public class FARunner {
 
     private final int precision = 12;
 
+    // Checkpointing (single runs only)
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Path DEFAULT_DATASET = Path.of("data", "barangays.csv");
+    private Checkpoint resumeFrom = null;
+
+    // Persistence of finished jobs (optional)
+    private final String jobId = UUID.randomUUID().toString();
+    private RunStore store = null;
+
+    // Result cache (seeded runs only); cached is set when this job was answered from it
+    private ResultCache cache = null;
+    private RunRecord cached = null;
+
+    // Baseline for re-optimization: the last completed single run, advanced by each reoptimize()
+    private OptimizerState finalState = null;
+    private AllocationProblem finalProblem = null;
+    private double[][] finalAllocation = null;
+
     public FARunner(FAParams params) {
         this.params = params;
     }
 
+    /**
+     * Runner that continues the single run saved in a checkpoint when {@link #run()} is called.
+     * @throws IllegalArgumentException if the checkpoint belongs to another algorithm
+     */
+    public static FARunner fromCheckpoint(Checkpoint checkpoint) {
+        if (!"fa".equals(checkpoint.algorithm)) {
+            throw new IllegalArgumentException("Checkpoint is for " + checkpoint.algorithm + ", not fa");
+        }
+        try {
+            FARunner runner = new FARunner(MAPPER.readValue(checkpoint.paramsJson, FAParams.class));
+            runner.resumeFrom = checkpoint;
+            return runner;
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid parameters in checkpoint: " + e.getOriginalMessage());
+        }
+    }
+
     // ========== SINGLE RUN ==========
 
     public void run() throws Exception {
@@ -77,10 +129,16 @@ public class FARunner {
 
         objectiveLogger = new ObjectiveLogger(false);
         try {
+            if (serveFromCache(1)) return;
             executeSingleRun();
+            persist("single");
         } catch (InterruptedException e) {
-            this.error = "Stopped by user.";
-            System.err.println("Stopped by user.");
+            if (paused) {
+                Log.info("[FA] Run paused at generation %d", currentIteration);
+            } else {
+                this.error = "Stopped by user.";
+                System.err.println("Stopped by user.");
+            }
         } catch (Exception e) {
             this.error = "FARunner error: " + e.getMessage();
             System.err.println("FARunner error: " + e.getMessage());
@@ -109,6 +167,7 @@ public class FARunner {
         objectiveLogger = new ObjectiveLogger(false);
 
         try {
+            if (serveFromCache(numRuns)) return;
             Log.info("Starting " + numRuns + " runs");
 
             for (int run = 1; run <= numRuns; run++) {
@@ -146,6 +205,7 @@ public class FARunner {
             }
 
             multiRunEndTime = System.currentTimeMillis();
+            if (!multipleRunResults.isEmpty()) persist("multiple");
             Log.info("Completed " + multipleRunResults.size() + " out of " + numRuns + " runs");
 
         } catch (Exception e) {
@@ -161,73 +221,35 @@ public class FARunner {
     // ========== SHARED EXECUTION LOGIC ==========
 
     private void executeSingleRun() throws Exception {
-        var data = DataLoader.load(Path.of("data", "barangays.csv"));
-        int Z = data.Z, C = data.C;
-        int D = Z * C;
+        Path dataset = datasetPath();
+        AllocationProblem problem =
+                AllocationProblem.load(dataset).withEncoding(params.encoding).withDistance(params.distance);
+        var data = problem.data;
+        int Z = problem.Z, C = problem.C;
+        double[][] currentPerClass = problem.currentPerClass;
 
         // Diagnostic: FA runs baseline optimizer with flows distance-aware if geo present
         boolean haveGeo = (data.lat != null && data.lon != null);
-        Log.info("[FA] Running FireflyAlgorithm (baseline). Flow distance-aware: %s", haveGeo);
-
-        double[] lower = new double[D];
-        double[] upper = new double[D];
-        for (int i = 0; i < Z; i++) {
-            for (int c = 0; c < C; c++) {
-                int k = i * C + c;
-                lower[k] = 0.0;
-                double cap = Math.max(1.0, Math.min(data.supply[c], data.AC[i] + 200));
-                upper[k] = cap;
-            }
-        }
 
-        double[][] currentPerClass = new double[C][Z];
-        for (int i = 0; i < Z; i++) {
-            if (C >= 1) currentPerClass[0][i] = data.sarCurrent[i];
-            if (C >= 2) currentPerClass[1][i] = data.emsCurrent[i];
+        // Memoized runs report the share of evaluations served from the cache per generation
+        MemoizedObjective memo = params.memoize ? new MemoizedObjective(problem.objective()) : null;
+        Optimizer fa = problem.newFA(params, newRandom(), memo != null ? memo : problem.objective());
+        Log.info(
+                "[FA] Running %s (baseline). Flow distance-aware: %s",
+                fa.getClass().getSimpleName(), haveGeo);
+        if (params.warmStart != null && resumeFrom == null) {
+            fa.seedPopulation(warmStarts(problem), params.warmStart.fraction, params.warmStart.perturbation);
         }
 
-        ObjectiveFunction baseObjective = new ThesisObjective(
-                Z,
-                C,
-                data.r,
-                data.f,
-                data.E,
-                data.AC,
-                data.lambda,
-                data.supply,
-                1e-6,
-                10.0,
-                null,
-                1.0,
-                currentPerClass,
-                null,
-                null,
-                0.01);
-
-        // Use the base objective directly without additional scaling
-        ObjectiveFunction thesisObj = baseObjective;
-
-        FireflyAlgorithm fa = new FireflyAlgorithm(
-                thesisObj,
-                params.numFireflies,
-                lower,
-                upper,
-                params.gamma,
-                params.beta0,
-                params.alpha0,
-                params.alphaFinal,
-                params.generations);
-
         fa.setProgressListener((generation, bestX) -> {
-            if (stopped) return;
-
             currentIteration = generation;
             // Use optimizer's best minimization value -> convert to maximization for display
             double bestMin = fa.getBestValue();
             // Report the fitness directly (maximization = negative of minimization value)
             double bestFit = -bestMin;
             bestFit = roundToPrecision(bestFit);
-            iterationHistory.add(new IterationResult(generation, bestFit));
+            Double hitRate = memo != null ? roundToPrecision(memo.windowHitRate()) : null;
+            iterationHistory.add(new IterationResult(generation, bestFit, hitRate));
 
             if (generation % 50 == 0) {
                 String runPrefix = (totalRuns > 1) ? "[Run " + currentRun + "/" + totalRuns + "] " : "";
@@ -242,35 +264,51 @@ public class FARunner {
         long allocatedBefore = threadBean.getThreadAllocatedBytes(threadId);
         long startTime = System.nanoTime();
 
-        fa.optimize();
+        // Single runs checkpoint every params.checkpointEvery generations and on pause/stop
+        CheckpointWriter checkpoints = null;
+        long resumedNanos = 0L;
+        if (totalRuns == 1) {
+            checkpoints = new CheckpointWriter(Checkpoint.pathFor("fa"));
+            if (resumeFrom != null) {
+                fa.restore(resumeFrom.state);
+                iterationHistory.addAll(resumeFrom.history);
+                currentIteration = resumeFrom.state.generation;
+                resumedNanos = resumeFrom.elapsedNanos;
+                Log.info("[FA] Resuming from generation %d", currentIteration);
+            }
+        }
+
+        while (fa.getGeneration() < params.generations && !stopped && !paused) {
+            fa.nextGeneration();
+            int gen = fa.getGeneration();
+            if (checkpoints != null
+                    && params.checkpointEvery > 0
+                    && gen % params.checkpointEvery == 0
+                    && gen < params.generations) {
+                checkpoints.submit(checkpoint(fa, dataset, resumedNanos + System.nanoTime() - startTime));
+            }
+        }
+        if (checkpoints != null) {
+            if (stopped || paused) {
+                checkpoints.writeNow(checkpoint(fa, dataset, resumedNanos + System.nanoTime() - startTime));
+            } else {
+                checkpoints.delete();
+            }
+        }
         checkStopped();
 
         long endTime = System.nanoTime();
         long allocatedAfter = threadBean.getThreadAllocatedBytes(threadId);
 
         double[] x = fa.getBestSolution();
-        double[][] A = new double[Z][C];
-        int k = 0;
-        for (int i = 0; i < Z; i++) for (int c = 0; c < C; c++, k++) A[i][c] = Math.max(0.0, x[k]);
-
-        for (int c = 0; c < C; c++) {
-            double used = 0.0;
-            for (int i = 0; i < Z; i++) used += A[i][c];
-            double cap = data.supply[c];
-            if (used > cap + 1e-6) {
-                double scale = cap / (used + 1e-6);
-                for (int i = 0; i < Z; i++) A[i][c] *= scale;
-            }
-        }
-
-        // Final normalization: integer allocations that do not exceed per-class supplies
-        A = AllocationNormalizer.enforceSupplyAndRound(A, data.supply);
+        // Clamp, scale back over-supplied classes, then round to integers within supply
+        double[][] A = problem.toAllocation(x);
 
         // Derive final metrics from optimizer's best values to reflect the true optimum found
         double minimizedObjective = fa.getBestValue();
         minimizedObjective = roundToPrecision(minimizedObjective);
         bestFitness = roundToPrecision(-minimizedObjective);
-        executionTime = roundToPrecision((endTime - startTime) / 1_000_000.0);
+        executionTime = roundToPrecision((resumedNanos + endTime - startTime) / 1_000_000.0);
         memoryUsage = allocatedAfter - allocatedBefore;
 
         // ---------------------------------------------
@@ -349,21 +387,22 @@ public class FARunner {
 
         // Only write outputs and log for single runs (not in multiple runs mode)
         if (totalRuns == 1) {
+            finalState = fa.snapshot();
+            finalProblem = problem;
+            finalAllocation = A;
             Log.info("Execution Time: " + executionTime + " ms");
             Log.info("Memory Allocated: " + memoryUsage + " bytes ("
                     + String.format("%.2f", memoryUsage / (1024.0 * 1024.0)) + " MB)");
             Log.info("Best Fitness Score (Maximization) = " + bestFitness);
             Log.info("Best Fitness Score (Minimization) = " + minimizedObjective);
 
-            var flow = (data.lat != null && data.lon != null)
-                    ? FlowAllocator.allocate(A, currentPerClass, data.lat, data.lon)
-                    : FlowAllocator.allocate(A, currentPerClass);
+            var flow = FlowAllocator.allocate(A, currentPerClass, problem.geo(), params.flowSolver);
 
             allocations.addAll(createAllocations(A, data));
-            flows.addAll(createFlows(flow.flows, data));
+            flows.addAll(createFlows(flow, data));
 
             // Optional: Still write CSVs if we want
-            // writeFlowsCsv(flow.flows, data, Path.of("out", "flows.csv"));
+            // writeFlowsCsv(flow, data, Path.of("out", "flows.csv"));
             // writeAllocationsCsv(A, data, Path.of("out", "allocations.csv"));
 
             results = Map.of(
@@ -411,9 +450,69 @@ public class FARunner {
         }
     }
 
+    // ========== RE-OPTIMIZATION ==========
+
+    /** True once a single run has completed, so {@link #reoptimize} has a population to start from. */
+    public boolean canReoptimize() {
+        return finalState != null;
+    }
+
+    /**
+     * Applies a data delta to the last completed single run and refines its final population for
+     * delta.generations generations instead of starting over. The previous population is re-scored
+     * against the updated objective (clamped to the new bounds) and the refined result becomes the
+     * baseline for the next delta. Runs on the calling thread.
+     * @throws IllegalStateException if no single run has completed yet
+     * @throws IllegalArgumentException if the delta names an unknown barangay
+     */
+    public synchronized Map<String, Object> reoptimize(DataDelta delta) {
+        if (finalState == null) {
+            throw new IllegalStateException("No completed single run to re-optimize");
+        }
+        long startTime = System.nanoTime();
+        AllocationProblem problem = finalProblem.withDelta(delta);
+
+        FAParams refine = MAPPER.convertValue(params, FAParams.class);
+        refine.generations = delta.generations;
+        refine.warmStart = null;
+        Optimizer fa = problem.newFA(refine, newRandom());
+        // Previous best first, then the rest of the previous population
+        List<double[]> starts = new ArrayList<>();
+        starts.add(finalState.bestSolution);
+        starts.addAll(Arrays.asList(finalState.positions));
+        fa.seedPopulation(starts, 1.0, 0.0);
+        double before = -problem.evaluate(problem.fromAllocation(finalAllocation));
+        fa.optimize();
+
+        double[][] A = problem.toAllocation(fa.getBestSolution());
+        List<AllocationDiff> diff = AllocationDiff.between(finalAllocation, A, problem.data);
+        double elapsedMs = roundToPrecision((System.nanoTime() - startTime) / 1_000_000.0);
+        Log.info(
+                "[FA] Re-optimized %d changed barangays in %.1f ms: %d allocations changed",
+                delta.changes.size(), elapsedMs, diff.size());
+
+        finalState = fa.snapshot();
+        finalProblem = problem;
+        finalAllocation = A;
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("jobId", jobId);
+        result.put("changedBarangays", delta.changes.size());
+        result.put("generations", delta.generations);
+        result.put("previousFitness", roundToPrecision(before));
+        result.put("fitnessMaximization", roundToPrecision(-fa.getBestValue()));
+        result.put("executionTimeMs", elapsedMs);
+        result.put("personnelMoved", AllocationDiff.moved(diff));
+        result.put("diff", diff);
+        result.put("allocations", createAllocations(A, problem.data));
+        return result;
+    }
+
     // ========== STATUS & RESULTS ==========
 
+    @SuppressWarnings("unchecked")
     public Map<String, Object> getObjectiveData() {
+        if (cached != null && cached.objectives != null) return (Map<String, Object>) cached.objectives;
         if (objective1Data == null) {
             return Map.of("error", "No objective data available");
         }
@@ -429,13 +528,15 @@ public class FARunner {
     public Map<String, Object> getStatus() {
         Map<String, Object> status = new HashMap<>();
         status.put("running", running);
+        status.put("jobId", jobId);
+        if (cached != null) status.put("cachedFrom", cached.jobId);
 
         if (totalRuns > 1) {
             // Multiple runs status
             status.put("mode", "multiple");
             status.put("currentRun", currentRun);
             status.put("totalRuns", totalRuns);
-            status.put("completedRuns", multipleRunResults.size());
+            status.put("completedRuns", cached != null ? totalRuns : multipleRunResults.size());
             status.put("failedRuns", multipleRunErrors.size());
             double runProgress = currentIteration / (double) params.generations;
             double overallProgress = (currentRun - 1 + runProgress) / totalRuns;
@@ -451,9 +552,10 @@ public class FARunner {
         } else {
             // Single run status
             status.put("mode", "single");
+            if (paused) status.put("paused", true);
             status.put("currentIteration", currentIteration);
             status.put("totalIterations", params.generations);
-            status.put("progress", running ? (double) currentIteration / params.generations : 1.0);
+            status.put("progress", running || paused ? (double) currentIteration / params.generations : 1.0);
         }
 
         if (error != null) {
@@ -467,7 +569,9 @@ public class FARunner {
     }
 
     public Map<String, Object> getResults() {
-        if (totalRuns > 1) {
+        if (cached != null) {
+            return results;
+        } else if (totalRuns > 1) {
             return getMultipleRunResults();
         } else {
             return results != null ? results : Map.of("error", "No results available");
@@ -552,16 +656,16 @@ public class FARunner {
         return aggregated;
     }
 
-    public List<AllocationResult> getAllocations() {
-        return new ArrayList<>(allocations);
+    public List<?> getAllocations() {
+        return cached != null ? (List<?>) cached.allocations : new ArrayList<>(allocations);
     }
 
-    public List<FlowResult> getFlows() {
-        return new ArrayList<>(flows);
+    public List<?> getFlows() {
+        return cached != null ? (List<?>) cached.flows : new ArrayList<>(flows);
     }
 
-    public List<IterationResult> getIterationHistory() {
-        return new ArrayList<>(iterationHistory);
+    public List<?> getIterationHistory() {
+        return cached != null ? (List<?>) cached.iterations : new ArrayList<>(iterationHistory);
     }
 
     private ValidationSingleResult generateValidation(Data data, List<AllocationResult> currentAllocations) {
@@ -664,9 +768,13 @@ public class FARunner {
      * Uses getAllocations() to get the allocation data
      * @return ValidationSingleResult object with all validation metrics
      */
-    public ValidationSingleResult getValidationSingleReport() {
+    public Object getValidationSingleReport() {
+        return cached != null ? cached.validation : buildValidationSingleReport();
+    }
+
+    private ValidationSingleResult buildValidationSingleReport() {
         try {
-            List<AllocationResult> currentAllocations = getAllocations();
+            List<AllocationResult> currentAllocations = new ArrayList<>(allocations);
             if (currentAllocations.isEmpty()) {
                 ValidationSingleResult result = new ValidationSingleResult();
                 result.error = "No allocations available for validation";
@@ -690,7 +798,11 @@ public class FARunner {
         }
     }
 
-    public ValidationMultipleResult getValidationMultipleReport() {
+    public Object getValidationMultipleReport() {
+        return cached != null ? cached.validation : buildValidationMultipleReport();
+    }
+
+    private ValidationMultipleResult buildValidationMultipleReport() {
         ValidationMultipleResult result = new ValidationMultipleResult();
 
         if (multipleValidationResults.isEmpty()) {
@@ -865,12 +977,143 @@ public class FARunner {
         return perBarangayStats;
     }
 
+    private Checkpoint checkpoint(Optimizer optimizer, Path dataset, long elapsedNanos) {
+        try {
+            return new Checkpoint(
+                    "fa",
+                    MAPPER.writeValueAsString(params),
+                    dataset.toString(),
+                    elapsedNanos,
+                    optimizer.snapshot(),
+                    new ArrayList<>(iterationHistory));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Starting points for params.warmStart, as decision vectors of this problem. */
+    private List<double[]> warmStarts(AllocationProblem problem) throws IOException {
+        WarmStart warmStart = params.warmStart;
+        List<double[]> starts = new ArrayList<>();
+        switch (warmStart.source) {
+            case "current" -> starts.add(problem.fromAllocation(problem.currentAllocation()));
+            case "run" -> {
+                if (store == null) {
+                    throw new IllegalArgumentException("Run store unavailable for warm start from a run");
+                }
+                double[][] A = store.getAllocationMatrix(warmStart.jobId, problem.data);
+                if (A == null) throw new IllegalArgumentException("No stored run with jobId " + warmStart.jobId);
+                starts.add(problem.fromAllocation(A));
+            }
+            default -> {
+                for (double[][] A : warmStart.allocations) starts.add(problem.fromAllocation(A));
+            }
+        }
+        Log.info(
+                "[FA] Warm start from %s: seeding %.0f%% of the population",
+                warmStart.source, warmStart.fraction * 100);
+        return starts;
+    }
+
+    private Path datasetPath() {
+        return resumeFrom != null ? Path.of(resumeFrom.dataset) : DEFAULT_DATASET;
+    }
+
+    // ========== PERSISTENCE ==========
+
+    /**
+     * Hands the finished job to the result cache and the run store. Only the record is assembled
+     * here; serialization, compression and disk I/O happen on the store's writer thread. Store
+     * failures never fail a run.
+     */
+    private void persist(String mode) {
+        if (store == null && cache == null) return;
+        try {
+            RunRecord record = new RunRecord();
+            record.jobId = jobId;
+            record.algorithm = "fa";
+            record.mode = mode;
+            record.datasetHash = RunStore.hashFile(datasetPath());
+            record.createdAt = System.currentTimeMillis();
+            record.paramsHash = ResultCache.paramsHash(params);
+            record.params = params;
+            record.summary = getResults();
+            if ("single".equals(mode)) {
+                record.iterations = new ArrayList<>(iterationHistory);
+                record.allocations = new ArrayList<>(allocations);
+                record.flows = new ArrayList<>(flows);
+                record.validation = buildValidationSingleReport();
+                record.objectives = getObjectiveData();
+            } else {
+                record.validation = buildValidationMultipleReport();
+            }
+            // Stopped or partially failed jobs are stored but never served as a cached answer
+            boolean complete =
+                    "single".equals(mode) || (multipleRunErrors.isEmpty() && multipleRunResults.size() == totalRuns);
+            if (cache != null && params.seed != null && complete) cache.put(record, totalRuns);
+            if (store == null) return;
+            store.append(record).whenComplete((entry, e) -> {
+                if (e != null) Log.warn("Failed to store run %s: %s", jobId, e.getMessage());
+            });
+        } catch (Exception e) {
+            Log.warn("Failed to store run %s: %s", jobId, e.getMessage());
+        }
+    }
+
+    /**
+     * Answers this job from the result cache if an identical seeded job finished before; the
+     * getters then serve the cached payloads. Resumed runs always execute.
+     */
+    @SuppressWarnings("unchecked")
+    private boolean serveFromCache(int runs) {
+        if (cache == null || params.seed == null || resumeFrom != null) return false;
+        try {
+            RunRecord hit = cache.get("fa", runs, RunStore.hashFile(datasetPath()), ResultCache.paramsHash(params));
+            if (hit == null) return false;
+            cached = hit;
+            results = (Map<String, Object>) hit.summary;
+            currentIteration = params.generations;
+            Log.info("[FA] Served from result cache (job %s)", hit.jobId);
+            return true;
+        } catch (Exception e) {
+            Log.warn("Result cache lookup failed: %s", e.getMessage());
+            return false;
+        }
+    }
+
+    /** Fresh random source for the current run; seeded runs use seed + run - 1. */
+    private Random newRandom() {
+        return params.seed != null ? new Random(params.seed + Math.max(0, currentRun - 1)) : new Random();
+    }
+
+    public void setCache(ResultCache cache) {
+        this.cache = cache;
+    }
+
+    /** Persist finished jobs to this store (null disables persistence). */
+    public void setStore(RunStore store) {
+        this.store = store;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
     // ========== CONTROL ==========
 
     public void stop() {
         stopped = true;
     }
 
+    /** Ends a single run after the current generation, keeping a checkpoint to resume from. */
+    public void pause() {
+        paused = true;
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
     public boolean isRunning() {
         return running;
     }
@@ -888,7 +1131,7 @@ public class FARunner {
     }
 
     private void checkStopped() throws InterruptedException {
-        if (stopped) {
+        if (stopped || paused) {
             throw new InterruptedException("Optimization stopped by user.");
         }
     }
@@ -978,25 +1221,22 @@ public class FARunner {
         return allocations;
     }
 
-    private static List<FlowResult> createFlows(double[][][] flows, Data data) {
-        List<FlowResult> flowResults = new ArrayList<>();
+    private static List<FlowResult> createFlows(FlowAllocator.Result flows, Data data) {
+        List<FlowResult> flowResults = new ArrayList<>(flows.size());
 
         for (int c = 0; c < data.C; c++) {
             for (int from = 0; from < data.Z; from++) {
-                for (int to = 0; to < data.Z; to++) {
-                    double amt = flows[c][from][to];
-                    long units = Math.max(0L, Math.round(amt));
-
-                    if (units > 0L) {
-                        flowResults.add(new FlowResult(
-                                data.classIds[c],
-                                data.classNames[c],
-                                data.barangayIds[from],
-                                data.barangayNames[from],
-                                data.barangayIds[to],
-                                data.barangayNames[to],
-                                units));
-                    }
+                int row = c * data.Z + from;
+                for (int k = flows.rowStart[row]; k < flows.rowStart[row + 1]; k++) {
+                    int to = flows.to[k];
+                    flowResults.add(new FlowResult(
+                            data.classIds[c],
+                            data.classNames[c],
+                            data.barangayIds[from],
+                            data.barangayNames[from],
+                            data.barangayIds[to],
+                            data.barangayNames[to],
+                            flows.amount[k]));
                 }
             }
         }
@@ -1035,32 +1275,30 @@ public class FARunner {
     }
 
     @SuppressWarnings("unused")
-    private static void writeFlowsCsv(double[][][] flows, Data data, Path path) {
+    private static void writeFlowsCsv(FlowAllocator.Result flows, Data data, Path path) {
         try {
             Files.createDirectories(path.getParent());
             StringBuilder sb = new StringBuilder();
             sb.append("class_id,class_name,from_id,from_name,to_id,to_name,amount\n");
             for (int c = 0; c < data.C; c++) {
                 for (int from = 0; from < data.Z; from++) {
-                    for (int to = 0; to < data.Z; to++) {
-                        double amt = flows[c][from][to];
-                        long units = Math.max(0L, Math.round(amt));
-                        if (units > 0L) {
-                            sb.append(escapeCsv(data.classIds[c]))
-                                    .append(",")
-                                    .append(escapeCsv(data.classNames[c]))
-                                    .append(",")
-                                    .append(escapeCsv(data.barangayIds[from]))
-                                    .append(",")
-                                    .append(escapeCsv(data.barangayNames[from]))
-                                    .append(",")
-                                    .append(escapeCsv(data.barangayIds[to]))
-                                    .append(",")
-                                    .append(escapeCsv(data.barangayNames[to]))
-                                    .append(",")
-                                    .append(units)
-                                    .append("\n");
-                        }
+                    int row = c * data.Z + from;
+                    for (int k = flows.rowStart[row]; k < flows.rowStart[row + 1]; k++) {
+                        int to = flows.to[k];
+                        sb.append(escapeCsv(data.classIds[c]))
+                                .append(",")
+                                .append(escapeCsv(data.classNames[c]))
+                                .append(",")
+                                .append(escapeCsv(data.barangayIds[from]))
+                                .append(",")
+                                .append(escapeCsv(data.barangayNames[from]))
+                                .append(",")
+                                .append(escapeCsv(data.barangayIds[to]))
+                                .append(",")
+                                .append(escapeCsv(data.barangayNames[to]))
+                                .append(",")
+                                .append(flows.amount[k])
+                                .append("\n");
                     }
                 }
             }
@@ -0,0 +1,72 @@
+package cs43.group4;
+
+import cs43.group4.core.DatasetGenerator;
+import cs43.group4.core.DatasetGenerator.Region;
+import cs43.group4.utils.BarangayData;
+import cs43.group4.utils.Log;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Command-line entry point for {@link DatasetGenerator}.
+ *
+ * <pre>
+ * mvn -q compile exec:java -Dexec.mainClass=cs43.group4.GenerateDataset \
+ *     -Dexec.args="--z 5000 --seed 42 --region metro --format csv --out data/synthetic/metro-5000.csv"
+ * </pre>
+ */
+public class GenerateDataset {
+
+    public static void main(String[] args) throws Exception {
+        int Z = 1000;
+        long seed = 42L;
+        Region region = Region.METRO;
+        String format = null;
+        Path out = null;
+
+        for (int a = 0; a < args.length; a++) {
+            String arg = args[a];
+            if (arg.equals("--help") || arg.equals("-h")) {
+                printUsage();
+                return;
+            }
+            if (a + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + arg);
+            }
+            String value = args[++a];
+            switch (arg) {
+                case "--z" -> Z = Integer.parseInt(value);
+                case "--seed" -> seed = Long.parseLong(value);
+                case "--region" -> region = Region.valueOf(value.toUpperCase(Locale.ROOT));
+                case "--format" -> format = value.toLowerCase(Locale.ROOT);
+                case "--out" -> out = Path.of(value);
+                default -> throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+
+        if (format == null) {
+            format = out != null && out.toString().endsWith(".bin") ? "bin" : "csv";
+        }
+        if (!format.equals("csv") && !format.equals("bin")) {
+            throw new IllegalArgumentException("format must be csv or bin, got " + format);
+        }
+        if (out == null) {
+            out = Path.of(
+                    "data", "synthetic", region.name().toLowerCase(Locale.ROOT) + "-" + Z + "-s" + seed + "." + format);
+        }
+
+        List<BarangayData> rows = new DatasetGenerator(seed, region).generate(Z);
+        if (format.equals("bin")) {
+            DatasetGenerator.writeBinary(rows, out);
+        } else {
+            DatasetGenerator.writeCsv(rows, out);
+        }
+        Log.info("Generated %d barangays (region=%s, seed=%d) -> %s", Z, region, seed, out);
+    }
+
+    private static void printUsage() {
+        System.out.println("Usage: GenerateDataset [--z N] [--seed S] [--region metro|nationwide]"
+                + " [--format csv|bin] [--out PATH]");
+    }
+}
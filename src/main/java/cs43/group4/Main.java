@@ -1,32 +1,32 @@
 package cs43.group4;
 
+import cs43.group4.cache.ResultCache;
 import cs43.group4.controllers.DataController;
 import cs43.group4.controllers.EFAController;
 import cs43.group4.controllers.FAController;
+import cs43.group4.controllers.MetricsController;
+import cs43.group4.controllers.RunsController;
+import cs43.group4.controllers.SweepController;
+import cs43.group4.store.RunStore;
 import cs43.group4.utils.Log;
 import io.javalin.Javalin;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Map;
 
 public class Main {
     private static final int PORT = 8080;
 
+    // Run store: finished jobs are kept on disk for STORE_RETENTION, then dropped by compaction
+    private static final Path STORE_DIR = Path.of("store");
+    private static final long STORE_SEGMENT_BYTES = 64L * 1024 * 1024;
+    private static final Duration STORE_RETENTION = Duration.ofDays(30);
+    private static final int RESULT_CACHE_ENTRIES = 32; // in-memory tier; the run store is the disk tier
+
     public static void main(String[] args) {
 
         // Log.setLevel(Log.Level.OFF);
-        Javalin app = Javalin.create(config -> {
-                    config.http.defaultContentType = "application/json";
-                    config.bundledPlugins.enableCors(cors -> cors.addRule(it -> it.anyHost()));
-                })
-                .start(PORT);
-
-        FAController faController = new FAController();
-        EFAController efaController = new EFAController();
-        DataController dataController = new DataController();
-
-        app.get("/health", ctx -> {
-            Log.info("Health check requested");
-            ctx.json(Map.of("status", "UP"));
-        });
+        createApp().start(PORT);
 
         Log.info("═══════════════════════════════════════════════════════════");
         Log.info("Server started successfully on http://localhost:%d", PORT);
@@ -34,11 +34,15 @@ public class Main {
         Log.info("API Endpoints:");
         Log.info("  Utility:");
         Log.info("    GET  /health                             - Health check");
+        Log.info("    GET  /metrics                            - Prometheus metrics");
         Log.info("");
         Log.info("  FA Algorithm:");
         Log.info("    General:");
         Log.info("      GET  /fa/status                        - Get current status");
         Log.info("      POST /fa/stop                          - Stop running algorithm");
+        Log.info("      POST /fa/pause                         - Pause single run (checkpointed)");
+        Log.info("      POST /fa/resume                        - Resume from last checkpoint");
+        Log.info("      POST /fa/reoptimize                    - Refine last run after a data change");
         Log.info("      GET  /fa/results                       - Get results");
         Log.info("      GET  /fa/iterations                    - Get iteration history");
         Log.info("");
@@ -60,6 +64,9 @@ public class Main {
         Log.info("    General:");
         Log.info("      GET  /efa/status                       - Get current status");
         Log.info("      POST /efa/stop                         - Stop running algorithm");
+        Log.info("      POST /efa/pause                        - Pause single run (checkpointed)");
+        Log.info("      POST /efa/resume                       - Resume from last checkpoint");
+        Log.info("      POST /efa/reoptimize                   - Refine last run after a data change");
         Log.info("      GET  /efa/results                      - Get results");
         Log.info("      GET  /efa/iterations                   - Get iteration history");
         Log.info("");
@@ -75,8 +82,52 @@ public class Main {
         Log.info("      GET  /efa/allocations                  - Get allocation details");
         Log.info("      GET  /efa/flows                        - Get flow details");
         Log.info("      GET  /efa/objectives                   - Get objective data");
+        Log.info("");
+        Log.info("  Hyperparameter Sweep:");
+        Log.info("    POST /sweep/run                          - Start a grid/random sweep");
+        Log.info("    GET  /sweep/status                       - Get sweep progress");
+        Log.info("    POST /sweep/stop                         - Stop the sweep");
+        Log.info("    GET  /sweep/results                      - Aggregated table (JSON)");
+        Log.info("    GET  /sweep/results.csv                  - Aggregated table (CSV)");
+        Log.info("    POST /sweep/tune                         - Start successive-halving tuning");
+        Log.info("    GET  /sweep/tune/status                  - Get tuning progress (rungs)");
+        Log.info("    POST /sweep/tune/stop                    - Stop tuning early");
+        Log.info("    GET  /sweep/tune/result                  - Best params with 95% CI");
+        Log.info("");
+        Log.info("  Stored Runs:");
+        Log.info("    GET  /runs?algorithm=&dataset=&params=   - List stored runs (newest first)");
+        Log.info("    GET  /runs/{jobId}                       - Full stored run");
+        Log.info("    POST /runs/compact                       - Drop runs past retention");
         Log.info("═══════════════════════════════════════════════════════════");
+    }
+
+    /**
+     * Builds the Javalin app with every route registered but does not start it, so the server can
+     * also be embedded (e.g. by the load-test harness, which starts it on an ephemeral port).
+     */
+    public static Javalin createApp() {
+        MetricsController metricsController = new MetricsController();
+
+        Javalin app = Javalin.create(config -> {
+            config.http.defaultContentType = "application/json";
+            config.bundledPlugins.enableCors(cors -> cors.addRule(it -> it.anyHost()));
+            config.requestLogger.http(metricsController::recordRequest);
+        });
+
+        RunStore runStore = openRunStore();
+        ResultCache resultCache = new ResultCache(RESULT_CACHE_ENTRIES, runStore);
+        FAController faController = new FAController(runStore, resultCache);
+        EFAController efaController = new EFAController(runStore, resultCache);
+        RunsController runsController = new RunsController(runStore);
+        DataController dataController = new DataController();
+        SweepController sweepController = new SweepController();
+
+        app.get("/health", ctx -> {
+            Log.info("Health check requested");
+            ctx.json(Map.of("status", "UP"));
+        });
 
+        app.get("/metrics", metricsController::getMetrics);
         app.get("/data/barangays", dataController::getBarangays);
 
         // ========== FA ENDPOINTS ==========
@@ -84,6 +135,9 @@ public class Main {
         // General endpoints (work for both single and multiple runs)
         app.get("/fa/status", faController::getStatus);
         app.post("/fa/stop", faController::postStop);
+        app.post("/fa/pause", faController::postPause);
+        app.post("/fa/resume", faController::postResume);
+        app.post("/fa/reoptimize", faController::postReoptimize);
         app.get("/fa/results", faController::getResults);
         app.get("/fa/iterations", faController::getIterations);
 
@@ -105,6 +159,9 @@ public class Main {
         // General endpoints (work for both single and multiple runs)
         app.get("/efa/status", efaController::getStatus);
         app.post("/efa/stop", efaController::postStop);
+        app.post("/efa/pause", efaController::postPause);
+        app.post("/efa/resume", efaController::postResume);
+        app.post("/efa/reoptimize", efaController::postReoptimize);
         app.get("/efa/results", efaController::getResults);
         app.get("/efa/iterations", efaController::getIterations);
 
@@ -120,6 +177,36 @@ public class Main {
         app.get("/efa/allocations", efaController::getAllocations);
         app.get("/efa/flows", efaController::getFlows);
         app.get("/efa/objectives", efaController::getObjectives);
+
+        // ========== SWEEP ENDPOINTS ==========
+
+        app.post("/sweep/run", sweepController::postRun);
+        app.get("/sweep/status", sweepController::getStatus);
+        app.post("/sweep/stop", sweepController::postStop);
+        app.get("/sweep/results", sweepController::getResults);
+        app.get("/sweep/results.csv", sweepController::getResultsCsv);
+        app.post("/sweep/tune", sweepController::postTune);
+        app.get("/sweep/tune/status", sweepController::getTuneStatus);
+        app.post("/sweep/tune/stop", sweepController::postTuneStop);
+        app.get("/sweep/tune/result", sweepController::getTuneResult);
+
+        // ========== STORED RUN ENDPOINTS ==========
+        app.get("/runs", runsController::getRuns);
+        app.get("/runs/{jobId}", runsController::getRun);
+        app.post("/runs/compact", runsController::postCompact);
+
+        return app;
     }
-}
 
+    /** Opens the run store and drops expired runs in the background; null disables persistence. */
+    private static RunStore openRunStore() {
+        try {
+            RunStore store = RunStore.open(STORE_DIR, STORE_SEGMENT_BYTES, STORE_RETENTION);
+            store.compact();
+            return store;
+        } catch (Exception e) {
+            Log.error("Run store unavailable, results will not be persisted: %s", e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package cs43.group4.batch;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.JsonNode;
+import java.util.List;
+
+/**
+ * One entry of a batch job file. Expands to datasets × paramSets × runs optimizer runs.
+ *
+ * <pre>
+ * { "name": "fa-defaults", "algorithm": "fa", "datasets": ["data/barangays.csv"],
+ *   "paramSets": [{ "generations": 300 }, { "generations": 300, "gamma": 0.5 }],
+ *   "runs": 30, "seed": 42 }
+ * </pre>
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class BatchJob {
+    public String name;
+    public String algorithm = "fa"; // "fa" or "efa"
+    public List<String> datasets = List.of("data/barangays.csv");
+    public List<JsonNode> paramSets = List.of(); // FAParams/EFAParams fields; empty = defaults
+    public int runs = 1; // replications per (dataset, paramSet)
+    public Long seed = null; // base seed; run n uses seed + n. Null = unseeded
+
+    /**
+     * Validate the job definition.
+     * @throws IllegalArgumentException if any field is invalid
+     */
+    public void validate() {
+        if (!"fa".equals(algorithm) && !"efa".equals(algorithm)) {
+            throw new IllegalArgumentException("Invalid algorithm: " + algorithm + " (expected fa or efa)");
+        }
+        if (datasets == null || datasets.isEmpty()) throw new IllegalArgumentException("No datasets in job " + name);
+        if (runs < 1) throw new IllegalArgumentException("Invalid runs: " + runs);
+    }
+}
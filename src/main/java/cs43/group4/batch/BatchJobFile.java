@@ -0,0 +1,14 @@
+package cs43.group4.batch;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import java.util.ArrayList;
+import java.util.List;
+
+/** Top-level batch job file: where to write results and which jobs to run. */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class BatchJobFile {
+    public String output = "out/batch.jsonl";
+    public String format = null; // "jsonl" or "csv"; derived from the output extension when null
+    public int threads = 0; // 0 = all available cores
+    public List<BatchJob> jobs = new ArrayList<>();
+}
@@ -0,0 +1,70 @@
+package cs43.group4.batch;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import java.util.Map;
+
+/** Outcome of one optimizer run in a batch (one JSON line / CSV row). */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonPropertyOrder({
+    "job",
+    "algorithm",
+    "dataset",
+    "paramSet",
+    "run",
+    "seed",
+    "fitnessMaximization",
+    "fitnessMinimization",
+    "generations",
+    "executionTimeMs",
+    "memoryBytes",
+    "totalAllocated",
+    "params",
+    "error"
+})
+public class BatchResult {
+    public String job;
+    public String algorithm;
+    public String dataset;
+    public int paramSet;
+    public int run;
+    public Long seed;
+    public Double fitnessMaximization;
+    public Double fitnessMinimization;
+    public Integer generations;
+    public Double executionTimeMs;
+    public Long memoryBytes;
+    public Long totalAllocated;
+    public Map<String, Object> params;
+    public String error;
+
+    static final String CSV_HEADER = "job,algorithm,dataset,paramSet,run,seed,fitnessMaximization,"
+            + "fitnessMinimization,generations,executionTimeMs,memoryBytes,totalAllocated,error";
+
+    String toCsv() {
+        return String.join(
+                ",",
+                csv(job),
+                csv(algorithm),
+                csv(dataset),
+                String.valueOf(paramSet),
+                String.valueOf(run),
+                csv(seed),
+                csv(fitnessMaximization),
+                csv(fitnessMinimization),
+                csv(generations),
+                csv(executionTimeMs),
+                csv(memoryBytes),
+                csv(totalAllocated),
+                csv(error));
+    }
+
+    private static String csv(Object v) {
+        if (v == null) return "";
+        String s = v.toString();
+        if (s.contains(",") || s.contains("\"") || s.contains("\n")) {
+            return "\"" + s.replace("\"", "\"\"") + "\"";
+        }
+        return s;
+    }
+}
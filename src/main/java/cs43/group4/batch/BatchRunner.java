@@ -0,0 +1,353 @@
+package cs43.group4.batch;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.management.ThreadMXBean;
+import cs43.group4.core.AllocationProblem;
+import cs43.group4.core.ExtendedFireflyAlgorithm;
+import cs43.group4.core.Optimizer;
+import cs43.group4.parameters.EFAParams;
+import cs43.group4.parameters.FAParams;
+import cs43.group4.utils.Log;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Headless batch runner: executes every run of a job file across all cores without the HTTP
+ * server, streaming one result per run to disk as JSON Lines or CSV.
+ *
+ * <pre>
+ * mvn -q compile exec:java -Dexec.mainClass=cs43.group4.batch.BatchRunner -Dexec.args="jobs.json"
+ * </pre>
+ *
+ * Each dataset is loaded once and its {@link AllocationProblem} (bounds + objective) is shared by
+ * all runs on it. Exit code: 0 when every run succeeded and was written, 1 when some runs failed
+ * or their results could not be written, 2 on a bad job file or arguments.
+ */
+public class BatchRunner {
+
+    private static final ObjectMapper MAPPER =
+            new ObjectMapper().enable(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY);
+    private static final TypeReference<Map<String, Object>> PARAMS_MAP = new TypeReference<>() {};
+
+    private final BatchJobFile jobFile;
+    private final Map<String, AllocationProblem> problems = new LinkedHashMap<>();
+    private final AtomicInteger completed = new AtomicInteger();
+
+    public BatchRunner(BatchJobFile jobFile) {
+        this.jobFile = jobFile;
+    }
+
+    public static void main(String[] args) {
+        try {
+            BatchJobFile jobFile = parseArgs(args);
+            if (jobFile == null) return;
+            boolean allOk = new BatchRunner(jobFile).run();
+            System.exit(allOk ? 0 : 1);
+        } catch (IllegalArgumentException | IOException e) {
+            Log.error("Batch failed: %s", e.getMessage());
+            System.exit(2);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.exit(1);
+        }
+    }
+
+    private static BatchJobFile parseArgs(String[] args) throws IOException {
+        if (args.length == 0 || args[0].equals("--help") || args[0].equals("-h")) {
+            System.out.println("Usage: BatchRunner <jobs.json> [--threads N] [--out PATH] [--format jsonl|csv]");
+            return null;
+        }
+        BatchJobFile jobFile = MAPPER.readValue(Path.of(args[0]).toFile(), BatchJobFile.class);
+        for (int a = 1; a < args.length; a++) {
+            String arg = args[a];
+            if (a + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + arg);
+            }
+            String value = args[++a];
+            switch (arg) {
+                case "--threads" -> jobFile.threads = Integer.parseInt(value);
+                case "--out" -> jobFile.output = value;
+                case "--format" -> jobFile.format = value;
+                default -> throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        return jobFile;
+    }
+
+    // ========== EXECUTION ==========
+
+    /** Runs every task of the job file; returns true when all runs succeeded. */
+    public boolean run() throws IOException, InterruptedException {
+        List<Task> tasks = expand();
+        int threads =
+                jobFile.threads > 0 ? jobFile.threads : Runtime.getRuntime().availableProcessors();
+        Path out = Path.of(jobFile.output);
+        boolean csv = resolveFormat(out).equals("csv");
+
+        for (Task t : tasks) {
+            if (!problems.containsKey(t.dataset)) {
+                Log.info("Loading dataset %s", t.dataset);
+                problems.put(t.dataset, AllocationProblem.load(Path.of(t.dataset)));
+            }
+        }
+
+        Log.info("Running %d runs on %d threads -> %s", tasks.size(), threads, out);
+        long start = System.nanoTime();
+        Summary summary = new Summary();
+
+        if (out.getParent() != null) Files.createDirectories(out.getParent());
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try (BufferedWriter writer = Files.newBufferedWriter(out, StandardCharsets.UTF_8)) {
+            if (csv) {
+                writer.write(BatchResult.CSV_HEADER);
+                writer.newLine();
+            }
+
+            List<Future<?>> futures = new ArrayList<>(tasks.size());
+            for (Task t : tasks) {
+                futures.add(pool.submit(() -> {
+                    BatchResult result = execute(t);
+                    summary.accept(t, result);
+                    try {
+                        write(writer, result, csv);
+                    } catch (IOException e) {
+                        summary.lost();
+                        Log.error(
+                                "Writing run %s/%d/%d failed: %s",
+                                result.job, result.paramSet, result.run, e.getMessage());
+                    }
+                    int done = completed.incrementAndGet();
+                    if (done % Math.max(1, tasks.size() / 20) == 0 || done == tasks.size()) {
+                        Log.info("Completed %d/%d runs", done, tasks.size());
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> f : futures) {
+                try {
+                    f.get();
+                } catch (ExecutionException e) {
+                    summary.lost();
+                    Log.error("Batch task failed: %s", e.getCause().getMessage());
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        summary.print((System.nanoTime() - start) / 1_000_000.0);
+        return summary.failures() == 0 && summary.lostResults() == 0;
+    }
+
+    /** Executes one optimizer run; failures are reported in the result instead of thrown. */
+    private BatchResult execute(Task t) {
+        BatchResult r = new BatchResult();
+        r.job = t.job.name;
+        r.algorithm = t.job.algorithm;
+        r.dataset = t.dataset;
+        r.paramSet = t.paramSetIndex;
+        r.run = t.run;
+        r.seed = t.seed;
+
+        try {
+            AllocationProblem problem = problems.get(t.dataset);
+            Random random = t.seed != null ? new Random(t.seed) : new Random();
+
+            ThreadMXBean threadBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+            long threadId = Thread.currentThread().getId();
+            long allocatedBefore = threadBean.getThreadAllocatedBytes(threadId);
+            long startTime = System.nanoTime();
+
+            double best;
+            double[] x;
+            int generations;
+            AllocationProblem encoded; // the shared problem in the task's encoding
+            if ("efa".equals(t.job.algorithm)) {
+                EFAParams params = toParams(t.params, EFAParams.class);
+                params.validate();
+                encoded = problem.withEncoding(params.encoding).withDistance(params.distance);
+                ExtendedFireflyAlgorithm efa = encoded.newEFA(params, random);
+                efa.optimize();
+                best = efa.getBestValue();
+                x = efa.getBestSolution();
+                generations = params.generations;
+                r.params = MAPPER.convertValue(params, PARAMS_MAP);
+            } else {
+                FAParams params = toParams(t.params, FAParams.class);
+                params.validate();
+                encoded = problem.withEncoding(params.encoding).withDistance(params.distance);
+                Optimizer fa = encoded.newFA(params, random);
+                fa.optimize();
+                best = fa.getBestValue();
+                x = fa.getBestSolution();
+                generations = params.generations;
+                r.params = MAPPER.convertValue(params, PARAMS_MAP);
+            }
+
+            long endTime = System.nanoTime();
+            long allocatedAfter = threadBean.getThreadAllocatedBytes(threadId);
+
+            long total = 0;
+            for (double[] row : encoded.toAllocation(x)) for (double v : row) total += Math.round(v);
+
+            r.fitnessMinimization = best;
+            r.fitnessMaximization = -best;
+            r.generations = generations;
+            r.executionTimeMs = (endTime - startTime) / 1_000_000.0;
+            r.memoryBytes = allocatedAfter - allocatedBefore;
+            r.totalAllocated = total;
+        } catch (Exception e) {
+            r.error = e.getClass().getSimpleName() + ": " + e.getMessage();
+            Log.warn("Run %s/%d/%d failed: %s", r.job, r.paramSet, r.run, r.error);
+        }
+        return r;
+    }
+
+    private static <T> T toParams(JsonNode node, Class<T> type) throws IOException {
+        if (node == null || node.isNull()) {
+            try {
+                return type.getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return MAPPER.treeToValue(node, type);
+    }
+
+    private static void write(BufferedWriter writer, BatchResult result, boolean csv) throws IOException {
+        String line = csv ? result.toCsv() : MAPPER.writeValueAsString(result);
+        // One writer shared by all workers; flush per line so partial results survive a crash
+        synchronized (writer) {
+            writer.write(line);
+            writer.newLine();
+            writer.flush();
+        }
+    }
+
+    // ========== JOB EXPANSION ==========
+
+    private List<Task> expand() {
+        if (jobFile.jobs == null || jobFile.jobs.isEmpty()) {
+            throw new IllegalArgumentException("Job file contains no jobs");
+        }
+        List<Task> tasks = new ArrayList<>();
+        for (int j = 0; j < jobFile.jobs.size(); j++) {
+            BatchJob job = jobFile.jobs.get(j);
+            if (job.name == null) job.name = "job" + (j + 1);
+            job.validate();
+
+            List<JsonNode> paramSets =
+                    job.paramSets == null || job.paramSets.isEmpty() ? Collections.singletonList(null) : job.paramSets;
+            long n = 0;
+            for (String dataset : job.datasets) {
+                for (int p = 0; p < paramSets.size(); p++) {
+                    for (int run = 1; run <= job.runs; run++, n++) {
+                        Long seed = job.seed != null ? job.seed + n : null;
+                        tasks.add(new Task(job, dataset, p, paramSets.get(p), run, seed));
+                    }
+                }
+            }
+        }
+        return tasks;
+    }
+
+    private String resolveFormat(Path out) {
+        String format = jobFile.format;
+        if (format == null) {
+            format = out.toString().toLowerCase(Locale.ROOT).endsWith(".csv") ? "csv" : "jsonl";
+        }
+        format = format.toLowerCase(Locale.ROOT);
+        if (!format.equals("csv") && !format.equals("jsonl")) {
+            throw new IllegalArgumentException("format must be jsonl or csv, got " + format);
+        }
+        return format;
+    }
+
+    private record Task(BatchJob job, String dataset, int paramSetIndex, JsonNode params, int run, Long seed) {}
+
+    // ========== SUMMARY ==========
+
+    /** Per (job, dataset, paramSet) aggregates printed when the batch finishes. */
+    private static final class Summary {
+        private final Map<String, double[]> groups = new LinkedHashMap<>(); // n, sum, sumSq, best, timeSum
+        private final Map<String, Integer> failed = new LinkedHashMap<>();
+        private int lost; // results not written, e.g. on an I/O error
+
+        synchronized void lost() {
+            lost++;
+        }
+
+        synchronized int lostResults() {
+            return lost;
+        }
+
+        synchronized void accept(Task t, BatchResult r) {
+            String key = t.job.name + " | " + t.dataset + " | #" + t.paramSetIndex;
+            double[] g = groups.computeIfAbsent(key, k -> new double[] {0, 0, 0, Double.NEGATIVE_INFINITY, 0});
+            if (r.error != null) {
+                failed.merge(key, 1, Integer::sum);
+                return;
+            }
+            double fit = r.fitnessMaximization;
+            g[0]++;
+            g[1] += fit;
+            g[2] += fit * fit;
+            g[3] = Math.max(g[3], fit);
+            g[4] += r.executionTimeMs;
+        }
+
+        synchronized int failures() {
+            int n = 0;
+            for (int f : failed.values()) n += f;
+            return n;
+        }
+
+        synchronized void print(double wallMs) {
+            System.out.println();
+            System.out.printf(
+                    "%-50s %6s %6s %14s %12s %14s %12s%n",
+                    "job | dataset | paramSet", "runs", "failed", "mean fitness", "std", "best fitness", "mean ms");
+            for (Map.Entry<String, double[]> e : groups.entrySet()) {
+                double[] g = e.getValue();
+                double n = g[0];
+                double mean = n > 0 ? g[1] / n : Double.NaN;
+                double std = n > 1 ? Math.sqrt(Math.max(0.0, (g[2] - n * mean * mean) / (n - 1))) : 0.0;
+                System.out.printf(
+                        Locale.ROOT,
+                        "%-50s %6d %6d %14.6f %12.6f %14.6f %12.1f%n",
+                        e.getKey(),
+                        (long) n,
+                        failed.getOrDefault(e.getKey(), 0),
+                        mean,
+                        std,
+                        n > 0 ? g[3] : Double.NaN,
+                        n > 0 ? g[4] / n : Double.NaN);
+            }
+            System.out.printf(
+                    Locale.ROOT,
+                    "%nWall time: %.1f s, failed runs: %d, unwritten results: %d%n",
+                    wallMs / 1000.0,
+                    failures(),
+                    lost);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package cs43.group4.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import cs43.group4.metrics.Counter;
+import cs43.group4.metrics.Metrics;
+import cs43.group4.store.RunRecord;
+import cs43.group4.store.RunStore;
+import cs43.group4.utils.Log;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Content-addressed cache of finished runs, so an identical resubmission (same dataset content,
+ * same parameters including the seed, same number of runs) is answered without recomputing.
+ * <p>
+ * Two tiers: a bounded in-memory LRU of {@link RunRecord}s, backed by the optional
+ * {@link RunStore}, which already holds every persisted run indexed by dataset and params hash.
+ * A disk hit is promoted into memory. Only seeded runs are cached: without a seed a resubmission
+ * is a different random experiment, not a repeat.
+ * </p>
+ */
+public class ResultCache {
+    private static final ObjectMapper MAPPER =
+            new ObjectMapper().configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+
+    /** Params that do not influence the result and are left out of the key. */
+    private static final Set<String> NON_RESULT_PARAMS = Set.of("checkpointEvery");
+
+    private static final String REQUESTS = "thesis_result_cache_requests_total";
+    private static final String REQUESTS_HELP = "Result cache lookups by tier and outcome";
+    private static final Counter MEMORY_HITS =
+            Metrics.counter(REQUESTS, REQUESTS_HELP, "tier=\"memory\",result=\"hit\"");
+    private static final Counter DISK_HITS = Metrics.counter(REQUESTS, REQUESTS_HELP, "tier=\"disk\",result=\"hit\"");
+    private static final Counter MISSES = Metrics.counter(REQUESTS, REQUESTS_HELP, "tier=\"all\",result=\"miss\"");
+    private static final Counter EVICTIONS = Metrics.counter(
+            "thesis_result_cache_evictions_total", "Entries evicted from the in-memory result cache", "");
+
+    private final int capacity;
+    private final RunStore disk; // null = memory tier only
+    private final LinkedHashMap<String, RunRecord> memory; // access order = LRU, guarded by this
+
+    public ResultCache(int capacity, RunStore disk) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive, got " + capacity);
+        }
+        this.capacity = capacity;
+        this.disk = disk;
+        this.memory = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, RunRecord> eldest) {
+                if (size() <= ResultCache.this.capacity) return false;
+                EVICTIONS.increment();
+                return true;
+            }
+        };
+        Metrics.gauge("thesis_result_cache_entries", "Entries in the in-memory result cache", "", this::size);
+    }
+
+    // ========== KEYS ==========
+
+    /**
+     * Canonical params hash: the params as JSON with keys sorted and non-result fields removed, so
+     * field order, JSON formatting and checkpoint settings never split identical runs.
+     */
+    public static String paramsHash(Object params) {
+        ObjectNode node = MAPPER.valueToTree(params);
+        node.remove(NON_RESULT_PARAMS);
+        return RunStore.hashParams(MAPPER.convertValue(node, Map.class));
+    }
+
+    private static String key(String algorithm, int runs, String datasetHash, String paramsHash) {
+        return algorithm + "/" + runs + "/" + datasetHash + "/" + paramsHash;
+    }
+
+    // ========== LOOKUP ==========
+
+    /**
+     * Previous result of the same job, or null. {@code runs} is 1 for a single run.
+     */
+    public RunRecord get(String algorithm, int runs, String datasetHash, String paramsHash) {
+        String key = key(algorithm, runs, datasetHash, paramsHash);
+        synchronized (this) {
+            RunRecord hit = memory.get(key);
+            if (hit != null) {
+                MEMORY_HITS.increment();
+                return hit;
+            }
+        }
+
+        RunRecord hit = disk != null ? findOnDisk(algorithm, runs, datasetHash, paramsHash) : null;
+        if (hit == null) {
+            MISSES.increment();
+            return null;
+        }
+        DISK_HITS.increment();
+        synchronized (this) {
+            memory.put(key, hit);
+        }
+        return hit;
+    }
+
+    /** Caches a finished job under the same key {@link #get} looks up. */
+    public synchronized void put(RunRecord record, int runs) {
+        memory.put(key(record.algorithm, runs, record.datasetHash, record.paramsHash), record);
+    }
+
+    public synchronized int size() {
+        return memory.size();
+    }
+
+    private RunRecord findOnDisk(String algorithm, int runs, String datasetHash, String paramsHash) {
+        String mode = runs > 1 ? "multiple" : "single";
+        try {
+            for (RunStore.Entry e : disk.find(algorithm, datasetHash, paramsHash)) {
+                if (!mode.equals(e.mode())) continue;
+                if (runs > 1) {
+                    RunRecord summary = disk.getSummary(e.jobId());
+                    if (summary == null || !(summary.summary instanceof Map<?, ?> m)) continue;
+                    // Stopped or partially failed batches are not a valid answer
+                    if (!(m.get("totalRuns") instanceof Number n) || n.intValue() != runs) continue;
+                    if (!(m.get("successfulRuns") instanceof Number ok) || ok.intValue() != runs) continue;
+                }
+                RunRecord record = disk.get(e.jobId());
+                if (record != null) return record;
+            }
+        } catch (Exception ex) {
+            Log.warn("Result cache disk lookup failed: %s", ex.getMessage());
+        }
+        return null;
+    }
+}
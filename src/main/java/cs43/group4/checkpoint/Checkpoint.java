@@ -0,0 +1,171 @@
+package cs43.group4.checkpoint;
+
+import cs43.group4.core.OptimizerState;
+import cs43.group4.utils.IterationResult;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Everything needed to continue an interrupted single run: the algorithm and its parameters, the
+ * dataset it ran on, the optimizer state (population, best, schedule position, RNG) and the
+ * iteration history reported so far.
+ * <p>
+ * Stored as a compact big-endian binary file:
+ * </p>
+ * <pre>
+ * int    magic 0x46464350 ("FFCP")
+ * int    version (2)
+ * string algorithm ("fa" | "efa")
+ * string params as JSON
+ * string dataset path
+ * long   elapsed optimizer time in nanoseconds (summed over all segments)
+ * int    generation, double alpha, double gamma
+ * int    n, int D, n*D doubles positions, n doubles brightness
+ * D      doubles best solution, double best value
+ * int    RNG state length, bytes RNG state
+ * int    history size, then (int iteration, double fitness) per entry
+ * </pre>
+ * <p>
+ * A string is an int byte length followed by that many UTF-8 bytes, so params JSON carrying
+ * warm-start matrices is not held to {@code writeUTF}'s 64 KB. Version 1 files, which used
+ * {@code writeUTF}, are still read.
+ * </p>
+ */
+public class Checkpoint {
+    private static final int MAGIC = 0x46464350; // "FFCP"
+    private static final int VERSION = 2;
+    private static final int VERSION_UTF = 1; // strings as writeUTF
+
+    /** Default location of the checkpoint for one algorithm's single run. */
+    public static Path pathFor(String algorithm) {
+        return Path.of("checkpoints", algorithm + ".ckpt");
+    }
+
+    public final String algorithm;
+    public final String paramsJson;
+    public final String dataset;
+    public final long elapsedNanos;
+    public final OptimizerState state;
+    public final List<IterationResult> history;
+
+    public Checkpoint(
+            String algorithm,
+            String paramsJson,
+            String dataset,
+            long elapsedNanos,
+            OptimizerState state,
+            List<IterationResult> history) {
+        this.algorithm = algorithm;
+        this.paramsJson = paramsJson;
+        this.dataset = dataset;
+        this.elapsedNanos = elapsedNanos;
+        this.state = state;
+        this.history = history;
+    }
+
+    // ========== SERIALIZATION ==========
+
+    /** Writes to a temporary sibling first and moves it into place, so a crash never leaves a torn file. */
+    public void write(Path path) throws IOException {
+        if (path.getParent() != null) Files.createDirectories(path.getParent());
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            writeString(out, algorithm);
+            writeString(out, paramsJson);
+            writeString(out, dataset);
+            out.writeLong(elapsedNanos);
+
+            out.writeInt(state.generation);
+            out.writeDouble(state.alpha);
+            out.writeDouble(state.gamma);
+            int n = state.positions.length;
+            int D = state.bestSolution.length;
+            out.writeInt(n);
+            out.writeInt(D);
+            for (double[] row : state.positions) for (double v : row) out.writeDouble(v);
+            for (double v : state.brightness) out.writeDouble(v);
+            for (double v : state.bestSolution) out.writeDouble(v);
+            out.writeDouble(state.bestValue);
+            out.writeInt(state.rngState.length);
+            out.write(state.rngState);
+
+            out.writeInt(history.size());
+            for (IterationResult r : history) {
+                out.writeInt(r.iteration);
+                out.writeDouble(r.fitness);
+            }
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads a checkpoint written by {@link #write(Path)}.
+     * @throws IllegalArgumentException if the file is not a checkpoint or has an unsupported version
+     */
+    public static Checkpoint read(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IllegalArgumentException("Not a checkpoint file: " + path);
+            }
+            int version = in.readInt();
+            if (version != VERSION && version != VERSION_UTF) {
+                throw new IllegalArgumentException("Unsupported checkpoint version: " + version);
+            }
+            boolean utf = version == VERSION_UTF;
+            String algorithm = utf ? in.readUTF() : readString(in, path);
+            String paramsJson = utf ? in.readUTF() : readString(in, path);
+            String dataset = utf ? in.readUTF() : readString(in, path);
+            long elapsedNanos = in.readLong();
+
+            int generation = in.readInt();
+            double alpha = in.readDouble();
+            double gamma = in.readDouble();
+            int n = in.readInt();
+            int D = in.readInt();
+            double[][] positions = new double[n][D];
+            for (double[] row : positions) for (int k = 0; k < D; k++) row[k] = in.readDouble();
+            double[] brightness = new double[n];
+            for (int i = 0; i < n; i++) brightness[i] = in.readDouble();
+            double[] best = new double[D];
+            for (int k = 0; k < D; k++) best[k] = in.readDouble();
+            double bestValue = in.readDouble();
+            byte[] rng = new byte[in.readInt()];
+            in.readFully(rng);
+
+            int size = in.readInt();
+            List<IterationResult> history = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) history.add(new IterationResult(in.readInt(), in.readDouble()));
+
+            OptimizerState state =
+                    new OptimizerState(generation, alpha, gamma, positions, brightness, best, bestValue, rng);
+            return new Checkpoint(algorithm, paramsJson, dataset, elapsedNanos, state, history);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in, Path path) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > Files.size(path)) {
+            throw new IllegalArgumentException("Corrupt checkpoint file: " + path);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
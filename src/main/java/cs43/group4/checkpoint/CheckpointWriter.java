@@ -0,0 +1,74 @@
+package cs43.group4.checkpoint;
+
+import cs43.group4.utils.Log;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes checkpoints off the optimizer thread. At most one write is queued behind the one in
+ * progress; a newer checkpoint replaces a queued one that has not started yet, since only the
+ * latest state is worth keeping.
+ */
+public class CheckpointWriter {
+    private final Path path;
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            1,
+            1,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(1),
+            r -> {
+                Thread t = new Thread(r, "checkpoint-writer");
+                t.setDaemon(true);
+                return t;
+            },
+            new ThreadPoolExecutor.DiscardOldestPolicy());
+
+    public CheckpointWriter(Path path) {
+        this.path = path;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /** Queues an asynchronous write; the caller must not mutate the checkpoint afterwards. */
+    public void submit(Checkpoint checkpoint) {
+        executor.execute(() -> write(checkpoint));
+    }
+
+    /** Waits for queued writes, then writes this checkpoint on the calling thread. Ends the writer. */
+    public void writeNow(Checkpoint checkpoint) throws IOException {
+        drain();
+        checkpoint.write(path);
+        Log.info("Checkpoint written at generation %d -> %s", checkpoint.state.generation, path);
+    }
+
+    /** Waits for queued writes and removes the checkpoint file (the run finished normally). Ends the writer. */
+    public void delete() throws IOException {
+        drain();
+        Files.deleteIfExists(path);
+    }
+
+    private void drain() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write(Checkpoint checkpoint) {
+        try {
+            checkpoint.write(path);
+            Log.debug("Checkpoint written at generation %d -> %s", checkpoint.state.generation, path);
+        } catch (IOException e) {
+            Log.warn("Checkpoint write failed: %s", e.getMessage());
+        }
+    }
+}
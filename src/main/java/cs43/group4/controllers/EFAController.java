@@ -1,16 +1,38 @@
 package cs43.group4.controllers;
 
 import cs43.group4.EFARunner;
+import cs43.group4.cache.ResultCache;
+import cs43.group4.checkpoint.Checkpoint;
+import cs43.group4.metrics.Metrics;
+import cs43.group4.parameters.DataDelta;
 import cs43.group4.parameters.EFAParams;
+import cs43.group4.store.RunStore;
 import cs43.group4.utils.Log;
 import io.javalin.http.Context;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
 
 public class EFAController {
     private EFARunner runner = null;
-    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final ThreadPoolExecutor executor = (ThreadPoolExecutor) Executors.newFixedThreadPool(1);
+    private final RunStore store; // null when persistence is disabled
+    private final ResultCache cache;
+
+    public EFAController(RunStore store, ResultCache cache) {
+        this.store = store;
+        this.cache = cache;
+        Metrics.gauge(
+                "thesis_job_queue_depth",
+                "Run submissions waiting for the controller executor",
+                "algorithm=\"efa\"",
+                () -> executor.getQueue().size());
+        Metrics.gauge(
+                "thesis_jobs_active", "Runs currently executing", "algorithm=\"efa\"", () -> executor.getActiveCount());
+    }
 
     // ========== GENERAL ENDPOINTS (work for both single and multiple) ==========
 
@@ -36,6 +58,88 @@ public class EFAController {
         }
     }
 
+    public void postPause(Context ctx) {
+        Log.info("EFA pause requested");
+
+        if (runner == null || !runner.isRunning()) {
+            ctx.status(400).json(Map.of("error", "No running algorithm to pause"));
+        } else if ("multiple".equals(runner.getStatus().get("mode"))) {
+            ctx.status(400).json(Map.of("error", "Pause is only available for single runs"));
+        } else {
+            runner.pause();
+            ctx.json(Map.of(
+                    "message",
+                    "Algorithm pausing after the current generation",
+                    "checkpoint",
+                    Checkpoint.pathFor("efa").toString()));
+        }
+    }
+
+    /** Continues the last paused or stopped single run from its checkpoint, also after a restart. */
+    public void postResume(Context ctx) {
+        Log.info("EFA resume requested");
+
+        if (runner != null && runner.isRunning()) {
+            ctx.status(409).json(Map.of("error", "Algorithm already running"));
+            return;
+        }
+        Path path = Checkpoint.pathFor("efa");
+        if (!Files.exists(path)) {
+            ctx.status(404).json(Map.of("error", "No checkpoint to resume from"));
+            return;
+        }
+
+        try {
+            Checkpoint checkpoint = Checkpoint.read(path);
+            runner = EFARunner.fromCheckpoint(checkpoint);
+            runner.setStore(store);
+            runner.setCache(cache);
+            executor.submit(() -> {
+                try {
+                    runner.run();
+                    Log.info("EFA resumed run finished");
+                } catch (Exception e) {
+                    Log.error("EFA resumed run failed: %s", e.getMessage(), e);
+                    if (runner != null) runner.setError(e.getMessage());
+                }
+            });
+            ctx.json(Map.of(
+                    "message", "Run resumed", "generation", checkpoint.state.generation, "jobId", runner.getJobId()));
+        } catch (IllegalArgumentException e) {
+            ctx.status(400).json(Map.of("error", "Invalid checkpoint", "details", e.getMessage()));
+        } catch (IOException e) {
+            Log.error("Failed to read EFA checkpoint: %s", e.getMessage());
+            ctx.status(500).json(Map.of("error", "Failed to read checkpoint", "details", e.getMessage()));
+        }
+    }
+
+    /**
+     * Applies a barangay data delta to the last completed single run and refines its final
+     * population; answers synchronously with the updated allocation and the diff.
+     */
+    public void postReoptimize(Context ctx) {
+        Log.info("EFA re-optimization requested");
+
+        if (runner != null && runner.isRunning()) {
+            ctx.status(409).json(Map.of("error", "Algorithm already running"));
+            return;
+        }
+        if (runner == null || !runner.canReoptimize()) {
+            ctx.status(404).json(Map.of("error", "No completed single run to re-optimize"));
+            return;
+        }
+
+        try {
+            DataDelta delta = ctx.bodyAsClass(DataDelta.class);
+            delta.validate();
+            Log.debug("EFA re-optimization delta: " + delta);
+            ctx.json(runner.reoptimize(delta));
+        } catch (IllegalArgumentException e) {
+            Log.error("Invalid EFA data delta: %s", e.getMessage());
+            ctx.status(400).json(Map.of("error", "Invalid data delta", "details", e.getMessage()));
+        }
+    }
+
     public void getResults(Context ctx) {
         Log.info("EFA results requested");
 
@@ -81,6 +185,8 @@ public class EFAController {
             Log.debug("EFA single run parameters: " + params.toString());
 
             runner = new EFARunner(params);
+            runner.setStore(store);
+            runner.setCache(cache);
             executor.submit(() -> {
                 try {
                     runner.run();
@@ -91,7 +197,7 @@ public class EFAController {
                 }
             });
 
-            ctx.json(Map.of("message", "Single run started"));
+            ctx.json(Map.of("message", "Single run started", "jobId", runner.getJobId()));
         } catch (IllegalArgumentException e) {
             handleInvalidParams(ctx, e);
         }
@@ -136,6 +242,8 @@ public class EFAController {
             Log.info("Starting " + numRuns + " EFA runs");
 
             runner = new EFARunner(params);
+            runner.setStore(store);
+            runner.setCache(cache);
             executor.submit(() -> {
                 try {
                     runner.runMultiple(numRuns);
@@ -146,7 +254,7 @@ public class EFAController {
                 }
             });
 
-            ctx.json(Map.of("message", "Multiple runs started", "totalRuns", numRuns));
+            ctx.json(Map.of("message", "Multiple runs started", "totalRuns", numRuns, "jobId", runner.getJobId()));
 
         } catch (IllegalArgumentException e) {
             handleInvalidParams(ctx, e);
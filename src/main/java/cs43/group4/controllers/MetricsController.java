@@ -0,0 +1,31 @@
+package cs43.group4.controllers;
+
+import cs43.group4.metrics.Metrics;
+import io.javalin.http.Context;
+
+public class MetricsController {
+
+    private static final String PROMETHEUS_CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    public void getMetrics(Context ctx) {
+        // Not logged: Prometheus scrapes this every few seconds
+        ctx.contentType(PROMETHEUS_CONTENT_TYPE).result(Metrics.scrape());
+    }
+
+    /**
+     * Request logger hook: records latency per matched route template rather than per raw path, so
+     * the label set stays bounded.
+     */
+    public void recordRequest(Context ctx, Float executionTimeMs) {
+        String route;
+        try {
+            route = ctx.endpointHandlerPath();
+        } catch (RuntimeException e) {
+            route = null;
+        }
+        // 404/405 responses report a description instead of a path; fold them into one series
+        if (route == null || !route.startsWith("/")) route = "unmatched";
+        long nanos = (long) (executionTimeMs * 1_000_000.0);
+        Metrics.recordHttpRequest(ctx.method().name(), route, ctx.statusCode(), nanos);
+    }
+}
@@ -0,0 +1,80 @@
+package cs43.group4.controllers;
+
+import cs43.group4.store.RunRecord;
+import cs43.group4.store.RunStore;
+import cs43.group4.utils.Log;
+import io.javalin.http.Context;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/** Read access to finished runs persisted by {@link RunStore}, across restarts. */
+public class RunsController {
+    private final RunStore store; // null when the store could not be opened
+
+    public RunsController(RunStore store) {
+        this.store = store;
+    }
+
+    public void getRuns(Context ctx) {
+        Log.info("Stored runs requested");
+        if (unavailable(ctx)) return;
+
+        try {
+            int limit = ctx.queryParam("limit") != null ? Integer.parseInt(ctx.queryParam("limit")) : 50;
+            if (limit < 1) throw new IllegalArgumentException("limit must be positive");
+
+            List<RunStore.Entry> entries =
+                    store.find(ctx.queryParam("algorithm"), ctx.queryParam("dataset"), ctx.queryParam("params"));
+            List<RunRecord> runs = new ArrayList<>();
+            for (RunStore.Entry e : entries.subList(0, Math.min(limit, entries.size()))) {
+                RunRecord summary = store.getSummary(e.jobId());
+                if (summary != null) runs.add(summary); // compacted away in the meantime
+            }
+            ctx.json(Map.of("total", entries.size(), "runs", runs));
+        } catch (IllegalArgumentException e) {
+            ctx.status(400).json(Map.of("error", "Invalid query", "details", e.getMessage()));
+        } catch (Exception e) {
+            Log.error("Failed to list stored runs: %s", e.getMessage(), e);
+            ctx.status(500)
+                    .json(Map.of("error", "Failed to read run store", "details", String.valueOf(e.getMessage())));
+        }
+    }
+
+    public void getRun(Context ctx) {
+        String jobId = ctx.pathParam("jobId");
+        Log.info("Stored run %s requested", jobId);
+        if (unavailable(ctx)) return;
+
+        try {
+            RunRecord record = store.get(jobId);
+            if (record == null) {
+                ctx.status(404).json(Map.of("error", "No stored run with this jobId"));
+            } else {
+                ctx.json(record);
+            }
+        } catch (Exception e) {
+            Log.error("Failed to read stored run %s: %s", jobId, e.getMessage(), e);
+            ctx.status(500)
+                    .json(Map.of("error", "Failed to read run store", "details", String.valueOf(e.getMessage())));
+        }
+    }
+
+    public void postCompact(Context ctx) {
+        Log.info("Run store compaction requested");
+        if (unavailable(ctx)) return;
+
+        try {
+            ctx.json(store.compact().join());
+        } catch (Exception e) {
+            Log.error("Run store compaction failed: %s", e.getMessage(), e);
+            ctx.status(500).json(Map.of("error", "Compaction failed", "details", String.valueOf(e.getMessage())));
+        }
+    }
+
+    private boolean unavailable(Context ctx) {
+        if (store != null) return false;
+        ctx.status(503).json(Map.of("error", "Run store unavailable"));
+        return true;
+    }
+}
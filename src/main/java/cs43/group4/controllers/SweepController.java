@@ -0,0 +1,147 @@
+package cs43.group4.controllers;
+
+import cs43.group4.sweep.SuccessiveHalvingTuner;
+import cs43.group4.sweep.SweepEngine;
+import cs43.group4.sweep.SweepSpec;
+import cs43.group4.sweep.TuneSpec;
+import cs43.group4.utils.Log;
+import io.javalin.http.Context;
+import java.io.StringWriter;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class SweepController {
+    private SweepEngine sweep = null;
+    private SuccessiveHalvingTuner tuner = null;
+    private final ExecutorService tuneExecutor = Executors.newFixedThreadPool(1);
+
+    public void postRun(Context ctx) {
+        Log.info("Sweep requested");
+
+        if (sweep != null && sweep.isRunning()) {
+            Log.warn("Attempted to start a sweep while one is already active");
+            ctx.status(409).json(Map.of("error", "Sweep already running"));
+            return;
+        }
+
+        try {
+            if (ctx.body().isBlank()) {
+                throw new IllegalArgumentException("Missing sweep specification");
+            }
+            SweepSpec spec = ctx.bodyAsClass(SweepSpec.class);
+            sweep = new SweepEngine(spec);
+            sweep.start();
+            ctx.json(Map.of("message", "Sweep started", "status", sweep.getStatus()));
+        } catch (IllegalArgumentException e) {
+            Log.error("Invalid sweep specification: %s", e.getMessage());
+            ctx.status(400).json(Map.of("error", "Invalid sweep specification", "details", e.getMessage()));
+        } catch (Exception e) {
+            Log.error("Sweep failed to start: %s", e.getMessage(), e);
+            ctx.status(500).json(Map.of("error", "Sweep failed to start", "details", String.valueOf(e.getMessage())));
+        }
+    }
+
+    public void getStatus(Context ctx) {
+        Log.info("Sweep status requested");
+        if (sweep == null) {
+            ctx.json(Map.of("status", "idle", "message", "No sweep running"));
+        } else {
+            ctx.json(sweep.getStatus());
+        }
+    }
+
+    public void postStop(Context ctx) {
+        Log.info("Sweep stop requested");
+        if (sweep != null && sweep.isRunning()) {
+            sweep.stop();
+            ctx.json(Map.of("message", "Sweep stopping; runs in progress will finish"));
+        } else {
+            ctx.status(400).json(Map.of("error", "No running sweep to stop"));
+        }
+    }
+
+    /** Aggregated table; available while the sweep is running (partial) and after it finishes. */
+    public void getResults(Context ctx) {
+        Log.info("Sweep results requested");
+        if (sweep == null) {
+            ctx.status(404).json(Map.of("error", "No sweep has been run"));
+        } else {
+            ctx.json(Map.of("status", sweep.getStatus(), "points", sweep.getTable()));
+        }
+    }
+
+    public void getResultsCsv(Context ctx) throws Exception {
+        Log.info("Sweep CSV export requested");
+        if (sweep == null) {
+            ctx.status(404).json(Map.of("error", "No sweep has been run"));
+            return;
+        }
+        StringWriter out = new StringWriter();
+        sweep.writeCsv(out);
+        ctx.contentType("text/csv; charset=utf-8")
+                .header("Content-Disposition", "attachment; filename=\"sweep.csv\"")
+                .result(out.toString());
+    }
+
+    // ========== AUTO-TUNING ==========
+
+    public void postTune(Context ctx) {
+        Log.info("Auto-tuning requested");
+
+        if (tuner != null && tuner.isRunning()) {
+            Log.warn("Attempted to start tuning while one is already active");
+            ctx.status(409).json(Map.of("error", "Tuning already running"));
+            return;
+        }
+
+        try {
+            if (ctx.body().isBlank()) {
+                throw new IllegalArgumentException("Missing tuning specification");
+            }
+            TuneSpec spec = ctx.bodyAsClass(TuneSpec.class);
+            SuccessiveHalvingTuner created = new SuccessiveHalvingTuner(spec);
+            tuner = created;
+            tuneExecutor.submit(created::run);
+            ctx.json(Map.of("message", "Tuning started"));
+        } catch (IllegalArgumentException e) {
+            Log.error("Invalid tuning specification: %s", e.getMessage());
+            ctx.status(400).json(Map.of("error", "Invalid tuning specification", "details", e.getMessage()));
+        } catch (Exception e) {
+            Log.error("Tuning failed to start: %s", e.getMessage(), e);
+            ctx.status(500).json(Map.of("error", "Tuning failed to start", "details", String.valueOf(e.getMessage())));
+        }
+    }
+
+    public void getTuneStatus(Context ctx) {
+        Log.info("Tuning status requested");
+        if (tuner == null) {
+            ctx.json(Map.of("status", "idle", "message", "No tuning running"));
+        } else {
+            ctx.json(tuner.getStatus());
+        }
+    }
+
+    public void postTuneStop(Context ctx) {
+        Log.info("Tuning stop requested");
+        if (tuner != null && tuner.isRunning()) {
+            tuner.stop();
+            ctx.json(Map.of("message", "Tuning stopping; the current leader will be reported"));
+        } else {
+            ctx.status(400).json(Map.of("error", "No running tuning to stop"));
+        }
+    }
+
+    public void getTuneResult(Context ctx) {
+        Log.info("Tuning result requested");
+        if (tuner == null) {
+            ctx.status(404).json(Map.of("error", "No tuning has been run"));
+        } else if (tuner.isRunning()) {
+            ctx.status(400).json(Map.of("error", "Tuning still running"));
+        } else if (tuner.getResult() == null) {
+            ctx.status(500).json(Map.of("error", "Tuning produced no result", "status", tuner.getStatus()));
+        } else {
+            ctx.json(tuner.getResult());
+        }
+    }
+}
@@ -0,0 +1,438 @@
+package cs43.group4.core;
+
+import cs43.group4.core.DataLoader.Data;
+import cs43.group4.parameters.DataDelta;
+import cs43.group4.parameters.EFAParams;
+import cs43.group4.parameters.FAParams;
+import cs43.group4.utils.AllocationNormalizer;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Optimizer inputs for one dataset: decision-vector bounds, current deployment per class and the
+ * thesis objective, set up the way FARunner/EFARunner always have.
+ * <p>
+ * The decision vector is either the raw encoding (one count per barangay and class) or, after
+ * {@link #withEncoding}, a {@link SimplexEncoding}. {@link #lower}/{@link #upper}, the optimizers
+ * built here, {@link #evaluate}, {@link #fromAllocation} and {@link #toAllocation} all work in the
+ * chosen encoding; {@link #objective()} always scores raw vectors.
+ * </p>
+ * <p>
+ * Everything here is immutable after construction ({@link ThesisObjective} included), so one
+ * instance can be shared by any number of concurrent optimizer runs over the same dataset.
+ * </p>
+ */
+public class AllocationProblem {
+    public static final String RAW = "raw";
+    public static final String SIMPLEX = "simplex";
+    public static final String DISTANCE_OFF = "off";
+    public static final String DISTANCE_EXACT = "exact";
+    public static final String DISTANCE_MULTIFIDELITY = "multifidelity";
+
+    public final Data data;
+    public final int Z, C, D; // barangays, classes, decision variables (Z * C, k = i * C + c; + C if simplex)
+    public final double[] lower, upper;
+    public final double[][] currentPerClass; // [C][Z]
+    public final SimplexEncoding simplex; // null under the raw encoding
+
+    private final double[] rawLower, rawUpper;
+    private final ObjectiveFunction objective; // over raw vectors
+    private final ObjectiveFunction searchObjective; // over this problem's encoding
+    private final AtomicReference<GeoDistances> geo; // built on first use, shared with derived problems
+
+    public AllocationProblem(Data data) {
+        this.data = data;
+        this.Z = data.Z;
+        this.C = data.C;
+        this.D = Z * C;
+
+        this.lower = new double[D];
+        this.upper = new double[D];
+        for (int i = 0; i < Z; i++) {
+            for (int c = 0; c < C; c++) {
+                int k = i * C + c;
+                lower[k] = 0.0;
+                upper[k] = Math.max(1.0, Math.min(data.supply[c], data.AC[i] + 200));
+            }
+        }
+
+        this.currentPerClass = new double[C][Z];
+        for (int i = 0; i < Z; i++) {
+            if (C >= 1) currentPerClass[0][i] = data.sarCurrent[i];
+            if (C >= 2) currentPerClass[1][i] = data.emsCurrent[i];
+        }
+
+        this.rawLower = lower;
+        this.rawUpper = upper;
+        this.simplex = null;
+        this.objective = thesisObjective(data, currentPerClass, null);
+        this.searchObjective = objective;
+        this.geo = new AtomicReference<>();
+    }
+
+    // The thesis objective's constants; a null distance table leaves the distance penalty off
+    private static ThesisObjective thesisObjective(Data data, double[][] currentPerClass, GeoDistances geo) {
+        return new ThesisObjective(
+                data.Z,
+                data.C,
+                data.r,
+                data.f,
+                data.E,
+                data.AC,
+                data.lambda,
+                data.supply,
+                1e-6,
+                10.0,
+                null,
+                1.0,
+                currentPerClass,
+                geo,
+                0.01);
+    }
+
+    private AllocationProblem(
+            Data data,
+            double[] rawLower,
+            double[] rawUpper,
+            double[][] currentPerClass,
+            ObjectiveFunction objective,
+            boolean useSimplex,
+            AtomicReference<GeoDistances> geo) {
+        this.data = data;
+        this.Z = data.Z;
+        this.C = data.C;
+        this.rawLower = rawLower;
+        this.rawUpper = rawUpper;
+        this.currentPerClass = currentPerClass;
+        this.objective = objective;
+        this.geo = geo;
+        if (useSimplex) {
+            this.simplex = new SimplexEncoding(Z, C, data.supply);
+            this.D = simplex.dimensions();
+            this.lower = new double[D];
+            this.upper = new double[D];
+            Arrays.fill(upper, 1.0);
+            this.searchObjective = new SimplexObjective(objective, simplex);
+        } else {
+            this.simplex = null;
+            this.D = Z * C;
+            this.lower = rawLower;
+            this.upper = rawUpper;
+            this.searchObjective = objective;
+        }
+    }
+
+    /** Loads a barangay dataset (CSV or binary) and sets up the problem. */
+    public static AllocationProblem load(Path dataset) throws IOException {
+        return new AllocationProblem(DataLoader.load(dataset));
+    }
+
+    /** The thesis objective over raw vectors (length Z * C), whatever this problem's encoding. */
+    public ObjectiveFunction objective() {
+        return objective;
+    }
+
+    /** Objective value (minimization) of a decision vector in this problem's encoding. */
+    public double evaluate(double[] x) {
+        return searchObjective.evaluate(x);
+    }
+
+    /**
+     * This problem with the given decision-vector encoding, {@link #RAW} or {@link #SIMPLEX}. The
+     * data, bounds and objective are shared.
+     * @throws IllegalArgumentException for any other encoding
+     */
+    public AllocationProblem withEncoding(String encoding) {
+        boolean useSimplex = SIMPLEX.equals(encoding);
+        if (!useSimplex && !RAW.equals(encoding)) {
+            throw new IllegalArgumentException("Unknown encoding: " + encoding);
+        }
+        if (useSimplex == (simplex != null)) return this;
+        return new AllocationProblem(data, rawLower, rawUpper, currentPerClass, objective, useSimplex, geo);
+    }
+
+    /**
+     * This problem with the thesis objective's distance penalty off ({@link #DISTANCE_OFF}, the
+     * default) or on ({@link #DISTANCE_EXACT}, {@link #DISTANCE_MULTIFIDELITY}), as named by the
+     * params' distance field; for multifidelity runs {@link #newFA}/{@link #newEFA} also screen
+     * candidates with a {@link MultiFidelityObjective}. The data, bounds and encoding are shared.
+     * @throws IllegalArgumentException for any other mode, or if the dataset has no coordinates
+     */
+    public AllocationProblem withDistance(String distance) {
+        boolean on = !DISTANCE_OFF.equals(distance);
+        if (on && !DISTANCE_EXACT.equals(distance) && !DISTANCE_MULTIFIDELITY.equals(distance)) {
+            throw new IllegalArgumentException("Unknown distance mode: " + distance);
+        }
+        if (on == thesis().hasDistancePenalty()) return this;
+        ThesisObjective next = thesisObjective(data, currentPerClass, on ? geo() : null);
+        if (on && !next.hasDistancePenalty()) {
+            throw new IllegalArgumentException("Dataset has no lat/lon for every barangay; distance needs them");
+        }
+        return new AllocationProblem(data, rawLower, rawUpper, currentPerClass, next, simplex != null, geo);
+    }
+
+    /**
+     * Great-circle distances between this dataset's barangays, shared by the distance penalty and
+     * {@link FlowAllocator}; built on first use and shared with problems derived from this one.
+     * Null if the dataset lacks coordinates for some barangay.
+     */
+    public GeoDistances geo() {
+        GeoDistances table = geo.get();
+        if (table == null) {
+            table = GeoDistances.of(data.lat, data.lon);
+            if (table != null && !geo.compareAndSet(null, table)) table = geo.get();
+        }
+        return table;
+    }
+
+    private ThesisObjective thesis() {
+        return (ThesisObjective) objective;
+    }
+
+    // Objective a run scores with: the given raw-vector objective, behind a MultiFidelityObjective
+    // whose last exactGenerations generations are exact when the distance mode asks for it
+    private ObjectiveFunction fidelity(String distance, int generations, int exactGenerations, ObjectiveFunction raw) {
+        if (distance == null || DISTANCE_OFF.equals(distance)) return raw;
+        if (!thesis().hasDistancePenalty()) {
+            throw new IllegalArgumentException("distance " + distance + " needs a problem from withDistance");
+        }
+        if (!DISTANCE_MULTIFIDELITY.equals(distance)) return raw;
+        return new MultiFidelityObjective(raw, thesis(), generations - exactGenerations);
+    }
+
+    // Objective the optimizers search: the given raw-vector objective, decoded when simplex
+    private ObjectiveFunction search(ObjectiveFunction raw) {
+        return simplex == null ? raw : new SimplexObjective(raw, simplex);
+    }
+
+    /**
+     * Baseline FA over this problem: {@link IntegerFireflyAlgorithm} when params.integer is set,
+     * {@link AsyncFireflyAlgorithm} when params.asyncThreads is positive, otherwise
+     * {@link FireflyAlgorithm}, with params.topK attraction, params.aggregateSteps and params.fastExp;
+     * the objective is memoized when params.memoize is set and screened by a
+     * {@link MultiFidelityObjective} when params.distance is multifidelity.
+     * params.encoding is not read here; see {@link #withEncoding}.
+     */
+    public Optimizer newFA(FAParams params, Random random) {
+        return newFA(params, random, params.memoize ? new MemoizedObjective(objective) : objective);
+    }
+
+    /**
+     * Baseline FA over this problem with the given raw-vector objective, e.g. a wrapper of
+     * {@link #objective()}; it is decoded under the simplex encoding.
+     */
+    public Optimizer newFA(FAParams params, Random random, ObjectiveFunction objective) {
+        objective = fidelity(params.distance, params.generations, params.exactGenerations, objective);
+        if (params.integer) {
+            if (simplex != null) {
+                throw new IllegalArgumentException("integer mode needs the raw encoding");
+            }
+            IntegerFireflyAlgorithm fa = new IntegerFireflyAlgorithm(
+                    objective,
+                    params.numFireflies,
+                    lower,
+                    upper,
+                    data.supply,
+                    C,
+                    params.gamma,
+                    params.beta0,
+                    params.alpha0,
+                    params.alphaFinal,
+                    params.generations,
+                    random);
+            fa.setTopK(params.topK);
+            fa.setAggregateSteps(params.aggregateSteps);
+            fa.setFastExp(params.fastExp);
+            return fa;
+        }
+        if (params.asyncThreads > 0) {
+            AsyncFireflyAlgorithm fa = new AsyncFireflyAlgorithm(
+                    search(objective),
+                    params.numFireflies,
+                    lower,
+                    upper,
+                    params.gamma,
+                    params.beta0,
+                    params.alpha0,
+                    params.alphaFinal,
+                    params.generations,
+                    params.asyncThreads,
+                    random);
+            fa.setAggregateSteps(params.aggregateSteps);
+            fa.setFastExp(params.fastExp);
+            return fa;
+        }
+        FireflyAlgorithm fa = new FireflyAlgorithm(
+                search(objective),
+                params.numFireflies,
+                lower,
+                upper,
+                params.gamma,
+                params.beta0,
+                params.alpha0,
+                params.alphaFinal,
+                params.generations,
+                random);
+        fa.setTopK(params.topK);
+        fa.setAggregateSteps(params.aggregateSteps);
+        fa.setFastExp(params.fastExp);
+        return fa;
+    }
+
+    /** EFA over this problem, with gamma tuned on the normalized scale as EFARunner does. */
+    public ExtendedFireflyAlgorithm newEFA(EFAParams params, Random random) {
+        return newEFA(params, random, params.memoize ? new MemoizedObjective(objective) : objective);
+    }
+
+    /**
+     * EFA over this problem with the given raw-vector objective, e.g. a wrapper of
+     * {@link #objective()}; it is decoded under the simplex encoding.
+     */
+    public ExtendedFireflyAlgorithm newEFA(EFAParams params, Random random, ObjectiveFunction objective) {
+        objective = fidelity(params.distance, params.generations, params.exactGenerations, objective);
+        ExtendedFireflyAlgorithm efa = new ExtendedFireflyAlgorithm(
+                search(objective),
+                data,
+                params.numFireflies,
+                lower,
+                upper,
+                params.gamma,
+                params.beta0,
+                params.betaMin,
+                params.alpha0,
+                params.alphaFinal,
+                params.generations,
+                random);
+        efa.setEncoding(simplex);
+        efa.setTopK(params.topK);
+        efa.setAggregateSteps(params.aggregateSteps);
+        efa.setFastExp(params.fastExp);
+        efa.tuneGammaByInfluenceRadius(1.0, 0.6);
+        return efa;
+    }
+
+    /**
+     * Problem over this dataset with some barangays changed. Only the per-barangay arrays a change
+     * touches are copied and only the bounds of barangays whose capacity changed are recomputed;
+     * class supply, the current deployment, the encoding and the objective's remaining constants
+     * are shared with this instance. E and AC are re-derived with {@link DataLoader}'s rules: a
+     * given vulnerability index or total personnel is used as is (an index of 0 counts as missing),
+     * and the ones the dataset leaves out follow the updated populations.
+     * @throws IllegalArgumentException if a change names an unknown barangay id
+     */
+    public AllocationProblem withDelta(DataDelta delta) {
+        Map<String, Integer> index = new HashMap<>();
+        for (int i = 0; i < Z; i++) index.put(data.barangayIds[i], i);
+
+        double[] r = data.r.clone();
+        double[] f = data.f.clone();
+        double[] populations = data.populations.clone();
+        double[] givenE = data.givenE.clone();
+        double[] givenAC = data.givenAC.clone();
+        double[] lower = rawLower.clone();
+        double[] upper = rawUpper.clone();
+
+        for (DataDelta.BarangayUpdate u : delta.changes) {
+            Integer i = index.get(u.id);
+            if (i == null) throw new IllegalArgumentException("Unknown barangay id: " + u.id);
+            if (u.hazardLevel != null) r[i] = DataLoader.hazardTextToLevel(u.hazardLevel);
+            if (u.floodDepthFt != null) f[i] = u.floodDepthFt;
+            if (u.population != null) populations[i] = u.population;
+            if (u.vulnerabilityIndex != null) givenE[i] = u.vulnerabilityIndex;
+            if (u.totalPersonnel != null) givenAC[i] = u.totalPersonnel;
+        }
+        double[] E = DataLoader.exposure(givenE, populations);
+        double[] AC = DataLoader.capacity(givenAC, populations);
+        for (int i = 0; i < Z; i++) {
+            if (AC[i] == data.AC[i]) continue;
+            for (int c = 0; c < C; c++) {
+                int k = i * C + c;
+                lower[k] = 0.0;
+                upper[k] = Math.max(1.0, Math.min(data.supply[c], AC[i] + 200));
+            }
+        }
+
+        Data next = new Data(
+                Z,
+                C,
+                data.barangayIds,
+                data.barangayNames,
+                populations,
+                r,
+                f,
+                E,
+                AC,
+                data.sarCurrent,
+                data.emsCurrent,
+                data.lat,
+                data.lon,
+                data.classIds,
+                data.classNames,
+                data.lambda,
+                data.supply,
+                givenE,
+                givenAC);
+        return new AllocationProblem(
+                next, lower, upper, currentPerClass, thesis().withBarangayData(r, f, E, AC), simplex != null, geo);
+    }
+
+    /** Current deployment as an allocation A[Z][C] (sar_current/ems_current per barangay). */
+    public double[][] currentAllocation() {
+        double[][] A = new double[Z][C];
+        for (int i = 0; i < Z; i++) for (int c = 0; c < C; c++) A[i][c] = currentPerClass[c][i];
+        return A;
+    }
+
+    /**
+     * Inverse of {@link #toAllocation}: flattens an allocation A[Z][C] into a decision vector
+     * (k = i * C + c), clamped to the bounds so it can seed an optimizer population, and encoded
+     * under the simplex encoding.
+     * @throws IllegalArgumentException if A is not Z x C
+     */
+    public double[] fromAllocation(double[][] A) {
+        if (A == null || A.length != Z) {
+            throw new IllegalArgumentException(
+                    "Allocation must have " + Z + " rows (barangays), got " + (A == null ? 0 : A.length));
+        }
+        double[] x = new double[D];
+        for (int i = 0; i < Z; i++) {
+            if (A[i] == null || A[i].length != C) {
+                throw new IllegalArgumentException("Allocation row " + i + " must have " + C + " classes");
+            }
+            for (int c = 0; c < C; c++) {
+                int k = i * C + c;
+                x[k] = Math.max(rawLower[k], Math.min(rawUpper[k], A[i][c]));
+            }
+        }
+        return simplex == null ? x : simplex.encode(x);
+    }
+
+    /**
+     * Converts an optimizer solution into the final integer allocation A[Z][C]: simplex vectors
+     * are decoded, negative entries are clamped, classes over supply are scaled back, then
+     * AllocationNormalizer rounds.
+     */
+    public double[][] toAllocation(double[] x) {
+        if (simplex != null) x = simplex.decode(x);
+        double[][] A = new double[Z][C];
+        int k = 0;
+        for (int i = 0; i < Z; i++) for (int c = 0; c < C; c++, k++) A[i][c] = Math.max(0.0, x[k]);
+
+        for (int c = 0; c < C; c++) {
+            double used = 0.0;
+            for (int i = 0; i < Z; i++) used += A[i][c];
+            double cap = data.supply[c];
+            if (used > cap + 1e-6) {
+                double scale = cap / (used + 1e-6);
+                for (int i = 0; i < Z; i++) A[i][c] *= scale;
+            }
+        }
+
+        return AllocationNormalizer.enforceSupplyAndRound(A, data.supply);
+    }
+}
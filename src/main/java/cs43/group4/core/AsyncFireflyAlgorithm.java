@@ -0,0 +1,473 @@
+package cs43.group4.core;
+
+import cs43.group4.metrics.Histogram;
+import cs43.group4.metrics.Metrics;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous steady-state Firefly Algorithm: worker threads update one firefly at a time
+ * without waiting for each other at generation boundaries.
+ * <p>
+ * Every firefly lives in a versioned, immutable {@link Slot}. An update claims a ticket t (firefly
+ * t mod N), reads its own slot and every neighbour's slot (each read is a consistent snapshot),
+ * applies the {@link FireflyAlgorithm} moves to a private copy, evaluates it and publishes the new
+ * slot with a compare-and-set on the version it started from. If another worker published that
+ * firefly first, the update is dropped and counted in {@link #conflicts()}. The best solution is an
+ * immutable record replaced by compare-and-set.
+ * </p>
+ * <p>
+ * Each N completed updates form one logical generation (epoch): it drives the alpha schedule, the
+ * best-firefly random walk and the progress callback, all run by the thread calling
+ * {@link #nextGeneration()}. Workers may run up to one epoch ahead of the caller, so no worker
+ * idles while the slowest evaluation of an epoch finishes. Runs are not bit-for-bit reproducible
+ * even with a seed, because the interleaving of updates is not.
+ * </p>
+ */
+public class AsyncFireflyAlgorithm implements Optimizer {
+
+    /** One published firefly; never mutated after construction. */
+    private static final class Slot {
+        final double[] position;
+        final double brightness;
+        final long version;
+
+        Slot(double[] position, double brightness, long version) {
+            this.position = position;
+            this.brightness = brightness;
+            this.version = version;
+        }
+    }
+
+    private static final class Best {
+        final double[] position;
+        final double value;
+
+        Best(double[] position, double value) {
+            this.position = position;
+            this.value = value;
+        }
+    }
+
+    // Algorithm parameters
+    private final double gamma;
+    private volatile double alpha;
+    private final double alpha0;
+    private final double alphaFinal;
+    private final double beta0;
+
+    private final int numFireflies;
+    private final int dimensions;
+    private final int generations;
+    private int generation = 0; // logical epochs completed, advanced by nextGeneration()
+
+    private final AtomicReferenceArray<Slot> slots;
+    private final AtomicReference<Best> best;
+
+    private final ObjectiveFunction function;
+    private Random random; // caller-thread source; seeds the workers
+    private final double[] lowerBound;
+    private final double[] upperBound;
+    private boolean aggregateSteps = false;
+    private boolean fastExp = false; // β through the FastExp table instead of Math.exp
+
+    // Tickets: claimed < limit; done counts finished updates (published or dropped)
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong done = new AtomicLong();
+    private volatile long limit = 0L;
+    private volatile long waitTarget = Long.MAX_VALUE;
+    private final Object progress = new Object();
+    private final LongAdder conflicts = new LongAdder();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    private final int threads;
+    private final AtomicBoolean[] running;
+    private final Random[] workerRandoms;
+    private final ThreadPoolExecutor pool;
+
+    private static final Histogram GENERATION_SECONDS = Metrics.generationDuration("fa-async");
+
+    private FireflyAlgorithm.ProgressListener progressListener;
+
+    public AsyncFireflyAlgorithm(
+            ObjectiveFunction function,
+            int numFireflies,
+            double[] lowerBound,
+            double[] upperBound,
+            double gamma,
+            double beta0,
+            double alpha0,
+            double alphaFinal,
+            int generations,
+            int threads,
+            Random random) {
+        if (threads <= 0) throw new IllegalArgumentException("threads must be positive, got " + threads);
+        this.function = function;
+        this.numFireflies = numFireflies;
+        this.dimensions = lowerBound.length;
+        this.lowerBound = Arrays.copyOf(lowerBound, lowerBound.length);
+        this.upperBound = Arrays.copyOf(upperBound, upperBound.length);
+        this.gamma = gamma;
+        this.beta0 = beta0;
+        this.alpha0 = alpha0;
+        this.alphaFinal = alphaFinal;
+        this.generations = generations;
+        this.random = random;
+        this.threads = threads;
+
+        this.slots = new AtomicReferenceArray<>(numFireflies);
+        this.best = new AtomicReference<>(new Best(new double[dimensions], Double.MAX_VALUE));
+        for (int i = 0; i < numFireflies; i++) {
+            double[] x = new double[dimensions];
+            for (int d = 0; d < dimensions; d++) {
+                x[d] = clamp(lowerBound[d] + random.nextDouble() * (upperBound[d] - lowerBound[d]), d);
+            }
+            double value = function.evaluate(x);
+            slots.set(i, new Slot(x, value, 0L));
+            offerBest(x, value);
+        }
+        this.alpha = alpha0;
+
+        this.running = new AtomicBoolean[threads];
+        this.workerRandoms = new Random[threads];
+        for (int w = 0; w < threads; w++) running[w] = new AtomicBoolean();
+        seedWorkers();
+        // Idle workers time out, so a paused or stopped run leaves no threads behind
+        this.pool = new ThreadPoolExecutor(threads, threads, 2L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread t = new Thread(r, "fa-async-worker");
+            t.setDaemon(true);
+            return t;
+        });
+        pool.allowCoreThreadTimeOut(true);
+    }
+
+    /** Moves and walks of one update are composed as in {@link FireflyAlgorithm#setAggregateSteps}. */
+    public void setAggregateSteps(boolean aggregate) {
+        this.aggregateSteps = aggregate;
+    }
+
+    /** Attractiveness through {@link FastExp} as in {@link FireflyAlgorithm#setFastExp}. */
+    public void setFastExp(boolean fast) {
+        this.fastExp = fast;
+    }
+
+    @Override
+    public void optimize() {
+        while (generation < generations) {
+            nextGeneration();
+        }
+    }
+
+    /**
+     * Waits until N more updates have finished (one logical generation), letting workers run up
+     * to one further epoch ahead, then walks the best firefly, decays alpha and reports progress.
+     */
+    @Override
+    public void nextGeneration() {
+        if (generation >= generations) return;
+        long genStart = System.nanoTime();
+        // Values from a different objective fidelity are not comparable: re-score the population
+        if (function.beginGeneration(generation)) rescorePopulation();
+        long target = (long) (generation + 1) * numFireflies;
+        limit = Math.max(limit, Math.min((long) (generation + 2) * numFireflies, (long) generations * numFireflies));
+        waitTarget = target;
+        startWorkers();
+        awaitDone(target);
+
+        randomWalkBest();
+        alpha = alphaFinal + (alpha0 - alphaFinal) * Math.exp(-0.1 * generation);
+        GENERATION_SECONDS.observeNanos(System.nanoTime() - genStart);
+        generation++;
+
+        if (progressListener != null) {
+            progressListener.onIteration(generation, getBestSolution());
+        }
+    }
+
+    // ========== WORKERS ==========
+
+    private void startWorkers() {
+        for (int w = 0; w < threads; w++) {
+            if (running[w].compareAndSet(false, true)) {
+                int worker = w;
+                pool.execute(() -> work(worker));
+            }
+        }
+    }
+
+    private void work(int w) {
+        Random rnd = workerRandoms[w];
+        double[] pull = new double[dimensions];
+        try {
+            while (true) {
+                long ticket = claim();
+                if (ticket < 0) {
+                    running[w].set(false);
+                    // The limit may have been raised between the failed claim and the flag reset
+                    if (claimed.get() < limit && running[w].compareAndSet(false, true)) continue;
+                    return;
+                }
+                update((int) (ticket % numFireflies), rnd, pull);
+                // Only the update that completes the awaited epoch takes the monitor; the caller
+                // re-checks done under it before waiting, so no wake-up is lost
+                if (done.incrementAndGet() == waitTarget) {
+                    synchronized (progress) {
+                        progress.notifyAll();
+                    }
+                }
+            }
+        } catch (Throwable t) {
+            failure.compareAndSet(null, t);
+            running[w].set(false);
+            synchronized (progress) {
+                progress.notifyAll();
+            }
+        }
+    }
+
+    private long claim() {
+        while (true) {
+            long t = claimed.get();
+            if (t >= limit) return -1L;
+            if (claimed.compareAndSet(t, t + 1)) return t;
+        }
+    }
+
+    private void awaitDone(long target) {
+        synchronized (progress) {
+            while (done.get() < target && failure.get() == null) {
+                try {
+                    progress.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for firefly updates", e);
+                }
+            }
+        }
+        Throwable t = failure.get();
+        if (t != null) throw new IllegalStateException("Firefly worker failed", t);
+    }
+
+    /** One steady-state update of firefly i against snapshots of all other fireflies. */
+    private void update(int i, Random rnd, double[] pull) {
+        Slot self = slots.get(i);
+        double[] x = Arrays.copyOf(self.position, dimensions);
+        double a = alpha;
+
+        if (aggregateSteps) {
+            double keep = 1.0, noiseSteps = 0.0;
+            Arrays.fill(pull, 0.0);
+            for (int j = 0; j < numFireflies; j++) {
+                Slot other = slots.get(j);
+                if (self.brightness > other.brightness) {
+                    double beta = attractiveness(x, other.position);
+                    double k = 1.0 - beta;
+                    for (int d = 0; d < dimensions; d++) pull[d] = k * pull[d] + beta * other.position[d];
+                    keep *= k;
+                    noiseSteps = k * k * noiseSteps + 1.0;
+                } else {
+                    noiseSteps += 1.0;
+                }
+            }
+            double sd = a * Math.sqrt(noiseSteps / 12.0);
+            for (int d = 0; d < dimensions; d++) x[d] = clamp(keep * x[d] + pull[d] + sd * rnd.nextGaussian(), d);
+        } else {
+            for (int j = 0; j < numFireflies; j++) {
+                Slot other = slots.get(j);
+                if (self.brightness > other.brightness) { // move toward brighter j
+                    double beta = attractiveness(x, other.position);
+                    for (int d = 0; d < dimensions; d++) {
+                        x[d] = clamp(x[d] + beta * (other.position[d] - x[d]) + a * (rnd.nextDouble() - 0.5), d);
+                    }
+                } else {
+                    for (int d = 0; d < dimensions; d++) x[d] = clamp(x[d] + a * (rnd.nextDouble() - 0.5), d);
+                }
+            }
+        }
+
+        double value = function.evaluate(x);
+        if (!slots.compareAndSet(i, self, new Slot(x, value, self.version + 1))) {
+            conflicts.increment();
+        }
+        offerBest(x, value); // an evaluated point may still be the best even if its update lost
+    }
+
+    private double attractiveness(double[] a, double[] b) {
+        double sum = 0.0;
+        for (int d = 0; d < dimensions; d++) {
+            double diff = a[d] - b[d];
+            sum += diff * diff;
+        }
+        double t = gamma * sum;
+        return beta0 * (fastExp ? FastExp.expNeg(t) : Math.exp(-t));
+    }
+
+    private void offerBest(double[] x, double value) {
+        while (true) {
+            Best current = best.get();
+            if (value >= current.value) return;
+            if (best.compareAndSet(current, new Best(x, value))) return;
+        }
+    }
+
+    private void randomWalkBest() {
+        double[] candidate = Arrays.copyOf(best.get().position, dimensions);
+        for (int d = 0; d < dimensions; d++) {
+            candidate[d] = clamp(candidate[d] + alpha * (random.nextDouble() - 0.5), d);
+        }
+        offerBest(candidate, function.evaluate(candidate));
+    }
+
+    private double clamp(double v, int d) {
+        if (v < lowerBound[d]) return lowerBound[d];
+        if (v > upperBound[d]) return upperBound[d];
+        return v;
+    }
+
+    private void seedWorkers() {
+        for (int w = 0; w < threads; w++) workerRandoms[w] = new Random(random.nextLong());
+    }
+
+    /** Lets in-flight updates finish and stops new ones until the next {@link #nextGeneration()}. */
+    private void rescorePopulation() {
+        quiesce();
+        for (int i = 0; i < numFireflies; i++) {
+            Slot s = slots.get(i);
+            double value = function.evaluate(s.position);
+            slots.set(i, new Slot(s.position, value, s.version + 1));
+            offerBest(s.position, value);
+        }
+    }
+
+    private void quiesce() {
+        limit = claimed.get();
+        while (done.get() < claimed.get() && failure.get() == null) {
+            LockSupport.parkNanos(100_000L);
+        }
+    }
+
+    // ========== OPTIMIZER ==========
+
+    /** Updates dropped because another worker published the same firefly first. */
+    public long conflicts() {
+        return conflicts.sum();
+    }
+
+    @Override
+    public int getGeneration() {
+        return generation;
+    }
+
+    @Override
+    public int getGenerations() {
+        return generations;
+    }
+
+    @Override
+    public double[] getBestSolution() {
+        return Arrays.copyOf(best.get().position, dimensions);
+    }
+
+    @Override
+    public double getBestValue() {
+        return best.get().value;
+    }
+
+    @Override
+    public void seedPopulation(List<double[]> starts, double fraction, double perturbation) {
+        if (generation != 0 || claimed.get() != 0) {
+            throw new IllegalStateException("seedPopulation must be called before the first generation");
+        }
+        int count = Math.min(numFireflies, (int) Math.round(fraction * numFireflies));
+        for (int i = 0; i < count && !starts.isEmpty(); i++) {
+            double[] start = starts.get(i % starts.size());
+            if (start.length != dimensions) {
+                throw new IllegalArgumentException(
+                        "Warm start has " + start.length + " variables, expected " + dimensions);
+            }
+            boolean exact = i < starts.size();
+            double[] x = new double[dimensions];
+            for (int d = 0; d < dimensions; d++) {
+                double v = start[d];
+                if (!exact) v += random.nextGaussian() * perturbation * (upperBound[d] - lowerBound[d]);
+                x[d] = clamp(v, d);
+            }
+            double value = function.evaluate(x);
+            slots.set(i, new Slot(x, value, slots.get(i).version + 1));
+            offerBest(x, value);
+        }
+    }
+
+    /**
+     * Snapshot in the shared checkpoint format. Workers are paused until the in-flight updates
+     * finish, so positions may already include part of the next epoch.
+     */
+    @Override
+    public OptimizerState snapshot() {
+        quiesce();
+        double[][] positions = new double[numFireflies][];
+        double[] brightness = new double[numFireflies];
+        for (int i = 0; i < numFireflies; i++) {
+            Slot s = slots.get(i);
+            positions[i] = Arrays.copyOf(s.position, dimensions);
+            brightness[i] = s.brightness;
+        }
+        Best b = best.get();
+        return new OptimizerState(
+                generation,
+                alpha,
+                gamma,
+                positions,
+                brightness,
+                Arrays.copyOf(b.position, dimensions),
+                b.value,
+                OptimizerState.saveRandom(random));
+    }
+
+    @Override
+    public void restore(OptimizerState state) {
+        if (state.positions.length != numFireflies
+                || state.brightness.length != numFireflies
+                || state.bestSolution.length != dimensions) {
+            throw new IllegalArgumentException("Checkpoint shape does not match optimizer (" + numFireflies
+                    + " fireflies x " + dimensions + " dimensions)");
+        }
+        if (state.generation > generations) {
+            throw new IllegalArgumentException(
+                    "Checkpoint generation " + state.generation + " exceeds " + generations + " generations");
+        }
+        quiesce();
+        for (int i = 0; i < numFireflies; i++) {
+            slots.set(
+                    i,
+                    new Slot(
+                            Arrays.copyOf(state.positions[i], dimensions),
+                            state.brightness[i],
+                            slots.get(i).version + 1));
+        }
+        best.set(new Best(Arrays.copyOf(state.bestSolution, dimensions), state.bestValue));
+        this.alpha = state.alpha;
+        this.generation = state.generation;
+        long tickets = (long) state.generation * numFireflies;
+        done.set(tickets);
+        claimed.set(tickets);
+        limit = tickets;
+        this.random = OptimizerState.loadRandom(state.rngState);
+        seedWorkers();
+    }
+
+    @Override
+    public void setProgressListener(FireflyAlgorithm.ProgressListener listener) {
+        this.progressListener = listener;
+    }
+}
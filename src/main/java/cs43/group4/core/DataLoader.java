@@ -1,5 +1,11 @@
 package cs43.group4.core;
 
+import cs43.group4.utils.BarangayData;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
@@ -9,7 +15,7 @@ import java.util.List;
 
 /**
  * CSV loader for thesis data.
- * - Reads data/barangays.csv
+ * - Reads data/barangays.csv (or the equivalent binary format, detected by its magic number)
  * - Derives classes (SAR/EMS), per-class supply, and handles optional columns
  * - Derives vulnerability index / AC when missing
  */
@@ -33,7 +39,10 @@ public final class DataLoader {
         public final String[] classNames;
         public final double[] lambda; // per class
         public final double[] supply; // per class
+        public final double[] givenE; // vulnerability_index as in the dataset (NaN if missing)
+        public final double[] givenAC; // total_personnel as in the dataset (NaN if missing)
 
+        /** Data whose E and AC were given outright, none derived from population. */
         public Data(
                 int Z,
                 int C,
@@ -52,6 +61,52 @@ public final class DataLoader {
                 String[] classNames,
                 double[] lambda,
                 double[] supply) {
+            this(
+                    Z,
+                    C,
+                    barangayIds,
+                    barangayNames,
+                    populations,
+                    r,
+                    f,
+                    E,
+                    AC,
+                    sarCurrent,
+                    emsCurrent,
+                    lat,
+                    lon,
+                    classIds,
+                    classNames,
+                    lambda,
+                    supply,
+                    E,
+                    AC);
+        }
+
+        /**
+         * Data with the dataset's own vulnerability index and total personnel, which E and AC were
+         * derived from ({@link DataLoader#exposure}, {@link DataLoader#capacity}).
+         */
+        public Data(
+                int Z,
+                int C,
+                String[] barangayIds,
+                String[] barangayNames,
+                double[] populations,
+                double[] r,
+                double[] f,
+                double[] E,
+                double[] AC,
+                double[] sarCurrent,
+                double[] emsCurrent,
+                double[] lat,
+                double[] lon,
+                String[] classIds,
+                String[] classNames,
+                double[] lambda,
+                double[] supply,
+                double[] givenE,
+                double[] givenAC) {
             this.Z = Z;
             this.C = C;
             this.barangayIds = barangayIds;
@@ -69,6 +124,8 @@ public final class DataLoader {
             this.classNames = classNames;
             this.lambda = lambda;
             this.supply = supply;
+            this.givenE = givenE;
+            this.givenAC = givenAC;
         }
     }
 
@@ -80,23 +137,15 @@ public final class DataLoader {
     }
 
     public static Data load(Path barangaysCsv) throws IOException {
+        if (isBinary(barangaysCsv)) {
+            return build(readBinary(barangaysCsv));
+        }
+
         List<String> bLines = Files.readAllLines(barangaysCsv, StandardCharsets.UTF_8);
         if (bLines.isEmpty()) {
             throw new IOException("Empty CSV file: barangays.csv");
         }
 
-        // Deprecated: classes.csv is no longer used. Define classes here.
-        List<String> classIds = new ArrayList<>();
-        List<String> classNames = new ArrayList<>();
-        List<Double> lambda = new ArrayList<>(); // retained for backward compatibility
-        classIds.add("SAR");
-        classNames.add("SAR");
-        lambda.add(0.75);
-        classIds.add("EMS");
-        classNames.add("EMS");
-        lambda.add(0.25);
-        int C = classIds.size();
-
         // Parse barangays
         String[] bHeader = splitCsv(bLines.get(0));
         int idxId = indexOf(bHeader, "id");
@@ -116,90 +165,76 @@ public final class DataLoader {
         int idxLon = indexOfOptional(bHeader, "lon");
         if (idxLon < 0) idxLon = indexOfOptional(bHeader, "longitude");
 
-        List<String> ids = new ArrayList<>();
-        List<String> names = new ArrayList<>();
-        List<Double> r = new ArrayList<>();
-        List<Double> f = new ArrayList<>();
-        List<Double> population = new ArrayList<>();
-        List<Double> vulnerabilityIndex = new ArrayList<>();
-        List<Double> totalPersonnel = new ArrayList<>();
-        List<Double> sarCur = new ArrayList<>();
-        List<Double> emsCur = new ArrayList<>();
-        List<Double> latList = new ArrayList<>();
-        List<Double> lonList = new ArrayList<>();
-
+        Rows rows = new Rows();
         for (int i = 1; i < bLines.size(); i++) {
             String line = bLines.get(i);
             if (line.isBlank()) continue;
             String[] row = splitCsv(line);
-            ids.add(get(row, idxId));
-            names.add(get(row, idxName));
-            r.add(hazardTextToLevel(get(row, idxHazardText)));
-            f.add(parseDoubleSafe(get(row, idxDepthFt), 0.0));
-            population.add(parseDoubleNullable(get(row, idxPopulation)));
-            vulnerabilityIndex.add(parseDoubleNullable(get(row, idxExposure)));
-            totalPersonnel.add(parseDoubleNullable(get(row, idxTotalPersonnel)));
-            if (idxSarCurrent >= 0) sarCur.add(parseDoubleNullable(get(row, idxSarCurrent)));
-            else sarCur.add(null);
-            if (idxEmsCurrent >= 0) emsCur.add(parseDoubleNullable(get(row, idxEmsCurrent)));
-            else emsCur.add(null);
-            if (idxLat >= 0) latList.add(parseDoubleNullable(get(row, idxLat)));
-            else latList.add(null);
-            if (idxLon >= 0) lonList.add(parseDoubleNullable(get(row, idxLon)));
-            else lonList.add(null);
+            rows.ids.add(get(row, idxId));
+            rows.names.add(get(row, idxName));
+            rows.r.add(hazardTextToLevel(get(row, idxHazardText)));
+            rows.f.add(parseDoubleSafe(get(row, idxDepthFt), 0.0));
+            rows.population.add(parseDoubleNullable(get(row, idxPopulation)));
+            rows.vulnerabilityIndex.add(parseDoubleNullable(get(row, idxExposure)));
+            rows.totalPersonnel.add(parseDoubleNullable(get(row, idxTotalPersonnel)));
+            if (idxSarCurrent >= 0) rows.sarCur.add(parseDoubleNullable(get(row, idxSarCurrent)));
+            else rows.sarCur.add(null);
+            if (idxEmsCurrent >= 0) rows.emsCur.add(parseDoubleNullable(get(row, idxEmsCurrent)));
+            else rows.emsCur.add(null);
+            if (idxLat >= 0) rows.latList.add(parseDoubleNullable(get(row, idxLat)));
+            else rows.latList.add(null);
+            if (idxLon >= 0) rows.lonList.add(parseDoubleNullable(get(row, idxLon)));
+            else rows.lonList.add(null);
         }
+        return build(rows);
+    }
+
+    /**
+     * Builds a Data object directly from in-memory rows (same schema as barangays.csv), e.g. the
+     * output of {@link DatasetGenerator}, without a round trip through a file.
+     */
+    public static Data fromRows(List<BarangayData> barangays) {
+        Rows rows = new Rows();
+        for (BarangayData b : barangays) rows.add(b);
+        return build(rows);
+    }
+
+    private static Data build(Rows rows) {
+        // Deprecated: classes.csv is no longer used. Define classes here.
+        List<String> classIds = new ArrayList<>();
+        List<String> classNames = new ArrayList<>();
+        List<Double> lambda = new ArrayList<>(); // retained for backward compatibility
+        classIds.add("SAR");
+        classNames.add("SAR");
+        lambda.add(0.75);
+        classIds.add("EMS");
+        classNames.add("EMS");
+        lambda.add(0.25);
+        int C = classIds.size();
+
+        List<String> ids = rows.ids;
+        List<String> names = rows.names;
+        List<Double> r = rows.r;
+        List<Double> f = rows.f;
+        List<Double> population = rows.population;
+        List<Double> vulnerabilityIndex = rows.vulnerabilityIndex;
+        List<Double> totalPersonnel = rows.totalPersonnel;
+        List<Double> sarCur = rows.sarCur;
+        List<Double> emsCur = rows.emsCur;
+        List<Double> latList = rows.latList;
+        List<Double> lonList = rows.lonList;
         int Z = ids.size();
 
         // Build arrays and derive missing pieces
         double[] rArr = toPrimitive(r, 0.0);
         double[] fArr = toPrimitive(f, 0.0);
 
-        // Vulnerability Index (DP): if missing, use population normalized; else default 1.0
-        double[] E = new double[Z];
-        double[] popArr = new double[Z];
-        double popSum = 0.0;
-        int popCount = 0;
-        for (int i = 0; i < Z; i++) {
-            Double p = population.get(i);
-            popArr[i] = p == null ? Double.NaN : p;
-            if (p != null) {
-                popSum += p;
-                popCount++;
-            }
-        }
-        double popMean = popCount > 0 ? popSum / popCount : 1.0;
-        for (int i = 0; i < Z; i++) {
-            Double e = vulnerabilityIndex.get(i);
-            if (e != null && e > 0) {
-                E[i] = e;
-            } else if (!Double.isNaN(popArr[i]) && popMean > 0) {
-                E[i] = popArr[i] / popMean; // normalized population
-            } else {
-                E[i] = 1.0;
-            }
-        }
-
-        // AC: if missing, estimate proportionally to population and a rough total personnel (sum of
-        // provided totals) if available
-        double providedTotal = 0.0;
-        for (Double tp : totalPersonnel) {
-            if (tp != null) {
-                providedTotal += tp;
-            }
-        }
-        double fallbackTotal = providedTotal > 0 ? providedTotal : 1.0;
-
-        double[] AC = new double[Z];
-        for (int i = 0; i < Z; i++) {
-            Double tp = totalPersonnel.get(i);
-            if (tp != null) {
-                AC[i] = tp;
-            } else if (!Double.isNaN(popArr[i]) && popSum > 0) {
-                AC[i] = (popArr[i] / popSum) * fallbackTotal;
-            } else {
-                AC[i] = 0.0;
-            }
-        }
+        // Vulnerability Index (DP) and AC: as given, else derived from population
+        double[] popArr = toPrimitive(population, Double.NaN);
+        double[] givenE = toPrimitive(vulnerabilityIndex, Double.NaN);
+        double[] givenAC = toPrimitive(totalPersonnel, Double.NaN);
+        double[] E = exposure(givenE, popArr);
+        double[] AC = capacity(givenAC, popArr);
 
         // Current per-class counts
         double[] sarCurrentArr = new double[Z];
@@ -259,7 +294,163 @@ public final class DataLoader {
                 classIds.toArray(new String[classIds.size()]),
                 classNames.toArray(new String[classNames.size()]),
                 toPrimitive(lambda, 1.0),
-                supplyArr);
+                supplyArr,
+                givenE,
+                givenAC);
+    }
+
+    /**
+     * Vulnerability Index (DP) per barangay: the given value if positive, else the population
+     * normalized by the mean of the known populations, else 1.0.
+     *
+     * @param given vulnerability_index per barangay (NaN if missing)
+     * @param population population per barangay (NaN if missing)
+     */
+    static double[] exposure(double[] given, double[] population) {
+        int Z = given.length;
+        double popSum = 0.0;
+        int popCount = 0;
+        for (double p : population) {
+            if (!Double.isNaN(p)) {
+                popSum += p;
+                popCount++;
+            }
+        }
+        double popMean = popCount > 0 ? popSum / popCount : 1.0;
+        double[] E = new double[Z];
+        for (int i = 0; i < Z; i++) {
+            if (given[i] > 0) {
+                E[i] = given[i];
+            } else if (!Double.isNaN(population[i]) && popMean > 0) {
+                E[i] = population[i] / popMean; // normalized population
+            } else {
+                E[i] = 1.0;
+            }
+        }
+        return E;
+    }
+
+    /**
+     * AC per barangay: the given total personnel, else a population share of the sum of the given
+     * totals (1.0 if none are given), else 0.
+     *
+     * @param given total_personnel per barangay (NaN if missing)
+     * @param population population per barangay (NaN if missing)
+     */
+    static double[] capacity(double[] given, double[] population) {
+        int Z = given.length;
+        double popSum = 0.0;
+        for (double p : population) if (!Double.isNaN(p)) popSum += p;
+        double providedTotal = 0.0;
+        for (double tp : given) if (!Double.isNaN(tp)) providedTotal += tp;
+        double fallbackTotal = providedTotal > 0 ? providedTotal : 1.0;
+
+        double[] AC = new double[Z];
+        for (int i = 0; i < Z; i++) {
+            if (!Double.isNaN(given[i])) {
+                AC[i] = given[i];
+            } else if (!Double.isNaN(population[i]) && popSum > 0) {
+                AC[i] = (population[i] / popSum) * fallbackTotal;
+            } else {
+                AC[i] = 0.0;
+            }
+        }
+        return AC;
+    }
+
+    // ========== BINARY FORMAT ==========
+    // Compact, schema-compatible alternative to barangays.csv written by DatasetGenerator:
+    // magic "BRGY", int version, int Z, then per row: UTF id, UTF name, UTF hazard_level_text,
+    // double flood_depth_ft, double population, double vulnerability_index, int total_personnel,
+    // int sar_current, int ems_current, double lat, double lon.
+
+    static final int BINARY_MAGIC = 0x42524759; // "BRGY"
+    static final int BINARY_VERSION = 1;
+
+    private static boolean isBinary(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(path))) {
+            return in.readInt() == BINARY_MAGIC;
+        } catch (EOFException e) {
+            return false;
+        }
+    }
+
+    private static Rows readBinary(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            in.readInt(); // magic
+            int version = in.readInt();
+            if (version != BINARY_VERSION) {
+                throw new IOException("Unsupported barangay binary version: " + version);
+            }
+            int Z = in.readInt();
+            Rows rows = new Rows();
+            for (int i = 0; i < Z; i++) {
+                rows.ids.add(in.readUTF());
+                rows.names.add(in.readUTF());
+                rows.r.add(hazardTextToLevel(in.readUTF()));
+                rows.f.add(in.readDouble());
+                rows.population.add(in.readDouble());
+                rows.vulnerabilityIndex.add(in.readDouble());
+                rows.totalPersonnel.add((double) in.readInt());
+                rows.sarCur.add((double) in.readInt());
+                rows.emsCur.add((double) in.readInt());
+                rows.latList.add(in.readDouble());
+                rows.lonList.add(in.readDouble());
+            }
+            return rows;
+        }
+    }
+
+    /** Writes rows in the binary format understood by {@link #load(Path)}. */
+    public static void writeBinary(List<BarangayData> barangays, Path path) throws IOException {
+        if (path.getParent() != null) Files.createDirectories(path.getParent());
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(BINARY_MAGIC);
+            out.writeInt(BINARY_VERSION);
+            out.writeInt(barangays.size());
+            for (BarangayData b : barangays) {
+                out.writeUTF(String.valueOf(b.id));
+                out.writeUTF(b.name);
+                out.writeUTF(b.hazard_level_text);
+                out.writeDouble(b.flood_depth_ft);
+                out.writeDouble(b.population);
+                out.writeDouble(b.vulnerability_index);
+                out.writeInt(b.total_personnel);
+                out.writeInt(b.sar_current);
+                out.writeInt(b.ems_current);
+                out.writeDouble(b.lat);
+                out.writeDouble(b.lon);
+            }
+        }
+    }
+
+    // Raw per-row columns before derivation (nullable where the CSV column is optional)
+    private static final class Rows {
+        final List<String> ids = new ArrayList<>();
+        final List<String> names = new ArrayList<>();
+        final List<Double> r = new ArrayList<>();
+        final List<Double> f = new ArrayList<>();
+        final List<Double> population = new ArrayList<>();
+        final List<Double> vulnerabilityIndex = new ArrayList<>();
+        final List<Double> totalPersonnel = new ArrayList<>();
+        final List<Double> sarCur = new ArrayList<>();
+        final List<Double> emsCur = new ArrayList<>();
+        final List<Double> latList = new ArrayList<>();
+        final List<Double> lonList = new ArrayList<>();
+
+        void add(BarangayData b) {
+            ids.add(String.valueOf(b.id));
+            names.add(b.name);
+            r.add(hazardTextToLevel(b.hazard_level_text));
+            f.add(b.flood_depth_ft);
+            population.add((double) b.population);
+            vulnerabilityIndex.add(b.vulnerability_index);
+            totalPersonnel.add((double) b.total_personnel);
+            sarCur.add((double) b.sar_current);
+            emsCur.add((double) b.ems_current);
+            latList.add(b.lat);
+            lonList.add(b.lon);
+        }
     }
 
     private static int indexOf(String[] arr, String key) throws IOException {
@@ -305,7 +496,7 @@ public final class DataLoader {
         return v == null ? defVal : v;
     }
 
-    private static double hazardTextToLevel(String t) {
+    static double hazardTextToLevel(String t) {
         String s = t == null ? "" : t.trim().toLowerCase();
         if (s.startsWith("low")) return 1.0;
         if (s.startsWith("med")) return 2.0;
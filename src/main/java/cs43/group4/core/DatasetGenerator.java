@@ -0,0 +1,224 @@
+package cs43.group4.core;
+
+import cs43.group4.utils.BarangayData;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Synthetic barangay dataset generator for scaling studies.
+ * <p>
+ * Produces rows with the same schema as data/barangays.csv for any Z. Distributions are
+ * calibrated against the real 142-row Quezon City file:
+ * </p>
+ * - hazard_level_text: Low 32%, Medium 60%, High 8%
+ * - flood_depth_ft: triangular per hazard level (Low 0.1..1.65, Medium 0.45..4.8, High 4.75..5.5)
+ * - population: lognormal, median ~7,400, clamped to [500, 250000]
+ * - total_personnel: ~0.83% of population, split into SAR/EMS with a hazard-dependent SAR share
+ * - vulnerability_index: lognormal, median ~0.115, clamped to [0, 0.75]
+ * - lat/lon: Gaussian clusters around real city centroids (Metro Manila or nationwide)
+ * <p>
+ * The same seed always yields the same dataset, so benchmark inputs are reproducible.
+ * </p>
+ */
+public class DatasetGenerator {
+
+    /** Header of data/barangays.csv (including its unnamed second column). */
+    public static final String CSV_HEADER =
+            "id,,name,hazard_level_text,flood_depth_ft,population,vulnerability_index,total_personnel,"
+                    + "sar_current,ems_current,lat,lon";
+
+    /** Geographic spread of the generated barangays. */
+    public enum Region {
+        /** The 17 Metro Manila LGUs, ~2 km spread per cluster. */
+        METRO(0.02, new Centroid[] {
+            new Centroid("Quezon City", 14.6760, 121.0437, 2.96),
+            new Centroid("Manila", 14.5995, 120.9842, 1.85),
+            new Centroid("Caloocan", 14.6507, 120.9668, 1.66),
+            new Centroid("Taguig", 14.5176, 121.0509, 0.89),
+            new Centroid("Pasig", 14.5764, 121.0851, 0.80),
+            new Centroid("Valenzuela", 14.7011, 120.9830, 0.71),
+            new Centroid("Paranaque", 14.4793, 121.0198, 0.69),
+            new Centroid("Las Pinas", 14.4445, 120.9939, 0.61),
+            new Centroid("Makati", 14.5547, 121.0244, 0.63),
+            new Centroid("Muntinlupa", 14.4081, 121.0415, 0.54),
+            new Centroid("Marikina", 14.6507, 121.1029, 0.46),
+            new Centroid("Pasay", 14.5378, 121.0014, 0.44),
+            new Centroid("Malabon", 14.6625, 120.9567, 0.38),
+            new Centroid("Mandaluyong", 14.5794, 121.0359, 0.43),
+            new Centroid("Navotas", 14.6667, 120.9417, 0.25),
+            new Centroid("San Juan", 14.6019, 121.0355, 0.13),
+            new Centroid("Pateros", 14.5454, 121.0687, 0.07)
+        }),
+        /** Major regional centres across Luzon, Visayas and Mindanao, ~15 km spread per cluster. */
+        NATIONWIDE(0.15, new Centroid[] {
+            new Centroid("Metro Manila", 14.5995, 120.9842, 13.48),
+            new Centroid("Davao City", 7.1907, 125.4553, 1.78),
+            new Centroid("Cebu City", 10.3157, 123.8854, 0.96),
+            new Centroid("Zamboanga City", 6.9214, 122.0790, 0.98),
+            new Centroid("Cagayan de Oro", 8.4542, 124.6319, 0.73),
+            new Centroid("General Santos", 6.1164, 125.1716, 0.70),
+            new Centroid("Bacolod", 10.6765, 122.9509, 0.60),
+            new Centroid("Iloilo City", 10.7202, 122.5621, 0.46),
+            new Centroid("Butuan", 8.9475, 125.5406, 0.37),
+            new Centroid("Baguio", 16.4023, 120.5960, 0.37),
+            new Centroid("Puerto Princesa", 9.7392, 118.7353, 0.31),
+            new Centroid("Tacloban", 11.2543, 125.0000, 0.25),
+            new Centroid("Legazpi", 13.1391, 123.7438, 0.21),
+            new Centroid("Naga", 13.6218, 123.1948, 0.21),
+            new Centroid("Tuguegarao", 17.6132, 121.7270, 0.17)
+        });
+
+        final double spreadDeg;
+        final Centroid[] centroids;
+        final double totalWeight;
+
+        Region(double spreadDeg, Centroid[] centroids) {
+            this.spreadDeg = spreadDeg;
+            this.centroids = centroids;
+            double w = 0.0;
+            for (Centroid c : centroids) w += c.weight;
+            this.totalWeight = w;
+        }
+    }
+
+    /** City centre used as a cluster mean; weight is roughly proportional to population (millions). */
+    record Centroid(String name, double lat, double lon, double weight) {}
+
+    private final long seed;
+    private final Region region;
+
+    public DatasetGenerator(long seed, Region region) {
+        if (region == null) {
+            throw new IllegalArgumentException("region must not be null");
+        }
+        this.seed = seed;
+        this.region = region;
+    }
+
+    /** Generates Z barangays. Calling this twice with the same Z returns identical rows. */
+    public List<BarangayData> generate(int Z) {
+        if (Z <= 0) {
+            throw new IllegalArgumentException("Z must be positive, got " + Z);
+        }
+        Random rnd = new Random(seed);
+        List<BarangayData> rows = new ArrayList<>(Z);
+        for (int i = 0; i < Z; i++) {
+            Centroid city = pickCentroid(rnd);
+
+            String hazard;
+            double depth;
+            double sarShare;
+            double u = rnd.nextDouble();
+            if (u < 0.32) {
+                hazard = "Low";
+                depth = triangular(rnd, 0.1, 0.9, 1.65);
+                sarShare = 0.65;
+            } else if (u < 0.92) {
+                hazard = "Medium";
+                depth = triangular(rnd, 0.45, 3.2, 4.8);
+                sarShare = 0.75;
+            } else {
+                hazard = "High";
+                depth = triangular(rnd, 4.75, 5.0, 5.5);
+                sarShare = 0.85;
+            }
+
+            int population = (int) Math.round(clamp(7400.0 * Math.exp(1.44 * rnd.nextGaussian()), 500, 250000));
+            double ratio = clamp(0.0083 + 0.003 * rnd.nextGaussian(), 0.0006, 0.017);
+            int personnel = Math.max(1, (int) Math.round(population * ratio));
+            int sar = (int) Math.round(personnel * clamp(sarShare + 0.03 * rnd.nextGaussian(), 0.0, 1.0));
+            int ems = personnel - sar;
+            double vulnerability = clamp(0.115 * Math.exp(0.6 * rnd.nextGaussian()), 0.0, 0.75);
+
+            double lat = city.lat + rnd.nextGaussian() * region.spreadDeg;
+            // Scale the longitude spread so clusters stay roughly circular on the ground
+            double lon = city.lon + rnd.nextGaussian() * region.spreadDeg / Math.cos(Math.toRadians(city.lat));
+
+            rows.add(new BarangayData(
+                    i + 1,
+                    "Brgy. " + city.name + " " + (i + 1),
+                    hazard,
+                    round(depth, 3),
+                    population,
+                    round(vulnerability, 9),
+                    personnel,
+                    sar,
+                    ems,
+                    round(lat, 8),
+                    round(lon, 7)));
+        }
+        return rows;
+    }
+
+    /** Generates Z barangays and loads them as optimizer input without touching the filesystem. */
+    public DataLoader.Data generateData(int Z) {
+        return DataLoader.fromRows(generate(Z));
+    }
+
+    // ========== OUTPUT ==========
+
+    /** Writes rows as a barangays.csv-compatible file. */
+    public static void writeCsv(List<BarangayData> rows, Path path) throws IOException {
+        if (path.getParent() != null) Files.createDirectories(path.getParent());
+        try (BufferedWriter w = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            w.write(CSV_HEADER);
+            w.newLine();
+            for (BarangayData b : rows) {
+                w.write(String.format(
+                        Locale.ROOT,
+                        "%d,,%s,%s,%s,%d,%s,%d,%d,%d,%s,%s",
+                        b.id,
+                        b.name,
+                        b.hazard_level_text,
+                        b.flood_depth_ft,
+                        b.population,
+                        b.vulnerability_index,
+                        b.total_personnel,
+                        b.sar_current,
+                        b.ems_current,
+                        b.lat,
+                        b.lon));
+                w.newLine();
+            }
+        }
+    }
+
+    /** Writes rows in DataLoader's compact binary format (see {@link DataLoader#writeBinary}). */
+    public static void writeBinary(List<BarangayData> rows, Path path) throws IOException {
+        DataLoader.writeBinary(rows, path);
+    }
+
+    // ========== HELPERS ==========
+
+    private Centroid pickCentroid(Random rnd) {
+        double u = rnd.nextDouble() * region.totalWeight;
+        for (Centroid c : region.centroids) {
+            u -= c.weight;
+            if (u <= 0) return c;
+        }
+        return region.centroids[region.centroids.length - 1];
+    }
+
+    private static double triangular(Random rnd, double min, double mode, double max) {
+        double u = rnd.nextDouble();
+        double split = (mode - min) / (max - min);
+        if (u < split) return min + Math.sqrt(u * (max - min) * (mode - min));
+        return max - Math.sqrt((1 - u) * (max - min) * (max - mode));
+    }
+
+    private static double clamp(double v, double lo, double hi) {
+        return Math.max(lo, Math.min(hi, v));
+    }
+
+    private static double round(double v, int places) {
+        double scale = Math.pow(10, places);
+        return Math.round(v * scale) / scale;
+    }
+}
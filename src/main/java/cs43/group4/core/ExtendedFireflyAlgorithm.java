@@ -11,7 +11,11 @@ package cs43.group4.core;
  * Authors: Rendel Abainza, Wendel de Dios, Lester Osana, John Paul Viado (PUP Manila, 2025)
  */
 import cs43.group4.core.extended.DomainConstraintEvaluator;
+import cs43.group4.metrics.Histogram;
+import cs43.group4.metrics.Metrics;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
 
 /** Core optimizer implementing the Extended Firefly Algorithm. */
 public class ExtendedFireflyAlgorithm {
@@ -55,6 +59,7 @@ public class ExtendedFireflyAlgorithm {
     private int numFireflies; // Population size
     private int dimensions; // Number of variables
     private int generations; // Number of iterations
+    private int generation = 0; // Generations completed so far
 
     // Hamming distance diversity control
     private double diversityConstant; // c in TH = c * L
@@ -68,11 +73,26 @@ public class ExtendedFireflyAlgorithm {
     private double bestValue;
 
     private ObjectiveFunction function;
+    private Random random; // per-instance source, seedable for reproducible runs
     private DataLoader.Data data; // For objective filtering
+    private SimplexEncoding encoding; // positions are decoded before filtering; null = raw
+
+    private static final Histogram GENERATION_SECONDS = Metrics.generationDuration("efa");
 
     private double[] lowerBound;
     private double[] upperBound;
 
+    private int topK = 0; // 0 = full pairwise attraction and diversity control
+    private RankOrder ranking;
+
+    // Aggregated steps (see FireflyAlgorithm): x <- keep * x + pull + one Gaussian draw
+    private boolean aggregateSteps = false;
+    private boolean fastExp = false; // β through the FastExp table instead of Math.exp
+    private double floorExponent; // γ r² above which β0 * e^(-γ r²) < βmin
+    private double[] pull;
+    private double keep;
+    private double noiseSteps;
+
     // Optional per-iteration progress callback
     public interface ProgressListener {
         void onIteration(int generation, double[] bestSolution, int reinitializedCount);
@@ -100,6 +120,36 @@ public class ExtendedFireflyAlgorithm {
             double alpha0,
             double alphaFinal,
             int generations) {
+        this(
+                function,
+                data,
+                numFireflies,
+                lowerBound,
+                upperBound,
+                gamma,
+                beta0,
+                betaMin,
+                alpha0,
+                alphaFinal,
+                generations,
+                new Random());
+    }
+
+    /** Same as above with a caller-supplied random source; seed it to reproduce a run. */
+    public ExtendedFireflyAlgorithm(
+            ObjectiveFunction function,
+            DataLoader.Data data, // For Objective Function Filtering
+            int numFireflies,
+            double[] lowerBound,
+            double[] upperBound,
+            double gamma,
+            double beta0,
+            double betaMin,
+            double alpha0,
+            double alphaFinal,
+            int generations,
+            Random random) {
+        this.random = random;
         // Validate bounds length
         if (lowerBound.length != upperBound.length) {
             throw new IllegalArgumentException("Lower bound array length (" + lowerBound.length
@@ -135,7 +185,7 @@ public class ExtendedFireflyAlgorithm {
     private void initializePopulation(double[] lowerBound, double[] upperBound) {
         for (int i = 0; i < numFireflies; i++) {
             for (int d = 0; d < dimensions; d++) {
-                fireflies[i][d] = lowerBound[d] + Math.random() * (upperBound[d] - lowerBound[d]);
+                fireflies[i][d] = lowerBound[d] + random.nextDouble() * (upperBound[d] - lowerBound[d]);
                 fireflies[i][d] = clamp(fireflies[i][d], d);
             }
             brightness[i] = function.evaluate(fireflies[i]);
@@ -146,72 +196,123 @@ public class ExtendedFireflyAlgorithm {
 
     /** Run optimization for the configured number of generations. */
     public void optimize() {
+        while (generation < generations) {
+            nextGeneration();
+        }
+    }
 
-        for (int gen = 0; gen < generations; gen++) {
-            // 1) Self-adaptive schedules (1-based iteration index)
-            currentInertia = computeSelfAdaptiveInertiaWeight(gen + 1, generations, inertiaW1, inertiaW2, inertiaB);
-            currentStepFactor = computeDynamicStepFactor(gen + 1, generations, theta, dimensions);
-
-            // 2) Reset diagnostics
-            iterStepSum = 0.0;
-            iterStepCount = 0;
-            iterBetaSum = 0.0;
-            iterBetaCount = 0;
-            iterBetaFlooredCount = 0;
-            iterMovesToward = 0;
-            iterRandomWalks = 0;
-
-            for (int i = 0; i < numFireflies; i++) {
-                // 3) Update firefly i versus all j (move toward brighter, else random walk)
+    /** Advance the population by exactly one generation (also usable outside {@link #optimize()}). */
+    public void nextGeneration() {
+        int gen = generation;
+        long genStart = System.nanoTime();
+        // Values from a different objective fidelity are not comparable: re-score the population
+        if (function.beginGeneration(gen)) rescorePopulation();
+        // 1) Self-adaptive schedules (1-based iteration index)
+        currentInertia = computeSelfAdaptiveInertiaWeight(gen + 1, generations, inertiaW1, inertiaW2, inertiaB);
+        currentStepFactor = computeDynamicStepFactor(gen + 1, generations, theta, dimensions);
+
+        // 2) Reset diagnostics
+        iterStepSum = 0.0;
+        iterStepCount = 0;
+        iterBetaSum = 0.0;
+        iterBetaCount = 0;
+        iterBetaFlooredCount = 0;
+        iterMovesToward = 0;
+        iterRandomWalks = 0;
+
+        if (ranking != null) ranking.update(brightness);
+        for (int i = 0; i < numFireflies; i++) {
+            // 3) Update firefly i versus all j (move toward brighter, else random walk), or with
+            // top-k versus the k fireflies ranked just above it
+            if (aggregateSteps) beginSteps();
+            if (ranking != null) {
+                for (int m = 0; m < topK; m++) {
+                    int j = ranking.brighter(i, m);
+                    if (j >= 0) {
+                        attract(i, j);
+                    } else {
+                        walk(i);
+                    }
+                }
+            } else {
                 for (int j = 0; j < numFireflies; j++) {
                     if (brightness[i] > brightness[j]) { // move i toward brighter j
-                        moveFirefly(i, j);
+                        attract(i, j);
                     } else {
-                        randomWalk(i);
+                        walk(i);
                     }
                 }
+            }
+            if (aggregateSteps) applySteps(i);
 
-                // 4) Objective filtering (minimization contract): infeasible -> +INF
-                boolean feasible =
-                        DomainConstraintEvaluator.isFeasible(fireflies[i], this.data, dimensions / data.C, data.C);
-                brightness[i] = feasible ? function.evaluate(fireflies[i]) : Double.POSITIVE_INFINITY;
+            // 4) Objective filtering (minimization contract): infeasible -> +INF
+            double[] allocation = encoding == null ? fireflies[i] : encoding.decode(fireflies[i]);
+            boolean feasible = DomainConstraintEvaluator.isFeasible(allocation, this.data, data.Z, data.C);
+            brightness[i] = feasible ? function.evaluate(fireflies[i]) : Double.POSITIVE_INFINITY;
+            if (!feasible) Metrics.FEASIBILITY_REJECTIONS.increment();
 
-                updateBest(fireflies[i], brightness[i]);
+            updateBest(fireflies[i], brightness[i]);
 
-                // Optional callback after each i
-                if (stepListener != null) {
-                    stepListener.onStep(Arrays.copyOf(bestSolution, dimensions));
-                }
+            // Optional callback after each i
+            if (stepListener != null) {
+                stepListener.onStep(Arrays.copyOf(bestSolution, dimensions));
             }
+        }
 
-            // 5) Diversity control (Hamming-based reinit) and best random walk
-            int reinitializedCount = applyDiversityControl(gen);
-            randomWalkBest();
+        // 5) Diversity control (Hamming-based reinit) and best random walk
+        int reinitializedCount = applyDiversityControl(gen);
+        randomWalkBest();
 
-            // 6) Decay alpha (legacy randomness schedule; noise uses c)
-            alpha = alphaFinal + (alpha0 - alphaFinal) * Math.exp(-0.1 * gen);
+        // 6) Decay alpha (legacy randomness schedule; noise uses c)
+        alpha = alphaFinal + (alpha0 - alphaFinal) * Math.exp(-0.1 * gen);
 
-            // 7) Finalize diagnostics
-            lastAvgStep = (iterStepCount > 0) ? (iterStepSum / (double) iterStepCount) : 0.0;
-            lastAvgBeta = (iterBetaCount > 0) ? (iterBetaSum / (double) iterBetaCount) : 0.0;
-            lastFlooredBetaRate = (iterBetaCount > 0) ? ((double) iterBetaFlooredCount / (double) iterBetaCount) : 0.0;
-            lastMovesToward = iterMovesToward;
-            lastRandomWalks = iterRandomWalks;
+        // 7) Finalize diagnostics
+        lastAvgStep = (iterStepCount > 0) ? (iterStepSum / (double) iterStepCount) : 0.0;
+        lastAvgBeta = (iterBetaCount > 0) ? (iterBetaSum / (double) iterBetaCount) : 0.0;
+        lastFlooredBetaRate = (iterBetaCount > 0) ? ((double) iterBetaFlooredCount / (double) iterBetaCount) : 0.0;
+        lastMovesToward = iterMovesToward;
+        lastRandomWalks = iterRandomWalks;
+        GENERATION_SECONDS.observeNanos(System.nanoTime() - genStart);
 
-            // 8) Progress callback per generation
-            if (progressListener != null) {
-                progressListener.onIteration(gen + 1, Arrays.copyOf(bestSolution, dimensions), reinitializedCount);
-            }
+        generation = gen + 1;
+
+        // 8) Progress callback per generation
+        if (progressListener != null) {
+            progressListener.onIteration(gen + 1, Arrays.copyOf(bestSolution, dimensions), reinitializedCount);
         }
     }
 
-    /** Diversity control using Hamming distance. Returns reinit count. */
+    /**
+     * Diversity control using Hamming distance. Returns reinit count. With top-k each firefly is
+     * only compared with the k fireflies ranked just below it, where near-duplicates sit.
+     */
     private int applyDiversityControl(int generation) {
         double c = (diversityConstant * 0.05) * Math.exp(-0.001 * generation);
         double threshold = c * stringLength; // TH = c × L
         int reinitializedCount = 0;
         boolean[] reinitialized = new boolean[numFireflies];
 
+        if (ranking != null) {
+            ranking.update(brightness);
+            for (int p = 0; p < numFireflies; p++) {
+                int i = ranking.at(p);
+                if (reinitialized[i]) continue;
+                for (int q = p + 1; q <= p + topK && q < numFireflies; q++) {
+                    int j = ranking.at(q);
+                    if (reinitialized[j]) continue;
+                    if (calculateHammingDistance(fireflies[i], fireflies[j]) < threshold) {
+                        int toReinitialize = (random.nextDouble() < 0.5) ? j : i;
+                        reinitializeFirefly(toReinitialize);
+                        reinitialized[toReinitialize] = true;
+                        reinitializedCount++;
+                        if (toReinitialize == i) break;
+                    }
+                }
+            }
+            Metrics.EFA_REINITIALIZATIONS.add(reinitializedCount);
+            return reinitializedCount;
+        }
+
         for (int i = 0; i < numFireflies; i++) {
             if (reinitialized[i]) continue;
 
@@ -222,7 +323,7 @@ public class ExtendedFireflyAlgorithm {
 
                 if (hammingDistance < threshold) {
                     // Reinitialize one of the two fireflies
-                    int toReinitialize = (Math.random() < 0.5) ? j : i;
+                    int toReinitialize = (random.nextDouble() < 0.5) ? j : i;
 
                     if (!reinitialized[toReinitialize]) {
                         reinitializeFirefly(toReinitialize);
@@ -233,6 +334,7 @@ public class ExtendedFireflyAlgorithm {
             }
         }
 
+        Metrics.EFA_REINITIALIZATIONS.add(reinitializedCount);
         return reinitializedCount;
     }
 
@@ -273,7 +375,7 @@ public class ExtendedFireflyAlgorithm {
     /** Reinitialize a firefly uniformly within bounds and evaluate. */
     private void reinitializeFirefly(int index) {
         for (int d = 0; d < dimensions; d++) {
-            fireflies[index][d] = lowerBound[d] + Math.random() * (upperBound[d] - lowerBound[d]);
+            fireflies[index][d] = lowerBound[d] + random.nextDouble() * (upperBound[d] - lowerBound[d]);
             fireflies[index][d] = clamp(fireflies[index][d], d);
         }
         brightness[index] = function.evaluate(fireflies[index]);
@@ -285,7 +387,7 @@ public class ExtendedFireflyAlgorithm {
         double distance = normalizedDistance(fireflies[i], fireflies[j]);
 
         // Use attractiveness with floor
-        double raw = beta0 * Math.exp(-gamma * distance * distance);
+        double raw = rawAttractiveness(distance);
         double beta = (raw < betaMin) ? betaMin : raw;
         if (raw < betaMin) {
             iterBetaFlooredCount++;
@@ -296,7 +398,7 @@ public class ExtendedFireflyAlgorithm {
             // Inertia scales noise; add a small alpha blend for stability
             double noiseScale = currentInertia * currentStepFactor + 0.25 * alpha;
             double old = fireflies[i][d];
-            double updated = old + beta * (fireflies[j][d] - old) + noiseScale * (Math.random() - 0.5);
+            double updated = old + beta * (fireflies[j][d] - old) + noiseScale * (random.nextDouble() - 0.5);
             updated = clamp(updated, d);
             fireflies[i][d] = updated;
             double diff = updated - old;
@@ -311,6 +413,15 @@ public class ExtendedFireflyAlgorithm {
         iterMovesToward++;
     }
 
+    /** Re-evaluates the population; fireflies rejected by the feasibility filter stay at +INF. */
+    private void rescorePopulation() {
+        for (int i = 0; i < numFireflies; i++) {
+            if (brightness[i] == Double.POSITIVE_INFINITY) continue;
+            brightness[i] = function.evaluate(fireflies[i]);
+            updateBest(fireflies[i], brightness[i]);
+        }
+    }
+
     /** Random walk for a given firefly (pure exploration). */
     private void randomWalk(int i) {
         double deltaSq = 0.0;
@@ -318,7 +429,7 @@ public class ExtendedFireflyAlgorithm {
             // Pure exploration (no attraction)
             double noiseScale = currentInertia * currentStepFactor + 0.25 * alpha;
             double old = fireflies[i][d];
-            double updated = old + noiseScale * (Math.random() - 0.5);
+            double updated = old + noiseScale * (random.nextDouble() - 0.5);
             updated = clamp(updated, d);
             fireflies[i][d] = updated;
             double diff = updated - old;
@@ -330,6 +441,62 @@ public class ExtendedFireflyAlgorithm {
         iterRandomWalks++;
     }
 
+    /** Moves i toward j now, or accumulates the move into pull when aggregateSteps is set. */
+    private void attract(int i, int j) {
+        if (!aggregateSteps) {
+            moveFirefly(i, j);
+            return;
+        }
+        // Same attractiveness as moveFirefly, from i's position at the start of the generation
+        double distance = normalizedDistance(fireflies[i], fireflies[j]);
+        double raw = rawAttractiveness(distance);
+        double beta = (raw < betaMin) ? betaMin : raw;
+        if (raw < betaMin) {
+            iterBetaFlooredCount++;
+        }
+        double k = 1.0 - beta;
+        double[] xj = fireflies[j];
+        for (int d = 0; d < dimensions; d++) pull[d] = k * pull[d] + beta * xj[d];
+        keep *= k;
+        noiseSteps = k * k * noiseSteps + 1.0;
+        iterBetaSum += beta;
+        iterBetaCount++;
+        iterMovesToward++;
+    }
+
+    /** Random walk of i now, or one more step of noiseSteps when aggregateSteps is set. */
+    private void walk(int i) {
+        if (aggregateSteps) {
+            noiseSteps += 1.0;
+            iterRandomWalks++;
+        } else {
+            randomWalk(i);
+        }
+    }
+
+    /** Resets the accumulated steps before a firefly's moves of a generation. */
+    private void beginSteps() {
+        keep = 1.0;
+        noiseSteps = 0.0;
+        Arrays.fill(pull, 0.0);
+    }
+
+    /** One pass for the composed steps; the step diagnostics then count one step per firefly. */
+    private void applySteps(int i) {
+        double noiseScale = currentInertia * currentStepFactor + 0.25 * alpha;
+        double sd = noiseScale * Math.sqrt(noiseSteps / 12.0);
+        double[] x = fireflies[i];
+        double deltaSq = 0.0;
+        for (int d = 0; d < dimensions; d++) {
+            double old = x[d];
+            x[d] = clamp(keep * old + pull[d] + sd * random.nextGaussian(), d);
+            double diff = x[d] - old;
+            deltaSq += diff * diff;
+        }
+        iterStepSum += Math.sqrt(deltaSq / Math.max(1, dimensions));
+        iterStepCount++;
+    }
+
     /** Try to improve the best solution with a small random perturbation. */
     private void randomWalkBest() {
         // Propose a perturbation of the current best; accept only if it improves the objective
@@ -337,7 +504,7 @@ public class ExtendedFireflyAlgorithm {
         for (int d = 0; d < dimensions; d++) {
             // Use same noise scaling as other moves
             double noiseScale = currentInertia * currentStepFactor + 0.25 * alpha;
-            candidate[d] = candidate[d] + noiseScale * (Math.random() - 0.5);
+            candidate[d] = candidate[d] + noiseScale * (random.nextDouble() - 0.5);
             candidate[d] = clamp(candidate[d], d);
         }
         double value = function.evaluate(candidate);
@@ -355,6 +522,43 @@ public class ExtendedFireflyAlgorithm {
         this.theta = theta;
     }
 
+    /**
+     * Attract each firefly only to the k fireflies ranked just above it by brightness (ranked
+     * once per generation) instead of to every brighter one; 0 restores the full pairwise loop.
+     */
+    public void setTopK(int k) {
+        this.topK = k;
+        this.ranking = k > 0 ? new RankOrder(numFireflies) : null;
+    }
+
+    /** Aggregated moves and random walks as in {@link FireflyAlgorithm#setAggregateSteps}. */
+    public void setAggregateSteps(boolean aggregate) {
+        this.aggregateSteps = aggregate;
+        this.pull = aggregate ? new double[dimensions] : null;
+    }
+
+    /**
+     * Attractiveness through {@link FastExp} as in {@link FireflyAlgorithm#setFastExp}. Pairs whose
+     * γ r² exceeds ln(β0 / βmin) skip the exponential altogether, since β is floored there anyway.
+     */
+    public void setFastExp(boolean fast) {
+        this.fastExp = fast;
+        this.floorExponent = Math.log(beta0 / betaMin);
+    }
+
+    /** β0 * e^(-γ r²) before the βmin floor. */
+    private double rawAttractiveness(double distance) {
+        double t = gamma * distance * distance;
+        if (!fastExp) return beta0 * Math.exp(-t);
+        if (t > floorExponent) return 0.0; // below the floor
+        return beta0 * FastExp.expNeg(t);
+    }
+
+    /** Positions are {@link SimplexEncoding} vectors (null = raw counts); used by the feasibility filter. */
+    public void setEncoding(SimplexEncoding encoding) {
+        this.encoding = encoding;
+    }
+
     /** Explicitly set gamma (light absorption). */
     public void setGamma(double gamma) {
         this.gamma = gamma;
@@ -543,6 +747,82 @@ public class ExtendedFireflyAlgorithm {
         return bestValue;
     }
 
+    /**
+     * Warm start: replaces the first round(fraction * numFireflies) fireflies with the given
+     * starting points, cycling through them. The first copy of each start is kept exact; later
+     * copies get Gaussian noise with std. dev. perturbation * (upper - lower) per variable so the
+     * seeded part of the population stays diverse. Must be called before the first generation.
+     */
+    public void seedPopulation(List<double[]> starts, double fraction, double perturbation) {
+        if (generation != 0) {
+            throw new IllegalStateException("seedPopulation must be called before the first generation");
+        }
+        int count = Math.min(numFireflies, (int) Math.round(fraction * numFireflies));
+        for (int i = 0; i < count && !starts.isEmpty(); i++) {
+            double[] start = starts.get(i % starts.size());
+            if (start.length != dimensions) {
+                throw new IllegalArgumentException(
+                        "Warm start has " + start.length + " variables, expected " + dimensions);
+            }
+            boolean exact = i < starts.size();
+            for (int d = 0; d < dimensions; d++) {
+                double v = start[d];
+                if (!exact) v += random.nextGaussian() * perturbation * (upperBound[d] - lowerBound[d]);
+                fireflies[i][d] = clamp(v, d);
+            }
+            brightness[i] = function.evaluate(fireflies[i]);
+            updateBest(fireflies[i], brightness[i]);
+        }
+    }
+
+    /** Number of generations completed so far. */
+    public int getGeneration() {
+        return generation;
+    }
+
+    /** Copy of the search state (population, best, schedule position, RNG) for checkpointing. */
+    public OptimizerState snapshot() {
+        return new OptimizerState(
+                generation,
+                alpha,
+                gamma,
+                OptimizerState.copy(fireflies),
+                brightness.clone(),
+                bestSolution.clone(),
+                bestValue,
+                OptimizerState.saveRandom(random));
+    }
+
+    /**
+     * Continue from a snapshot taken from an optimizer with the same parameters and bounds.
+     * @throws IllegalArgumentException if the snapshot does not match this optimizer's shape
+     */
+    public void restore(OptimizerState state) {
+        if (state.positions.length != numFireflies
+                || state.brightness.length != numFireflies
+                || state.bestSolution.length != dimensions) {
+            throw new IllegalArgumentException("Checkpoint shape does not match optimizer (" + numFireflies
+                    + " fireflies x " + dimensions + " dimensions)");
+        }
+        if (state.generation > generations) {
+            throw new IllegalArgumentException(
+                    "Checkpoint generation " + state.generation + " exceeds " + generations + " generations");
+        }
+        this.fireflies = OptimizerState.copy(state.positions);
+        this.brightness = state.brightness.clone();
+        this.bestSolution = state.bestSolution.clone();
+        this.bestValue = state.bestValue;
+        this.alpha = state.alpha;
+        this.gamma = state.gamma;
+        this.generation = state.generation;
+        this.random = OptimizerState.loadRandom(state.rngState);
+    }
+
+    /** Total number of generations this optimizer is configured to run. */
+    public int getGenerations() {
+        return generations;
+    }
+
     /** Print the best objective value. */
     public void printResult() {
         System.out.println("Best value = " + bestValue);
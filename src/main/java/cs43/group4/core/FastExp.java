@@ -0,0 +1,47 @@
+package cs43.group4.core;
+
+/**
+ * Table-based e^-t for the attractiveness β = β0 * e^(-γ r²), selected per run with the fastExp
+ * parameter.
+ * <p>
+ * Writes e^-t = 2^-u with u = t * log2(e) = n + f, takes 2^-n from the exponent bits and 2^-f
+ * (f in [0, 1)) by linear interpolation in a table of {@value #SIZE} + 1 entries. The interpolation
+ * error of 2^-f relative to its value is at most (ln 2 * h)² / 8 for step h = 1 / {@value #SIZE},
+ * so the relative error against {@link Math#exp} is below {@link #MAX_RELATIVE_ERROR} for every
+ * t in [0, {@value #LIMIT}]. Beyond that (where e^-t is below 2^-1022 and the exact value is
+ * already subnormal) the result is 0. The error bound does not depend on the distance
+ * normalization, so it holds for FA's raw and EFA's normalized distances alike.
+ * </p>
+ */
+public final class FastExp {
+    static final int SIZE = 1024;
+    static final double LIMIT = 1022 * 0.6931471805599453; // 1022 * ln 2
+    private static final double LOG2E = 1.4426950408889634;
+    private static final double[] TABLE = new double[SIZE + 1]; // 2^(-k / SIZE)
+
+    /**
+     * Bound on |expNeg(t) - e^-t| / e^-t for t in [0, LIMIT]; measured maximum is 5.7e-8, checked by
+     * FastExpAccuracy in benchmarks/.
+     */
+    public static final double MAX_RELATIVE_ERROR = 6e-8;
+
+    static {
+        for (int k = 0; k <= SIZE; k++) TABLE[k] = Math.pow(2.0, -(double) k / SIZE);
+    }
+
+    private FastExp() {}
+
+    /** e^-t for t >= 0; falls back to {@link Math#exp} for negative or NaN t. */
+    public static double expNeg(double t) {
+        if (!(t >= 0.0)) return Math.exp(-t);
+        if (t > LIMIT) return 0.0;
+        double u = t * LOG2E;
+        int n = (int) u;
+        double pos = (u - n) * SIZE;
+        int k = (int) pos;
+        double lo = TABLE[k];
+        double frac = lo + (pos - k) * (TABLE[k + 1] - lo);
+        // 2^-n as a double with biased exponent 1023 - n (n <= 1022 keeps it normal)
+        return frac * Double.longBitsToDouble((long) (1023 - n) << 52);
+    }
+}
@@ -3,10 +3,14 @@
 
 package cs43.group4.core;
 
+import cs43.group4.metrics.Histogram;
+import cs43.group4.metrics.Metrics;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
 
 /** Firefly Algorithm (Xin-She Yang, 2008) implementation in Java. */
-public class FireflyAlgorithm {
+public class FireflyAlgorithm implements Optimizer {
 
     // Algorithm parameters
     private double gamma; // Light absorption coefficient
@@ -18,6 +22,7 @@ public class FireflyAlgorithm {
     private int numFireflies; // Population size
     private int dimensions; // Number of variables
     private int generations; // Number of iterations
+    private int generation = 0; // Generations completed so far
 
     // Firefly states
     private double[][] fireflies; // Positions of fireflies
@@ -26,10 +31,25 @@ public class FireflyAlgorithm {
     private double bestValue;
 
     private ObjectiveFunction function;
+    private Random random; // per-instance source, seedable for reproducible runs
+
+    private static final Histogram GENERATION_SECONDS = Metrics.generationDuration("fa");
 
     private double[] lowerBound;
     private double[] upperBound;
 
+    private int topK = 0; // 0 = full pairwise attraction
+    private RankOrder ranking;
+
+    // Aggregated steps: firefly i's moves and walks of one generation composed into
+    // x <- keep * x + pull + noise, with noiseSteps uniform steps summed into one Gaussian draw
+    private boolean aggregateSteps = false;
+    private double[] pull;
+    private double keep;
+    private double noiseSteps; // variance of the summed noise in units of one step's alpha^2 / 12
+
+    private boolean fastExp = false; // β through the FastExp table instead of Math.exp
+
     // Optional per-iteration progress reporting
     public interface ProgressListener {
         void onIteration(int generation, double[] bestSolution);
@@ -55,6 +75,32 @@ public class FireflyAlgorithm {
             double alpha0,
             double alphaFinal,
             int generations) {
+        this(
+                function,
+                numFireflies,
+                lowerBound,
+                upperBound,
+                gamma,
+                beta0,
+                alpha0,
+                alphaFinal,
+                generations,
+                new Random());
+    }
+
+    /** Same as above with a caller-supplied random source; seed it to reproduce a run. */
+    public FireflyAlgorithm(
+            ObjectiveFunction function,
+            int numFireflies,
+            double[] lowerBound,
+            double[] upperBound,
+            double gamma,
+            double beta0,
+            double alpha0,
+            double alphaFinal,
+            int generations,
+            Random random) {
+        this.random = random;
         this.function = function;
         this.numFireflies = numFireflies;
         this.dimensions = lowerBound.length;
@@ -79,7 +125,7 @@ public class FireflyAlgorithm {
     private void initializePopulation(double[] lowerBound, double[] upperBound) {
         for (int i = 0; i < numFireflies; i++) {
             for (int d = 0; d < dimensions; d++) {
-                fireflies[i][d] = lowerBound[d] + Math.random() * (upperBound[d] - lowerBound[d]);
+                fireflies[i][d] = lowerBound[d] + random.nextDouble() * (upperBound[d] - lowerBound[d]);
                 fireflies[i][d] = clamp(fireflies[i][d], d);
             }
             brightness[i] = function.evaluate(fireflies[i]);
@@ -90,35 +136,61 @@ public class FireflyAlgorithm {
 
     /** Run the Firefly Algorithm optimization. */
     public void optimize() {
+        while (generation < generations) {
+            nextGeneration();
+        }
+    }
 
-        for (int gen = 0; gen < generations; gen++) {
-            for (int i = 0; i < numFireflies; i++) {
+    /** Advance the population by exactly one generation (also usable outside {@link #optimize()}). */
+    public void nextGeneration() {
+        int gen = generation;
+        long genStart = System.nanoTime();
+        // Values from a different objective fidelity are not comparable: re-score the population
+        if (function.beginGeneration(gen)) rescorePopulation();
+        if (ranking != null) ranking.update(brightness);
+        for (int i = 0; i < numFireflies; i++) {
+            if (aggregateSteps) beginSteps();
+            if (ranking != null) {
+                // Top-k: k steps, toward the fireflies ranked just above i (random walk past the top)
+                for (int m = 0; m < topK; m++) {
+                    int j = ranking.brighter(i, m);
+                    if (j >= 0) {
+                        attract(i, j);
+                    } else {
+                        walk(i);
+                    }
+                }
+            } else {
                 for (int j = 0; j < numFireflies; j++) {
                     if (brightness[i] > brightness[j]) { // move i toward brighter j
-                        moveFirefly(i, j);
+                        attract(i, j);
                     } else {
-                        randomWalk(i);
+                        walk(i);
                     }
                 }
-                brightness[i] = function.evaluate(fireflies[i]);
-                updateBest(fireflies[i], brightness[i]);
+            }
+            if (aggregateSteps) applySteps(i);
+            brightness[i] = function.evaluate(fireflies[i]);
+            updateBest(fireflies[i], brightness[i]);
 
-                // High-frequency callback after updating each firefly i
-                if (stepListener != null) {
-                    stepListener.onStep(Arrays.copyOf(bestSolution, dimensions));
-                }
+            // High-frequency callback after updating each firefly i
+            if (stepListener != null) {
+                stepListener.onStep(Arrays.copyOf(bestSolution, dimensions));
             }
+        }
 
-            // Random walk for the best firefly to avoid stagnation
-            randomWalkBest();
+        // Random walk for the best firefly to avoid stagnation
+        randomWalkBest();
 
-            // Update randomness (alpha decreases over time)
-            alpha = alphaFinal + (alpha0 - alphaFinal) * Math.exp(-0.1 * gen);
+        // Update randomness (alpha decreases over time)
+        alpha = alphaFinal + (alpha0 - alphaFinal) * Math.exp(-0.1 * gen);
+        GENERATION_SECONDS.observeNanos(System.nanoTime() - genStart);
 
-            // Progress callback after each generation
-            if (progressListener != null) {
-                progressListener.onIteration(gen + 1, Arrays.copyOf(bestSolution, dimensions));
-            }
+        generation = gen + 1;
+
+        // Progress callback after each generation
+        if (progressListener != null) {
+            progressListener.onIteration(gen + 1, Arrays.copyOf(bestSolution, dimensions));
         }
     }
 
@@ -127,25 +199,76 @@ public class FireflyAlgorithm {
         double beta = calculateAttractiveness(i, j);
         for (int d = 0; d < dimensions; d++) {
             fireflies[i][d] =
-                    fireflies[i][d] + beta * (fireflies[j][d] - fireflies[i][d]) + alpha * (Math.random() - 0.5);
+                    fireflies[i][d] + beta * (fireflies[j][d] - fireflies[i][d]) + alpha * (random.nextDouble() - 0.5);
             fireflies[i][d] = clamp(fireflies[i][d], d);
         }
     }
 
+    private void rescorePopulation() {
+        for (int i = 0; i < numFireflies; i++) {
+            brightness[i] = function.evaluate(fireflies[i]);
+            updateBest(fireflies[i], brightness[i]);
+        }
+    }
+
     /** Random walk for a given firefly. */
     private void randomWalk(int i) {
         for (int d = 0; d < dimensions; d++) {
-            fireflies[i][d] += alpha * (Math.random() - 0.5);
+            fireflies[i][d] += alpha * (random.nextDouble() - 0.5);
             fireflies[i][d] = clamp(fireflies[i][d], d);
         }
     }
 
+    /** Moves i toward j now, or accumulates the move into pull when aggregateSteps is set. */
+    private void attract(int i, int j) {
+        if (!aggregateSteps) {
+            moveFirefly(i, j);
+            return;
+        }
+        // x <- (1 - beta) x + beta xj + step; beta uses i's position at the start of the generation
+        double beta = calculateAttractiveness(i, j);
+        double k = 1.0 - beta;
+        double[] xj = fireflies[j];
+        for (int d = 0; d < dimensions; d++) pull[d] = k * pull[d] + beta * xj[d];
+        keep *= k;
+        noiseSteps = k * k * noiseSteps + 1.0;
+    }
+
+    /** Random walk of i now, or one more step of noiseSteps when aggregateSteps is set. */
+    private void walk(int i) {
+        if (aggregateSteps) {
+            noiseSteps += 1.0;
+        } else {
+            randomWalk(i);
+        }
+    }
+
+    /** Resets the accumulated steps before a firefly's moves of a generation. */
+    private void beginSteps() {
+        keep = 1.0;
+        noiseSteps = 0.0;
+        Arrays.fill(pull, 0.0);
+    }
+
+    /**
+     * Applies the composed steps in one pass: the sum of the uniform steps alpha * (U - 0.5) is
+     * drawn as a Gaussian of the same variance (exact in the limit of many steps), and the
+     * position is clamped once instead of after every step.
+     */
+    private void applySteps(int i) {
+        double sd = alpha * Math.sqrt(noiseSteps / 12.0);
+        double[] x = fireflies[i];
+        for (int d = 0; d < dimensions; d++) {
+            x[d] = clamp(keep * x[d] + pull[d] + sd * random.nextGaussian(), d);
+        }
+    }
+
     /** Random walk for the best firefly to avoid stagnation. */
     private void randomWalkBest() {
         // Propose a perturbation of the current best; accept only if it improves the objective
         double[] candidate = Arrays.copyOf(bestSolution, dimensions);
         for (int d = 0; d < dimensions; d++) {
-            candidate[d] += alpha * (Math.random() - 0.5);
+            candidate[d] += alpha * (random.nextDouble() - 0.5);
             candidate[d] = clamp(candidate[d], d);
         }
         double value = function.evaluate(candidate);
@@ -161,7 +284,8 @@ public class FireflyAlgorithm {
     /** Calculate attractiveness β(r) = β0 * exp(-γ * r^2). */
     private double calculateAttractiveness(int i, int j) {
         double distance = euclideanDistance(fireflies[i], fireflies[j]);
-        return beta0 * Math.exp(-gamma * distance * distance);
+        double t = gamma * distance * distance;
+        return beta0 * (fastExp ? FastExp.expNeg(t) : Math.exp(-t));
     }
 
     /** Euclidean distance between two points. */
@@ -191,11 +315,114 @@ public class FireflyAlgorithm {
         return bestValue;
     }
 
+    /**
+     * Warm start: replaces the first round(fraction * numFireflies) fireflies with the given
+     * starting points, cycling through them. The first copy of each start is kept exact; later
+     * copies get Gaussian noise with std. dev. perturbation * (upper - lower) per variable so the
+     * seeded part of the population stays diverse. Must be called before the first generation.
+     */
+    public void seedPopulation(List<double[]> starts, double fraction, double perturbation) {
+        if (generation != 0) {
+            throw new IllegalStateException("seedPopulation must be called before the first generation");
+        }
+        int count = Math.min(numFireflies, (int) Math.round(fraction * numFireflies));
+        for (int i = 0; i < count && !starts.isEmpty(); i++) {
+            double[] start = starts.get(i % starts.size());
+            if (start.length != dimensions) {
+                throw new IllegalArgumentException(
+                        "Warm start has " + start.length + " variables, expected " + dimensions);
+            }
+            boolean exact = i < starts.size();
+            for (int d = 0; d < dimensions; d++) {
+                double v = start[d];
+                if (!exact) v += random.nextGaussian() * perturbation * (upperBound[d] - lowerBound[d]);
+                fireflies[i][d] = clamp(v, d);
+            }
+            brightness[i] = function.evaluate(fireflies[i]);
+            updateBest(fireflies[i], brightness[i]);
+        }
+    }
+
+    /** Number of generations completed so far. */
+    public int getGeneration() {
+        return generation;
+    }
+
+    /** Copy of the search state (population, best, schedule position, RNG) for checkpointing. */
+    public OptimizerState snapshot() {
+        return new OptimizerState(
+                generation,
+                alpha,
+                gamma,
+                OptimizerState.copy(fireflies),
+                brightness.clone(),
+                bestSolution.clone(),
+                bestValue,
+                OptimizerState.saveRandom(random));
+    }
+
+    /**
+     * Continue from a snapshot taken from an optimizer with the same parameters and bounds.
+     * @throws IllegalArgumentException if the snapshot does not match this optimizer's shape
+     */
+    public void restore(OptimizerState state) {
+        if (state.positions.length != numFireflies
+                || state.brightness.length != numFireflies
+                || state.bestSolution.length != dimensions) {
+            throw new IllegalArgumentException("Checkpoint shape does not match optimizer (" + numFireflies
+                    + " fireflies x " + dimensions + " dimensions)");
+        }
+        if (state.generation > generations) {
+            throw new IllegalArgumentException(
+                    "Checkpoint generation " + state.generation + " exceeds " + generations + " generations");
+        }
+        this.fireflies = OptimizerState.copy(state.positions);
+        this.brightness = state.brightness.clone();
+        this.bestSolution = state.bestSolution.clone();
+        this.bestValue = state.bestValue;
+        this.alpha = state.alpha;
+        this.gamma = state.gamma;
+        this.generation = state.generation;
+        this.random = OptimizerState.loadRandom(state.rngState);
+    }
+
+    /** Total number of generations this optimizer is configured to run. */
+    public int getGenerations() {
+        return generations;
+    }
+
     /** Print results. */
     public void printResult() {
         System.out.println("Best value = " + bestValue);
     }
 
+    /**
+     * Attract each firefly only to the k fireflies ranked just above it by brightness (ranked
+     * once per generation) instead of to every brighter one; 0 restores the full pairwise loop.
+     */
+    public void setTopK(int k) {
+        this.topK = k;
+        this.ranking = k > 0 ? new RankOrder(numFireflies) : null;
+    }
+
+    /**
+     * Compose each firefly's moves and random walks of a generation and apply them in one pass,
+     * with a single Gaussian draw per variable for the summed noise and one clamp, instead of
+     * drawing and clamping at every step (up to N times fewer random numbers).
+     */
+    public void setAggregateSteps(boolean aggregate) {
+        this.aggregateSteps = aggregate;
+        this.pull = aggregate ? new double[dimensions] : null;
+    }
+
+    /**
+     * Evaluate β = β0 * e^(-γ r²) with {@link FastExp} (relative error below
+     * {@link FastExp#MAX_RELATIVE_ERROR}) instead of {@link Math#exp}.
+     */
+    public void setFastExp(boolean fast) {
+        this.fastExp = fast;
+    }
+
     /** Progress listener to receive per-iteration updates. */
     public void setProgressListener(ProgressListener listener) {
         this.progressListener = listener;
@@ -1,5 +1,7 @@
 package cs43.group4.core;
 
+import java.util.Arrays;
+
 /**
  * Simple post-processing allocator to map borrowing flows between barangays. For each class c,
  * builds flows so that each barangay uses its own personnel first (self-flows), then borrows from
@@ -7,13 +9,116 @@ package cs43.group4.core;
  * normalized to match per-class supply totals), and self-allocations (i -> i) are included.
  */
 public final class FlowAllocator {
+    /** Flow solver: each deficit borrows from its nearest surplus (the default). */
+    public static final String GREEDY = "greedy";
+
+    /** Flow solver: minimum total kilometres per class. */
+    public static final String OPTIMAL = "optimal";
 
+    /**
+     * Flows per class in compressed sparse rows: one row per (class, from) pair, holding the
+     * barangays it lends to in ascending order. Only non-zero flows are stored, self-flows
+     * included, so memory and iteration are O(C * Z + transfers) rather than C * Z * Z.
+     */
     public static final class Result {
-        // flows[c][from][to] amount moved from 'from' barangay to 'to' barangay for class c
-        public final double[][][] flows;
+        public final int C, Z;
+        // entries of row c * Z + from are rowStart[row] .. rowStart[row + 1] - 1
+        public final int[] rowStart;
+        // to[k]: receiving barangay of entry k; amount[k]: personnel moved, > 0
+        public final int[] to;
+        public final long[] amount;
+
+        Result(int C, int Z, int[] rowStart, int[] to, long[] amount) {
+            this.C = C;
+            this.Z = Z;
+            this.rowStart = rowStart;
+            this.to = to;
+            this.amount = amount;
+        }
+
+        /** Number of non-zero flows. */
+        public int size() {
+            return to.length;
+        }
+
+        /** Amount moved from 'from' barangay to 'to' barangay for class c (0 if none). */
+        public long amount(int c, int from, int to) {
+            int row = c * Z + from;
+            int k = Arrays.binarySearch(this.to, rowStart[row], rowStart[row + 1], to);
+            return k >= 0 ? amount[k] : 0L;
+        }
+    }
+
+    /**
+     * Collects flows in any order, e.g. as a solver finds them, and sorts them into a
+     * {@link Result}; flows added twice for the same (class, from, to) are summed.
+     */
+    static final class Builder {
+        private final int C, Z;
+        private int n;
+        private int[] row = new int[16]; // c * Z + from
+        private int[] to = new int[16];
+        private long[] amount = new long[16];
+
+        Builder(int C, int Z) {
+            this.C = C;
+            this.Z = Z;
+        }
 
-        public Result(double[][][] flows) {
-            this.flows = flows;
+        /** Adds amount (ignored unless positive) moved from 'from' to 'to' for class c. */
+        void add(int c, int from, int to, long amount) {
+            if (amount <= 0L) return;
+            if (n == this.to.length) {
+                int grown = 2 * n;
+                row = Arrays.copyOf(row, grown);
+                this.to = Arrays.copyOf(this.to, grown);
+                this.amount = Arrays.copyOf(this.amount, grown);
+            }
+            row[n] = c * Z + from;
+            this.to[n] = to;
+            this.amount[n] = amount;
+            n++;
+        }
+
+        Result build() {
+            // Two counting passes (LSD radix on the (row, to) key): order the entries by to, then
+            // place them stably by row, so every row comes out sorted by to in O(n + C * Z)
+            int[] toStart = new int[Z + 1];
+            for (int k = 0; k < n; k++) toStart[to[k] + 1]++;
+            for (int t = 0; t < Z; t++) toStart[t + 1] += toStart[t];
+            int[] byTo = new int[n];
+            for (int k = 0; k < n; k++) byTo[toStart[to[k]]++] = k;
+
+            int rows = C * Z;
+            int[] start = new int[rows + 1];
+            for (int k = 0; k < n; k++) start[row[k] + 1]++;
+            for (int r = 0; r < rows; r++) start[r + 1] += start[r];
+            int[] fill = Arrays.copyOf(start, rows);
+            int[] sortedTo = new int[n];
+            long[] sortedAmount = new long[n];
+            for (int k : byTo) {
+                int at = fill[row[k]]++;
+                sortedTo[at] = to[k];
+                sortedAmount[at] = amount[k];
+            }
+
+            // Merge duplicates in place, shifting rows left as entries are dropped
+            int out = 0;
+            for (int r = 0; r < rows; r++) {
+                int lo = start[r], hi = start[r + 1];
+                start[r] = out;
+                for (int k = lo; k < hi; k++) {
+                    if (out > start[r] && sortedTo[out - 1] == sortedTo[k]) {
+                        sortedAmount[out - 1] += sortedAmount[k];
+                    } else {
+                        sortedTo[out] = sortedTo[k];
+                        sortedAmount[out] = sortedAmount[k];
+                        out++;
+                    }
+                }
+            }
+            start[rows] = out;
+            return new Result(C, Z, start, Arrays.copyOf(sortedTo, out), Arrays.copyOf(sortedAmount, out));
         }
     }
 
@@ -22,12 +127,12 @@ public final class FlowAllocator {
      *
      * @param A allocation matrix [Z][C]
      * @param currentPerClass current counts per class [C][Z]
-     * @return flows per class [C][Z][Z]
+     * @return flows per class
      */
     public static Result allocate(double[][] A, double[][] currentPerClass) {
         int Z = A.length;
         int C = A[0].length;
-        double[][][] flows = new double[C][Z][Z];
+        Builder flows = new Builder(C, Z);
 
         for (int c = 0; c < C; c++) {
             // Integer demand from allocations (already normalized/rounded upstream)
@@ -47,7 +152,7 @@ public final class FlowAllocator {
             long[] surplus = new long[Z];
             for (int i = 0; i < Z; i++) {
                 long keep = Math.min(S[i], D[i]);
-                flows[c][i][i] += keep; // self-allocation shown explicitly
+                flows.add(c, i, i, keep); // self-allocation shown explicitly
                 long remS = S[i] - keep;
                 long remD = D[i] - keep;
                 surplus[i] = remS;
@@ -61,47 +166,71 @@ public final class FlowAllocator {
                 while (iDef < Z && demand[iDef] <= 0L) iDef++;
                 if (iSur >= Z || iDef >= Z) break;
                 long moved = Math.min(surplus[iSur], demand[iDef]);
-                flows[c][iSur][iDef] += moved;
+                flows.add(c, iSur, iDef, moved);
                 surplus[iSur] -= moved;
                 demand[iDef] -= moved;
             }
         }
-        return new Result(flows);
+        return flows.build();
     }
 
     /**
-     * Distance-aware allocation of borrowing flows using lat/lon (degrees). If any coordinate is NaN,
-     * falls back to distance-agnostic. Greedy strategy: for each class, repeatedly send from nearest
+     * Distance-aware allocation of borrowing flows using lat/lon (degrees). If any coordinate is missing or
+     * not finite, falls back to distance-agnostic. Greedy strategy: for each class, repeatedly send from nearest
      * surplus barangay to each deficit until all deficits or surpluses are resolved.
      *
      * @param A allocation matrix [Z][C]
      * @param currentPerClass current counts per class [C][Z]
      * @param lat latitude per barangay (degrees)
      * @param lon longitude per barangay (degrees)
-     * @return flows per class [C][Z][Z]
+     * @return flows per class
      */
     public static Result allocate(double[][] A, double[][] currentPerClass, double[] lat, double[] lon) {
-        int Z = A.length;
-        boolean coordsOk = lat != null && lon != null && lat.length == Z && lon.length == Z;
-        if (!coordsOk) return allocate(A, currentPerClass);
-        for (int i = 0; i < Z; i++) {
-            if (Double.isNaN(lat[i]) || Double.isNaN(lon[i])) return allocate(A, currentPerClass);
-        }
+        boolean coordsOk = lat != null && lon != null && lat.length == A.length && lon.length == A.length;
+        GeoDistances geo = coordsOk ? GeoDistances.of(lat, lon) : null;
+        return (geo != null) ? allocate(A, currentPerClass, geo) : allocate(A, currentPerClass);
+    }
+
+    /**
+     * Distance-aware allocation of borrowing flows over a precomputed distance table, e.g. the
+     * {@link AllocationProblem#geo()} the run's objective used. Same greedy strategy as the lat/lon
+     * overload, without rebuilding the Z x Z distances. Nearest surpluses are found by walking each
+     * deficit's {@link GeoDistances#nearestNeighbors} list, then with an exact k-d tree query, so a
+     * sparse table is never scanned pair by pair.
+     *
+     * @param A allocation matrix [Z][C]
+     * @param currentPerClass current counts per class [C][Z]
+     * @param geo distances between the Z barangays
+     * @return flows per class
+     */
+    public static Result allocate(double[][] A, double[][] currentPerClass, GeoDistances geo) {
+        return allocate(A, currentPerClass, geo, GREEDY);
+    }
 
+    /**
+     * Distance-aware allocation of borrowing flows with the given solver. {@link #GREEDY} is the
+     * nearest-surplus strategy above; {@link #OPTIMAL} moves the same personnel with the fewest total
+     * kilometres per class ({@link TransportSolver}). Both keep self-flows first and move whole
+     * personnel, so per-barangay totals are the same either way. Falls back to distance-agnostic
+     * if geo is missing or of another size.
+     *
+     * @param A allocation matrix [Z][C]
+     * @param currentPerClass current counts per class [C][Z]
+     * @param geo distances between the Z barangays
+     * @param solver {@link #GREEDY} or {@link #OPTIMAL}
+     * @return flows per class
+     * @throws IllegalArgumentException if the solver is unknown
+     */
+    public static Result allocate(double[][] A, double[][] currentPerClass, GeoDistances geo, String solver) {
+        boolean optimal = OPTIMAL.equals(solver);
+        if (!optimal && !GREEDY.equals(solver)) throw new IllegalArgumentException("Invalid flow solver: " + solver);
+        int Z = A.length;
+        if (geo == null || geo.size() != Z) return allocate(A, currentPerClass);
         int C = A[0].length;
-        double[][][] flows = new double[C][Z][Z];
-
-        // Precompute distances in km
-        double[][] dist = new double[Z][Z];
-        for (int i = 0; i < Z; i++) {
-            for (int j = 0; j < Z; j++) {
-                if (i == j) {
-                    dist[i][j] = 0.0;
-                    continue;
-                }
-                dist[i][j] = haversineKm(lat[i], lon[i], lat[j], lon[j]);
-            }
-        }
+        Builder flows = new Builder(C, Z);
+        int[][] neighbors = optimal ? null : geo.nearestNeighbors(GeoDistances.DEFAULT_NEIGHBORS);
+        int[] heap = new int[Z];
+        int[] cursor = new int[Z];
 
         for (int c = 0; c < C; c++) {
             // Integer demand from allocations
@@ -121,59 +250,87 @@ public final class FlowAllocator {
             long[] surplus = new long[Z];
             for (int i = 0; i < Z; i++) {
                 long keep = Math.min(S[i], D[i]);
-                flows[c][i][i] += keep;
+                flows.add(c, i, i, keep);
                 surplus[i] = S[i] - keep;
                 demand[i] = D[i] - keep;
             }
 
-            // While there is remaining demand and surplus, match nearest pairs
-            while (true) {
-                int def = -1;
-                long needMax = 0L;
-                for (int i = 0; i < Z; i++) {
-                    if (demand[i] > 0L && demand[i] > needMax) {
-                        needMax = demand[i];
-                        def = i;
-                    }
-                }
-                if (def == -1) break; // no more demand
-
-                // Find nearest surplus to this deficit
-                int src = -1;
-                double bestD = Double.POSITIVE_INFINITY;
-                for (int j = 0; j < Z; j++) {
-                    if (surplus[j] > 0L) {
-                        double dkm = dist[j][def];
-                        if (dkm < bestD) {
-                            bestD = dkm;
-                            src = j;
-                        }
+            if (optimal) {
+                TransportSolver.solve(geo, surplus, demand, flows, c);
+                continue;
+            }
+
+            // While there is remaining demand and surplus, fill the largest deficit (lowest index on
+            // ties) from its nearest surplus: down its neighbor list, then from a k-d tree subset of the
+            // surpluses left
+            int size = 0;
+            for (int i = 0; i < Z; i++) {
+                cursor[i] = 0;
+                if (demand[i] > 0L) heap[size++] = i;
+            }
+            for (int k = size / 2 - 1; k >= 0; k--) siftDown(heap, size, k, demand);
+            GeoIndex.Subset sources = null; // built when a neighbor list runs out
+            while (size > 0) {
+                int def = heap[0];
+                int[] near = neighbors[def];
+                int p = cursor[def];
+                while (p < near.length && surplus[near[p]] <= 0L) p++;
+                cursor[def] = p;
+                int src;
+                if (p < near.length) {
+                    src = near[p];
+                } else {
+                    if (sources == null) {
+                        sources = geo.subset();
+                        for (int j = 0; j < Z; j++) if (surplus[j] > 0L) sources.add(j);
                     }
+                    src = sources.nearest(def);
                 }
                 if (src == -1) break; // no more surplus
 
                 long moved = Math.min(surplus[src], demand[def]);
-                flows[c][src][def] += moved;
+                flows.add(c, src, def, moved);
                 surplus[src] -= moved;
                 demand[def] -= moved;
+                if (sources != null && surplus[src] <= 0L) sources.remove(src);
+                if (demand[def] <= 0L) heap[0] = heap[--size];
+                siftDown(heap, size, 0, demand);
             }
         }
 
-        return new Result(flows);
+        return flows.build();
+    }
+
+    /** Personnel-kilometres moved by the flows: amount times distance summed over i != j. */
+    public static double totalKm(Result result, GeoDistances geo) {
+        double total = 0.0;
+        for (int c = 0; c < result.C; c++) {
+            for (int from = 0; from < result.Z; from++) {
+                int row = c * result.Z + from;
+                for (int k = result.rowStart[row]; k < result.rowStart[row + 1]; k++) {
+                    if (result.to[k] != from) total += result.amount[k] * geo.km(from, result.to[k]);
+                }
+            }
+        }
+        return total;
+    }
+
+    // Restores the max-heap below position k; larger demand first, then lower barangay index
+    private static void siftDown(int[] heap, int size, int k, long[] demand) {
+        int item = heap[k];
+        while (true) {
+            int child = 2 * k + 1;
+            if (child >= size) break;
+            if (child + 1 < size && before(heap[child + 1], heap[child], demand)) child++;
+            if (!before(heap[child], item, demand)) break;
+            heap[k] = heap[child];
+            k = child;
+        }
+        heap[k] = item;
     }
 
-    // Haversine distance in kilometers
-    private static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
-        double R = 6371.0088; // mean Earth radius in km
-        double dLat = Math.toRadians(lat2 - lat1);
-        double dLon = Math.toRadians(lon2 - lon1);
-        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
-                + Math.cos(Math.toRadians(lat1))
-                        * Math.cos(Math.toRadians(lat2))
-                        * Math.sin(dLon / 2)
-                        * Math.sin(dLon / 2);
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-        return R * c;
+    private static boolean before(int a, int b, long[] demand) {
+        return demand[a] > demand[b] || (demand[a] == demand[b] && a < b);
     }
 
     // Helper: scale an array of non-negative doubles to sum to a target, and round to integers
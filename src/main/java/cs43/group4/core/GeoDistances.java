@@ -0,0 +1,142 @@
+package cs43.group4.core;
+
+import java.util.Arrays;
+
+/**
+ * Great-circle distances (km) between the barangays of one dataset, computed once and shared by
+ * {@link ThesisObjective}'s distance penalty and {@link FlowAllocator}.
+ * <p>
+ * Each point's latitude/longitude is turned into a unit vector once (so the cosine of each
+ * latitude is computed once, not per pair). A pair's distance is then the haversine distance
+ * written through the chord length, 2R * asin(|p_i - p_j| / 2): one square root and one asin
+ * per pair, rounded to {@code float} (relative error below 6e-8).
+ * </p>
+ * <p>
+ * Up to {@value #DENSE_LIMIT} barangays the upper triangle is stored in a flat array, Z(Z-1)/2 * 4
+ * bytes instead of a Z * Z * 8 byte matrix. Larger datasets are sparse: only the unit vectors and
+ * a {@link GeoIndex} k-d tree are kept, O(Z) memory, and {@link #km} computes the same value on
+ * demand. Either way k-nearest-neighbour lists and exact nearest queries ({@link #subset}) come
+ * from the tree, so a caller that walks neighbour lists and falls back to a subset query never
+ * touches all Z^2 pairs.
+ * </p>
+ * <p>
+ * k-nearest-neighbour lists are built on first request and cached. Instances are immutable apart
+ * from that cache, which is published safely, so one instance can be shared across threads.
+ * </p>
+ */
+public final class GeoDistances {
+    static final double EARTH_RADIUS_KM = 6371.0088;
+
+    /** Largest dataset stored as a dense triangle (about 33 MB); larger ones are sparse. */
+    public static final int DENSE_LIMIT = 4096;
+
+    /** Neighbour-list length the distance penalty and flow allocation walk before a subset query. */
+    public static final int DEFAULT_NEIGHBORS = 64;
+
+    private final int Z;
+    private final GeoIndex index;
+    private final float[] upper; // (i, j), i < j, at row[i] + j; null when sparse
+    private final int[] row; // i * (2Z - i - 1) / 2 - i - 1: start of row i's entries, less i + 1
+    private volatile int[][] neighbors; // cached k-nearest lists, nearest first
+
+    private GeoDistances(double[] lat, double[] lon, boolean dense) {
+        this.Z = lat.length;
+        this.index = new GeoIndex(lat, lon);
+        if (!dense) {
+            this.upper = null;
+            this.row = null;
+            return;
+        }
+        long pairs = (long) Z * (Z - 1) / 2;
+        if (pairs > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Too many barangays for a distance table: " + Z);
+        }
+        this.upper = new float[(int) pairs];
+        this.row = new int[Z];
+        for (int i = 0; i < Z; i++) row[i] = (int) ((long) i * (2L * Z - i - 1) / 2) - i - 1;
+        int k = 0;
+        for (int i = 0; i < Z; i++) {
+            for (int j = i + 1; j < Z; j++, k++) upper[k] = index.km(i, j);
+        }
+    }
+
+    /**
+     * Distances for the given coordinates (degrees), dense up to {@value #DENSE_LIMIT} barangays
+     * and sparse above, or null if either array is missing, their lengths differ or any coordinate
+     * is not finite.
+     */
+    public static GeoDistances of(double[] lat, double[] lon) {
+        if (!valid(lat, lon)) return null;
+        return new GeoDistances(lat, lon, lat.length <= DENSE_LIMIT);
+    }
+
+    /** Sparse distances whatever the size (same values as {@link #of}), or null as for {@link #of}. */
+    public static GeoDistances sparse(double[] lat, double[] lon) {
+        if (!valid(lat, lon)) return null;
+        return new GeoDistances(lat, lon, false);
+    }
+
+    private static boolean valid(double[] lat, double[] lon) {
+        if (lat == null || lon == null || lat.length != lon.length) return false;
+        for (int i = 0; i < lat.length; i++) {
+            if (!Double.isFinite(lat[i]) || !Double.isFinite(lon[i])) return false;
+        }
+        return true;
+    }
+
+    /** Number of barangays. */
+    public int size() {
+        return Z;
+    }
+
+    /** Whether distances are stored as a triangle (else computed on demand). */
+    public boolean isDense() {
+        return upper != null;
+    }
+
+    /** Distance in km between barangays i and j (0 for i == j); symmetric by construction. */
+    public double km(int i, int j) {
+        if (i == j) return 0.0;
+        if (i > j) {
+            int t = i;
+            i = j;
+            j = t;
+        }
+        return (upper != null) ? upper[row[i] + j] : index.km(i, j);
+    }
+
+    /**
+     * An empty set of barangays with exact nearest-member queries (ties to the lower index), e.g.
+     * the ones with surplus left once a deficit's neighbour list is exhausted. One per caller.
+     */
+    GeoIndex.Subset subset() {
+        return index.subset();
+    }
+
+    /**
+     * For each barangay, the min(k, Z - 1) other barangays nearest first (ties in index order).
+     * Built on first use and cached; a later call with a larger k rebuilds the cache. Callers must
+     * not modify the returned arrays.
+     */
+    public int[][] nearestNeighbors(int k) {
+        int n = Math.min(k, Z - 1);
+        int[][] cached = neighbors;
+        if (cached != null && (cached.length == 0 || cached[0].length >= n)) return trimmed(cached, n);
+        synchronized (this) {
+            cached = neighbors;
+            if (cached == null || (cached.length > 0 && cached[0].length < n)) {
+                cached = new int[Z][];
+                for (int i = 0; i < Z; i++) cached[i] = index.nearest(i, n);
+                neighbors = cached;
+            }
+        }
+        return trimmed(cached, n);
+    }
+
+    private static int[][] trimmed(int[][] lists, int n) {
+        if (lists.length == 0 || lists[0].length == n) return lists;
+        int[][] out = new int[lists.length][];
+        for (int i = 0; i < lists.length; i++) out[i] = Arrays.copyOf(lists[i], n);
+        return out;
+    }
+}
@@ -0,0 +1,365 @@
+package cs43.group4.core;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Static k-d tree over barangay coordinates, used by {@link GeoDistances} for nearest-neighbour
+ * lists and, through {@link Subset}, exact nearest-member queries without a Z x Z table.
+ * <p>
+ * Points are stored as unit vectors. The great-circle distance grows with the straight-line
+ * (chord) distance between unit vectors, so the tree searches in 3-D Euclidean space and prunes a
+ * subtree when the gap to its splitting plane, as a chord, is longer than the current k-th best.
+ * Distances are compared as the same float kilometres {@link GeoDistances#km} returns, with ties
+ * in index order, so results match a full sort of each barangay's distances.
+ * </p>
+ * <p>
+ * The tree is implicit: node {@code mid = (lo + hi) / 2} of a range holds one point and splits the
+ * range at it along the axis of largest spread. Building it is O(Z log Z), a k-nearest query about
+ * O(k log Z). Immutable after construction; a {@link Subset} holds the state of one caller.
+ * </p>
+ */
+final class GeoIndex {
+    private static final int LEAF = 8; // ranges up to this size are scanned
+    private static final double SLACK = 1e-6; // relative; covers float rounding of kilometres
+
+    private final int Z;
+    private final double[] x, y, z; // unit vectors by barangay
+    private final int[] order; // barangays in tree order
+    private final byte[] axis; // split axis of the node at each tree position
+    private final int[] position; // tree position by barangay (inverse of order)
+
+    GeoIndex(double[] lat, double[] lon) {
+        this.Z = lat.length;
+        this.x = new double[Z];
+        this.y = new double[Z];
+        this.z = new double[Z];
+        for (int i = 0; i < Z; i++) {
+            double phi = Math.toRadians(lat[i]);
+            double lambda = Math.toRadians(lon[i]);
+            double cosPhi = Math.cos(phi);
+            x[i] = cosPhi * Math.cos(lambda);
+            y[i] = cosPhi * Math.sin(lambda);
+            z[i] = Math.sin(phi);
+        }
+        this.order = new int[Z];
+        for (int i = 0; i < Z; i++) order[i] = i;
+        this.axis = new byte[Z];
+        build(0, Z);
+        this.position = new int[Z];
+        for (int p = 0; p < Z; p++) position[order[p]] = p;
+    }
+
+    int size() {
+        return Z;
+    }
+
+    /** Distance in km between barangays i and j, rounded to float as {@link GeoDistances} stores it. */
+    float km(int i, int j) {
+        double dx = x[i] - x[j], dy = y[i] - y[j], dz = z[i] - z[j];
+        double half = Math.min(1.0, Math.sqrt(dx * dx + dy * dy + dz * dz) / 2);
+        return (float) (2 * GeoDistances.EARTH_RADIUS_KM * Math.asin(half));
+    }
+
+    // ========== BUILD ==========
+
+    private void build(int lo, int hi) {
+        while (hi - lo > LEAF) {
+            int a = widestAxis(lo, hi);
+            int mid = (lo + hi) >>> 1;
+            select(lo, hi - 1, mid, a);
+            axis[mid] = (byte) a;
+            build(lo, mid);
+            lo = mid + 1;
+        }
+    }
+
+    private int widestAxis(int lo, int hi) {
+        int best = 0;
+        double bestSpread = -1.0;
+        for (int a = 0; a < 3; a++) {
+            double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+            for (int p = lo; p < hi; p++) {
+                double v = coord(order[p], a);
+                if (v < min) min = v;
+                if (v > max) max = v;
+            }
+            if (max - min > bestSpread) {
+                bestSpread = max - min;
+                best = a;
+            }
+        }
+        return best;
+    }
+
+    // Quickselect: puts the point with the k-th smallest coordinate on axis a at position k, smaller
+    // ones before it and larger ones after it
+    private void select(int lo, int hi, int k, int a) {
+        while (lo < hi) {
+            double pivot = coord(order[(lo + hi) >>> 1], a);
+            int i = lo, j = hi;
+            while (i <= j) {
+                while (coord(order[i], a) < pivot) i++;
+                while (coord(order[j], a) > pivot) j--;
+                if (i <= j) {
+                    int t = order[i];
+                    order[i++] = order[j];
+                    order[j--] = t;
+                }
+            }
+            if (k <= j) {
+                hi = j;
+            } else if (k >= i) {
+                lo = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private double coord(int i, int a) {
+        return a == 0 ? x[i] : (a == 1 ? y[i] : z[i]);
+    }
+
+    // ========== QUERIES ==========
+
+    /** The min(k, Z - 1) barangays nearest to i (excluding i), nearest first, ties in index order. */
+    int[] nearest(int i, int k) {
+        int n = Math.min(k, Z - 1);
+        Best best = new Best(n);
+        if (n > 0) search(0, Z, i, best);
+        return best.sorted();
+    }
+
+    private void search(int lo, int hi, int q, Best best) {
+        if (hi - lo <= LEAF) {
+            for (int p = lo; p < hi; p++) offer(order[p], q, best);
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        double diff = coord(q, axis[mid]) - coord(order[mid], axis[mid]);
+        search(diff < 0 ? lo : mid + 1, diff < 0 ? mid : hi, q, best);
+        if (best.reaches(Math.abs(diff))) {
+            offer(order[mid], q, best);
+            search(diff < 0 ? mid + 1 : lo, diff < 0 ? hi : mid, q, best);
+        }
+    }
+
+    private void offer(int j, int q, Best best) {
+        if (j != q) best.offer(((long) Float.floatToIntBits(km(q, j)) << 32) | j);
+    }
+
+    /** An empty {@link Subset} over this tree. */
+    Subset subset() {
+        return new Subset();
+    }
+
+    /**
+     * A changing set of barangays (e.g. those with surplus left) with exact nearest-member and
+     * weighted-distance queries. Each tree node counts the members in its range, so a query skips ranges with
+     * none and otherwise prunes like the k-nearest search. Adds are batched (the counts are rebuilt in O(Z)
+     * at the next query); a remove is O(log Z). Not thread-safe; one per caller.
+     */
+    final class Subset {
+        private final boolean[] member = new boolean[Z]; // by barangay
+        private final int[] count = new int[Z]; // members in the range of the node at each position
+        private boolean stale; // members added since the counts were built
+        private double[] weight; // by barangay, see weigh
+        private double[] lightest; // least member weight in the range of the node at each position
+
+        void add(int i) {
+            if (!member[i]) {
+                member[i] = true;
+                stale = true;
+            }
+        }
+
+        void remove(int i) {
+            if (!member[i]) return;
+            if (stale) {
+                member[i] = false;
+            } else {
+                update(i, -1);
+            }
+        }
+
+        private void update(int i, int delta) {
+            member[i] = delta > 0;
+            int p = position[i];
+            int lo = 0, hi = Z;
+            while (hi - lo > LEAF) {
+                int mid = (lo + hi) >>> 1;
+                count[mid] += delta;
+                if (p == mid) break;
+                if (p < mid) {
+                    hi = mid;
+                } else {
+                    lo = mid + 1;
+                }
+            }
+        }
+
+        /** Nearest member j != i (lowest index on ties), or -1 if there is none. */
+        int nearest(int i) {
+            refresh();
+            Best best = new Best(1);
+            search(0, Z, i, best);
+            return best.size == 0 ? -1 : (int) best.keys[0];
+        }
+
+        /** Up to k members j != i nearest to i, nearest first (ties in index order). */
+        int[] nearest(int i, int k) {
+            refresh();
+            Best best = new Best(Math.max(0, k));
+            if (k > 0) search(0, Z, i, best);
+            return best.sorted();
+        }
+
+        /**
+         * Sets a weight (km) per barangay for {@link #below}, read from the array as given. Holds
+         * until the next {@link #add}; removes keep it valid.
+         */
+        void weigh(double[] weight) {
+            refresh();
+            this.weight = weight;
+            if (lightest == null) lightest = new double[Z];
+            lighten(0, Z);
+        }
+
+        /** Passes every member j != i with km(i, j) + weight[j] <= bound to action. */
+        void below(int i, double bound, IntConsumer action) {
+            gather(0, Z, i, bound, action);
+        }
+
+        private void refresh() {
+            if (stale) {
+                recount(0, Z);
+                stale = false;
+            }
+        }
+
+        private int recount(int lo, int hi) {
+            int n = 0;
+            if (hi - lo <= LEAF) {
+                for (int p = lo; p < hi; p++) if (member[order[p]]) n++;
+                return n;
+            }
+            int mid = (lo + hi) >>> 1;
+            n = recount(lo, mid) + recount(mid + 1, hi) + (member[order[mid]] ? 1 : 0);
+            count[mid] = n;
+            return n;
+        }
+
+        private void search(int lo, int hi, int q, Best best) {
+            if (hi - lo <= LEAF) {
+                for (int p = lo; p < hi; p++) offer(order[p], q, best);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            if (count[mid] == 0) return;
+            double diff = coord(q, axis[mid]) - coord(order[mid], axis[mid]);
+            search(diff < 0 ? lo : mid + 1, diff < 0 ? mid : hi, q, best);
+            if (best.reaches(Math.abs(diff))) {
+                offer(order[mid], q, best);
+                search(diff < 0 ? mid + 1 : lo, diff < 0 ? hi : mid, q, best);
+            }
+        }
+
+        private void offer(int j, int q, Best best) {
+            if (member[j]) GeoIndex.this.offer(j, q, best);
+        }
+
+        private double lighten(int lo, int hi) {
+            if (hi - lo <= LEAF) return lightest(lo, hi);
+            double min;
+            int mid = (lo + hi) >>> 1;
+            min = Math.min(lighten(lo, mid), lighten(mid + 1, hi));
+            if (member[order[mid]]) min = Math.min(min, weight[order[mid]]);
+            lightest[mid] = min;
+            return min;
+        }
+
+        // Like search, but a range is skipped when even its lightest member, at the distance of the
+        // splitting plane, would be over the bound
+        private void gather(int lo, int hi, int q, double bound, IntConsumer action) {
+            if (hi - lo <= LEAF) {
+                for (int p = lo; p < hi; p++) take(order[p], q, bound, action);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            if (count[mid] == 0 || lightest[mid] > bound) return;
+            double diff = coord(q, axis[mid]) - coord(order[mid], axis[mid]);
+            gather(diff < 0 ? lo : mid + 1, diff < 0 ? mid : hi, q, bound, action);
+            int farLo = diff < 0 ? mid + 1 : lo, farHi = diff < 0 ? hi : mid;
+            double light = Math.min(
+                    lightest(farLo, farHi), member[order[mid]] ? weight[order[mid]] : Double.POSITIVE_INFINITY);
+            if (light <= bound && Math.abs(diff) <= chord(bound - light) * (1 + SLACK) + 1e-12) {
+                take(order[mid], q, bound, action);
+                gather(farLo, farHi, q, bound, action);
+            }
+        }
+
+        private double lightest(int lo, int hi) {
+            if (hi - lo > LEAF) return lightest[(lo + hi) >>> 1];
+            double min = Double.POSITIVE_INFINITY;
+            for (int p = lo; p < hi; p++) if (member[order[p]]) min = Math.min(min, weight[order[p]]);
+            return min;
+        }
+
+        private void take(int j, int q, double bound, IntConsumer action) {
+            if (member[j] && j != q && GeoIndex.this.km(q, j) + weight[j] <= bound) action.accept(j);
+        }
+    }
+
+    // Chord length between unit vectors km apart on the sphere
+    private static double chord(double km) {
+        return 2 * Math.sin(Math.min(Math.PI / 2, km / (2 * GeoDistances.EARTH_RADIUS_KM)));
+    }
+
+    // The k smallest (distance, index) keys seen so far, as a max-heap. Non-negative floats order like
+    // their bit patterns, so comparing packed longs compares distance, then index.
+    private static final class Best {
+        final long[] keys;
+        int size;
+
+        Best(int k) {
+            this.keys = new long[k];
+        }
+
+        void offer(long key) {
+            if (size < keys.length) {
+                int c = size++;
+                while (c > 0 && keys[(c - 1) / 2] < key) {
+                    keys[c] = keys[(c - 1) / 2];
+                    c = (c - 1) / 2;
+                }
+                keys[c] = key;
+            } else if (key < keys[0]) {
+                int p = 0;
+                while (true) {
+                    int c = 2 * p + 1;
+                    if (c >= size) break;
+                    if (c + 1 < size && keys[c + 1] > keys[c]) c++;
+                    if (keys[c] <= key) break;
+                    keys[p] = keys[c];
+                    p = c;
+                }
+                keys[p] = key;
+            }
+        }
+
+        // Whether a point at chord distance at least gap could still enter
+        boolean reaches(double gap) {
+            if (size < keys.length) return true;
+            return gap <= chord(Float.intBitsToFloat((int) (keys[0] >>> 32))) * (1 + SLACK) + 1e-12;
+        }
+
+        int[] sorted() {
+            long[] copy = Arrays.copyOf(keys, size);
+            Arrays.sort(copy);
+            int[] out = new int[size];
+            for (int p = 0; p < size; p++) out[p] = (int) copy[p];
+            return out;
+        }
+    }
+}
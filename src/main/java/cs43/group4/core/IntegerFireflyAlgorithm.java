@@ -0,0 +1,452 @@
+package cs43.group4.core;
+
+import cs43.group4.metrics.Histogram;
+import cs43.group4.metrics.Metrics;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Firefly Algorithm on the integer lattice: the same moves as {@link FireflyAlgorithm}, but every
+ * position is an int allocation that already respects per-class supply.
+ * <p>
+ * Each move is computed in real arithmetic and stochastically rounded (v rounds up with
+ * probability frac(v)), so sub-unit steps still move a variable on average. Before a firefly is
+ * scored its classes are repaired to at most floor(supply[c]) units: scaled down proportionally,
+ * then the leftover units go back one each to entries with a remainder, from a random start. The
+ * objective therefore always sees a deployable allocation, and {@link #getBestValue()} is the
+ * fitness of exactly what {@link AllocationProblem#toAllocation} returns for the best solution.
+ * </p>
+ * <p>
+ * Positions take 4 bytes per variable instead of 8, and identical allocations produce identical
+ * vectors, so a {@link MemoizedObjective} over this optimizer is exact.
+ * </p>
+ */
+public class IntegerFireflyAlgorithm implements Optimizer {
+
+    // Algorithm parameters
+    private double gamma;
+    private double alpha;
+    private final double alpha0;
+    private final double alphaFinal;
+    private final double beta0;
+
+    private final int numFireflies;
+    private final int dimensions; // Z * C, k = i * C + c
+    private final int classes;
+    private final int generations;
+    private int generation = 0;
+
+    // Firefly states
+    private int[][] fireflies;
+    private double[] brightness;
+    private int[] bestSolution;
+    private double bestValue;
+
+    private final ObjectiveFunction function;
+    private Random random;
+    private final double[] scratch; // evaluation buffer (the objective takes double[])
+    private final double[] remainder; // repair buffer
+
+    private static final Histogram GENERATION_SECONDS = Metrics.generationDuration("fa-int");
+
+    private final int[] lowerBound;
+    private final int[] upperBound;
+    private final long[] supply; // per class, floor of the real supply
+
+    private int topK = 0; // 0 = full pairwise attraction
+    private RankOrder ranking;
+
+    // Aggregated steps (see FireflyAlgorithm), rounded stochastically once at the end
+    private boolean aggregateSteps = false;
+    private boolean fastExp = false; // β through the FastExp table instead of Math.exp
+    private double[] pull;
+    private double keep;
+    private double noiseSteps;
+
+    private FireflyAlgorithm.ProgressListener progressListener;
+
+    /**
+     * @param lowerBound real bounds as built by AllocationProblem; rounded inwards to integers
+     * @param supply per-class supply (length classes); each class is kept at or below its floor
+     */
+    public IntegerFireflyAlgorithm(
+            ObjectiveFunction function,
+            int numFireflies,
+            double[] lowerBound,
+            double[] upperBound,
+            double[] supply,
+            int classes,
+            double gamma,
+            double beta0,
+            double alpha0,
+            double alphaFinal,
+            int generations,
+            Random random) {
+        if (classes <= 0 || lowerBound.length % classes != 0) {
+            throw new IllegalArgumentException(
+                    "Dimensions " + lowerBound.length + " are not a multiple of " + classes + " classes");
+        }
+        this.random = random;
+        this.function = function;
+        this.numFireflies = numFireflies;
+        this.dimensions = lowerBound.length;
+        this.classes = classes;
+        this.gamma = gamma;
+        this.beta0 = beta0;
+        this.alpha0 = alpha0;
+        this.alphaFinal = alphaFinal;
+        this.generations = generations;
+
+        this.lowerBound = new int[dimensions];
+        this.upperBound = new int[dimensions];
+        for (int d = 0; d < dimensions; d++) {
+            this.lowerBound[d] = (int) Math.ceil(lowerBound[d]);
+            this.upperBound[d] = Math.max(this.lowerBound[d], (int) Math.floor(upperBound[d]));
+        }
+        this.supply = new long[classes];
+        for (int c = 0; c < classes; c++) this.supply[c] = (long) Math.floor(Math.max(0.0, supply[c]) + 1e-9);
+
+        this.fireflies = new int[numFireflies][dimensions];
+        this.brightness = new double[numFireflies];
+        this.bestSolution = new int[dimensions];
+        this.bestValue = Double.MAX_VALUE;
+        this.scratch = new double[dimensions];
+        this.remainder = new double[dimensions];
+
+        initializePopulation();
+    }
+
+    /** Initialize population uniformly on the lattice, repaired to supply. */
+    private void initializePopulation() {
+        for (int i = 0; i < numFireflies; i++) {
+            for (int d = 0; d < dimensions; d++) {
+                fireflies[i][d] = lowerBound[d] + random.nextInt(upperBound[d] - lowerBound[d] + 1);
+            }
+            repair(fireflies[i]);
+            brightness[i] = evaluate(fireflies[i]);
+            updateBest(fireflies[i], brightness[i]);
+        }
+        alpha = alpha0;
+    }
+
+    @Override
+    public void optimize() {
+        while (generation < generations) {
+            nextGeneration();
+        }
+    }
+
+    @Override
+    public void nextGeneration() {
+        int gen = generation;
+        long genStart = System.nanoTime();
+        // Values from a different objective fidelity are not comparable: re-score the population
+        if (function.beginGeneration(gen)) rescorePopulation();
+        if (ranking != null) ranking.update(brightness);
+        for (int i = 0; i < numFireflies; i++) {
+            if (aggregateSteps) beginSteps();
+            if (ranking != null) {
+                for (int m = 0; m < topK; m++) {
+                    int j = ranking.brighter(i, m);
+                    if (j >= 0) {
+                        attract(i, j);
+                    } else {
+                        walk(i);
+                    }
+                }
+            } else {
+                for (int j = 0; j < numFireflies; j++) {
+                    if (brightness[i] > brightness[j]) { // move i toward brighter j
+                        attract(i, j);
+                    } else {
+                        walk(i);
+                    }
+                }
+            }
+            if (aggregateSteps) applySteps(i);
+            // Moves may overshoot supply in between; repair once before the firefly is scored
+            repair(fireflies[i]);
+            brightness[i] = evaluate(fireflies[i]);
+            updateBest(fireflies[i], brightness[i]);
+        }
+
+        // Random walk for the best firefly to avoid stagnation
+        int[] candidate = Arrays.copyOf(bestSolution, dimensions);
+        randomWalk(candidate);
+        repair(candidate);
+        updateBest(candidate, evaluate(candidate));
+
+        alpha = alphaFinal + (alpha0 - alphaFinal) * Math.exp(-0.1 * gen);
+        GENERATION_SECONDS.observeNanos(System.nanoTime() - genStart);
+
+        generation = gen + 1;
+
+        if (progressListener != null) {
+            progressListener.onIteration(gen + 1, getBestSolution());
+        }
+    }
+
+    /** Move firefly i towards firefly j, rounding each coordinate stochastically. */
+    private void moveFirefly(int i, int j) {
+        int[] xi = fireflies[i];
+        int[] xj = fireflies[j];
+        double beta = attractiveness(xi, xj);
+        for (int d = 0; d < dimensions; d++) {
+            long bits = random.nextLong();
+            double v = xi[d] + beta * (xj[d] - xi[d]) + alpha * (high(bits) - 0.5);
+            xi[d] = clamp(stochasticRound(v, low(bits)), d);
+        }
+    }
+
+    private double attractiveness(int[] a, int[] b) {
+        double t = gamma * squaredDistance(a, b);
+        return beta0 * (fastExp ? FastExp.expNeg(t) : Math.exp(-t));
+    }
+
+    private void randomWalk(int[] x) {
+        for (int d = 0; d < dimensions; d++) {
+            long bits = random.nextLong();
+            x[d] = clamp(stochasticRound(x[d] + alpha * (high(bits) - 0.5), low(bits)), d);
+        }
+    }
+
+    private void attract(int i, int j) {
+        if (!aggregateSteps) {
+            moveFirefly(i, j);
+            return;
+        }
+        double beta = attractiveness(fireflies[i], fireflies[j]);
+        double k = 1.0 - beta;
+        int[] xj = fireflies[j];
+        for (int d = 0; d < dimensions; d++) pull[d] = k * pull[d] + beta * xj[d];
+        keep *= k;
+        noiseSteps = k * k * noiseSteps + 1.0;
+    }
+
+    private void walk(int i) {
+        if (aggregateSteps) {
+            noiseSteps += 1.0;
+        } else {
+            randomWalk(fireflies[i]);
+        }
+    }
+
+    private void beginSteps() {
+        keep = 1.0;
+        noiseSteps = 0.0;
+        Arrays.fill(pull, 0.0);
+    }
+
+    private void applySteps(int i) {
+        double sd = alpha * Math.sqrt(noiseSteps / 12.0);
+        int[] x = fireflies[i];
+        for (int d = 0; d < dimensions; d++) {
+            double v = keep * x[d] + pull[d] + sd * random.nextGaussian();
+            x[d] = clamp(stochasticRound(v, random.nextDouble()), d);
+        }
+    }
+
+    /** floor(v) + 1 with probability v - floor(v) for u uniform in [0, 1), so E[result] = v. */
+    private static int stochasticRound(double v, double u) {
+        double fl = Math.floor(v);
+        return (int) fl + (u < v - fl ? 1 : 0);
+    }
+
+    // One nextLong() feeds both the move noise and the rounding draw (32 bits each), which halves
+    // the RNG calls in the O(n^2 * D) inner loop
+    private static double high(long bits) {
+        return (bits >>> 32) * 0x1.0p-32;
+    }
+
+    private static double low(long bits) {
+        return (bits & 0xFFFFFFFFL) * 0x1.0p-32;
+    }
+
+    private int clamp(int v, int d) {
+        if (v < lowerBound[d]) return lowerBound[d];
+        if (v > upperBound[d]) return upperBound[d];
+        return v;
+    }
+
+    /**
+     * Bring every class of x down to its integer supply: scale proportionally with floor, then
+     * hand the leftover units back one each to entries with a positive remainder, walking
+     * cyclically from a random barangay (there are always more such entries than leftover units).
+     */
+    private void repair(int[] x) {
+        int Z = dimensions / classes;
+        for (int c = 0; c < classes; c++) {
+            long used = 0;
+            for (int i = 0; i < Z; i++) used += x[i * classes + c];
+            if (used <= supply[c]) continue;
+
+            double scale = (double) supply[c] / used;
+            long kept = 0;
+            for (int i = 0; i < Z; i++) {
+                int k = i * classes + c;
+                int scaled = Math.max(lowerBound[k], (int) Math.floor(x[k] * scale));
+                kept += scaled;
+                remainder[k] = x[k] * scale - scaled;
+                x[k] = scaled;
+            }
+            long leftover = supply[c] - kept;
+            int start = random.nextInt(Z);
+            for (int n = 0; n < Z && leftover > 0; n++) {
+                int k = ((start + n) % Z) * classes + c;
+                if (remainder[k] > 1e-12 && x[k] < upperBound[k]) {
+                    x[k]++;
+                    leftover--;
+                }
+            }
+        }
+    }
+
+    private void rescorePopulation() {
+        for (int i = 0; i < numFireflies; i++) {
+            brightness[i] = evaluate(fireflies[i]);
+            updateBest(fireflies[i], brightness[i]);
+        }
+    }
+
+    private double evaluate(int[] x) {
+        for (int d = 0; d < dimensions; d++) scratch[d] = x[d];
+        return function.evaluate(scratch);
+    }
+
+    private double squaredDistance(int[] a, int[] b) {
+        long sum = 0;
+        for (int d = 0; d < dimensions; d++) {
+            long diff = a[d] - b[d];
+            sum += diff * diff;
+        }
+        return sum;
+    }
+
+    private void updateBest(int[] candidate, double value) {
+        if (value < bestValue) {
+            bestValue = value;
+            bestSolution = Arrays.copyOf(candidate, dimensions);
+        }
+    }
+
+    @Override
+    public double[] getBestSolution() {
+        return toDouble(bestSolution);
+    }
+
+    @Override
+    public double getBestValue() {
+        return bestValue;
+    }
+
+    /**
+     * Warm start as in {@link FireflyAlgorithm#seedPopulation}; starts are rounded to the nearest
+     * lattice point and repaired to supply.
+     */
+    @Override
+    public void seedPopulation(List<double[]> starts, double fraction, double perturbation) {
+        if (generation != 0) {
+            throw new IllegalStateException("seedPopulation must be called before the first generation");
+        }
+        int count = Math.min(numFireflies, (int) Math.round(fraction * numFireflies));
+        for (int i = 0; i < count && !starts.isEmpty(); i++) {
+            double[] start = starts.get(i % starts.size());
+            if (start.length != dimensions) {
+                throw new IllegalArgumentException(
+                        "Warm start has " + start.length + " variables, expected " + dimensions);
+            }
+            boolean exact = i < starts.size();
+            for (int d = 0; d < dimensions; d++) {
+                double v = start[d];
+                if (!exact) v += random.nextGaussian() * perturbation * (upperBound[d] - lowerBound[d]);
+                fireflies[i][d] = clamp((int) Math.round(v), d);
+            }
+            repair(fireflies[i]);
+            brightness[i] = evaluate(fireflies[i]);
+            updateBest(fireflies[i], brightness[i]);
+        }
+    }
+
+    @Override
+    public int getGeneration() {
+        return generation;
+    }
+
+    @Override
+    public int getGenerations() {
+        return generations;
+    }
+
+    /** Snapshot in the shared checkpoint format (positions widened to double). */
+    @Override
+    public OptimizerState snapshot() {
+        double[][] positions = new double[numFireflies][];
+        for (int i = 0; i < numFireflies; i++) positions[i] = toDouble(fireflies[i]);
+        return new OptimizerState(
+                generation,
+                alpha,
+                gamma,
+                positions,
+                brightness.clone(),
+                toDouble(bestSolution),
+                bestValue,
+                OptimizerState.saveRandom(random));
+    }
+
+    @Override
+    public void restore(OptimizerState state) {
+        if (state.positions.length != numFireflies
+                || state.brightness.length != numFireflies
+                || state.bestSolution.length != dimensions) {
+            throw new IllegalArgumentException("Checkpoint shape does not match optimizer (" + numFireflies
+                    + " fireflies x " + dimensions + " dimensions)");
+        }
+        if (state.generation > generations) {
+            throw new IllegalArgumentException(
+                    "Checkpoint generation " + state.generation + " exceeds " + generations + " generations");
+        }
+        for (int i = 0; i < numFireflies; i++) this.fireflies[i] = toInt(state.positions[i]);
+        this.brightness = state.brightness.clone();
+        this.bestSolution = toInt(state.bestSolution);
+        this.bestValue = state.bestValue;
+        this.alpha = state.alpha;
+        this.gamma = state.gamma;
+        this.generation = state.generation;
+        this.random = OptimizerState.loadRandom(state.rngState);
+    }
+
+    /** Top-k attraction as in {@link FireflyAlgorithm#setTopK}. */
+    public void setTopK(int k) {
+        this.topK = k;
+        this.ranking = k > 0 ? new RankOrder(numFireflies) : null;
+    }
+
+    /** Aggregated steps as in {@link FireflyAlgorithm#setAggregateSteps}, rounded once per variable. */
+    public void setAggregateSteps(boolean aggregate) {
+        this.aggregateSteps = aggregate;
+        this.pull = aggregate ? new double[dimensions] : null;
+    }
+
+    /** Attractiveness through {@link FastExp} as in {@link FireflyAlgorithm#setFastExp}. */
+    public void setFastExp(boolean fast) {
+        this.fastExp = fast;
+    }
+
+    @Override
+    public void setProgressListener(FireflyAlgorithm.ProgressListener listener) {
+        this.progressListener = listener;
+    }
+
+    private static double[] toDouble(int[] x) {
+        double[] out = new double[x.length];
+        for (int d = 0; d < x.length; d++) out[d] = x[d];
+        return out;
+    }
+
+    private static int[] toInt(double[] x) {
+        int[] out = new int[x.length];
+        for (int d = 0; d < x.length; d++) out[d] = (int) Math.round(x[d]);
+        return out;
+    }
+}
@@ -0,0 +1,208 @@
+package cs43.group4.core;
+
+import cs43.group4.metrics.Counter;
+import cs43.group4.metrics.Metrics;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Evaluation cache around any {@link ObjectiveFunction}, keyed by the solution vector snapped to a
+ * lattice (by default the integer lattice that AllocationNormalizer rounds to).
+ * <p>
+ * A miss evaluates the wrapped objective at x itself; a hit returns the value of the first point
+ * seen in the same lattice cell. Without hits the search is therefore identical to an unwrapped
+ * run. Evaluating the snapped point instead would make the cache exact, but the resulting
+ * piecewise-constant landscape measurably lowered EFA's final fitness on the bundled dataset.
+ * </p>
+ * <p>
+ * The table is a bounded, lock-striped open-addressing map on primitive arrays: each stripe holds
+ * a power-of-two number of slots with a 64-bit key, an independent 64-bit check hash and the value.
+ * Probing is linear and limited to {@link #MAX_PROBE} slots; when they are all taken the home slot
+ * is overwritten, so memory stays fixed and the oldest colliding entry is the one lost.
+ * </p>
+ */
+public class MemoizedObjective extends ObjectiveFunction {
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+    private static final int STRIPES = 16; // power of two
+    private static final int MAX_PROBE = 8;
+    private static final long EMPTY = 0L; // key value reserved for empty slots
+
+    private static final String REQUESTS = "thesis_objective_memo_requests_total";
+    private static final String REQUESTS_HELP = "Memoized objective lookups by outcome";
+    private static final Counter HITS = Metrics.counter(REQUESTS, REQUESTS_HELP, "result=\"hit\"");
+    private static final Counter MISSES = Metrics.counter(REQUESTS, REQUESTS_HELP, "result=\"miss\"");
+    private static final Counter EVICTIONS = Metrics.counter(
+            "thesis_objective_memo_evictions_total", "Memoized objective entries overwritten by a collision", "");
+
+    private final ObjectiveFunction delegate;
+    private final double quantum;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private long windowHits, windowMisses; // totals at the previous windowHitRate() call
+
+    /** Integer-lattice cache with {@link #DEFAULT_CAPACITY} entries. */
+    public MemoizedObjective(ObjectiveFunction delegate) {
+        this(delegate, DEFAULT_CAPACITY, 1.0);
+    }
+
+    /**
+     * @param capacity total entries across all stripes (rounded up to a power of two)
+     * @param quantum lattice spacing; each variable is snapped to the nearest multiple
+     */
+    public MemoizedObjective(ObjectiveFunction delegate, int capacity, double quantum) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("delegate must not be null");
+        }
+        if (capacity < STRIPES) {
+            throw new IllegalArgumentException("capacity must be at least " + STRIPES + ", got " + capacity);
+        }
+        if (!(quantum > 0)) {
+            throw new IllegalArgumentException("quantum must be positive, got " + quantum);
+        }
+        this.delegate = delegate;
+        this.quantum = quantum;
+        int perStripe = Integer.highestOneBit(Math.max(1, (capacity - 1) / STRIPES)) << 1;
+        for (int s = 0; s < STRIPES; s++) stripes[s] = new Stripe(perStripe);
+    }
+
+    @Override
+    public double evaluate(double[] x) {
+        return lookup(x, false);
+    }
+
+    /** As {@link #evaluate}, but a miss goes to the wrapped objective's evaluateFeasible. */
+    @Override
+    public double evaluateFeasible(double[] x) {
+        return lookup(x, true);
+    }
+
+    @Override
+    public boolean beginGeneration(int generation) {
+        return delegate.beginGeneration(generation);
+    }
+
+    private double lookup(double[] x, boolean feasible) {
+        long key = 0x9E3779B97F4A7C15L;
+        long check = 0xC2B2AE3D27D4EB4FL;
+        for (int d = 0; d < x.length; d++) {
+            long q = Math.round(x[d] / quantum);
+            key = mix(key ^ q);
+            check = (check ^ q) * 0xFF51AFD7ED558CCDL + d;
+        }
+        check = mix(check);
+        if (key == EMPTY) key = 1L;
+
+        Stripe stripe = stripes[(int) (key >>> 60) & (STRIPES - 1)];
+        stripe.lock.lock();
+        try {
+            int slot = stripe.find(key, check);
+            if (slot >= 0) {
+                hits.increment();
+                HITS.increment();
+                return stripe.values[slot];
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+
+        // Evaluate outside the lock; a concurrent miss on the same key just stores it twice
+        double value = feasible ? delegate.evaluateFeasible(x) : delegate.evaluate(x);
+        misses.increment();
+        MISSES.increment();
+        stripe.lock.lock();
+        try {
+            stripe.put(key, check, value);
+        } finally {
+            stripe.lock.unlock();
+        }
+        return value;
+    }
+
+    /** Lookups answered from the table since construction. */
+    public long hits() {
+        return hits.sum();
+    }
+
+    /** Lookups that evaluated the wrapped objective since construction. */
+    public long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * Hit rate of the lookups since the previous call (0 if there were none), e.g. once per
+     * generation from a progress listener.
+     */
+    public synchronized double windowHitRate() {
+        long h = hits.sum(), m = misses.sum();
+        long dh = h - windowHits, dm = m - windowMisses;
+        windowHits = h;
+        windowMisses = m;
+        return dh + dm == 0 ? 0.0 : (double) dh / (dh + dm);
+    }
+
+    /** Occupied slots across all stripes. */
+    public int size() {
+        int n = 0;
+        for (Stripe s : stripes) {
+            s.lock.lock();
+            try {
+                n += s.size;
+            } finally {
+                s.lock.unlock();
+            }
+        }
+        return n;
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static final class Stripe {
+        final ReentrantLock lock = new ReentrantLock();
+        final long[] keys;
+        final long[] checks;
+        final double[] values;
+        final int mask;
+        int size;
+
+        Stripe(int slots) {
+            keys = new long[slots];
+            checks = new long[slots];
+            values = new double[slots];
+            mask = slots - 1;
+        }
+
+        int find(long key, long check) {
+            int home = (int) key & mask;
+            for (int p = 0; p < MAX_PROBE; p++) {
+                int slot = (home + p) & mask;
+                if (keys[slot] == EMPTY) return -1;
+                if (keys[slot] == key && checks[slot] == check) return slot;
+            }
+            return -1;
+        }
+
+        void put(long key, long check, double value) {
+            int home = (int) key & mask;
+            for (int p = 0; p < MAX_PROBE; p++) {
+                int slot = (home + p) & mask;
+                if (keys[slot] == EMPTY || (keys[slot] == key && checks[slot] == check)) {
+                    if (keys[slot] == EMPTY) size++;
+                    keys[slot] = key;
+                    checks[slot] = check;
+                    values[slot] = value;
+                    return;
+                }
+            }
+            EVICTIONS.increment();
+            keys[home] = key;
+            checks[home] = check;
+            values[home] = value;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package cs43.group4.core;
+
+import cs43.group4.metrics.Counter;
+import cs43.group4.metrics.Metrics;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Distance-aware objective that pays for the exact distance penalty only where it can matter.
+ * <p>
+ * Before generation {@code exactFrom} each candidate is first scored with
+ * {@link ThesisObjective#lowerBound}, which replaces the O(Z^2) greedy matching with a nearest
+ * surplus bound. If that bound is no better than the best exact value returned so far, the
+ * candidate cannot become the optimizer's best and the bound is returned as its value; otherwise
+ * it is evaluated exactly. Every value an optimizer can keep as its best is therefore exact, and
+ * {@link #beginGeneration} switches to exact evaluation from generation {@code exactFrom} on, with
+ * the population re-scored at the switch.
+ * </p>
+ * <p>
+ * Thread-safe: the best exact value is a CAS-updated double, so one instance can serve
+ * {@link AsyncFireflyAlgorithm}'s workers. Create one per run.
+ * </p>
+ */
+public class MultiFidelityObjective extends ObjectiveFunction {
+    private static final String EVALUATIONS = "thesis_objective_fidelity_evaluations_total";
+    private static final String EVALUATIONS_HELP = "Multi-fidelity objective evaluations by the value returned";
+    private static final Counter BOUND = Metrics.counter(EVALUATIONS, EVALUATIONS_HELP, "fidelity=\"bound\"");
+    private static final Counter EXACT = Metrics.counter(EVALUATIONS, EVALUATIONS_HELP, "fidelity=\"exact\"");
+
+    private final ObjectiveFunction exact;
+    private final ThesisObjective bound;
+    private final int exactFrom;
+    private volatile boolean exactPhase;
+    private final AtomicLong bestExact = new AtomicLong(Double.doubleToLongBits(Double.POSITIVE_INFINITY));
+    private final LongAdder boundCount = new LongAdder();
+    private final LongAdder exactCount = new LongAdder();
+
+    /**
+     * @param exact the distance-aware objective or a wrapper of it (e.g. a {@link MemoizedObjective})
+     * @param bound the distance-aware objective whose {@link ThesisObjective#lowerBound} screens candidates
+     * @param exactFrom first generation evaluated exactly throughout (0 = always exact)
+     */
+    public MultiFidelityObjective(ObjectiveFunction exact, ThesisObjective bound, int exactFrom) {
+        if (exact == null || bound == null) {
+            throw new IllegalArgumentException("exact and bound objectives must not be null");
+        }
+        this.exact = exact;
+        this.bound = bound;
+        this.exactFrom = exactFrom;
+        this.exactPhase = exactFrom <= 0;
+    }
+
+    @Override
+    public double evaluate(double[] x) {
+        return score(x, true);
+    }
+
+    @Override
+    public double evaluateFeasible(double[] x) {
+        return score(x, false);
+    }
+
+    private double score(double[] x, boolean repair) {
+        if (!exactPhase) {
+            double lower = repair ? bound.lowerBound(x) : bound.lowerBoundFeasible(x);
+            if (lower >= Double.longBitsToDouble(bestExact.get())) {
+                boundCount.increment();
+                BOUND.increment();
+                return lower;
+            }
+        }
+        double value = repair ? exact.evaluate(x) : exact.evaluateFeasible(x);
+        exactCount.increment();
+        EXACT.increment();
+        long bits = bestExact.get();
+        while (value < Double.longBitsToDouble(bits)
+                && !bestExact.compareAndSet(bits, Double.doubleToLongBits(value))) {
+            bits = bestExact.get();
+        }
+        return value;
+    }
+
+    /** Switches to exact evaluation at generation exactFrom; true once, at the switch. */
+    @Override
+    public boolean beginGeneration(int generation) {
+        boolean switched = !exactPhase && generation >= exactFrom;
+        if (switched) exactPhase = true;
+        return exact.beginGeneration(generation) || switched;
+    }
+
+    /** Evaluations answered with the lower bound since construction. */
+    public long boundEvaluations() {
+        return boundCount.sum();
+    }
+
+    /** Evaluations that ran the exact distance penalty since construction. */
+    public long exactEvaluations() {
+        return exactCount.sum();
+    }
+}
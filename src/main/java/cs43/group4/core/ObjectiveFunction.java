@@ -5,4 +5,17 @@ package cs43.group4.core;
 public abstract class ObjectiveFunction {
     // Evaluate the objective function at point x
     public abstract double evaluate(double[] x);
+
+    // Evaluate at an x already known to respect per-class supply (e.g. a decoded SimplexEncoding
+    // vector); implementations may skip their feasibility repair. Defaults to evaluate(x).
+    public double evaluateFeasible(double[] x) {
+        return evaluate(x);
+    }
+
+    // Called by the optimizers before each generation (0-based). Returns true when values returned
+    // earlier are no longer comparable with later ones (a MultiFidelityObjective switching to exact
+    // evaluation), so the optimizer re-scores its population. Wrappers forward it to their delegate.
+    public boolean beginGeneration(int generation) {
+        return false;
+    }
 }
@@ -0,0 +1,40 @@
+package cs43.group4.core;
+
+import java.util.List;
+
+/**
+ * Generation-steppable firefly optimizer as driven by FARunner: progress reporting, warm start,
+ * checkpointing and re-optimization work the same for {@link FireflyAlgorithm},
+ * {@link IntegerFireflyAlgorithm} and {@link AsyncFireflyAlgorithm}.
+ */
+public interface Optimizer {
+
+    /** Run all remaining generations. */
+    void optimize();
+
+    /** Advance the population by exactly one generation. */
+    void nextGeneration();
+
+    /** Number of generations completed so far. */
+    int getGeneration();
+
+    /** Total number of generations this optimizer is configured to run. */
+    int getGenerations();
+
+    /** Best decision vector found (k = i * C + c). */
+    double[] getBestSolution();
+
+    /** Objective value of {@link #getBestSolution()} (minimization). */
+    double getBestValue();
+
+    /** Warm start before the first generation; see {@link FireflyAlgorithm#seedPopulation}. */
+    void seedPopulation(List<double[]> starts, double fraction, double perturbation);
+
+    /** Copy of the search state for checkpointing. */
+    OptimizerState snapshot();
+
+    /** Continue from a snapshot taken from an optimizer with the same parameters and bounds. */
+    void restore(OptimizerState state);
+
+    void setProgressListener(FireflyAlgorithm.ProgressListener listener);
+}
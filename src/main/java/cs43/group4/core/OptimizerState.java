@@ -0,0 +1,88 @@
+package cs43.group4.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.util.Random;
+
+/**
+ * Snapshot of the mutable search state of FireflyAlgorithm/ExtendedFireflyAlgorithm: population,
+ * brightness, best-so-far, position in the alpha schedule and the RNG. Restoring a snapshot into an
+ * optimizer built with the same parameters and bounds continues the run exactly where it left off,
+ * drawing the same random numbers it would have drawn without the interruption.
+ */
+public class OptimizerState {
+    public final int generation; // generations completed
+    public final double alpha;
+    public final double gamma; // EFA may retune gamma after construction
+    public final double[][] positions; // [numFireflies][D]
+    public final double[] brightness; // [numFireflies], objective values (minimization)
+    public final double[] bestSolution;
+    public final double bestValue;
+    public final byte[] rngState; // serialized java.util.Random
+
+    public OptimizerState(
+            int generation,
+            double alpha,
+            double gamma,
+            double[][] positions,
+            double[] brightness,
+            double[] bestSolution,
+            double bestValue,
+            byte[] rngState) {
+        this.generation = generation;
+        this.alpha = alpha;
+        this.gamma = gamma;
+        this.positions = positions;
+        this.brightness = brightness;
+        this.bestSolution = bestSolution;
+        this.bestValue = bestValue;
+        this.rngState = rngState;
+    }
+
+    static double[][] copy(double[][] a) {
+        double[][] out = new double[a.length][];
+        for (int i = 0; i < a.length; i++) out[i] = a[i].clone();
+        return out;
+    }
+
+    // java.util.Random keeps its 48-bit seed and cached Gaussian private (and java.base is closed to
+    // reflection); its serialized form is the only portable way to capture and restore the exact
+    // stream position. Restoring reads checkpoint files from disk, so only a plain Random, with its
+    // three primitive fields, may be deserialized.
+    private static final ObjectInputFilter RANDOM_ONLY =
+            ObjectInputFilter.Config.createFilter("java.util.Random;maxdepth=1;maxrefs=4;maxbytes=1024;!*");
+
+    static byte[] saveRandom(Random random) {
+        try (ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+                ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(random);
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static Random loadRandom(byte[] state) {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(state))) {
+            in.setObjectInputFilter(RANDOM_ONLY);
+            Object random = in.readObject();
+            if (random == null || random.getClass() != Random.class) {
+                throw new IllegalArgumentException("Invalid RNG state in checkpoint");
+            }
+            return (Random) random;
+        } catch (InvalidClassException e) {
+            throw new IllegalArgumentException("Invalid RNG state in checkpoint", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException("Invalid RNG state in checkpoint", e);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package cs43.group4.core;
+
+import java.util.Arrays;
+
+/**
+ * Population ranking for top-k attraction: fireflies sorted by brightness (objective value, lower
+ * is brighter) once per generation, so each firefly can be attracted to the k fireflies ranked
+ * just above it instead of scanning all N. Moves cost O(N * k * D) plus one O(N log N) sort
+ * instead of O(N^2 * D).
+ */
+final class RankOrder {
+    private final int[] order; // firefly indices, brightest first
+    private final int[] rank; // inverse of order
+    private final long[] keys;
+
+    RankOrder(int numFireflies) {
+        this.order = new int[numFireflies];
+        this.rank = new int[numFireflies];
+        this.keys = new long[numFireflies];
+    }
+
+    /** Re-sorts the population by the given brightness (ties keep index order). */
+    void update(double[] brightness) {
+        int n = order.length;
+        // Sort (rank of value, index) pairs packed into longs to avoid boxing
+        double[] sorted = Arrays.copyOf(brightness, n);
+        Arrays.sort(sorted);
+        for (int i = 0; i < n; i++) {
+            int pos = Arrays.binarySearch(sorted, brightness[i]);
+            while (pos > 0 && Double.compare(sorted[pos - 1], brightness[i]) == 0) pos--;
+            keys[i] = ((long) pos << 32) | i;
+        }
+        Arrays.sort(keys);
+        for (int p = 0; p < n; p++) {
+            order[p] = (int) keys[p];
+            rank[order[p]] = p;
+        }
+    }
+
+    /**
+     * The m-th attractor (m = 0 .. k-1) of firefly i: the firefly ranked m + 1 places above it,
+     * or -1 when fewer than m + 1 fireflies are brighter.
+     */
+    int brighter(int i, int m) {
+        int p = rank[i] - 1 - m;
+        return p >= 0 ? order[p] : -1;
+    }
+
+    /** Firefly at rank p (0 = brightest). */
+    int at(int p) {
+        return order[p];
+    }
+}
@@ -0,0 +1,76 @@
+package cs43.group4.core;
+
+/**
+ * Decision-vector encoding in which per-class supply holds by construction.
+ * <p>
+ * A vector y has Z * C share variables (k = i * C + c, as in the raw encoding) followed by C
+ * utilization variables (index Z * C + c), all in [0, 1]. Class c deploys
+ * u_c * supply[c] personnel split over barangays in proportion to their shares:
+ * </p>
+ * <pre>
+ *   A[i][c] = supply[c] * u_c * y[i*C + c] / sum_j y[j*C + c]
+ * </pre>
+ * <p>
+ * Decoding is one pass to sum each class and one to scale, and never exceeds supply, so the
+ * objective can skip its repair step ({@link ObjectiveFunction#evaluateFeasible}). A class whose
+ * shares are all zero is spread evenly. Instances are immutable and can be shared across threads.
+ * </p>
+ */
+public final class SimplexEncoding {
+    public final int Z, C;
+    private final double[] supply;
+
+    public SimplexEncoding(int Z, int C, double[] supply) {
+        if (supply == null || supply.length != C) {
+            throw new IllegalArgumentException("supply must have " + C + " classes");
+        }
+        this.Z = Z;
+        this.C = C;
+        this.supply = supply.clone();
+    }
+
+    /** Length of an encoded vector: Z * C shares plus C utilization fractions. */
+    public int dimensions() {
+        return Z * C + C;
+    }
+
+    /** Writes the raw allocation vector (length Z * C) of y into out. */
+    public void decode(double[] y, double[] out) {
+        int shares = Z * C;
+        for (int c = 0; c < C; c++) {
+            double sum = 0.0;
+            for (int k = c; k < shares; k += C) sum += Math.max(0.0, y[k]);
+            double total = Math.max(0.0, supply[c]) * Math.min(1.0, Math.max(0.0, y[shares + c]));
+            if (sum > 0.0) {
+                double scale = total / sum;
+                for (int k = c; k < shares; k += C) out[k] = Math.max(0.0, y[k]) * scale;
+            } else {
+                double even = total / Z;
+                for (int k = c; k < shares; k += C) out[k] = even;
+            }
+        }
+    }
+
+    public double[] decode(double[] y) {
+        double[] out = new double[Z * C];
+        decode(y, out);
+        return out;
+    }
+
+    /**
+     * Encodes a raw allocation vector (length Z * C): shares are each class's fraction of its own
+     * total and utilization is that total over supply, capped at 1. Decoding the result gives x
+     * back whenever x is within supply.
+     */
+    public double[] encode(double[] x) {
+        int shares = Z * C;
+        double[] y = new double[dimensions()];
+        for (int c = 0; c < C; c++) {
+            double sum = 0.0;
+            for (int k = c; k < shares; k += C) sum += Math.max(0.0, x[k]);
+            for (int k = c; k < shares; k += C) y[k] = sum > 0.0 ? Math.max(0.0, x[k]) / sum : 0.0;
+            y[shares + c] = supply[c] > 0.0 ? Math.min(1.0, sum / supply[c]) : 0.0;
+        }
+        return y;
+    }
+}
@@ -0,0 +1,26 @@
+package cs43.group4.core;
+
+/**
+ * Objective over {@link SimplexEncoding} vectors: decodes y and scores the allocation with the
+ * wrapped objective's {@link ObjectiveFunction#evaluateFeasible}, since it is within supply.
+ * Stateless apart from its constructor arguments, so it is safe to share between threads.
+ */
+public class SimplexObjective extends ObjectiveFunction {
+    private final ObjectiveFunction delegate;
+    private final SimplexEncoding encoding;
+
+    public SimplexObjective(ObjectiveFunction delegate, SimplexEncoding encoding) {
+        this.delegate = delegate;
+        this.encoding = encoding;
+    }
+
+    @Override
+    public double evaluate(double[] y) {
+        return delegate.evaluateFeasible(encoding.decode(y));
+    }
+
+    @Override
+    public boolean beginGeneration(int generation) {
+        return delegate.beginGeneration(generation);
+    }
+}
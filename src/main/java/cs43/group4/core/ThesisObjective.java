@@ -1,10 +1,15 @@
 package cs43.group4.core;
 
+import cs43.group4.metrics.Metrics;
+
 /**
  * Thesis objective implementation. Fitness = Objective1 + Objective2 - Objective3 + Objective4 + Objective5
  * FireflyAlgorithm minimizes, so we return -(Fitness) + penalties.
  */
 public class ThesisObjective extends ObjectiveFunction {
+    // Once a deficit's neighbor list has no surplus left, the distance penalty scans the remaining
+    // surpluses if there are at most this many, else queries a k-d tree subset of them
+    private static final int SCAN_LIMIT = 256;
 
     private final int Z, C; // barangays, classes
     private final double[] r, f, E, AC; // per barangay
@@ -16,10 +21,9 @@ public class ThesisObjective extends ObjectiveFunction {
     private final double wBudget; // penalty weight for P target
     // Optional distance-aware penalty settings
     private final double[][] currentPerClass; // [C][Z] current counts per class and barangay
-    private final double[] lat; // [Z] latitude degrees
-    private final double[] lon; // [Z] longitude degrees
     private final double wDistance; // weight for average distance moved (km)
-    private final double[][] distKm; // [Z][Z] precomputed distances (km) or null
+    private final GeoDistances geo; // shared distance table (km); null = no distance penalty
+    private final int[][] neighbors; // [Z][k] nearest other barangays, nearest first, or null
 
     public ThesisObjective(
             int Z,
@@ -47,10 +51,9 @@ public class ThesisObjective extends ObjectiveFunction {
         this.Ptarget = Ptarget;
         this.wBudget = wBudget;
         this.currentPerClass = null;
-        this.lat = null;
-        this.lon = null;
         this.wDistance = 0.0;
-        this.distKm = null;
+        this.geo = null;
+        this.neighbors = null;
     }
 
     // Overload with distance penalty inputs (optional): if lat/lon or current are null, distance
@@ -72,6 +75,42 @@ public class ThesisObjective extends ObjectiveFunction {
             double[] lat,
             double[] lon,
             double wDistance) {
+        this(
+                Z,
+                C,
+                r,
+                f,
+                E,
+                AC,
+                lambda,
+                supply,
+                eps,
+                wSupply,
+                Ptarget,
+                wBudget,
+                currentPerClass,
+                (lat != null && lat.length == Z) ? GeoDistances.of(lat, lon) : null,
+                wDistance);
+    }
+
+    // Overload over a shared GeoDistances (e.g. AllocationProblem's); null or a table of another
+    // size disables the distance penalty
+    public ThesisObjective(
+            int Z,
+            int C,
+            double[] r,
+            double[] f,
+            double[] E,
+            double[] AC,
+            double[] lambda,
+            double[] supply,
+            double eps,
+            double wSupply,
+            Double Ptarget,
+            double wBudget,
+            double[][] currentPerClass,
+            GeoDistances geo,
+            double wDistance) {
         this.Z = Z;
         this.C = C;
         this.r = r;
@@ -85,14 +124,80 @@ public class ThesisObjective extends ObjectiveFunction {
         this.Ptarget = Ptarget;
         this.wBudget = wBudget;
         this.currentPerClass = currentPerClass;
-        this.lat = lat;
-        this.lon = lon;
         this.wDistance = wDistance;
-        this.distKm = (enableDistance()) ? precomputeDistances(lat, lon) : null;
+        this.geo = (geo != null && geo.size() == Z && validCurrent()) ? geo : null;
+        this.neighbors = (this.geo != null) ? this.geo.nearestNeighbors(GeoDistances.DEFAULT_NEIGHBORS) : null;
+    }
+
+    // Copy of base with new per-barangay inputs; everything else, including the distance table, is
+    // shared
+    private ThesisObjective(ThesisObjective base, double[] r, double[] f, double[] E, double[] AC) {
+        this.Z = base.Z;
+        this.C = base.C;
+        this.r = r;
+        this.f = f;
+        this.E = E;
+        this.AC = AC;
+        this.lambda = base.lambda;
+        this.supply = base.supply;
+        this.eps = base.eps;
+        this.wSupply = base.wSupply;
+        this.Ptarget = base.Ptarget;
+        this.wBudget = base.wBudget;
+        this.currentPerClass = base.currentPerClass;
+        this.wDistance = base.wDistance;
+        this.geo = base.geo;
+        this.neighbors = base.neighbors;
+    }
+
+    /**
+     * Same objective over updated hazard, depth, vulnerability and capacity arrays (length Z), for
+     * re-optimizing after a data change without recomputing the distance matrix.
+     */
+    public ThesisObjective withBarangayData(double[] r, double[] f, double[] E, double[] AC) {
+        return new ThesisObjective(this, r, f, E, AC);
     }
 
     @Override
     public double evaluate(double[] x) {
+        return timed(x, true, true);
+    }
+
+    /** Skips the per-class supply repair; x must already be within supply (the penalty still applies). */
+    @Override
+    public double evaluateFeasible(double[] x) {
+        return timed(x, false, true);
+    }
+
+    /** True when the distance penalty is active (current deployment and coordinates were given). */
+    public boolean hasDistancePenalty() {
+        return geo != null;
+    }
+
+    /**
+     * Lower bound on {@link #evaluate}(x): the greedy matching of the distance penalty is replaced
+     * by sending every unit of deficit from its nearest barangay in surplus, which no matching can
+     * beat. That is one walk down a presorted neighbor list per barangay in deficit instead of a
+     * Z-wide scan per matching step. Equals evaluate(x) without a distance penalty.
+     */
+    public double lowerBound(double[] x) {
+        return timed(x, true, false);
+    }
+
+    /** {@link #lowerBound} for an x already within supply, as {@link #evaluateFeasible}. */
+    public double lowerBoundFeasible(double[] x) {
+        return timed(x, false, false);
+    }
+
+    private double timed(double[] x, boolean repair, boolean exactDistance) {
+        long start = System.nanoTime();
+        double value = score(x, repair, exactDistance);
+        Metrics.OBJECTIVE_EVALUATE_SECONDS.observeNanos(System.nanoTime() - start);
+        Metrics.OBJECTIVE_EVALUATIONS.increment();
+        return value;
+    }
+
+    private double score(double[] x, boolean repair, boolean exactDistance) {
         // Rebuild A[i][c] as non-negative reals, then repair to respect per-class supply
         double[][] A = new double[Z][C];
         int k = 0;
@@ -108,7 +213,7 @@ public class ThesisObjective extends ObjectiveFunction {
         double[] supplyUse = new double[C];
         if (this.supply != null) {
             for (int c = 0; c < C; c++) supplyUse[c] = this.supply[c];
-        } else if (enableDistance()) {
+        } else if (geo != null) {
             for (int c = 0; c < C; c++) {
                 double s = 0.0;
                 for (int i = 0; i < Z; i++) s += Math.max(0.0, currentPerClass[c][i]);
@@ -120,7 +225,7 @@ public class ThesisObjective extends ObjectiveFunction {
         }
 
         // Feasibility repair: scale down per-class columns if they exceed supply
-        for (int c = 0; c < C; c++) {
+        for (int c = 0; repair && c < C; c++) {
             double used = 0.0;
             for (int i = 0; i < Z; i++) used += A[i][c];
             if (used > supplyUse[c] + eps) {
@@ -210,87 +315,182 @@ public class ThesisObjective extends ObjectiveFunction {
 
         // Distance penalty: compute average kilometers moved in a greedy nearest-flow sense and
         // penalize it
-        if (enableDistance()) {
-            double[] tmpDemand = new double[Z];
-            double[] tmpSurplus = new double[Z];
-            double movedTotal = 0.0;
-            double distSum = 0.0;
-            for (int c = 0; c < C; c++) {
-                // prepare demand/surplus for this class
-                for (int i = 0; i < Z; i++) {
-                    double need = Math.max(0.0, A[i][c] - currentPerClass[c][i]);
-                    double extra = Math.max(0.0, currentPerClass[c][i] - A[i][c]);
-                    tmpDemand[i] = need;
-                    tmpSurplus[i] = extra;
+        if (geo != null && !exactDistance) {
+            penalty += wDistance * averageKmBound(A);
+        } else if (geo != null) {
+            penalty += wDistance * averageKmGreedy(A);
+        }
+
+        if (!Double.isFinite(fitness) || !Double.isFinite(penalty)) return 1e30;
+        return -(fitness) + penalty;
+    }
+
+    // Average km of the greedy matching: per class, repeatedly take the largest remaining deficit
+    // (lowest index on ties) and fill it from the nearest barangay still in surplus (lowest index on
+    // ties). Deficits sit in a max-heap, and each deficit keeps a cursor into its neighbor list, which
+    // only moves forward because surpluses only shrink. A deficit whose listed neighbors are all
+    // used up scans the remaining surpluses, or asks a k-d tree subset of them. That is
+    // O((Z + moves) log Z) plus the cursor walks and those lookups instead of two Z-wide scans per
+    // move, with the same moves in the same order, and no Z x Z state.
+    private double averageKmGreedy(double[][] A) {
+        double[] demand = new double[Z];
+        double[] surplus = new double[Z];
+        int[] heap = new int[Z];
+        int[] cursor = new int[Z];
+        int[] sources = new int[Z]; // barangays with surplus left, in any order
+        int[] slot = new int[Z]; // position of a barangay in sources
+        double movedTotal = 0.0;
+        double distSum = 0.0;
+        for (int c = 0; c < C; c++) {
+            int size = 0;
+            int live = 0;
+            for (int i = 0; i < Z; i++) {
+                demand[i] = Math.max(0.0, A[i][c] - currentPerClass[c][i]);
+                surplus[i] = Math.max(0.0, currentPerClass[c][i] - A[i][c]);
+                cursor[i] = 0;
+                if (demand[i] > 1e-12) heap[size++] = i;
+                if (surplus[i] > 1e-12) {
+                    slot[i] = live;
+                    sources[live++] = i;
                 }
-                // Greedy: repeatedly match nearest surplus for each current largest deficit
-                while (true) {
-                    int def = -1;
-                    double needMax = 0.0;
-                    for (int i = 0; i < Z; i++) {
-                        if (tmpDemand[i] > 1e-12 && tmpDemand[i] > needMax) {
-                            needMax = tmpDemand[i];
-                            def = i;
-                        }
-                    }
-                    if (def == -1) break;
-                    int src = -1;
-                    double bestD = Double.POSITIVE_INFINITY;
-                    for (int j = 0; j < Z; j++) {
-                        if (tmpSurplus[j] > 1e-12) {
-                            double dkm = distKm[j][def];
-                            if (dkm < bestD) {
-                                bestD = dkm;
-                                src = j;
-                            }
-                        }
+            }
+            for (int k = size / 2 - 1; k >= 0; k--) siftDown(heap, size, k, demand);
+            GeoIndex.Subset tree = null; // the same surpluses, built when a scan would be too long
+            while (size > 0) {
+                int def = heap[0];
+                int[] near = neighbors[def];
+                int p = cursor[def];
+                while (p < near.length && !(surplus[near[p]] > 1e-12)) p++;
+                cursor[def] = p;
+                int src;
+                if (p < near.length) {
+                    src = near[p];
+                } else if (live <= SCAN_LIMIT) {
+                    src = nearestOf(def, sources, live);
+                } else {
+                    if (tree == null) {
+                        tree = geo.subset();
+                        for (int q = 0; q < live; q++) tree.add(sources[q]);
                     }
-                    if (src == -1) break; // no more surplus
-                    double moved = Math.min(tmpSurplus[src], tmpDemand[def]);
-                    movedTotal += moved;
-                    distSum += moved * bestD;
-                    tmpSurplus[src] -= moved;
-                    tmpDemand[def] -= moved;
+                    src = tree.nearest(def);
+                }
+                if (src == -1) break; // no more surplus
+                double moved = Math.min(surplus[src], demand[def]);
+                movedTotal += moved;
+                distSum += moved * geo.km(src, def);
+                surplus[src] -= moved;
+                demand[def] -= moved;
+                if (!(surplus[src] > 1e-12)) {
+                    int last = sources[--live];
+                    sources[slot[src]] = last;
+                    slot[last] = slot[src];
+                    if (tree != null) tree.remove(src);
                 }
+                if (!(demand[def] > 1e-12)) heap[0] = heap[--size];
+                siftDown(heap, size, 0, demand);
             }
-            double avgKm = distSum / Math.max(eps, movedTotal);
-            penalty += wDistance * avgKm;
         }
+        return distSum / Math.max(eps, movedTotal);
+    }
 
-        if (!Double.isFinite(fitness) || !Double.isFinite(penalty)) return 1e30;
-        return -(fitness) + penalty;
+    // Nearest of sources[0..live) to i, lowest index on ties; -1 if live is 0
+    private int nearestOf(int i, int[] sources, int live) {
+        int src = -1;
+        double best = Double.POSITIVE_INFINITY;
+        for (int q = 0; q < live; q++) {
+            int j = sources[q];
+            double km = geo.km(j, i);
+            if (km < best || (km == best && j < src)) {
+                best = km;
+                src = j;
+            }
+        }
+        return src;
     }
 
-    private boolean enableDistance() {
-        if (currentPerClass == null || lat == null || lon == null) return false;
-        if (currentPerClass.length != C) return false;
-        for (int c = 0; c < C; c++) if (currentPerClass[c] == null || currentPerClass[c].length != Z) return false;
-        if (lat.length != Z || lon.length != Z) return false;
-        for (int i = 0; i < Z; i++) if (!Double.isFinite(lat[i]) || !Double.isFinite(lon[i])) return false;
-        return true;
+    // First barangay in i's neighbor list with a class c surplus under A, or -1 if there is none
+    private int listedSurplus(double[][] A, int c, int i) {
+        for (int j : neighbors[i]) {
+            if (currentPerClass[c][j] - A[j][c] > 1e-12) return j;
+        }
+        return -1;
     }
 
-    private double[][] precomputeDistances(double[] lat, double[] lon) {
-        double[][] d = new double[Z][Z];
-        for (int i = 0; i < Z; i++) {
-            for (int j = 0; j < Z; j++) {
-                d[i][j] = (i == j) ? 0.0 : haversineKm(lat[i], lon[i], lat[j], lon[j]);
+    // Restores the max-heap below position k; larger demand first, then lower barangay index
+    private static void siftDown(int[] heap, int size, int k, double[] demand) {
+        int item = heap[k];
+        while (true) {
+            int child = 2 * k + 1;
+            if (child >= size) break;
+            if (child + 1 < size && before(heap[child + 1], heap[child], demand)) child++;
+            if (!before(heap[child], item, demand)) break;
+            heap[k] = heap[child];
+            k = child;
+        }
+        heap[k] = item;
+    }
+
+    private static boolean before(int a, int b, double[] demand) {
+        return demand[a] > demand[b] || (demand[a] == demand[b] && a < b);
+    }
+
+    // Lower bound on the greedy average distance. Per class the greedy moves exactly
+    // min(total deficit, total surplus), and each unit travels at least the distance from its
+    // destination to the nearest barangay in surplus. If surplus covers the deficit every unit is
+    // moved; otherwise only the moved amount is known, at the smallest such distance.
+    private double averageKmBound(double[][] A) {
+        int[] sources = new int[Z];
+        double movedTotal = 0.0;
+        double distSum = 0.0;
+        for (int c = 0; c < C; c++) {
+            double needSum = 0.0;
+            double surplusSum = 0.0;
+            int live = 0;
+            for (int i = 0; i < Z; i++) {
+                double need = A[i][c] - currentPerClass[c][i];
+                if (need > 1e-12) {
+                    needSum += need;
+                } else if (need < -1e-12) {
+                    surplusSum -= need;
+                    sources[live++] = i;
+                }
+            }
+            if (needSum <= 0.0 || surplusSum <= 0.0) continue;
+            double weighted = 0.0;
+            double nearest = Double.POSITIVE_INFINITY;
+            GeoIndex.Subset tree = null; // the same surpluses, built when a scan would be too long
+            for (int i = 0; i < Z; i++) {
+                double need = A[i][c] - currentPerClass[c][i];
+                if (need <= 1e-12) continue;
+                int src = listedSurplus(A, c, i);
+                if (src == -1 && live <= SCAN_LIMIT) {
+                    src = nearestOf(i, sources, live);
+                } else if (src == -1) {
+                    if (tree == null) {
+                        tree = geo.subset();
+                        for (int q = 0; q < live; q++) tree.add(sources[q]);
+                    }
+                    src = tree.nearest(i);
+                }
+                double km = geo.km(src, i);
+                weighted += need * km;
+                nearest = Math.min(nearest, km);
+            }
+            if (surplusSum >= needSum) {
+                movedTotal += needSum;
+                distSum += weighted;
+            } else {
+                movedTotal += surplusSum;
+                distSum += surplusSum * nearest;
             }
         }
-        return d;
+        return distSum / Math.max(eps, movedTotal);
     }
 
-    private static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
-        double R = 6371.0088; // km
-        double dLat = Math.toRadians(lat2 - lat1);
-        double dLon = Math.toRadians(lon2 - lon1);
-        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
-                + Math.cos(Math.toRadians(lat1))
-                        * Math.cos(Math.toRadians(lat2))
-                        * Math.sin(dLon / 2)
-                        * Math.sin(dLon / 2);
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-        return R * c;
+    private boolean validCurrent() {
+        if (currentPerClass == null || currentPerClass.length != C) return false;
+        for (int c = 0; c < C; c++) if (currentPerClass[c] == null || currentPerClass[c].length != Z) return false;
+        return true;
     }
 
     // Hazard-based SAR/EMS split ratios per barangay.
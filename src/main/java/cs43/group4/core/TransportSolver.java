@@ -0,0 +1,383 @@
+package cs43.group4.core;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+/**
+ * Minimum-distance transportation for one class of {@link FlowAllocator}'s optimal mode: routes
+ * the surplus left after self-flows to the deficits so that the total personnel-kilometres moved
+ * is as small as possible.
+ * <p>
+ * Primal network simplex over a sparse edge set, grown by column generation. Costs are whole
+ * millimetres ({@link GeoDistances#km} * 1e6, rounded), so potentials and reduced costs are exact.
+ * The basis is a spanning tree on the surpluses, the deficits and an artificial root; it starts
+ * as a star of artificial edges carrying every surplus to the root and every deficit from it, at
+ * a cost no real route reaches. Each pivot brings in the candidate edge with the most negative
+ * reduced cost within a block (block pricing), pushes flow round the cycle it closes and drops
+ * the last blocking edge, which keeps the tree strongly feasible so degenerate pivots cannot
+ * cycle.
+ * </p>
+ * <p>
+ * Each deficit starts with edges from its {@value #CANDIDATES} nearest surpluses. If the optimum
+ * over those still routes personnel through the root, the deficits involved are joined to the
+ * nearest surpluses doing the same. Once no real personnel pass through the root, the artificial
+ * edges are frozen at zero flow and cost, so the potentials become plain distances, and every
+ * missing edge is priced: a {@link GeoIndex.Subset} radius query per deficit finds the surpluses
+ * whose edge would have a negative reduced cost. Those edges are added and the simplex continues
+ * from the current basis; when none prices out, the plan is optimal over all surplus-deficit
+ * pairs without having built them. Not thread-safe; one instance per class.
+ * </p>
+ */
+final class TransportSolver {
+    static final int CANDIDATES = 16; // initial edges per deficit
+    static final int PRICED = 8; // edges added per deficit and pricing round
+    private static final double UNITS_PER_KM = 1e6; // integer costs in millimetres
+    private static final long MAX_UNITS = Math.round(Math.PI * GeoDistances.EARTH_RADIUS_KM * UNITS_PER_KM) + 1;
+
+    private final GeoDistances geo;
+    private final int[] sources, sinks; // barangays with surplus, with demand
+    private final int[] slot; // source position by barangay, -1 if none
+    private final int S, D, root; // nodes: sources 0..S-1, sinks S..S+D-1, then the root
+    private final long artificialCost; // per unit through the root until frozen
+    private boolean frozen; // artificial edges held at zero flow and cost
+
+    // Edges: 0..root-1 artificial (node i's edge to or from the root), then source -> sink edges
+    private int m;
+    private int[] tail, head;
+    private long[] cost, flow;
+    private final HashSet<Long> present = new HashSet<>();
+
+    // Spanning tree: parent, edge to the parent, depth, potential, children as sibling lists
+    private final int[] parent, pred, depth, firstChild, nextSibling, prevSibling, stack;
+    private final long[] pi;
+    private int next; // where block pricing resumes
+    private final int[] foundSource = new int[PRICED];
+    private final long[] foundReduced = new long[PRICED];
+    private int found;
+
+    private TransportSolver(GeoDistances geo, long[] surplus, long[] deficit) {
+        this.geo = geo;
+        int Z = surplus.length;
+        int nS = 0, nD = 0;
+        long totalS = 0L, totalD = 0L;
+        for (int i = 0; i < Z; i++) {
+            if (surplus[i] > 0L) {
+                nS++;
+                totalS += surplus[i];
+            }
+            if (deficit[i] > 0L) {
+                nD++;
+                totalD += deficit[i];
+            }
+        }
+        if (totalS != totalD) {
+            throw new IllegalArgumentException("Surplus " + totalS + " and deficit " + totalD + " differ");
+        }
+        this.S = nS;
+        this.D = nD;
+        this.root = S + D;
+        this.sources = new int[S];
+        this.sinks = new int[D];
+        this.slot = new int[Z];
+        this.artificialCost = (root + 1) * MAX_UNITS;
+
+        int capacity = root + CANDIDATES * D + 16;
+        this.tail = new int[capacity];
+        this.head = new int[capacity];
+        this.cost = new long[capacity];
+        this.flow = new long[capacity];
+        int n = root + 1;
+        this.parent = new int[n];
+        this.pred = new int[n];
+        this.depth = new int[n];
+        this.firstChild = new int[n];
+        this.nextSibling = new int[n];
+        this.prevSibling = new int[n];
+        this.stack = new int[n];
+        this.pi = new long[n];
+        Arrays.fill(firstChild, -1);
+        parent[root] = -1;
+        pred[root] = -1;
+
+        nS = 0;
+        nD = 0;
+        for (int i = 0; i < Z; i++) {
+            slot[i] = -1;
+            if (surplus[i] > 0L) {
+                slot[i] = nS;
+                sources[nS] = i;
+                hang(nS, nS, root, surplus[i]);
+                pi[nS] = -artificialCost;
+                nS++;
+            }
+            if (deficit[i] > 0L) {
+                sinks[nD] = i;
+                hang(S + nD, root, S + nD, deficit[i]);
+                pi[S + nD] = artificialCost;
+                nD++;
+            }
+        }
+        this.m = root;
+    }
+
+    // Artificial edge of node x (from, to) carrying amount, with x a child of the root
+    private void hang(int x, int from, int to, long amount) {
+        tail[x] = from;
+        head[x] = to;
+        cost[x] = artificialCost;
+        flow[x] = amount;
+        parent[x] = root;
+        pred[x] = x;
+        depth[x] = 1;
+        addChild(root, x);
+    }
+
+    /**
+     * Adds the minimum-distance transfers from surplus to deficit (both indexed by barangay, with
+     * equal totals) to flows as class c. Surplus and deficit are left unchanged.
+     *
+     * @throws IllegalArgumentException if the totals differ
+     */
+    static void solve(GeoDistances geo, long[] surplus, long[] deficit, FlowAllocator.Builder flows, int c) {
+        TransportSolver solver = new TransportSolver(geo, surplus, deficit);
+        if (solver.S == 0) return;
+        solver.run();
+        for (int e = solver.root; e < solver.m; e++) {
+            flows.add(c, solver.sources[solver.tail[e]], solver.sinks[solver.head[e] - solver.S], solver.flow[e]);
+        }
+    }
+
+    private void run() {
+        GeoIndex.Subset all = geo.subset();
+        for (int b : sources) all.add(b);
+        for (int v = 0; v < D; v++) {
+            for (int b : all.nearest(sinks[v], CANDIDATES)) join(slot[b], v);
+        }
+        while (true) {
+            int e;
+            while ((e = entering()) >= 0) pivot(e);
+            if (!frozen) {
+                if (connect()) continue;
+                freeze();
+            } else if (!price(all)) {
+                return;
+            }
+        }
+    }
+
+    private boolean join(int u, int v) {
+        if (!present.add(((long) u << 32) | v)) return false;
+        if (m == tail.length) {
+            tail = Arrays.copyOf(tail, 2 * m);
+            head = Arrays.copyOf(head, 2 * m);
+            cost = Arrays.copyOf(cost, 2 * m);
+            flow = Arrays.copyOf(flow, 2 * m);
+        }
+        tail[m] = u;
+        head[m] = S + v;
+        cost[m] = units(sources[u], sinks[v]);
+        m++;
+        return true;
+    }
+
+    private long units(int i, int j) {
+        return Math.round(geo.km(i, j) * UNITS_PER_KM);
+    }
+
+    private long reduced(int e) {
+        return cost[e] + pi[tail[e]] - pi[head[e]];
+    }
+
+    // ========== SIMPLEX ==========
+
+    // Block pricing over the source -> sink edges: the most negative reduced cost in the first
+    // block (of about sqrt(m) edges, from where the last search stopped) that has one; -1 if none
+    private int entering() {
+        int count = m - root;
+        if (count == 0) return -1;
+        int block = Math.max(16, (int) Math.sqrt(count));
+        int best = -1;
+        long bestReduced = 0L;
+        for (int k = 0, e = next; k < count; k++) {
+            if (e >= m || e < root) e = root;
+            long r = reduced(e);
+            if (r < bestReduced) {
+                bestReduced = r;
+                best = e;
+            }
+            e++;
+            if ((k + 1) % block == 0 && best >= 0) {
+                next = e;
+                return best;
+            }
+        }
+        next = best >= 0 ? best + 1 : next;
+        return best;
+    }
+
+    private void pivot(int e) {
+        int a = tail[e], b = head[e];
+        int x = a, y = b;
+        while (x != y) {
+            if (depth[x] >= depth[y]) {
+                x = parent[x];
+            } else {
+                y = parent[y];
+            }
+        }
+        int apex = x;
+
+        // Flow goes apex -> a, a -> b, b -> apex. Leave by the last blocking edge in that order:
+        // nearest a on the first part, nearest the apex on the last
+        long deltaA = Long.MAX_VALUE, deltaB = Long.MAX_VALUE;
+        int leaveA = -1, leaveB = -1;
+        for (x = a; x != apex; x = parent[x]) {
+            long room = room(pred[x], head[pred[x]] == x);
+            if (room < deltaA) {
+                deltaA = room;
+                leaveA = x;
+            }
+        }
+        for (x = b; x != apex; x = parent[x]) {
+            long room = room(pred[x], tail[pred[x]] == x);
+            if (room <= deltaB) {
+                deltaB = room;
+                leaveB = x;
+            }
+        }
+        boolean sideB = deltaB <= deltaA;
+        long delta = sideB ? deltaB : deltaA;
+        int q = sideB ? leaveB : leaveA;
+
+        if (delta > 0L) {
+            flow[e] += delta;
+            for (x = a; x != apex; x = parent[x]) flow[pred[x]] += head[pred[x]] == x ? delta : -delta;
+            for (x = b; x != apex; x = parent[x]) flow[pred[x]] += tail[pred[x]] == x ? delta : -delta;
+        }
+
+        // Re-hang q's subtree from the end of e inside it, shifting its potentials so that e's
+        // reduced cost becomes 0
+        int in = sideB ? b : a;
+        int out = sideB ? a : b;
+        long shift = sideB ? reduced(e) : -reduced(e);
+        removeChild(parent[q], q);
+        int cur = in, newParent = out, newPred = e;
+        while (true) {
+            int oldParent = parent[cur], oldPred = pred[cur];
+            if (cur != q) removeChild(oldParent, cur);
+            parent[cur] = newParent;
+            pred[cur] = newPred;
+            addChild(newParent, cur);
+            if (cur == q) break;
+            newParent = cur;
+            newPred = oldPred;
+            cur = oldParent;
+        }
+        int top = 0;
+        stack[top++] = in;
+        while (top > 0) {
+            int node = stack[--top];
+            depth[node] = depth[parent[node]] + 1;
+            pi[node] += shift;
+            for (int c = firstChild[node]; c >= 0; c = nextSibling[c]) stack[top++] = c;
+        }
+    }
+
+    // Flow an edge of the cycle can still take: up to any amount along it (artificial edges none
+    // once frozen), its current flow against it
+    private long room(int edge, boolean along) {
+        if (!along) return flow[edge];
+        return (frozen && edge < root) ? 0L : Long.MAX_VALUE;
+    }
+
+    private void addChild(int p, int c) {
+        int first = firstChild[p];
+        nextSibling[c] = first;
+        prevSibling[c] = -1;
+        if (first >= 0) prevSibling[first] = c;
+        firstChild[p] = c;
+    }
+
+    private void removeChild(int p, int c) {
+        int before = prevSibling[c], after = nextSibling[c];
+        if (before >= 0) {
+            nextSibling[before] = after;
+        } else {
+            firstChild[p] = after;
+        }
+        if (after >= 0) prevSibling[after] = before;
+    }
+
+    // ========== COLUMN GENERATION ==========
+
+    // Personnel still pass through the root: join each deficit doing so to its nearest surpluses
+    // doing the same (each such edge has a hugely negative reduced cost); false if none do
+    private boolean connect() {
+        GeoIndex.Subset rooted = geo.subset();
+        boolean any = false;
+        for (int u = 0; u < S; u++) {
+            if (flow[u] > 0L) {
+                rooted.add(sources[u]);
+                any = true;
+            }
+        }
+        if (!any) return false;
+        for (int v = 0; v < D; v++) {
+            if (flow[S + v] <= 0L) continue;
+            for (int b : rooted.nearest(sinks[v], CANDIDATES)) join(slot[b], v);
+        }
+        return true;
+    }
+
+    // Fixes the artificial edges at zero flow and cost and recomputes the potentials from the root
+    private void freeze() {
+        frozen = true;
+        for (int x = 0; x < root; x++) cost[x] = 0L;
+        int top = 0;
+        for (int c = firstChild[root]; c >= 0; c = nextSibling[c]) stack[top++] = c;
+        while (top > 0) {
+            int node = stack[--top];
+            int p = pred[node];
+            pi[node] = (tail[p] == node) ? pi[parent[node]] - cost[p] : pi[parent[node]] + cost[p];
+            for (int c = firstChild[node]; c >= 0; c = nextSibling[c]) stack[top++] = c;
+        }
+    }
+
+    // Adds the missing edges u -> v with cost + pi[u] - pi[v] < 0, up to PRICED per deficit (the
+    // most negative); true if any was added. With potentials as weights (km above the least
+    // source's), a k-d tree query per deficit visits only surpluses that can price out.
+    private boolean price(GeoIndex.Subset all) {
+        long low = Long.MAX_VALUE;
+        for (int u = 0; u < S; u++) low = Math.min(low, pi[u]);
+        double[] weight = new double[slot.length];
+        for (int u = 0; u < S; u++) weight[sources[u]] = (pi[u] - low) / UNITS_PER_KM;
+        all.weigh(weight);
+        int before = m;
+        for (int v = 0; v < D; v++) {
+            long reach = pi[S + v] - low;
+            if (reach <= 0L) continue;
+            int sink = v;
+            long piV = pi[S + v];
+            found = 0;
+            all.below(sinks[v], (reach + 1) / UNITS_PER_KM, b -> {
+                long r = units(b, sinks[sink]) + pi[slot[b]] - piV;
+                if (r < 0L) keep(slot[b], r);
+            });
+            for (int k = 0; k < found; k++) join(foundSource[k], v);
+        }
+        return m > before;
+    }
+
+    // Keeps the PRICED most negative reduced costs seen for the current deficit, in order
+    private void keep(int u, long r) {
+        if (found == PRICED && r >= foundReduced[PRICED - 1]) return;
+        int k = found < PRICED ? found++ : PRICED - 1;
+        while (k > 0 && foundReduced[k - 1] > r) {
+            foundReduced[k] = foundReduced[k - 1];
+            foundSource[k] = foundSource[k - 1];
+            k--;
+        }
+        foundReduced[k] = r;
+        foundSource[k] = u;
+    }
+}
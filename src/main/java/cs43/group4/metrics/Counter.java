@@ -0,0 +1,26 @@
+package cs43.group4.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Monotonic counter backed by a striped {@link LongAdder}, so concurrent increments from the
+ * optimizer hot path do not contend on a single cache line.
+ */
+public final class Counter {
+    private final LongAdder value = new LongAdder();
+
+    /** Adds one to the counter. */
+    public void increment() {
+        value.increment();
+    }
+
+    /** Adds a non-negative amount to the counter. */
+    public void add(long amount) {
+        if (amount > 0) value.add(amount);
+    }
+
+    /** Current total (a moment-in-time sum of all stripes). */
+    public long get() {
+        return value.sum();
+    }
+}
@@ -0,0 +1,95 @@
+package cs43.group4.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-bucket latency histogram. Observations are recorded in nanoseconds and exposed in
+ * seconds, following the Prometheus convention. Every bucket is a {@link LongAdder}, so
+ * recording an observation is a short bucket search plus two striped additions.
+ */
+public final class Histogram {
+
+    /** Buckets for sub-millisecond work (e.g. one objective evaluation): 1 µs .. 100 ms. */
+    public static final double[] MICRO_BUCKETS = {
+        1e-6, 2.5e-6, 5e-6, 1e-5, 2.5e-5, 5e-5, 1e-4, 2.5e-4, 5e-4, 1e-3, 1e-2, 1e-1
+    };
+
+    /** Buckets for request/generation style latencies: 100 µs .. 10 s. */
+    public static final double[] MILLI_BUCKETS = {
+        1e-4, 5e-4, 1e-3, 2.5e-3, 5e-3, 1e-2, 2.5e-2, 5e-2, 0.1, 0.25, 0.5, 1.0, 2.5, 5.0, 10.0
+    };
+
+    private final double[] upperBoundsSeconds;
+    private final long[] upperBoundsNanos;
+    private final LongAdder[] buckets; // non-cumulative; last slot is +Inf
+    private final LongAdder sumNanos = new LongAdder();
+
+    public Histogram(double[] upperBoundsSeconds) {
+        this.upperBoundsSeconds = upperBoundsSeconds.clone();
+        this.upperBoundsNanos = new long[upperBoundsSeconds.length];
+        for (int b = 0; b < upperBoundsSeconds.length; b++) {
+            upperBoundsNanos[b] = (long) Math.ceil(upperBoundsSeconds[b] * 1e9);
+        }
+        this.buckets = new LongAdder[upperBoundsSeconds.length + 1];
+        for (int b = 0; b < buckets.length; b++) buckets[b] = new LongAdder();
+    }
+
+    /** Records one observation given in nanoseconds. */
+    public void observeNanos(long nanos) {
+        if (nanos < 0) nanos = 0;
+        int b = 0;
+        while (b < upperBoundsNanos.length && nanos > upperBoundsNanos[b]) b++;
+        buckets[b].increment();
+        sumNanos.add(nanos);
+    }
+
+    /** Total number of observations. */
+    public long count() {
+        long n = 0;
+        for (LongAdder bucket : buckets) n += bucket.sum();
+        return n;
+    }
+
+    /**
+     * Appends the _bucket/_sum/_count series of this histogram in Prometheus text format.
+     *
+     * @param out    destination buffer
+     * @param name   metric family name (without suffix)
+     * @param labels pre-rendered label pairs without braces (e.g. {@code method="GET"}), or empty
+     */
+    void writeTo(StringBuilder out, String name, String labels) {
+        String sep = labels.isEmpty() ? "" : labels + ",";
+        long cumulative = 0;
+        for (int b = 0; b < upperBoundsSeconds.length; b++) {
+            cumulative += buckets[b].sum();
+            out.append(name)
+                    .append("_bucket{")
+                    .append(sep)
+                    .append("le=\"")
+                    .append(upperBoundsSeconds[b])
+                    .append("\"} ")
+                    .append(cumulative)
+                    .append('\n');
+        }
+        cumulative += buckets[upperBoundsSeconds.length].sum();
+        out.append(name)
+                .append("_bucket{")
+                .append(sep)
+                .append("le=\"+Inf\"} ")
+                .append(cumulative)
+                .append('\n');
+        String braces = labels.isEmpty() ? "" : "{" + labels + "}";
+        out.append(name)
+                .append("_sum")
+                .append(braces)
+                .append(' ')
+                .append(sumNanos.sum() / 1e9)
+                .append('\n');
+        out.append(name)
+                .append("_count")
+                .append(braces)
+                .append(' ')
+                .append(cumulative)
+                .append('\n');
+    }
+}
@@ -0,0 +1,210 @@
+package cs43.group4.metrics;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Process-wide metrics registry rendered in the Prometheus text exposition format (v0.0.4).
+ * <p>
+ * Like {@link cs43.group4.utils.Log}, this is a static singleton so the optimizers and the
+ * objective can record measurements without having a registry threaded through their
+ * constructors. Counters and histograms are {@link java.util.concurrent.atomic.LongAdder}
+ * based; gauges are sampled lazily when {@link #scrape()} is called.
+ * </p>
+ */
+public final class Metrics {
+
+    private static final Map<String, Family> FAMILIES = new ConcurrentSkipListMap<>();
+
+    // ========== OPTIMIZER ==========
+
+    public static final Counter OBJECTIVE_EVALUATIONS =
+            counter("thesis_objective_evaluations_total", "Number of ThesisObjective.evaluate calls", "");
+
+    public static final Histogram OBJECTIVE_EVALUATE_SECONDS = histogram(
+            "thesis_objective_evaluate_seconds", "Latency of ThesisObjective.evaluate", Histogram.MICRO_BUCKETS, "");
+
+    public static final Counter FEASIBILITY_REJECTIONS = counter(
+            "thesis_feasibility_rejections_total",
+            "Candidates rejected by DomainConstraintEvaluator (EFA objective filtering)",
+            "");
+
+    public static final Counter EFA_REINITIALIZATIONS = counter(
+            "thesis_efa_reinitializations_total", "Fireflies reinitialized by EFA Hamming diversity control", "");
+
+    private static final String GENERATION_SECONDS = "thesis_generation_duration_seconds";
+    private static final String HTTP_SECONDS = "thesis_http_request_duration_seconds";
+
+    // JVM allocation-rate sampling state (guarded by Metrics.class)
+    private static long lastAllocatedBytes = -1L;
+    private static long lastAllocationSampleNanos = 0L;
+
+    static {
+        registerJvmMetrics();
+    }
+
+    private Metrics() {
+        throw new UnsupportedOperationException("Metrics is a static registry and cannot be instantiated");
+    }
+
+    /** Duration histogram of one optimizer generation, labelled by algorithm ("fa"/"efa"). */
+    public static Histogram generationDuration(String algorithm) {
+        return histogram(
+                GENERATION_SECONDS,
+                "Wall time of one optimizer generation",
+                Histogram.MILLI_BUCKETS,
+                "algorithm=\"" + escape(algorithm) + "\"");
+    }
+
+    /** Records a completed HTTP request against its route template (e.g. /fa/status). */
+    public static void recordHttpRequest(String method, String route, int status, long nanos) {
+        String labels = "method=\"" + escape(method) + "\",route=\"" + escape(route) + "\",status=\"" + status + "\"";
+        histogram(HTTP_SECONDS, "Javalin request latency per route", Histogram.MILLI_BUCKETS, labels)
+                .observeNanos(nanos);
+    }
+
+    // ========== REGISTRATION ==========
+
+    /** Returns the counter for the given name/labels, creating it on first use. */
+    public static Counter counter(String name, String help, String labels) {
+        return (Counter) family(name, help, "counter").series.computeIfAbsent(labels, k -> new Counter());
+    }
+
+    /** Returns the histogram for the given name/labels, creating it on first use. */
+    public static Histogram histogram(String name, String help, double[] buckets, String labels) {
+        return (Histogram) family(name, help, "histogram").series.computeIfAbsent(labels, k -> new Histogram(buckets));
+    }
+
+    /** Registers (or replaces) a gauge whose value is sampled at scrape time. */
+    public static void gauge(String name, String help, String labels, DoubleSupplier supplier) {
+        family(name, help, "gauge").series.put(labels, supplier);
+    }
+
+    /** Registers (or replaces) a counter whose monotonic value is read from elsewhere at scrape time. */
+    public static void counterFunction(String name, String help, String labels, DoubleSupplier supplier) {
+        family(name, help, "counter").series.put(labels, supplier);
+    }
+
+    private static Family family(String name, String help, String type) {
+        Family f = FAMILIES.computeIfAbsent(name, n -> new Family(help, type));
+        if (!f.type.equals(type)) {
+            throw new IllegalArgumentException("Metric " + name + " already registered as " + f.type);
+        }
+        return f;
+    }
+
+    // ========== EXPOSITION ==========
+
+    /** Renders every registered metric in Prometheus text format. */
+    public static String scrape() {
+        StringBuilder out = new StringBuilder(4096);
+        for (Map.Entry<String, Family> e : FAMILIES.entrySet()) {
+            String name = e.getKey();
+            Family f = e.getValue();
+            out.append("# HELP ").append(name).append(' ').append(f.help).append('\n');
+            out.append("# TYPE ").append(name).append(' ').append(f.type).append('\n');
+            for (Map.Entry<String, Object> s : f.series.entrySet()) {
+                String labels = s.getKey();
+                Object collector = s.getValue();
+                if (collector instanceof Histogram) {
+                    ((Histogram) collector).writeTo(out, name, labels);
+                    continue;
+                }
+                double value;
+                if (collector instanceof Counter) {
+                    value = ((Counter) collector).get();
+                } else {
+                    try {
+                        value = ((DoubleSupplier) collector).getAsDouble();
+                    } catch (RuntimeException ex) {
+                        continue; // a failing gauge must not break the whole scrape
+                    }
+                }
+                out.append(name);
+                if (!labels.isEmpty()) out.append('{').append(labels).append('}');
+                out.append(' ').append(formatValue(value)).append('\n');
+            }
+        }
+        return out.toString();
+    }
+
+    private static String formatValue(double v) {
+        if (Double.isNaN(v)) return "NaN";
+        if (Double.isInfinite(v)) return v > 0 ? "+Inf" : "-Inf";
+        if (v == Math.rint(v) && Math.abs(v) < 1e15) return Long.toString((long) v);
+        return Double.toString(v);
+    }
+
+    private static String escape(String s) {
+        if (s == null) return "";
+        return s.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    // ========== JVM ==========
+
+    private static void registerJvmMetrics() {
+        var memory = ManagementFactory.getMemoryMXBean();
+        gauge("jvm_memory_heap_used_bytes", "Used heap memory", "", () -> memory.getHeapMemoryUsage()
+                .getUsed());
+        gauge("jvm_memory_heap_committed_bytes", "Committed heap memory", "", () -> memory.getHeapMemoryUsage()
+                .getCommitted());
+        gauge("jvm_memory_heap_max_bytes", "Maximum heap memory", "", () -> memory.getHeapMemoryUsage()
+                .getMax());
+
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            String labels = "gc=\"" + escape(gc.getName()) + "\"";
+            counterFunction(
+                    "jvm_gc_collections_total", "Garbage collections per collector", labels, gc::getCollectionCount);
+            counterFunction(
+                    "jvm_gc_collection_seconds_total",
+                    "Time spent in garbage collection per collector",
+                    labels,
+                    () -> gc.getCollectionTime() / 1000.0);
+        }
+
+        gauge(
+                "jvm_allocation_rate_bytes_per_second",
+                "Heap allocation rate of live threads since the previous scrape",
+                "",
+                Metrics::sampleAllocationRate);
+        gauge("jvm_threads_live", "Live JVM threads", "", () -> ManagementFactory.getThreadMXBean()
+                .getThreadCount());
+    }
+
+    // Sum of per-thread allocation counters of the live threads. Threads that exit between two
+    // scrapes drop out of the sum, so negative deltas are clamped to zero.
+    private static synchronized double sampleAllocationRate() {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)) return Double.NaN;
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threads.isThreadAllocatedMemoryEnabled()) return Double.NaN;
+
+        long total = 0L;
+        for (long bytes : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            if (bytes > 0) total += bytes;
+        }
+        long now = System.nanoTime();
+        double rate = 0.0;
+        if (lastAllocatedBytes >= 0 && now > lastAllocationSampleNanos) {
+            long delta = Math.max(0L, total - lastAllocatedBytes);
+            rate = delta / ((now - lastAllocationSampleNanos) / 1e9);
+        }
+        lastAllocatedBytes = total;
+        lastAllocationSampleNanos = now;
+        return rate;
+    }
+
+    private static final class Family {
+        final String help;
+        final String type;
+        final Map<String, Object> series = new ConcurrentHashMap<>();
+
+        Family(String help, String type) {
+            this.help = help;
+            this.type = type;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package cs43.group4.parameters;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Body of /fa/reoptimize and /efa/reoptimize: new values for some barangays of the last single
+ * run's dataset and the length of the refine phase. Fields left null keep their current value.
+ */
+public class DataDelta {
+    private static final Set<String> HAZARD_LEVELS = Set.of("low", "medium", "high");
+
+    public List<BarangayUpdate> changes = null;
+    public int generations = 30; // refine generations, starting from the previous final population
+
+    public static class BarangayUpdate {
+        public String id = null; // barangay id as in barangays.csv
+        public String hazardLevel = null; // Low | Medium | High
+        public Double floodDepthFt = null;
+        public Double population = null;
+        public Double vulnerabilityIndex = null;
+        public Double totalPersonnel = null;
+    }
+
+    /**
+     * Validate the delta (ids are checked against the dataset when it is applied).
+     * @throws IllegalArgumentException if any value is invalid
+     */
+    public void validate() {
+        if (changes == null || changes.isEmpty()) throw new IllegalArgumentException("changes must not be empty");
+        if (generations <= 0) throw new IllegalArgumentException("Invalid generations: " + generations);
+        if (generations > 1000) throw new IllegalArgumentException("generations too large: " + generations);
+
+        Set<String> seen = new HashSet<>();
+        for (BarangayUpdate u : changes) {
+            if (u == null || u.id == null || u.id.isBlank())
+                throw new IllegalArgumentException("Every change needs a barangay id");
+            if (!seen.add(u.id)) throw new IllegalArgumentException("Duplicate change for barangay " + u.id);
+            if (u.hazardLevel != null
+                    && !HAZARD_LEVELS.contains(u.hazardLevel.trim().toLowerCase()))
+                throw new IllegalArgumentException("Invalid hazardLevel for " + u.id + ": " + u.hazardLevel);
+            if (u.floodDepthFt != null && !(u.floodDepthFt >= 0))
+                throw new IllegalArgumentException("Invalid floodDepthFt for " + u.id + ": " + u.floodDepthFt);
+            if (u.population != null && !(u.population >= 0))
+                throw new IllegalArgumentException("Invalid population for " + u.id + ": " + u.population);
+            if (u.vulnerabilityIndex != null && !(u.vulnerabilityIndex >= 0))
+                throw new IllegalArgumentException(
+                        "Invalid vulnerabilityIndex for " + u.id + ": " + u.vulnerabilityIndex);
+            if (u.totalPersonnel != null && !(u.totalPersonnel >= 0))
+                throw new IllegalArgumentException("Invalid totalPersonnel for " + u.id + ": " + u.totalPersonnel);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "DataDelta {changes = " + (changes == null ? 0 : changes.size()) + ", generations = " + generations
+                + "}";
+    }
+}
@@ -8,6 +8,17 @@ public class EFAParams {
     public double beta0 = 1.0;
     public double betaMin = 0.2;
     public double gamma = 1.0;
+    public int checkpointEvery = 25; // single runs: generations between checkpoints, 0 disables
+    public Long seed = null; // fixes the random stream (run r of a batch uses seed + r - 1); null = random
+    public WarmStart warmStart = null; // seed part of the initial population; null = uniform random
+    public boolean memoize = false; // cache objective values per integer-rounded solution
+    public String encoding = "raw"; // raw: one count per barangay and class; simplex: class shares
+    public int topK = 0; // 0: each firefly is attracted to every brighter one; k: to the k ranked just above it
+    public boolean aggregateSteps = false; // one combined move per firefly and generation instead of one per pair
+    public boolean fastExp = false; // attractiveness through the FastExp table (relative error < 6e-8)
+    public String distance = "off"; // off, exact, or multifidelity (lower-bound screening, exact at the end)
+    public int exactGenerations = 30; // multifidelity: final generations evaluated exactly throughout
+    public String flowSolver = "greedy"; // greedy (nearest surplus first) or optimal (fewest total km)
 
     /**
      * Validate the algorithm parameters.
@@ -17,7 +28,11 @@ public class EFAParams {
         if (generations < 10) throw new IllegalArgumentException("Invalid generations: " + generations);
         if (generations > 500) throw new IllegalArgumentException("Generations too large: " + generations);
         if (numFireflies < 10) throw new IllegalArgumentException("Invalid numFireflies: " + numFireflies);
-        if (numFireflies > 150) throw new IllegalArgumentException("numFireflies too large: " + numFireflies);
+        if (topK < 0) throw new IllegalArgumentException("Invalid topK: " + topK);
+        if (topK > 150) throw new IllegalArgumentException("topK too large: " + topK);
+        // The full pairwise loop is O(numFireflies^2) per generation; top-k is O(numFireflies * topK)
+        if (numFireflies > (topK > 0 ? 5000 : 150))
+            throw new IllegalArgumentException("numFireflies too large: " + numFireflies);
         if (alpha0 < 0.01) throw new IllegalArgumentException("Invalid alpha0: " + alpha0);
         if (alpha0 > 1) throw new IllegalArgumentException("alpha0 too large: " + alpha0);
         if (alphaFinal < 0.01) throw new IllegalArgumentException("Invalid alphaFinal: " + alphaFinal);
@@ -29,6 +44,18 @@ public class EFAParams {
         if (betaMin > beta0) throw new IllegalArgumentException("betaMin cannot be greater than beta0");
         if (gamma < 0.1) throw new IllegalArgumentException("Invalid gamma: " + gamma);
         if (gamma > 10) throw new IllegalArgumentException("gamma too large: " + gamma);
+        if (checkpointEvery < 0) throw new IllegalArgumentException("Invalid checkpointEvery: " + checkpointEvery);
+        if (checkpointEvery > 500) throw new IllegalArgumentException("checkpointEvery too large: " + checkpointEvery);
+        if (warmStart != null) warmStart.validate();
+        if (!"raw".equals(encoding) && !"simplex".equals(encoding))
+            throw new IllegalArgumentException("Invalid encoding: " + encoding);
+        if (!"off".equals(distance) && !"exact".equals(distance) && !"multifidelity".equals(distance))
+            throw new IllegalArgumentException("Invalid distance: " + distance);
+        if (exactGenerations < 0) throw new IllegalArgumentException("Invalid exactGenerations: " + exactGenerations);
+        if (exactGenerations > 500)
+            throw new IllegalArgumentException("exactGenerations too large: " + exactGenerations);
+        if (!"greedy".equals(flowSolver) && !"optimal".equals(flowSolver))
+            throw new IllegalArgumentException("Invalid flowSolver: " + flowSolver);
     }
 
     @Override
@@ -40,7 +67,15 @@ public class EFAParams {
                 + alphaFinal + ",\n" + "  beta0 = "
                 + beta0 + ",\n" + "  betaMin = "
                 + betaMin + ",\n" + "  gamma = "
-                + gamma + "\n" + "}";
+                + gamma + ",\n" + "  checkpointEvery = "
+                + checkpointEvery + ",\n" + "  seed = "
+                + seed + ",\n" + "  warmStart = "
+                + warmStart + ",\n" + "  memoize = " + memoize + ",\n" + "  encoding = " + encoding + ",\n"
+                + "  topK = " + topK + ",\n" + "  aggregateSteps = " + aggregateSteps + ",\n"
+                + "  fastExp = " + fastExp + ",\n"
+                + "  distance = " + distance + ",\n"
+                + "  exactGenerations = " + exactGenerations + ",\n"
+                + "  flowSolver = " + flowSolver + "\n" + "}";
     }
 }
 
@@ -0,0 +1,42 @@
+package cs43.group4.parameters;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Warm-start option for FAParams/EFAParams: seeds part of the initial population from known
+ * allocations instead of drawing every firefly uniformly.
+ */
+public class WarmStart {
+    private static final Set<String> SOURCES = Set.of("current", "run", "matrix");
+
+    public String source = "current"; // "current" (sar_current/ems_current) | "run" (stored job) | "matrix"
+    public String jobId = null; // source = run: a finished single run in the run store
+    public List<double[][]> allocations = null; // source = matrix: one or more [Z][C] allocations
+    public double fraction = 0.5; // share of the population seeded from the starts
+    public double perturbation = 0.05; // noise std. dev. relative to each variable's range
+
+    /**
+     * Validate the warm-start options (shapes are checked against the dataset when the run starts).
+     * @throws IllegalArgumentException if any option is invalid
+     */
+    public void validate() {
+        if (source == null || !SOURCES.contains(source))
+            throw new IllegalArgumentException("warmStart.source must be current, run or matrix, got " + source);
+        if (source.equals("run") && (jobId == null || jobId.isBlank()))
+            throw new IllegalArgumentException("warmStart.jobId is required for source run");
+        if (source.equals("matrix") && (allocations == null || allocations.isEmpty()))
+            throw new IllegalArgumentException("warmStart.allocations is required for source matrix");
+        if (fraction <= 0) throw new IllegalArgumentException("Invalid warmStart.fraction: " + fraction);
+        if (fraction > 1) throw new IllegalArgumentException("warmStart.fraction too large: " + fraction);
+        if (perturbation < 0) throw new IllegalArgumentException("Invalid warmStart.perturbation: " + perturbation);
+        if (perturbation > 1) throw new IllegalArgumentException("warmStart.perturbation too large: " + perturbation);
+    }
+
+    @Override
+    public String toString() {
+        return "WarmStart {source = " + source + (jobId != null ? ", jobId = " + jobId : "")
+                + (allocations != null ? ", allocations = " + allocations.size() : "") + ", fraction = " + fraction
+                + ", perturbation = " + perturbation + "}";
+    }
+}
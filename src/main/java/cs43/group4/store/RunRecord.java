@@ -0,0 +1,30 @@
+package cs43.group4.store;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One finished job as persisted by {@link RunStore}. The key fields and {@code summary} are kept
+ * uncompressed in the entry header so listings never inflate the body; {@code params} and the
+ * per-run detail (iterations, allocations, flows, validation, objectives) are stored deflated.
+ * <p>
+ * Detail fields are typed {@code Object}: they are written from the runners' DTOs and read back as
+ * plain JSON maps/lists.
+ * </p>
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RunRecord {
+    public String jobId;
+    public String algorithm; // "fa" | "efa"
+    public String mode; // "single" | "multiple"
+    public String datasetHash;
+    public String paramsHash;
+    public long createdAt; // epoch millis
+    public Object summary; // same map as GET /fa/results
+
+    public Object params;
+    public Object iterations; // single runs only
+    public Object allocations; // single runs only
+    public Object flows; // single runs only
+    public Object validation;
+    public Object objectives;
+}
@@ -0,0 +1,530 @@
+package cs43.group4.store;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import cs43.group4.core.DataLoader;
+import cs43.group4.utils.Log;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Embedded append-only store for finished runs, so results survive restarts and are not replaced
+ * by the next run.
+ * <p>
+ * Records are appended to segment files ({@code <dir>/<id>.seg}, rolled at {@code segmentBytes}).
+ * Each entry is framed as:
+ * </p>
+ * <pre>
+ * int    length of everything after this field
+ * int    CRC32 of everything after this field
+ * int    header length
+ * header UTF jobId, UTF algorithm, UTF mode, UTF datasetHash, UTF paramsHash, long createdAt,
+ *        int + bytes summary JSON (UTF-8)
+ * body   deflated JSON of params and the per-run detail
+ * </pre>
+ * <p>
+ * The index (jobId → segment/offset, plus dataset hash and params hash for filtering) lives in
+ * memory and is rebuilt by scanning the segments on open; a torn entry at the end of the last
+ * segment (crash mid-write) is truncated away. Appends and compaction run on one background
+ * thread, so the optimizer thread only builds the record. Reads go through read-only memory
+ * mappings of the segment files. Compaction rewrites segments without the runs older than the
+ * retention period.
+ * </p>
+ */
+public class RunStore implements AutoCloseable {
+    private static final String SUFFIX = ".seg";
+    private static final ObjectMapper MAPPER =
+            new ObjectMapper().configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+
+    /** Index entry: where a run lives plus the fields runs can be looked up by. */
+    public record Entry(
+            String jobId,
+            String algorithm,
+            String mode,
+            String datasetHash,
+            String paramsHash,
+            long createdAt,
+            int segment,
+            long offset,
+            int length) {}
+
+    private final Path dir;
+    private final long segmentBytes;
+    private final Duration retention;
+
+    private final Map<String, Entry> index = new ConcurrentHashMap<>();
+    private final Map<Integer, MappedByteBuffer> mapped = new HashMap<>(); // guarded by this
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "run-store-writer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // Active segment, only touched on the writer thread (and in open/close)
+    private int activeSegment;
+    private FileChannel active;
+
+    private RunStore(Path dir, long segmentBytes, Duration retention) {
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+        this.retention = retention;
+    }
+
+    /** Opens (or creates) a store in {@code dir}, rebuilding the index from its segments. */
+    public static RunStore open(Path dir, long segmentBytes, Duration retention) throws IOException {
+        // Segments are read through a single mapping each, which is limited to 2 GB
+        if (segmentBytes < 1024 || segmentBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("segmentBytes out of range: " + segmentBytes);
+        }
+        Files.createDirectories(dir);
+        RunStore store = new RunStore(dir, segmentBytes, retention);
+        store.recover();
+        return store;
+    }
+
+    // ========== WRITES ==========
+
+    /** Queues a record for appending; the future completes once it is durable and indexed. */
+    public CompletableFuture<Entry> append(RunRecord record) {
+        return CompletableFuture.supplyAsync(
+                () -> {
+                    try {
+                        return write(record);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                },
+                writer);
+    }
+
+    private Entry write(RunRecord record) throws IOException {
+        if (record.paramsHash == null) record.paramsHash = hashParams(record.params);
+        byte[] frame = encode(record);
+        if (active.size() > 0 && active.size() + frame.length > segmentBytes) roll();
+
+        long offset = active.size();
+        ByteBuffer buf = ByteBuffer.wrap(frame);
+        while (buf.hasRemaining()) active.write(buf, offset + buf.position());
+        active.force(false);
+
+        Entry entry = new Entry(
+                record.jobId,
+                record.algorithm,
+                record.mode,
+                record.datasetHash,
+                record.paramsHash,
+                record.createdAt,
+                activeSegment,
+                offset,
+                frame.length);
+        index.put(entry.jobId, entry);
+        Log.debug("Stored run %s in segment %d at %d (%d bytes)", entry.jobId, activeSegment, offset, frame.length);
+        return entry;
+    }
+
+    private void roll() throws IOException {
+        active.close();
+        activeSegment++;
+        active = openSegment(activeSegment);
+    }
+
+    private FileChannel openSegment(int id) throws IOException {
+        return FileChannel.open(
+                segmentPath(id), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    // ========== READS ==========
+
+    /** Index entries matching the filters (null = any), newest first. */
+    public List<Entry> find(String algorithm, String datasetHash, String paramsHash) {
+        List<Entry> out = new ArrayList<>();
+        for (Entry e : index.values()) {
+            if (algorithm != null && !algorithm.equals(e.algorithm)) continue;
+            if (datasetHash != null && !datasetHash.equals(e.datasetHash)) continue;
+            if (paramsHash != null && !paramsHash.equals(e.paramsHash)) continue;
+            out.add(e);
+        }
+        out.sort(Comparator.comparingLong(Entry::createdAt).reversed());
+        return out;
+    }
+
+    /** Key fields and summary of a run, without inflating its body; null if unknown. */
+    public RunRecord getSummary(String jobId) throws IOException {
+        byte[] frame = readFrame(jobId);
+        return frame == null ? null : decode(frame, false);
+    }
+
+    /** The full record of a run; null if unknown. */
+    public RunRecord get(String jobId) throws IOException {
+        byte[] frame = readFrame(jobId);
+        return frame == null ? null : decode(frame, true);
+    }
+
+    /**
+     * Allocation A[Z][C] of a stored single run, with rows matched to {@code data} by barangay id
+     * and columns by class name; null if the job is unknown.
+     * @throws IllegalArgumentException if the run has no allocations or does not match the dataset
+     */
+    public double[][] getAllocationMatrix(String jobId, DataLoader.Data data) throws IOException {
+        RunRecord record = get(jobId);
+        if (record == null) return null;
+        if (!(record.allocations instanceof List<?> rows) || rows.isEmpty()) {
+            throw new IllegalArgumentException("Run " + jobId + " has no allocations (multiple runs keep none)");
+        }
+
+        Map<String, Integer> row = new HashMap<>();
+        for (int i = 0; i < data.Z; i++) row.put(data.barangayIds[i], i);
+        double[][] A = new double[data.Z][data.C];
+        int matched = 0;
+        for (Object o : rows) {
+            Map<?, ?> allocation = (Map<?, ?>) o;
+            Integer i = row.get(String.valueOf(allocation.get("id")));
+            if (i == null) continue;
+            Map<?, ?> personnel = (Map<?, ?>) allocation.get("personnel");
+            for (int c = 0; c < data.C; c++) {
+                if (personnel != null && personnel.get(data.classNames[c]) instanceof Number n) {
+                    A[i][c] = n.doubleValue();
+                }
+            }
+            matched++;
+        }
+        if (matched != data.Z) {
+            throw new IllegalArgumentException(
+                    "Run " + jobId + " matches " + matched + " of " + data.Z + " barangays in the dataset");
+        }
+        return A;
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    private byte[] readFrame(String jobId) throws IOException {
+        ByteBuffer view;
+        Entry e;
+        // Entry and mapping are taken together so compaction cannot swap the file in between
+        synchronized (this) {
+            e = index.get(jobId);
+            if (e == null) return null;
+            view = mapping(e.segment, e.offset + e.length).duplicate();
+        }
+        byte[] frame = new byte[e.length];
+        view.position((int) e.offset);
+        view.get(frame);
+        return frame;
+    }
+
+    /** Read-only mapping of a segment covering at least {@code minSize} bytes. */
+    private synchronized MappedByteBuffer mapping(int segment, long minSize) throws IOException {
+        MappedByteBuffer buf = mapped.get(segment);
+        if (buf == null || buf.capacity() < minSize) {
+            // The active segment grows; remap it once reads reach past the current mapping
+            try (FileChannel ch = FileChannel.open(segmentPath(segment), StandardOpenOption.READ)) {
+                buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            }
+            mapped.put(segment, buf);
+        }
+        return buf;
+    }
+
+    // ========== COMPACTION ==========
+
+    /**
+     * Drops runs older than the retention period by rewriting the segments that contain them
+     * (segments left empty are deleted). The active segment is sealed first so recent segments
+     * are covered too. Runs on the writer thread, after any queued appends.
+     */
+    public CompletableFuture<Map<String, Object>> compact() {
+        return CompletableFuture.supplyAsync(
+                () -> {
+                    try {
+                        return doCompact(System.currentTimeMillis() - retention.toMillis());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                },
+                writer);
+    }
+
+    private Map<String, Object> doCompact(long cutoff) throws IOException {
+        long bytesBefore = totalBytes();
+        int runsBefore = index.size();
+        if (active.size() > 0) roll();
+
+        Map<Integer, List<Entry>> bySegment = new TreeMap<>();
+        for (Entry e : index.values())
+            bySegment.computeIfAbsent(e.segment, k -> new ArrayList<>()).add(e);
+
+        int rewritten = 0;
+        for (Map.Entry<Integer, List<Entry>> seg : bySegment.entrySet()) {
+            int id = seg.getKey();
+            if (id == activeSegment) continue;
+            List<Entry> entries = seg.getValue();
+            if (entries.stream().noneMatch(e -> e.createdAt < cutoff)) continue;
+            entries.sort(Comparator.comparingLong(Entry::offset));
+            rewriteSegment(id, entries, cutoff);
+            rewritten++;
+        }
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("removedRuns", runsBefore - index.size());
+        stats.put("remainingRuns", index.size());
+        stats.put("segmentsRewritten", rewritten);
+        stats.put("bytesBefore", bytesBefore);
+        stats.put("bytesAfter", totalBytes());
+        Log.info("Run store compacted: %s", stats);
+        return stats;
+    }
+
+    private void rewriteSegment(int id, List<Entry> entries, long cutoff) throws IOException {
+        Path path = segmentPath(id);
+        Path tmp = path.resolveSibling(path.getFileName() + ".compact");
+        List<Entry> kept = new ArrayList<>();
+        try (FileChannel src = FileChannel.open(path, StandardOpenOption.READ);
+                FileChannel dst = FileChannel.open(
+                        tmp,
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING,
+                        StandardOpenOption.WRITE)) {
+            long pos = 0;
+            for (Entry e : entries) {
+                if (e.createdAt < cutoff) continue;
+                src.transferTo(e.offset, e.length, dst);
+                kept.add(new Entry(
+                        e.jobId, e.algorithm, e.mode, e.datasetHash, e.paramsHash, e.createdAt, id, pos, e.length));
+                pos += e.length;
+            }
+            dst.force(false);
+        }
+
+        synchronized (this) {
+            if (kept.isEmpty()) {
+                Files.delete(path);
+                Files.delete(tmp);
+            } else {
+                Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            mapped.remove(id);
+            for (Entry e : entries) index.remove(e.jobId);
+            for (Entry e : kept) index.put(e.jobId, e);
+        }
+    }
+
+    // ========== RECOVERY ==========
+
+    private void recover() throws IOException {
+        List<Integer> ids = segmentIds();
+        for (int i = 0; i < ids.size(); i++) {
+            scan(ids.get(i), i == ids.size() - 1);
+        }
+        activeSegment = ids.isEmpty() ? 1 : ids.get(ids.size() - 1);
+        active = openSegment(activeSegment);
+        Log.info("Run store opened at %s: %d runs in %d segments", dir, index.size(), Math.max(1, ids.size()));
+    }
+
+    private void scan(int id, boolean last) throws IOException {
+        try (FileChannel ch = FileChannel.open(segmentPath(id), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = ch.size();
+            ByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            long pos = 0;
+            while (pos + 8 <= size) {
+                int length = buf.getInt((int) pos);
+                int crc = buf.getInt((int) pos + 4);
+                if (length < 4 || pos + 8 + length > size) break;
+                byte[] frame = new byte[8 + length];
+                buf.get((int) pos, frame);
+                if (crc32(frame, 8, length) != crc) break;
+                RunRecord r = decode(frame, false);
+                index.put(
+                        r.jobId,
+                        new Entry(
+                                r.jobId,
+                                r.algorithm,
+                                r.mode,
+                                r.datasetHash,
+                                r.paramsHash,
+                                r.createdAt,
+                                id,
+                                pos,
+                                frame.length));
+                pos += frame.length;
+            }
+            if (pos < size) {
+                if (!last) throw new IOException("Corrupt entry in segment " + segmentPath(id) + " at " + pos);
+                Log.warn("Truncating torn entry at end of %s (%d bytes)", segmentPath(id), size - pos);
+                ch.truncate(pos);
+            }
+        }
+    }
+
+    private List<Integer> segmentIds() throws IOException {
+        List<Integer> ids = new ArrayList<>();
+        try (var files = Files.list(dir)) {
+            files.map(p -> p.getFileName().toString())
+                    .filter(n -> n.endsWith(SUFFIX))
+                    .forEach(n -> ids.add(Integer.parseInt(n.substring(0, n.length() - SUFFIX.length()))));
+        }
+        ids.sort(null);
+        return ids;
+    }
+
+    // ========== ENCODING ==========
+
+    private static byte[] encode(RunRecord r) throws IOException {
+        ByteArrayOutputStream header = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(header)) {
+            out.writeUTF(r.jobId);
+            out.writeUTF(r.algorithm);
+            out.writeUTF(r.mode);
+            out.writeUTF(r.datasetHash != null ? r.datasetHash : "");
+            out.writeUTF(r.paramsHash);
+            out.writeLong(r.createdAt);
+            byte[] summary = MAPPER.writeValueAsBytes(r.summary);
+            out.writeInt(summary.length);
+            out.write(summary);
+        }
+
+        Map<String, Object> detail = new LinkedHashMap<>();
+        detail.put("params", r.params);
+        detail.put("iterations", r.iterations);
+        detail.put("allocations", r.allocations);
+        detail.put("flows", r.flows);
+        detail.put("validation", r.validation);
+        detail.put("objectives", r.objectives);
+        ByteArrayOutputStream body = new ByteArrayOutputStream(4096);
+        try (DeflaterOutputStream out = new DeflaterOutputStream(body)) {
+            MAPPER.writeValue(out, detail);
+        }
+
+        int length = 4 + header.size() + body.size();
+        ByteBuffer frame = ByteBuffer.allocate(8 + length);
+        frame.putInt(length);
+        frame.putInt(0); // CRC placeholder
+        frame.putInt(header.size());
+        frame.put(header.toByteArray());
+        frame.put(body.toByteArray());
+        byte[] bytes = frame.array();
+        ByteBuffer.wrap(bytes).putInt(4, crc32(bytes, 8, length));
+        return bytes;
+    }
+
+    private static RunRecord decode(byte[] frame, boolean withBody) throws IOException {
+        ByteBuffer buf = ByteBuffer.wrap(frame);
+        int length = buf.getInt(0);
+        int headerLength = buf.getInt(8);
+        RunRecord r = new RunRecord();
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(frame, 12, headerLength))) {
+            r.jobId = in.readUTF();
+            r.algorithm = in.readUTF();
+            r.mode = in.readUTF();
+            r.datasetHash = in.readUTF();
+            r.paramsHash = in.readUTF();
+            r.createdAt = in.readLong();
+            byte[] summary = new byte[in.readInt()];
+            in.readFully(summary);
+            r.summary = MAPPER.readValue(summary, Object.class);
+        }
+        if (withBody) {
+            if (crc32(frame, 8, length) != buf.getInt(4)) {
+                throw new IOException("Checksum mismatch for run " + r.jobId);
+            }
+            int bodyStart = 12 + headerLength;
+            try (InputStream in =
+                    new InflaterInputStream(new ByteArrayInputStream(frame, bodyStart, frame.length - bodyStart))) {
+                Map<String, Object> detail = MAPPER.readValue(in, new TypeReference<Map<String, Object>>() {});
+                r.params = detail.get("params");
+                r.iterations = detail.get("iterations");
+                r.allocations = detail.get("allocations");
+                r.flows = detail.get("flows");
+                r.validation = detail.get("validation");
+                r.objectives = detail.get("objectives");
+            }
+        }
+        return r;
+    }
+
+    // ========== HASHING & HELPERS ==========
+
+    /** Short content hash of a dataset file, so runs on the same data match even if it is renamed. */
+    public static String hashFile(Path file) throws IOException {
+        return sha256(Files.readAllBytes(file));
+    }
+
+    /** Short hash of a params object's canonical JSON (fields in declaration order, map keys sorted). */
+    public static String hashParams(Object params) {
+        try {
+            return sha256(MAPPER.writeValueAsBytes(params));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static int crc32(byte[] bytes, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, offset, length);
+        return (int) crc.getValue();
+    }
+
+    private Path segmentPath(int id) {
+        return dir.resolve(String.format("%08d%s", id, SUFFIX));
+    }
+
+    private long totalBytes() throws IOException {
+        long total = 0;
+        for (int id : segmentIds()) total += Files.size(segmentPath(id));
+        return total;
+    }
+
+    /** Waits for queued writes and closes the active segment. */
+    @Override
+    public void close() throws IOException {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        active.close();
+    }
+}
@@ -0,0 +1,251 @@
+package cs43.group4.sweep;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cs43.group4.core.AllocationProblem;
+import cs43.group4.utils.Log;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Successive-halving auto-tuner for FA/EFA hyperparameters.
+ * <p>
+ * Every configuration starts on a short budget ({@code minGenerations}) with a few replications,
+ * like a small {@code runMultiple}. After each rung the best 1/eta configurations survive, and any
+ * survivor whose 95% confidence interval lies entirely below the leader's is dropped as
+ * statistically dominated. The budget then grows by eta until {@code maxGenerations}. The winner
+ * is finally re-run {@code finalReplications} times at the full budget, and its mean fitness is
+ * reported with a 95% confidence interval.
+ * </p>
+ * Replication r of every configuration uses seed {@code seed + r} (common random numbers), so
+ * configurations within a rung are compared on the same random streams.
+ */
+public class SuccessiveHalvingTuner {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final long FINAL_SEED_OFFSET = 1_000_000L; // final runs use fresh streams
+
+    private final TuneSpec spec;
+    private final AllocationProblem problem;
+    private final List<SweepPoint> configurations;
+    private final List<Map<String, Object>> rungs = new ArrayList<>();
+    private final AtomicLong evaluations = new AtomicLong();
+
+    private volatile boolean running = false;
+    private volatile boolean stopped = false;
+    private volatile int currentRung = 0;
+    private volatile long startTime;
+    private volatile long endTime;
+    private volatile Map<String, Object> result = null;
+    private volatile String error = null;
+
+    public SuccessiveHalvingTuner(TuneSpec spec) throws IOException {
+        this(spec, AllocationProblem.load(Path.of(spec.dataset)));
+    }
+
+    public SuccessiveHalvingTuner(TuneSpec spec, AllocationProblem problem) {
+        spec.validate();
+        this.spec = spec;
+        this.problem = problem;
+        this.configurations = SweepEngine.expandPoints(spec);
+    }
+
+    // ========== EXECUTION ==========
+
+    /** Runs the whole tuning procedure on the calling thread (runs fan out to a work-stealing pool). */
+    public void run() {
+        running = true;
+        startTime = System.currentTimeMillis();
+        int threads = spec.threads > 0 ? spec.threads : Runtime.getRuntime().availableProcessors();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            Log.info(
+                    "Tuning %d %s configurations (eta=%d, %d..%d generations)",
+                    configurations.size(), spec.algorithm, spec.eta, spec.minGenerations, spec.maxGenerations);
+
+            List<SweepPoint> alive = new ArrayList<>(configurations);
+            int generations = spec.minGenerations;
+            while (!stopped) {
+                currentRung = rungs.size();
+                List<SweepPoint> scored = evaluate(pool, alive, generations, spec.replications, 0L);
+                List<SweepPoint> survivors = select(scored);
+                recordRung(generations, scored, survivors);
+
+                alive = survivors;
+                boolean budgetLeft = !budgetExhausted();
+                if (alive.size() <= 1 || generations >= spec.maxGenerations || !budgetLeft) break;
+                generations = (int) Math.min(spec.maxGenerations, (long) generations * spec.eta);
+            }
+
+            if (alive.isEmpty()) {
+                error = "Every configuration failed";
+                return;
+            }
+
+            // Final stage: survivors at the full budget with fresh seeds; report the best with its CI
+            int finalReps = Math.max(1, spec.finalReplications);
+            List<SweepPoint> finals =
+                    stopped ? alive : evaluate(pool, alive, spec.maxGenerations, finalReps, FINAL_SEED_OFFSET);
+            finals = new ArrayList<>(finals);
+            finals.removeIf(p -> p.completed() == 0);
+            if (finals.isEmpty()) {
+                error = "Final evaluation failed";
+                return;
+            }
+            finals.sort(byMeanDescending());
+            result = buildResult(finals.get(0));
+            Log.info("Tuning finished: best mean fitness %.6f", finals.get(0).meanOrNaN());
+        } catch (Exception e) {
+            error = e.getMessage();
+            Log.error("Tuning failed: %s", e.getMessage(), e);
+        } finally {
+            pool.shutdown();
+            endTime = System.currentTimeMillis();
+            running = false;
+        }
+    }
+
+    /** Remaining rungs are cut short; the current leader is reported. */
+    public void stop() {
+        stopped = true;
+    }
+
+    /** Runs each configuration {@code reps} times at the given budget; returns fresh per-rung stats. */
+    private List<SweepPoint> evaluate(
+            ForkJoinPool pool, List<SweepPoint> configs, int generations, int reps, long seedOffset) {
+        List<SweepPoint> scored = new ArrayList<>(configs.size());
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (SweepPoint config : configs) {
+            SweepPoint stats = new SweepPoint(config.getIndex(), config.getValues());
+            scored.add(stats);
+            for (int r = 0; r < reps; r++) {
+                long seed = (spec.seed != null ? spec.seed : 0L) + seedOffset + r;
+                boolean seeded = spec.seed != null;
+                tasks.add(pool.submit(() -> {
+                    if (stopped) return;
+                    try {
+                        long start = System.nanoTime();
+                        Random random = seeded ? new Random(seed) : new Random();
+                        double fitness = SweepEngine.runOnce(problem, spec, stats.getValues(), generations, random);
+                        stats.accept(fitness, (System.nanoTime() - start) / 1_000_000.0);
+                        evaluations.addAndGet(estimateEvaluations(stats.getValues(), generations));
+                    } catch (Exception e) {
+                        stats.fail(e.getMessage());
+                    }
+                }));
+            }
+        }
+        for (ForkJoinTask<?> t : tasks) t.join();
+        return scored;
+    }
+
+    /** Best 1/eta by mean, minus any configuration whose CI lies entirely below the leader's. */
+    private List<SweepPoint> select(List<SweepPoint> scored) {
+        List<SweepPoint> ranked = new ArrayList<>(scored);
+        ranked.removeIf(p -> p.completed() == 0);
+        ranked.sort(byMeanDescending());
+        if (ranked.isEmpty()) return ranked;
+
+        int keep = Math.max(1, (int) Math.ceil(ranked.size() / (double) spec.eta));
+        double leaderLower = ranked.get(0).confidenceInterval95()[0];
+        List<SweepPoint> survivors = new ArrayList<>();
+        for (int i = 0; i < keep; i++) {
+            SweepPoint p = ranked.get(i);
+            if (i == 0 || p.completed() < 2 || p.confidenceInterval95()[1] >= leaderLower) survivors.add(p);
+        }
+        return survivors;
+    }
+
+    private boolean budgetExhausted() {
+        if (spec.maxEvaluations > 0 && evaluations.get() >= spec.maxEvaluations) return true;
+        return spec.timeLimitMs > 0 && System.currentTimeMillis() - startTime >= spec.timeLimitMs;
+    }
+
+    // Initial population + one evaluation per firefly and generation + the best firefly's walk
+    private long estimateEvaluations(Map<String, Double> values, int generations) {
+        double n = values.containsKey("numFireflies")
+                ? values.get("numFireflies")
+                : spec.base != null && spec.base.has("numFireflies")
+                        ? spec.base.get("numFireflies").asInt()
+                        : 50;
+        return Math.round(n + (n + 1) * generations);
+    }
+
+    private static Comparator<SweepPoint> byMeanDescending() {
+        return Comparator.comparingDouble(SweepPoint::meanOrNaN).reversed();
+    }
+
+    // ========== RESULTS ==========
+
+    private synchronized void recordRung(int generations, List<SweepPoint> scored, List<SweepPoint> survivors) {
+        Map<String, Object> rung = new LinkedHashMap<>();
+        rung.put("rung", rungs.size());
+        rung.put("generations", generations);
+        rung.put("replications", spec.replications);
+        rung.put("configurations", scored.size());
+        rung.put("survivors", survivors.size());
+        List<Integer> ids = new ArrayList<>();
+        for (SweepPoint p : survivors) ids.add(p.getIndex());
+        rung.put("survivorPoints", ids);
+        rung.put("evaluationsSoFar", evaluations.get());
+        rungs.add(rung);
+        Log.info(
+                "Rung %d (%d generations): %d -> %d configurations",
+                rungs.size() - 1, generations, scored.size(), survivors.size());
+    }
+
+    private Map<String, Object> buildResult(SweepPoint best) throws IOException {
+        Map<String, Object> r = new LinkedHashMap<>();
+        Object params = SweepEngine.resolveParams(spec, best.getValues(), spec.maxGenerations);
+        r.put("point", best.getIndex());
+        r.put("values", best.getValues());
+        r.put("params", MAPPER.convertValue(params, Map.class));
+        r.put("runs", best.completed());
+        r.put("meanFitness", best.meanOrNaN());
+        r.put("stdFitness", best.std());
+        double[] ci = best.confidenceInterval95();
+        r.put("ci95", List.of(ci[0], ci[1]));
+
+        // Cost relative to running every configuration finalReplications times at the full budget
+        long exhaustive = 0;
+        for (SweepPoint p : configurations) {
+            exhaustive += estimateEvaluations(p.getValues(), spec.maxGenerations) * Math.max(1, spec.finalReplications);
+        }
+        r.put("evaluations", evaluations.get());
+        r.put("exhaustiveEvaluations", exhaustive);
+        r.put("costFraction", exhaustive == 0 ? 0.0 : evaluations.get() / (double) exhaustive);
+        return r;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public synchronized Map<String, Object> getStatus() {
+        Map<String, Object> status = new HashMap<>();
+        status.put("running", running);
+        status.put("algorithm", spec.algorithm);
+        status.put("configurations", configurations.size());
+        status.put("currentRung", currentRung);
+        status.put("rungs", new ArrayList<>(rungs));
+        status.put("evaluations", evaluations.get());
+        status.put("stopped", stopped);
+        status.put("elapsedMs", (running ? System.currentTimeMillis() : endTime) - startTime);
+        if (error != null) status.put("error", error);
+        if (!running && result != null) status.put("completed", true);
+        return status;
+    }
+
+    /** Best configuration with its 95% CI, or null while tuning is in progress. */
+    public Map<String, Object> getResult() {
+        return result;
+    }
+}
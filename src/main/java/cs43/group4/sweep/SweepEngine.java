@@ -0,0 +1,251 @@
+package cs43.group4.sweep;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import cs43.group4.core.AllocationProblem;
+import cs43.group4.parameters.EFAParams;
+import cs43.group4.parameters.FAParams;
+import cs43.group4.utils.Log;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs a hyperparameter sweep: every (point, replication) pair is an independent optimizer run
+ * scheduled on a work-stealing {@link ForkJoinPool}, so short runs (small populations) and long
+ * runs balance across cores. The dataset is loaded once and the {@link AllocationProblem} (bounds
+ * and objective) is shared by all runs.
+ */
+public class SweepEngine {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final SweepSpec spec;
+    private final AllocationProblem problem;
+    private final List<SweepPoint> points;
+    private final int totalTasks;
+    private final AtomicInteger completedTasks = new AtomicInteger();
+
+    private ForkJoinPool pool;
+    private volatile boolean running = false;
+    private volatile boolean stopped = false;
+    private volatile long startTime;
+    private volatile long endTime;
+
+    public SweepEngine(SweepSpec spec) throws IOException {
+        this(spec, AllocationProblem.load(Path.of(spec.dataset)));
+    }
+
+    public SweepEngine(SweepSpec spec, AllocationProblem problem) {
+        spec.validate();
+        this.spec = spec;
+        this.problem = problem;
+        this.points = expandPoints(spec);
+        this.totalTasks = points.size() * spec.replications;
+    }
+
+    // ========== EXECUTION ==========
+
+    /** Schedules every run and returns immediately. */
+    public synchronized void start() {
+        if (running) throw new IllegalStateException("Sweep already running");
+        int threads = spec.threads > 0 ? spec.threads : Runtime.getRuntime().availableProcessors();
+        pool = new ForkJoinPool(threads);
+        running = true;
+        startTime = System.currentTimeMillis();
+        Log.info(
+                "Sweep started: %d points x %d replications = %d runs on %d threads",
+                points.size(), spec.replications, totalTasks, threads);
+
+        // Replication-major order so every point gets early results while the sweep is running
+        for (int rep = 0; rep < spec.replications; rep++) {
+            for (SweepPoint point : points) {
+                int r = rep;
+                pool.execute(() -> runOne(point, r));
+            }
+        }
+    }
+
+    /** Blocks until the sweep finishes (used by the CLI-style callers). */
+    public void await() throws InterruptedException {
+        ForkJoinPool p = pool;
+        if (p == null) return;
+        p.shutdown();
+        p.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+    }
+
+    /** Runs not yet started are skipped; runs in progress finish. */
+    public void stop() {
+        stopped = true;
+    }
+
+    private void runOne(SweepPoint point, int replication) {
+        try {
+            if (stopped) return;
+            Random random = spec.seed != null ? new Random(spec.seed + replication) : new Random();
+            long start = System.nanoTime();
+            double fitness = runOnce(problem, spec, point.getValues(), null, random);
+            point.accept(fitness, (System.nanoTime() - start) / 1_000_000.0);
+        } catch (Exception e) {
+            point.fail(e.getMessage());
+        } finally {
+            if (completedTasks.incrementAndGet() == totalTasks) finish();
+        }
+    }
+
+    private void finish() {
+        endTime = System.currentTimeMillis();
+        running = false;
+        pool.shutdown();
+        Log.info("Sweep finished in %d ms", endTime - startTime);
+    }
+
+    /**
+     * One optimizer run of a parameter combination; returns the best fitness (maximization).
+     *
+     * @param generations overrides the generation budget when non-null (used by the tuner)
+     */
+    static double runOnce(
+            AllocationProblem problem, SweepSpec spec, Map<String, Double> values, Integer generations, Random random)
+            throws IOException {
+        Object params = resolveParams(spec, values, generations);
+        if (params instanceof EFAParams efaParams) {
+            var efa = problem.withEncoding(efaParams.encoding)
+                    .withDistance(efaParams.distance)
+                    .newEFA(efaParams, random);
+            efa.optimize();
+            return -efa.getBestValue();
+        }
+        FAParams faParams = (FAParams) params;
+        var fa = problem.withEncoding(faParams.encoding)
+                .withDistance(faParams.distance)
+                .newFA(faParams, random);
+        fa.optimize();
+        return -fa.getBestValue();
+    }
+
+    /** Builds and validates the FAParams/EFAParams of a point: base params overlaid with its values. */
+    static Object resolveParams(SweepSpec spec, Map<String, Double> values, Integer generations) throws IOException {
+        ObjectNode node = spec.base != null ? spec.base.deepCopy() : MAPPER.createObjectNode();
+        for (Map.Entry<String, Double> e : values.entrySet()) {
+            if (SweepSpec.INTEGER_PARAMS.contains(e.getKey())) {
+                node.put(e.getKey(), (int) Math.round(e.getValue()));
+            } else {
+                node.put(e.getKey(), e.getValue());
+            }
+        }
+        if (generations != null) node.put("generations", generations);
+        if ("efa".equals(spec.algorithm)) {
+            EFAParams params = MAPPER.treeToValue(node, EFAParams.class);
+            params.validate();
+            return params;
+        }
+        FAParams params = MAPPER.treeToValue(node, FAParams.class);
+        params.validate();
+        return params;
+    }
+
+    // ========== POINT EXPANSION ==========
+
+    static List<SweepPoint> expandPoints(SweepSpec spec) {
+        List<Map<String, Double>> combos = new ArrayList<>();
+        if ("grid".equals(spec.mode)) {
+            combos.add(new LinkedHashMap<>());
+            for (Map.Entry<String, List<Double>> axis : spec.grid.entrySet()) {
+                List<Map<String, Double>> next = new ArrayList<>();
+                for (Map<String, Double> partial : combos) {
+                    for (Double v : axis.getValue()) {
+                        Map<String, Double> m = new LinkedHashMap<>(partial);
+                        m.put(axis.getKey(), v);
+                        next.add(m);
+                    }
+                }
+                combos = next;
+            }
+        } else {
+            Random rnd = new Random(spec.seed != null ? spec.seed : System.nanoTime());
+            for (int s = 0; s < spec.samples; s++) {
+                Map<String, Double> m = new LinkedHashMap<>();
+                for (Map.Entry<String, List<Double>> range : spec.ranges.entrySet()) {
+                    double lo = range.getValue().get(0), hi = range.getValue().get(1);
+                    double v = lo + rnd.nextDouble() * (hi - lo);
+                    if (SweepSpec.INTEGER_PARAMS.contains(range.getKey())) v = Math.round(v);
+                    m.put(range.getKey(), v);
+                }
+                combos.add(m);
+            }
+        }
+        List<SweepPoint> result = new ArrayList<>(combos.size());
+        for (int i = 0; i < combos.size(); i++) result.add(new SweepPoint(i, combos.get(i)));
+        return result;
+    }
+
+    // ========== STATUS & RESULTS ==========
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new HashMap<>();
+        status.put("running", running);
+        status.put("algorithm", spec.algorithm);
+        status.put("mode", spec.mode);
+        status.put("points", points.size());
+        status.put("replications", spec.replications);
+        status.put("completedRuns", completedTasks.get());
+        status.put("totalRuns", totalTasks);
+        status.put("progress", totalTasks == 0 ? 1.0 : completedTasks.get() / (double) totalTasks);
+        status.put("stopped", stopped);
+        long end = running ? System.currentTimeMillis() : endTime;
+        status.put("elapsedMs", end - startTime);
+        return status;
+    }
+
+    /** Aggregated table, best mean fitness first; points without results yet come last. */
+    public List<Map<String, Object>> getTable() {
+        List<SweepPoint> sorted = new ArrayList<>(points);
+        sorted.sort(Comparator.comparingDouble((SweepPoint p) -> {
+                    double m = p.meanOrNaN();
+                    return Double.isNaN(m) ? Double.NEGATIVE_INFINITY : m;
+                })
+                .reversed());
+        List<Map<String, Object>> rows = new ArrayList<>(sorted.size());
+        for (SweepPoint p : sorted) rows.add(p.toRow());
+        return rows;
+    }
+
+    /** Writes the aggregated table as CSV (one column per swept parameter). */
+    public void writeCsv(Writer out) throws IOException {
+        List<String> names = new ArrayList<>(("grid".equals(spec.mode) ? spec.grid : spec.ranges).keySet());
+        StringBuilder sb = new StringBuilder("point");
+        for (String n : names) sb.append(',').append(n);
+        sb.append(",runs,failedRuns,meanFitness,stdFitness,bestFitness,worstFitness,meanTimeMs\n");
+        for (Map<String, Object> row : getTable()) {
+            sb.append(row.get("point"));
+            @SuppressWarnings("unchecked")
+            Map<String, Double> values = (Map<String, Double>) row.get("params");
+            for (String n : names) sb.append(',').append(format(values.get(n)));
+            sb.append(',').append(row.get("runs"));
+            sb.append(',').append(row.get("failedRuns"));
+            for (String col : List.of("meanFitness", "stdFitness", "bestFitness", "worstFitness", "meanTimeMs")) {
+                sb.append(',').append(format(row.get(col)));
+            }
+            sb.append('\n');
+        }
+        out.write(sb.toString());
+    }
+
+    private static String format(Object v) {
+        return v == null ? "" : v.toString();
+    }
+}
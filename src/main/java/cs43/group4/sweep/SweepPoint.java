@@ -0,0 +1,99 @@
+package cs43.group4.sweep;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Aggregated results of one sweep point (one parameter combination) over its replications.
+ * Statistics are folded in as runs finish (Welford's algorithm), so the table can be read while
+ * the sweep is still running.
+ */
+public class SweepPoint {
+    private final int index;
+    private final Map<String, Double> values; // swept parameter values of this point
+
+    private int completed = 0;
+    private int failed = 0;
+    private double mean = 0.0;
+    private double m2 = 0.0;
+    private double best = Double.NEGATIVE_INFINITY;
+    private double worst = Double.POSITIVE_INFINITY;
+    private double timeSumMs = 0.0;
+    private String lastError = null;
+
+    SweepPoint(int index, Map<String, Double> values) {
+        this.index = index;
+        this.values = values;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public Map<String, Double> getValues() {
+        return values;
+    }
+
+    synchronized void accept(double fitness, double timeMs) {
+        completed++;
+        double delta = fitness - mean;
+        mean += delta / completed;
+        m2 += delta * (fitness - mean);
+        best = Math.max(best, fitness);
+        worst = Math.min(worst, fitness);
+        timeSumMs += timeMs;
+    }
+
+    synchronized void fail(String error) {
+        failed++;
+        lastError = error;
+    }
+
+    /** Snapshot of this point as one table row (fitness is maximization-style, higher is better). */
+    public synchronized Map<String, Object> toRow() {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("point", index);
+        row.put("params", values);
+        row.put("runs", completed);
+        row.put("failedRuns", failed);
+        if (completed > 0) {
+            row.put("meanFitness", mean);
+            row.put("stdFitness", std());
+            row.put("bestFitness", best);
+            row.put("worstFitness", worst);
+            row.put("meanTimeMs", timeSumMs / completed);
+        }
+        if (lastError != null) row.put("error", lastError);
+        return row;
+    }
+
+    synchronized double meanOrNaN() {
+        return completed > 0 ? mean : Double.NaN;
+    }
+
+    synchronized int completed() {
+        return completed;
+    }
+
+    synchronized double std() {
+        return completed > 1 ? Math.sqrt(m2 / (completed - 1)) : 0.0;
+    }
+
+    /** Two-sided 95% confidence interval of the mean fitness (Student t), or [mean, mean] for one run. */
+    synchronized double[] confidenceInterval95() {
+        if (completed == 0) return new double[] {Double.NaN, Double.NaN};
+        double half = completed > 1 ? tCritical975(completed - 1) * std() / Math.sqrt(completed) : 0.0;
+        return new double[] {mean - half, mean + half};
+    }
+
+    // Student t 0.975 quantiles for df = 1..30; normal approximation beyond
+    private static final double[] T975 = {
+        12.706, 4.303, 3.182, 2.776, 2.571, 2.447, 2.365, 2.306, 2.262, 2.228, 2.201, 2.179, 2.160, 2.145, 2.131,
+        2.120, 2.110, 2.101, 2.093, 2.086, 2.080, 2.074, 2.069, 2.064, 2.060, 2.056, 2.052, 2.048, 2.045, 2.042
+    };
+
+    static double tCritical975(int df) {
+        if (df < 1) return Double.NaN;
+        return df <= T975.length ? T975[df - 1] : 1.96;
+    }
+}
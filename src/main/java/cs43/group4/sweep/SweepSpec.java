@@ -0,0 +1,84 @@
+package cs43.group4.sweep;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hyperparameter sweep specification.
+ *
+ * <pre>
+ * { "algorithm": "fa", "mode": "grid",
+ *   "base": { "generations": 200, "numFireflies": 40 },
+ *   "grid": { "gamma": [0.5, 1, 2], "alpha0": [0.3, 0.6] },
+ *   "replications": 10, "seed": 42 }
+ *
+ * { "algorithm": "efa", "mode": "random", "samples": 40,
+ *   "ranges": { "beta0": [0.5, 2], "betaMin": [0.1, 0.5], "alphaFinal": [0.01, 0.2] },
+ *   "replications": 5 }
+ * </pre>
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class SweepSpec {
+    /** Parameters that may be swept (FAParams/EFAParams fields). */
+    public static final Set<String> SWEEPABLE =
+            Set.of("gamma", "beta0", "betaMin", "alpha0", "alphaFinal", "numFireflies", "generations");
+
+    static final Set<String> INTEGER_PARAMS = Set.of("numFireflies", "generations");
+
+    public String algorithm = "fa"; // "fa" or "efa"
+    public String dataset = "data/barangays.csv";
+    public String mode = "grid"; // "grid" or "random"
+    public ObjectNode base = null; // fixed parameters applied to every point
+    public Map<String, List<Double>> grid = new LinkedHashMap<>(); // grid mode: values per parameter
+    public Map<String, List<Double>> ranges = new LinkedHashMap<>(); // random mode: [min, max] per parameter
+    public int samples = 20; // random mode: number of points
+    public int replications = 5; // runs per point
+    public Long seed = null; // replication r of every point uses seed + r (common random numbers)
+    public int threads = 0; // 0 = all available cores
+
+    /**
+     * Validate the sweep specification (parameter values themselves are validated per point).
+     * @throws IllegalArgumentException if the specification is invalid
+     */
+    public void validate() {
+        if (!"fa".equals(algorithm) && !"efa".equals(algorithm)) {
+            throw new IllegalArgumentException("Invalid algorithm: " + algorithm + " (expected fa or efa)");
+        }
+        if (replications < 1) throw new IllegalArgumentException("Invalid replications: " + replications);
+        if (replications > 100) throw new IllegalArgumentException("replications too large: " + replications);
+        if (threads < 0) throw new IllegalArgumentException("Invalid threads: " + threads);
+
+        Map<String, List<Double>> axes;
+        if ("grid".equals(mode)) {
+            axes = grid;
+            if (grid == null || grid.isEmpty()) throw new IllegalArgumentException("grid mode needs a grid");
+            for (Map.Entry<String, List<Double>> e : grid.entrySet()) {
+                if (e.getValue() == null || e.getValue().isEmpty()) {
+                    throw new IllegalArgumentException("No values for grid parameter " + e.getKey());
+                }
+            }
+        } else if ("random".equals(mode)) {
+            axes = ranges;
+            if (ranges == null || ranges.isEmpty()) throw new IllegalArgumentException("random mode needs ranges");
+            if (samples < 1) throw new IllegalArgumentException("Invalid samples: " + samples);
+            for (Map.Entry<String, List<Double>> e : ranges.entrySet()) {
+                List<Double> r = e.getValue();
+                if (r == null || r.size() != 2 || r.get(0) > r.get(1)) {
+                    throw new IllegalArgumentException("Range of " + e.getKey() + " must be [min, max]");
+                }
+            }
+        } else {
+            throw new IllegalArgumentException("Invalid mode: " + mode + " (expected grid or random)");
+        }
+        for (String name : axes.keySet()) {
+            if (!SWEEPABLE.contains(name)) throw new IllegalArgumentException("Parameter cannot be swept: " + name);
+            if ("fa".equals(algorithm) && "betaMin".equals(name)) {
+                throw new IllegalArgumentException("betaMin only applies to efa");
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package cs43.group4.sweep;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * Auto-tuning specification: the search space is described exactly like a sweep (grid or random
+ * samples over the same parameters), but configurations are raced with successive halving instead
+ * of all being run to the full budget. {@code generations} is the budget axis and cannot be swept.
+ *
+ * <pre>
+ * { "algorithm": "efa", "mode": "random", "samples": 81,
+ *   "ranges": { "beta0": [0.5, 2], "betaMin": [0.1, 0.5], "alpha0": [0.2, 0.8] },
+ *   "minGenerations": 20, "maxGenerations": 300, "eta": 3,
+ *   "replications": 3, "finalReplications": 30, "seed": 42 }
+ * </pre>
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class TuneSpec extends SweepSpec {
+    public int minGenerations = 20; // budget of the first rung
+    public int maxGenerations = 300; // full budget (last rung and final evaluation)
+    public int eta = 3; // keep the best 1/eta per rung; budget grows by eta
+    public int finalReplications = 30; // replications of the winner at the full budget
+    public long maxEvaluations = 0; // overall objective-evaluation budget, 0 = unlimited
+    public long timeLimitMs = 0; // overall wall-clock budget, 0 = unlimited
+
+    /**
+     * Validate the tuning specification.
+     * @throws IllegalArgumentException if the specification is invalid
+     */
+    @Override
+    public void validate() {
+        super.validate();
+        if ((grid != null && grid.containsKey("generations"))
+                || (ranges != null && ranges.containsKey("generations"))) {
+            throw new IllegalArgumentException("generations is the tuning budget and cannot be swept");
+        }
+        if (minGenerations < 10) throw new IllegalArgumentException("Invalid minGenerations: " + minGenerations);
+        if (maxGenerations > 500) throw new IllegalArgumentException("maxGenerations too large: " + maxGenerations);
+        if (maxGenerations < minGenerations) {
+            throw new IllegalArgumentException("maxGenerations cannot be less than minGenerations");
+        }
+        if (eta < 2) throw new IllegalArgumentException("Invalid eta: " + eta);
+        if (finalReplications < 0)
+            throw new IllegalArgumentException("Invalid finalReplications: " + finalReplications);
+        if (finalReplications > 100) {
+            throw new IllegalArgumentException("finalReplications too large: " + finalReplications);
+        }
+        if (maxEvaluations < 0) throw new IllegalArgumentException("Invalid maxEvaluations: " + maxEvaluations);
+        if (timeLimitMs < 0) throw new IllegalArgumentException("Invalid timeLimitMs: " + timeLimitMs);
+    }
+}
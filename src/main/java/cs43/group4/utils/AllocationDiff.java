@@ -0,0 +1,57 @@
+package cs43.group4.utils;
+
+import cs43.group4.core.DataLoader.Data;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/** One barangay whose allocation changed between two results. */
+public class AllocationDiff {
+    public String id;
+    public String name;
+    public Map<String, Long> before; // class_name -> amount
+    public Map<String, Long> after;
+    public Map<String, Long> change; // after - before
+    public long totalChange;
+
+    public AllocationDiff(String id, String name) {
+        this.id = id;
+        this.name = name;
+        this.before = new LinkedHashMap<>();
+        this.after = new LinkedHashMap<>();
+        this.change = new LinkedHashMap<>();
+    }
+
+    /** Rows of before/after (both [Z][C] over the same barangays) that differ, in barangay order. */
+    public static List<AllocationDiff> between(double[][] before, double[][] after, Data data) {
+        List<AllocationDiff> diffs = new ArrayList<>();
+        for (int i = 0; i < data.Z; i++) {
+            AllocationDiff diff = null;
+            for (int c = 0; c < data.C; c++) {
+                if (Math.rint(before[i][c]) != Math.rint(after[i][c])) {
+                    diff = new AllocationDiff(data.barangayIds[i], data.barangayNames[i]);
+                    break;
+                }
+            }
+            if (diff == null) continue;
+            for (int c = 0; c < data.C; c++) {
+                long b = (long) Math.rint(before[i][c]);
+                long a = (long) Math.rint(after[i][c]);
+                diff.before.put(data.classNames[c], b);
+                diff.after.put(data.classNames[c], a);
+                diff.change.put(data.classNames[c], a - b);
+                diff.totalChange += a - b;
+            }
+            diffs.add(diff);
+        }
+        return diffs;
+    }
+
+    /** Personnel that change barangay between the two allocations (half the total absolute change). */
+    public static long moved(List<AllocationDiff> diffs) {
+        long sum = 0;
+        for (AllocationDiff d : diffs) for (long v : d.change.values()) sum += Math.abs(v);
+        return sum / 2;
+    }
+}
@@ -1,11 +1,20 @@
 package cs43.group4.utils;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class IterationResult {
     public int iteration;
     public double fitness;
+    public Double cacheHitRate; // share of this generation's evaluations served by the memo (memoize only)
 
     public IterationResult(int iteration, double fitness) {
         this.iteration = iteration;
         this.fitness = fitness;
     }
+
+    public IterationResult(int iteration, double fitness, Double cacheHitRate) {
+        this(iteration, fitness);
+        this.cacheHitRate = cacheHitRate;
+    }
 }